@@ -0,0 +1,222 @@
+package tech.challenge.accrual;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import tech.challenge.consumer.service.AccountDirectory;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-of-day interest and fee run over every account.
+ * The accounts' partitions are split across a fork/join pool; each task computes the accruals of one partition
+ * in whole pence from each account's balance at the end of the business day, in UTC, and then posts them
+ * through the {@link BankAccountService} in chunks, so accruals are validated, journaled and audited like any
+ * other posting. Postings made after midnight, including the run's own, do not change what is accrued.
+ *
+ * <p>The {@link AccrualProgress} records each partition once it is posted and each date once it is complete, so
+ * a date is accrued only once, and a run interrupted part way resumes where it stopped. Posting ids are derived
+ * from the business date, so the duplicate detector also skips any posting of the partition interrupted.
+ *
+ * <p>The run is limited to a share of the machine's cores: the pool gets that many workers, and when the share
+ * is less than a whole worker, each worker pauses after every chunk for long enough to keep to it, leaving the
+ * rest of the CPU to live traffic.
+ */
+@Slf4j
+public class AccrualEngine {
+
+    private final AccountDirectory accounts;
+    private final BankAccountService bankAccountService;
+    private final AccrualPolicy policy;
+    private final AccrualProgress progress;
+    private final int parallelism;
+    private final double dutyCycle;
+    private final int chunkSize;
+
+    /**
+     * Constructor for AccrualEngine.
+     *
+     * @param accounts the accounts to accrue
+     * @param bankAccountService the service balances are read from and accruals are posted through
+     * @param policy the interest and fee rules
+     * @param progressFile the file recording the dates and partitions accrued, or null to keep them in memory
+     * @param cpuShare share of the available cores the run may use, between 0 and 1
+     * @param chunkSize number of postings between pauses
+     */
+    public AccrualEngine(AccountDirectory accounts, BankAccountService bankAccountService, AccrualPolicy policy,
+                         Path progressFile, double cpuShare, int chunkSize) {
+        if (cpuShare <= 0 || cpuShare > 1) {
+            throw new IllegalArgumentException("CPU share must be in (0, 1]: " + cpuShare);
+        }
+        this.accounts = accounts;
+        this.bankAccountService = bankAccountService;
+        this.policy = policy;
+        this.progress = new AccrualProgress(progressFile);
+        double cores = Runtime.getRuntime().availableProcessors() * cpuShare;
+        this.parallelism = Math.max(1, (int) cores);
+        this.dutyCycle = Math.min(1.0, cores / parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Accrues the day that has just ended, together with any earlier days missed since the last completed run.
+     */
+    @Scheduled(cron = "${accrual.cron:0 5 0 * * *}", zone = "UTC")
+    public void runEndOfDay() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate from = progress.lastCompleted().map(date -> date.plusDays(1)).orElse(yesterday);
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            run(date);
+        }
+    }
+
+    /**
+     * Accrues interest and fees for a business date over every account, unless the date has already been
+     * accrued.
+     *
+     * @param businessDate the date accrued, which makes up the posting ids
+     * @return a summary of the run, empty if the date had already been accrued
+     */
+    public AccrualResult run(LocalDate businessDate) {
+        if (progress.isCompleted(businessDate)) {
+            log.info("Skipping accrual of {}: already accrued up to {}", businessDate,
+                    progress.lastCompleted().orElseThrow());
+            return new AccrualResult(businessDate, 0, 0, 0, 0, 0, 0);
+        }
+        long started = System.nanoTime();
+        Totals totals = new Totals();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new AccruePartitions(businessDate, 0, accounts.partitionCount(), totals));
+        } finally {
+            pool.shutdown();
+        }
+        progress.completed(businessDate);
+        AccrualResult result = new AccrualResult(businessDate, totals.accounts.sum(), totals.postings.sum(),
+                totals.interestInPence.sum(), totals.feesInPence.sum(), totals.rejected.sum(),
+                (System.nanoTime() - started) / 1_000_000);
+        log.info("Accrued {} over {} accounts: {} postings, {} pence interest, {} pence fees, {} rejected in {} ms"
+                        + " with {} workers", businessDate, result.accounts(), result.postings(),
+                result.interestInPence(), result.feesInPence(), result.rejected(), result.elapsedMillis(), parallelism);
+        return result;
+    }
+
+    /**
+     * Computes one partition's accruals from the balances at the end of the business day.
+     */
+    private List<Transaction> compute(LocalDate businessDate, int partition, Totals totals) {
+        List<String> accountIds = new ArrayList<>();
+        accounts.forEachAccountId(partition, accountIds::add);
+        Instant endOfDay = businessDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1);
+        List<Transaction> postings = new ArrayList<>();
+        for (String accountId : accountIds) {
+            long ledger = Math.round(bankAccountService.retrieveBalanceAsOf(accountId, endOfDay) * 100);
+            long interest = policy.interestInPence(ledger);
+            long fee = policy.feeInPence(ledger);
+            if (interest != 0) {
+                postings.add(posting("accrual-interest:" + businessDate + ":" + accountId, accountId, interest));
+            }
+            if (fee != 0) {
+                postings.add(posting("accrual-fee:" + businessDate + ":" + accountId, accountId, fee));
+            }
+            totals.accounts.increment();
+        }
+        return postings;
+    }
+
+    private void apply(List<Transaction> postings, Totals totals) {
+        for (int from = 0; from < postings.size(); from += chunkSize) {
+            long chunkStarted = System.nanoTime();
+            int to = Math.min(postings.size(), from + chunkSize);
+            for (Transaction posting : postings.subList(from, to)) {
+                if (bankAccountService.submitTransaction(posting) != RejectionCode.ACCEPTED) {
+                    totals.rejected.increment();
+                    continue;
+                }
+                long amountInPence = Math.round(posting.getAmount() * 100);
+                if (posting.getId().startsWith("accrual-fee:")) {
+                    totals.feesInPence.add(-amountInPence);
+                } else {
+                    totals.interestInPence.add(amountInPence);
+                }
+                totals.postings.increment();
+            }
+            pause(System.nanoTime() - chunkStarted);
+        }
+    }
+
+    /**
+     * Sleeps long enough after a chunk that the worker stays busy only for its share of the time.
+     */
+    private void pause(long busyNanos) {
+        if (dutyCycle >= 1.0) {
+            return;
+        }
+        long idleNanos = (long) (busyNanos * (1 - dutyCycle) / dutyCycle);
+        try {
+            TimeUnit.NANOSECONDS.sleep(idleNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Transaction posting(String id, String accountId, long amountInPence) {
+        return Transaction.builder()
+                .id(id)
+                .accountId(accountId)
+                .amount(amountInPence / 100.0)
+                .build();
+    }
+
+    private static final class Totals {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder postings = new LongAdder();
+        private final LongAdder interestInPence = new LongAdder();
+        private final LongAdder feesInPence = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    /**
+     * Splits a range of partitions in half until each task holds a single partition.
+     */
+    private final class AccruePartitions extends RecursiveAction {
+
+        private final LocalDate date;
+        private final int from;
+        private final int to;
+        private final Totals totals;
+
+        AccruePartitions(LocalDate date, int from, int to, Totals totals) {
+            this.date = date;
+            this.from = from;
+            this.to = to;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new AccruePartitions(date, from, middle, totals),
+                        new AccruePartitions(date, middle, to, totals));
+                return;
+            }
+            if (progress.isPartitionDone(date, from)) {
+                return;
+            }
+            apply(AccrualEngine.this.compute(date, from, totals), totals);
+            progress.partitionDone(date, from);
+        }
+    }
+}
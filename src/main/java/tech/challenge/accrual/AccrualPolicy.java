@@ -0,0 +1,69 @@
+package tech.challenge.accrual;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Daily interest and fee rules, computed in whole pence with banker's rounding.
+ * Rates are held as billionths per day so that every accrual is a single integer multiplication and division;
+ * only balances too large for that to fit in a long fall back to BigDecimal.
+ *
+ * @param interestPerBillion daily interest paid on credit balances, in billionths of the balance
+ * @param overdraftPerBillion daily interest charged on overdrawn balances, in billionths of the balance
+ * @param overdrawnFeeInPence flat daily fee charged on overdrawn accounts
+ */
+public record AccrualPolicy(long interestPerBillion, long overdraftPerBillion, long overdrawnFeeInPence) {
+
+    private static final long BILLION = 1_000_000_000L;
+    private static final int DAYS_PER_YEAR = 365;
+
+    /**
+     * Creates a policy from annual rates.
+     *
+     * @param annualInterestRate yearly interest on credit balances, e.g. 0.02 for 2%
+     * @param annualOverdraftRate yearly interest on overdrawn balances
+     * @param overdrawnFee daily fee on overdrawn accounts, in pounds
+     */
+    public static AccrualPolicy ofAnnualRates(double annualInterestRate, double annualOverdraftRate,
+                                              double overdrawnFee) {
+        return new AccrualPolicy(Math.round(annualInterestRate * BILLION / DAYS_PER_YEAR),
+                Math.round(annualOverdraftRate * BILLION / DAYS_PER_YEAR), Math.round(overdrawnFee * 100));
+    }
+
+    /**
+     * @param ledgerInPence the account's ledger balance
+     * @return the interest to post, positive for credit balances, negative for overdrawn ones, 0 if none
+     */
+    public long interestInPence(long ledgerInPence) {
+        return ledgerInPence >= 0
+                ? applyRate(ledgerInPence, interestPerBillion)
+                : applyRate(ledgerInPence, overdraftPerBillion);
+    }
+
+    /**
+     * @param ledgerInPence the account's ledger balance
+     * @return the fee to post as a negative amount, 0 if none is due
+     */
+    public long feeInPence(long ledgerInPence) {
+        return ledgerInPence < 0 ? -overdrawnFeeInPence : 0;
+    }
+
+    /**
+     * Multiplies an amount by a rate in billionths, rounding half to even.
+     */
+    static long applyRate(long amountInPence, long ratePerBillion) {
+        long product;
+        try {
+            product = Math.multiplyExact(amountInPence, ratePerBillion);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(amountInPence).multiply(BigDecimal.valueOf(ratePerBillion))
+                    .divide(BigDecimal.valueOf(BILLION), 0, RoundingMode.HALF_EVEN).longValueExact();
+        }
+        long quotient = Math.floorDiv(product, BILLION);
+        long remainder = product - quotient * BILLION;
+        if (2 * remainder > BILLION || (2 * remainder == BILLION && (quotient & 1) != 0)) {
+            quotient++;
+        }
+        return quotient;
+    }
+}
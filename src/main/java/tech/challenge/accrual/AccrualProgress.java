@@ -0,0 +1,145 @@
+package tech.challenge.accrual;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.util.DurableFiles;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Durable record of how far the accrual runs have got: the last business date accrued over every account, and
+ * for a date still in progress, the partitions already accrued. A date is never accrued twice, and a run
+ * interrupted part way resumes with the partitions it had not finished, so posting twice does not depend on
+ * the duplicate detector still remembering the ids. Without a file the progress is kept in memory only.
+ *
+ * <p>The file is rewritten after every partition, to a temporary name that is forced to disk and moved into
+ * place, so a crash never leaves it half-written.
+ */
+@Slf4j
+class AccrualProgress {
+
+    private static final String COMPLETED = "completed";
+    private static final String IN_PROGRESS = "in-progress";
+    private static final String PARTITIONS = "partitions";
+
+    private final Path file;
+    private LocalDate completed;
+    private LocalDate inProgress;
+    private final BitSet partitionsDone = new BitSet();
+
+    /**
+     * Constructor for AccrualProgress, loading the progress recorded in the file if it exists.
+     *
+     * @param file the file the progress is kept in, or null to keep it in memory only
+     */
+    AccrualProgress(Path file) {
+        this.file = file;
+        if (file != null && Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * @return the last business date accrued over every account, if any
+     */
+    synchronized Optional<LocalDate> lastCompleted() {
+        return Optional.ofNullable(completed);
+    }
+
+    /**
+     * @return whether the date, or a later one, has already been accrued over every account
+     */
+    synchronized boolean isCompleted(LocalDate businessDate) {
+        return completed != null && !businessDate.isAfter(completed);
+    }
+
+    /**
+     * @return whether a partition has already been accrued for the date
+     */
+    synchronized boolean isPartitionDone(LocalDate businessDate, int partition) {
+        return businessDate.equals(inProgress) && partitionsDone.get(partition);
+    }
+
+    /**
+     * Records that a partition has been accrued for a date, forgetting the partitions of any other date.
+     */
+    synchronized void partitionDone(LocalDate businessDate, int partition) {
+        if (!businessDate.equals(inProgress)) {
+            inProgress = businessDate;
+            partitionsDone.clear();
+        }
+        partitionsDone.set(partition);
+        save();
+    }
+
+    /**
+     * Records that a date has been accrued over every account.
+     */
+    synchronized void completed(LocalDate businessDate) {
+        completed = businessDate;
+        inProgress = null;
+        partitionsDone.clear();
+        save();
+    }
+
+    private void load() {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read accrual progress from " + file, e);
+        }
+        String completedDate = properties.getProperty(COMPLETED);
+        completed = completedDate == null ? null : LocalDate.parse(completedDate);
+        String inProgressDate = properties.getProperty(IN_PROGRESS);
+        if (inProgressDate != null) {
+            inProgress = LocalDate.parse(inProgressDate);
+            String partitions = properties.getProperty(PARTITIONS, "");
+            Arrays.stream(partitions.split(","))
+                    .filter(partition -> !partition.isBlank())
+                    .mapToInt(partition -> Integer.parseInt(partition.trim()))
+                    .forEach(partitionsDone::set);
+        }
+        log.info("Loaded accrual progress: completed {}, {} partitions of {} done", completed,
+                partitionsDone.cardinality(), inProgress);
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        if (completed != null) {
+            properties.setProperty(COMPLETED, completed.toString());
+        }
+        if (inProgress != null) {
+            properties.setProperty(IN_PROGRESS, inProgress.toString());
+            properties.setProperty(PARTITIONS, partitionsDone.stream()
+                    .mapToObj(Integer::toString)
+                    .collect(Collectors.joining(",")));
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = parent.resolve(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            DurableFiles.commit(temporary, file);
+        } catch (IOException e) {
+            // Carrying on without a record of the progress could post the same accruals twice after a restart
+            throw new UncheckedIOException("Failed to save accrual progress to " + file, e);
+        }
+    }
+}
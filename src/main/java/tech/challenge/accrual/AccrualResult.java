@@ -0,0 +1,18 @@
+package tech.challenge.accrual;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of an accrual run.
+ *
+ * @param businessDate the date accrued
+ * @param accounts number of accounts visited
+ * @param postings number of interest and fee postings applied
+ * @param interestInPence net interest posted, paid less charged
+ * @param feesInPence total fees charged
+ * @param rejected number of postings rejected, such as those already applied by an earlier run for the date
+ * @param elapsedMillis wall-clock duration of the run
+ */
+public record AccrualResult(LocalDate businessDate, long accounts, long postings, long interestInPence,
+                            long feesInPence, long rejected, long elapsedMillis) {
+}
@@ -0,0 +1,11 @@
+package tech.challenge.activity;
+
+/**
+ * An account's estimated activity in a window.
+ *
+ * @param accountId the account
+ * @param estimate the estimated number of postings, or value posted in pence, never below the true figure
+ * @param maxError the most by which the estimate may exceed the true figure
+ */
+public record AccountActivity(String accountId, long estimate, long maxError) {
+}
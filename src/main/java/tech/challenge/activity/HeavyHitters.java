@@ -0,0 +1,215 @@
+package tech.challenge.activity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.Hashing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the accounts driving the most postings, and the most value, over a recent window in fixed memory.
+ * Postings are spread over a fixed number of stripes, each with its own Space-Saving summaries and written by
+ * one thread at a time: a posting thread claims the stripe picked by a hash of its id and, if another thread
+ * holds it, moves on to the next free one rather than waiting, so posting threads never block each other
+ * however many of them there are. Queries claim each stripe in turn while merging its summaries. The window is divided into slots, each with its own pair of
+ * summaries, and a slot is reset when time comes back round to it. Memory is bounded by
+ * stripes × slots × capacity counters, whatever the number of accounts or threads.
+ * Enabled unless `activity.enabled` is false.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.enabled", havingValue = "true", matchIfMissing = true)
+public class HeavyHitters implements PostingListener {
+
+    private final int slots;
+    private final long slotMillis;
+    private final int capacity;
+    private final Shard[] shards;
+    private final LongAdder latePostings = new LongAdder();
+
+    /**
+     * Constructor for HeavyHitters.
+     *
+     * @param window length of the window reported on
+     * @param slots number of slots the window is divided into
+     * @param capacity number of accounts tracked per slot and stripe; the top-K reported cannot exceed it
+     * @param stripes number of stripes postings are spread over, rounded up to a power of two; 0 for twice the
+     *                number of cores
+     */
+    public HeavyHitters(@Value("${activity.window:1m}") Duration window,
+                        @Value("${activity.slots:6}") int slots,
+                        @Value("${activity.capacity:1000}") int capacity,
+                        @Value("${activity.stripes:0}") int stripes) {
+        this.slots = slots;
+        this.slotMillis = Math.max(1, window.toMillis() / slots);
+        this.capacity = capacity;
+        int count = stripes > 0 ? stripes : 2 * Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(slots, capacity);
+        }
+    }
+
+    @Override
+    public void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        long slot = Math.floorDiv(transaction.getTimestamp(), slotMillis);
+        Shard shard = claimFree((int) (Hashing.mix64(Thread.currentThread().getId()) & (shards.length - 1)));
+        try {
+            int index = (int) Math.floorMod(slot, (long) slots);
+            if (shard.slotIds[index] != slot) {
+                if (shard.slotIds[index] > slot) {
+                    // The slot has already moved on to a newer window
+                    latePostings.increment();
+                    return;
+                }
+                shard.slotIds[index] = slot;
+                shard.counts[index].clear();
+                shard.values[index].clear();
+            }
+            shard.counts[index].add(accountId, 1);
+            shard.values[index].add(accountId, Math.abs(amountInPence));
+        } finally {
+            shard.release();
+        }
+    }
+
+    /**
+     * Reports the busiest accounts in the window ending at a point in time.
+     *
+     * @param k number of accounts to report by count and by value, at most the capacity
+     * @param now end of the window in epoch milliseconds
+     * @return the top accounts by count and by value
+     */
+    public TopAccounts top(int k, long now) {
+        long lastSlot = Math.floorDiv(now, slotMillis);
+        List<SpaceSavingSummary> counts = new ArrayList<>();
+        List<SpaceSavingSummary> values = new ArrayList<>();
+        Map<String, long[]> byCount = new HashMap<>();
+        Map<String, long[]> byValue = new HashMap<>();
+        long countFloor = 0;
+        long valueFloor = 0;
+        for (Shard shard : shards) {
+            while (!shard.tryClaim()) {
+                Thread.yield();
+            }
+            try {
+                for (int i = 0; i < slots; i++) {
+                    long slot = shard.slotIds[i];
+                    if (slot > lastSlot - slots && slot <= lastSlot) {
+                        countFloor += merge(shard.counts[i], byCount);
+                        valueFloor += merge(shard.values[i], byValue);
+                    }
+                }
+            } finally {
+                shard.release();
+            }
+        }
+        return new TopAccounts((lastSlot - slots + 1) * slotMillis, (lastSlot + 1) * slotMillis,
+                top(byCount, countFloor, k), top(byValue, valueFloor, k));
+    }
+
+    /**
+     * @return the number of accounts tracked per slot and stripe, and so the most that can be reported
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of stripes postings are spread over
+     */
+    public int getStripeCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return the number of postings too old for the window, which are left out of the summaries
+     */
+    public long getLatePostingCount() {
+        return latePostings.sum();
+    }
+
+    /**
+     * Claims the first free stripe from a starting one on, going round again until one is free. A stripe is only
+     * held for a single update or a query's merge of it, so with more stripes than posting threads running at
+     * once one is nearly always free at the first or second try.
+     */
+    private Shard claimFree(int start) {
+        int mask = shards.length - 1;
+        for (int i = start; ; i = (i + 1) & mask) {
+            Shard shard = shards[i];
+            if (shard.tryClaim()) {
+                return shard;
+            }
+            if (((i + 1) & mask) == start) {
+                // Every stripe is held, possibly by threads that were descheduled holding them; let them run
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Adds a summary's counters to the merged totals. A key missing from the summary may still have had up to
+     * its smallest weight there, so each counter is added relative to that floor and the floor itself is
+     * returned, to be added to every key.
+     */
+    private static long merge(SpaceSavingSummary summary, Map<String, long[]> merged) {
+        long floor = summary.minWeight();
+        summary.forEach(counter -> {
+            long[] totals = merged.computeIfAbsent(counter.key(), key -> new long[2]);
+            totals[0] += counter.weight() - floor;
+            totals[1] += counter.error() - floor;
+        });
+        return floor;
+    }
+
+    private static List<AccountActivity> top(Map<String, long[]> merged, long floor, int k) {
+        return merged.entrySet().stream()
+                .map(entry -> new AccountActivity(entry.getKey(), entry.getValue()[0] + floor,
+                        entry.getValue()[1] + floor))
+                .sorted(Comparator.comparingLong(AccountActivity::estimate).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    private static final class Shard {
+        private static final AtomicIntegerFieldUpdater<Shard> CLAIMED =
+                AtomicIntegerFieldUpdater.newUpdater(Shard.class, "claimed");
+
+        /**
+         * 1 while a thread holds the stripe; claiming and releasing it publishes the summaries to the next holder.
+         */
+        private volatile int claimed;
+        private final long[] slotIds;
+        private final SpaceSavingSummary[] counts;
+        private final SpaceSavingSummary[] values;
+
+        Shard(int slots, int capacity) {
+            slotIds = new long[slots];
+            counts = new SpaceSavingSummary[slots];
+            values = new SpaceSavingSummary[slots];
+            for (int i = 0; i < slots; i++) {
+                slotIds[i] = Long.MIN_VALUE;
+                counts[i] = new SpaceSavingSummary(capacity);
+                values[i] = new SpaceSavingSummary(capacity);
+            }
+        }
+
+        boolean tryClaim() {
+            return claimed == 0 && CLAIMED.compareAndSet(this, 0, 1);
+        }
+
+        void release() {
+            claimed = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package tech.challenge.activity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Space-Saving summary of the heaviest keys in a stream, holding at most a fixed number of counters.
+ * A key without a counter takes over the smallest one and inherits its weight as an error bound, so every key
+ * heavier than the total weight divided by the capacity is guaranteed to be held, and each held weight
+ * overestimates the key's true weight by at most its error. Counters sit in a min-heap, so an update costs
+ * O(log capacity). Not thread-safe.
+ */
+final class SpaceSavingSummary {
+
+    private final int capacity;
+    private final Counter[] heap;
+    private final Map<String, Counter> counters;
+    private int size;
+
+    /**
+     * Creates a summary.
+     *
+     * @param capacity the number of counters held
+     */
+    SpaceSavingSummary(int capacity) {
+        this.capacity = capacity;
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds weight to a key.
+     *
+     * @param key the key
+     * @param weight the weight to add, not negative
+     */
+    void add(String key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.weight += weight;
+            siftDown(counter.index);
+        } else if (size < capacity) {
+            counter = new Counter(key, weight, 0, size);
+            heap[size] = counter;
+            counters.put(key, counter);
+            siftUp(size++);
+        } else {
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.weight;
+            counter.weight += weight;
+            counters.put(key, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Passes every held counter to a consumer, in no particular order.
+     */
+    void forEach(Consumer<Counter> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(heap[i]);
+        }
+    }
+
+    /**
+     * Empties the summary, keeping its counters for reuse.
+     */
+    void clear() {
+        counters.clear();
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the most weight a key without a counter can have had, 0 while the summary is not yet full
+     */
+    long minWeight() {
+        return size < capacity ? 0 : heap[0].weight;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].weight <= counter.weight) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                child++;
+            }
+            if (counter.weight <= heap[child].weight) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * A key's estimated weight and the most by which it may overestimate the true weight.
+     */
+    static final class Counter {
+        private String key;
+        private long weight;
+        private long error;
+        private int index;
+
+        private Counter(String key, long weight, long error, int index) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+            this.index = index;
+        }
+
+        String key() {
+            return key;
+        }
+
+        long weight() {
+            return weight;
+        }
+
+        long error() {
+            return error;
+        }
+    }
+}
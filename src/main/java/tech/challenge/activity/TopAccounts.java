@@ -0,0 +1,15 @@
+package tech.challenge.activity;
+
+import java.util.List;
+
+/**
+ * The busiest accounts over a recent window.
+ *
+ * @param windowStart start of the window in epoch milliseconds, inclusive
+ * @param windowEnd end of the window in epoch milliseconds, exclusive
+ * @param byCount accounts with the most postings, busiest first
+ * @param byValue accounts with the most value posted in either direction, busiest first
+ */
+public record TopAccounts(long windowStart, long windowEnd, List<AccountActivity> byCount,
+                          List<AccountActivity> byValue) {
+}
@@ -0,0 +1,191 @@
+package tech.challenge.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of transaction ingest, so one upstream flooding the service cannot crowd out the
+ * others. Each client has its own token bucket of `admission.client-rate` per second, and every request also
+ * takes a token from a service-wide bucket of `admission.global-rate`, of which each priority class may only
+ * draw on its share. Both buckets are lock-free; deciding costs a map lookup and a compare-and-set on each.
+ *
+ * <p>A request over the limit is either kept waiting for its token, if its class waits and the token is due
+ * within `admission.max-queue-delay`, or turned away at once. Callers that must not hold a thread, such as
+ * request threads, use {@link #tryAdmit}, which never waits. Clients beyond `admission.max-clients` share one
+ * bucket, so the table of buckets stays bounded however many client names are seen.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true")
+public class AdmissionControl {
+
+    /**
+     * Returned by {@link #admit} when a request is turned away.
+     */
+    public static final long SHED = -1;
+
+    private static final String OVERFLOW_CLIENT = "";
+
+    private final double clientRate;
+    private final int clientBurst;
+    private final int maxClients;
+    private final long maxQueueDelayNanos;
+    private final TokenBucket global;
+    private final ConcurrentHashMap<String, TokenBucket> clients = new ConcurrentHashMap<>();
+    private final LongAdder[] admitted = counters();
+    private final LongAdder[] delayed = counters();
+    private final LongAdder[] shed = counters();
+
+    @Value("${admission.priority.high-clients:}")
+    private Set<String> highPriorityClients = Set.of();
+
+    @Value("${admission.priority.low-clients:}")
+    private Set<String> lowPriorityClients = Set.of();
+
+    /**
+     * Constructor for AdmissionControl.
+     *
+     * @param clientRate requests per second each client may make
+     * @param clientBurst requests a client may make at once after being idle
+     * @param globalRate requests per second the service admits across all clients
+     * @param globalBurst requests the service admits at once after being idle
+     * @param maxQueueDelay longest a request is kept waiting before being turned away
+     * @param maxClients clients given their own bucket
+     */
+    public AdmissionControl(@Value("${admission.client-rate:10000}") double clientRate,
+                            @Value("${admission.client-burst:1000}") int clientBurst,
+                            @Value("${admission.global-rate:200000}") double globalRate,
+                            @Value("${admission.global-burst:20000}") int globalBurst,
+                            @Value("${admission.max-queue-delay:20ms}") Duration maxQueueDelay,
+                            @Value("${admission.max-clients:100000}") int maxClients) {
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        this.maxClients = maxClients;
+        this.maxQueueDelayNanos = maxQueueDelay.toNanos();
+        this.global = new TokenBucket(globalRate, globalBurst, System.nanoTime());
+    }
+
+    /**
+     * Decides whether a client's request may proceed.
+     *
+     * @param clientId the client making the request
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return how long the request must wait before proceeding, or {@link #SHED} if it is turned away
+     */
+    public long admit(String clientId, long nowNanos) {
+        return admit(clientId, nowNanos, true);
+    }
+
+    /**
+     * Admits a client's request only if its tokens are available now, whatever its priority class.
+     *
+     * @param clientId the client making the request
+     * @return true if the request may proceed, false if it was turned away
+     */
+    public boolean tryAdmit(String clientId) {
+        return admit(clientId, System.nanoTime(), false) != SHED;
+    }
+
+    /**
+     * Admits a client's request, waiting for its token if need be.
+     *
+     * @param clientId the client making the request
+     * @return true if the request may proceed, false if it was turned away
+     */
+    public boolean admitAndWait(String clientId) {
+        long wait = admit(clientId, System.nanoTime());
+        if (wait == SHED) {
+            return false;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param clientId the client
+     * @return the priority class the client is configured in
+     */
+    public AdmissionPriority priorityOf(String clientId) {
+        if (highPriorityClients.contains(clientId)) {
+            return AdmissionPriority.HIGH;
+        }
+        return lowPriorityClients.contains(clientId) ? AdmissionPriority.LOW : AdmissionPriority.NORMAL;
+    }
+
+    /**
+     * @return admission outcomes so far, one entry per priority class
+     */
+    public List<AdmissionMetrics> metrics() {
+        List<AdmissionMetrics> metrics = new ArrayList<>();
+        for (AdmissionPriority priority : AdmissionPriority.values()) {
+            int i = priority.ordinal();
+            metrics.add(new AdmissionMetrics(priority, admitted[i].sum(), delayed[i].sum(), shed[i].sum()));
+        }
+        return metrics;
+    }
+
+    void setHighPriorityClients(Set<String> highPriorityClients) {
+        this.highPriorityClients = highPriorityClients;
+    }
+
+    void setLowPriorityClients(Set<String> lowPriorityClients) {
+        this.lowPriorityClients = lowPriorityClients;
+    }
+
+    private long admit(String clientId, long nowNanos, boolean mayWait) {
+        AdmissionPriority priority = priorityOf(clientId);
+        long maxWait = mayWait && priority.waits() ? maxQueueDelayNanos : 0;
+        TokenBucket client = bucketOf(clientId, nowNanos);
+        long clientWait = client.take(nowNanos, 1.0, maxWait);
+        if (clientWait == SHED) {
+            shed[priority.ordinal()].increment();
+            return SHED;
+        }
+        long globalWait = global.take(nowNanos, priority.globalShare(), maxWait);
+        if (globalWait == SHED) {
+            client.refund();
+            shed[priority.ordinal()].increment();
+            return SHED;
+        }
+        long wait = Math.max(clientWait, globalWait);
+        (wait == 0 ? admitted : delayed)[priority.ordinal()].increment();
+        return wait;
+    }
+
+    private TokenBucket bucketOf(String clientId, long nowNanos) {
+        TokenBucket bucket = clients.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (clients.size() >= maxClients) {
+            log.debug("Client {} shares the overflow bucket; {} clients already tracked", clientId, maxClients);
+            clientId = OVERFLOW_CLIENT;
+        }
+        return clients.computeIfAbsent(clientId, id -> new TokenBucket(clientRate, clientBurst, nowNanos));
+    }
+
+    private static LongAdder[] counters() {
+        LongAdder[] counters = new LongAdder[AdmissionPriority.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,12 @@
+package tech.challenge.admission;
+
+/**
+ * Admission outcomes of one priority class so far.
+ *
+ * @param priority the priority class
+ * @param admitted requests admitted straight away
+ * @param delayed requests admitted after waiting for a token
+ * @param shed requests turned away
+ */
+public record AdmissionMetrics(AdmissionPriority priority, long admitted, long delayed, long shed) {
+}
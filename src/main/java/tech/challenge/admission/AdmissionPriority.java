@@ -0,0 +1,35 @@
+package tech.challenge.admission;
+
+/**
+ * Priority classes of ingest clients. When the service as a whole is busy, lower classes are turned away
+ * first: each class may only draw on its share of the service-wide burst, leaving the rest to the classes
+ * above it. Only {@link #LOW} clients are turned away rather than kept waiting when they run out of tokens.
+ */
+public enum AdmissionPriority {
+
+    HIGH(1.0, true),
+    NORMAL(0.75, true),
+    LOW(0.5, false);
+
+    private final double globalShare;
+    private final boolean waits;
+
+    AdmissionPriority(double globalShare, boolean waits) {
+        this.globalShare = globalShare;
+        this.waits = waits;
+    }
+
+    /**
+     * @return share of the service-wide burst the class may draw on
+     */
+    public double globalShare() {
+        return globalShare;
+    }
+
+    /**
+     * @return whether requests over the limit may wait for a token instead of being turned away
+     */
+    public boolean waits() {
+        return waits;
+    }
+}
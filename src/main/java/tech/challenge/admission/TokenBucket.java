@@ -0,0 +1,60 @@
+package tech.challenge.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as the time at which it will next be full (the generic cell rate algorithm).
+ * Taking a token moves that time on by one token's interval with a single compare-and-set, so the bucket needs
+ * no refill thread and no lock. A bucket holding no tokens can still lend one ahead of time, telling the
+ * caller how long to wait before using it.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    /**
+     * @param ratePerSecond tokens added per second
+     * @param burst tokens the bucket holds when full
+     * @param nowNanos the current time, at which the bucket starts full
+     */
+    TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive: " + ratePerSecond + ", " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (1e9 / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available to the caller now, or will be within the longest wait it accepts.
+     *
+     * @param nowNanos the current time
+     * @param share share of the bucket's burst the caller may draw on, between 0 and 1
+     * @param maxWaitNanos longest the caller will wait for a token
+     * @return how long to wait before using the token, or {@link AdmissionControl#SHED} if none was taken
+     */
+    long take(long nowNanos, double share, long maxWaitNanos) {
+        long tolerance = (long) (burstNanos * share);
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - tolerance;
+            if (wait > maxWaitNanos) {
+                return AdmissionControl.SHED;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #take}, as when a later check turns the request away.
+     */
+    void refund() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,157 @@
+package tech.challenge.audit.archive;
+
+import tech.challenge.audit.submission.Batch;
+import tech.challenge.audit.submission.Submission;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streams submissions back out of an archive written by {@link SubmissionArchiveWriter}.
+ * Only one block is held in memory at a time, so archives of any size can be iterated.
+ */
+public class SubmissionArchiveReader implements Iterator<Submission>, Closeable {
+
+    private final DataInputStream in;
+    private final boolean compressed;
+    private final Inflater inflater = new Inflater();
+    private final Deque<Submission> block = new ArrayDeque<>();
+    private byte[] stored = new byte[0];
+    private boolean exhausted;
+
+    /**
+     * Opens an archive.
+     *
+     * @param in the stream to read from; closed with the reader
+     * @throws IOException if the stream does not start with an archive header
+     */
+    public SubmissionArchiveReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (this.in.readInt() != SubmissionArchiveWriter.MAGIC) {
+            throw new IOException("Not a submission archive");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != SubmissionArchiveWriter.VERSION) {
+            throw new IOException("Unsupported submission archive version " + version);
+        }
+        this.compressed = this.in.readBoolean();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (block.isEmpty() && !exhausted) {
+            try {
+                readBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read submission archive", e);
+            }
+        }
+        return !block.isEmpty();
+    }
+
+    @Override
+    public Submission next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return block.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private void readBlock() throws IOException {
+        int submissions;
+        try {
+            submissions = in.readInt();
+        } catch (EOFException e) {
+            exhausted = true;
+            return;
+        }
+        int rawLength = in.readInt();
+        int storedLength = in.readInt();
+        int checksum = in.readInt();
+        if (stored.length < storedLength) {
+            stored = new byte[storedLength];
+        }
+        in.readFully(stored, 0, storedLength);
+
+        byte[] raw;
+        if (compressed) {
+            raw = new byte[rawLength];
+            inflater.reset();
+            inflater.setInput(stored, 0, storedLength);
+            try {
+                if (inflater.inflate(raw) != rawLength) {
+                    throw new IOException("Archive block inflated to the wrong length");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted archive block", e);
+            }
+        } else {
+            raw = stored;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(raw, 0, rawLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in archive block");
+        }
+        decode(ByteBuffer.wrap(raw, 0, rawLength), submissions, block);
+    }
+
+    static void decode(ByteBuffer raw, int submissionCount, Deque<Submission> into) throws EOFException {
+        int[] batchesPerSubmission = new int[submissionCount];
+        int totalBatches = 0;
+        for (int s = 0; s < submissionCount; s++) {
+            batchesPerSubmission[s] = (int) VarInts.readUnsigned(raw);
+            totalBatches += batchesPerSubmission[s];
+        }
+
+        int[] counts = new int[totalBatches];
+        long count = 0;
+        for (int b = 0; b < totalBatches; b++) {
+            count += VarInts.readSigned(raw);
+            counts[b] = (int) count;
+        }
+
+        double[] totals = new double[totalBatches];
+        long pence = 0;
+        for (int b = 0; b < totalBatches; b++) {
+            pence += VarInts.readSigned(raw);
+            totals[b] = pence / 100.0;
+        }
+
+        long inexact = VarInts.readUnsigned(raw);
+        int index = 0;
+        for (long i = 0; i < inexact; i++) {
+            index += (int) VarInts.readUnsigned(raw);
+            totals[index] = raw.getDouble();
+        }
+
+        int batch = 0;
+        for (int s = 0; s < submissionCount; s++) {
+            List<Batch> batches = new ArrayList<>(batchesPerSubmission[s]);
+            for (int b = 0; b < batchesPerSubmission[s]; b++, batch++) {
+                batches.add(Batch.builder().transactionCount(counts[batch]).totalValue(totals[batch]).build());
+            }
+            into.add(Submission.builder().batches(batches).build());
+        }
+    }
+}
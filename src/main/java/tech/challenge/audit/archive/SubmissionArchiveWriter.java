@@ -0,0 +1,167 @@
+package tech.challenge.audit.archive;
+
+import tech.challenge.audit.submission.Batch;
+import tech.challenge.audit.submission.Submission;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes submissions to a compact columnar archive.
+ * Submissions are grouped into blocks; within a block the batch counts, the transaction counts and the batch
+ * totals (in pence) are each stored as a column of delta-encoded variable-length integers, which are small and
+ * repetitive, and the block is then optionally deflated. Each block is self-contained, so readers inflate one block at a time.
+ *
+ * <p>Layout: a header (magic, version, compression flag), then blocks of submission count, raw length,
+ * stored length, CRC32C of the raw bytes and the stored bytes.
+ */
+public class SubmissionArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x42415231;
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final boolean compress;
+    private final int submissionsPerBlock;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final List<Submission> pending = new ArrayList<>();
+    private byte[] deflated = new byte[64 * 1024];
+    private long blocksWritten;
+    private long bytesWritten;
+
+    /**
+     * Starts an archive.
+     *
+     * @param out the stream to write to; closed with the writer
+     * @param compress whether to deflate each block
+     * @param submissionsPerBlock number of submissions grouped into a block
+     */
+    public SubmissionArchiveWriter(OutputStream out, boolean compress, int submissionsPerBlock) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.compress = compress;
+        this.submissionsPerBlock = submissionsPerBlock;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeBoolean(compress);
+        this.bytesWritten = Integer.BYTES + 2;
+    }
+
+    /**
+     * Adds a submission, writing out a block once enough submissions are pending.
+     */
+    public synchronized void write(Submission submission) throws IOException {
+        pending.add(submission);
+        if (pending.size() >= submissionsPerBlock) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes out the pending submissions as a block, even if it is not full.
+     */
+    public synchronized void flush() throws IOException {
+        if (!pending.isEmpty()) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    public synchronized long getBlocksWritten() {
+        return blocksWritten;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        byte[] raw = encode(pending);
+        byte[] stored = raw;
+        int storedLength = raw.length;
+        if (compress) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            storedLength = 0;
+            while (!deflater.finished()) {
+                if (storedLength == deflated.length) {
+                    deflated = Arrays.copyOf(deflated, deflated.length * 2);
+                }
+                storedLength += deflater.deflate(deflated, storedLength, deflated.length - storedLength);
+            }
+            stored = deflated;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(raw);
+        out.writeInt(pending.size());
+        out.writeInt(raw.length);
+        out.writeInt(storedLength);
+        out.writeInt((int) crc.getValue());
+        out.write(stored, 0, storedLength);
+        bytesWritten += 4L * Integer.BYTES + storedLength;
+        blocksWritten++;
+        pending.clear();
+    }
+
+    /**
+     * Encodes a block's columns. Totals are stored as pence; a total that is not exactly a whole number of pence,
+     * such as one carrying floating-point error from summing transaction values, is also listed afterwards as a
+     * raw double so decoding always returns the exact value written.
+     */
+    static byte[] encode(List<Submission> submissions) {
+        ByteArrayOutputStream column = new ByteArrayOutputStream(submissions.size() * 16);
+        List<Batch> batches = new ArrayList<>();
+        for (Submission submission : submissions) {
+            VarInts.writeUnsigned(column, submission.getBatches().size());
+            batches.addAll(submission.getBatches());
+        }
+
+        long previousCount = 0;
+        for (Batch batch : batches) {
+            VarInts.writeSigned(column, batch.getTransactionCount() - previousCount);
+            previousCount = batch.getTransactionCount();
+        }
+
+        List<Integer> inexact = new ArrayList<>();
+        long previousPence = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            double total = batches.get(i).getTotalValue();
+            long pence = Math.round(total * 100);
+            if (pence / 100.0 != total) {
+                inexact.add(i);
+            }
+            VarInts.writeSigned(column, pence - previousPence);
+            previousPence = pence;
+        }
+
+        VarInts.writeUnsigned(column, inexact.size());
+        int previousIndex = 0;
+        for (int index : inexact) {
+            VarInts.writeUnsigned(column, index - previousIndex);
+            previousIndex = index;
+            long bits = Double.doubleToRawLongBits(batches.get(index).getTotalValue());
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                column.write((int) (bits >>> shift));
+            }
+        }
+        return column.toByteArray();
+    }
+}
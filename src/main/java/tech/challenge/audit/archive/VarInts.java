@@ -0,0 +1,47 @@
+package tech.challenge.audit.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 variable-length integers with zig-zag encoding for signed values, so small magnitudes of either sign
+ * take a single byte.
+ */
+final class VarInts {
+
+    private VarInts() {
+    }
+
+    static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readUnsigned(ByteBuffer in) throws EOFException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!in.hasRemaining()) {
+                throw new EOFException("Truncated variable-length integer");
+            }
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Variable-length integer longer than 64 bits");
+    }
+
+    static long readSigned(ByteBuffer in) throws EOFException {
+        long encoded = readUnsigned(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+}
@@ -0,0 +1,137 @@
+package tech.challenge.audit.scoring;
+
+import tech.challenge.util.Hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of per-key event counts and values over a sliding time window, in fixed memory.
+ * The window is divided into slots, each with its own sketch, and a running total sketch holds the sum of the
+ * live slots so that an estimate reads one counter per row. When time moves past a slot, its counters are
+ * subtracted from the total and cleared. Estimates never undercount; they may overcount when keys collide.
+ *
+ * <p>Counters are updated atomically without locking. Only moving the window forward is synchronized, and an
+ * update racing with the expiry of its own slot may be lost or linger for one slot, which the estimate tolerates.
+ */
+class SlidingWindowSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final int slots;
+    private final long slotMillis;
+    private final int cellsPerSketch;
+    private final AtomicLongArray slotCounts;
+    private final AtomicLongArray slotValues;
+    private final AtomicLongArray totalCounts;
+    private final AtomicLongArray totalValues;
+    private volatile long currentSlot = Long.MIN_VALUE;
+
+    /**
+     * Creates a sketch.
+     *
+     * @param depth number of rows, each with an independent hash; more rows reduce the chance of overcounting
+     * @param width number of counters per row, rounded up to a power of two
+     * @param slots number of slots the window is divided into
+     * @param slotMillis duration of a slot in milliseconds
+     */
+    SlidingWindowSketch(int depth, int width, int slots, long slotMillis) {
+        this.depth = depth;
+        this.widthMask = Integer.highestOneBit(Math.max(1, width - 1) << 1) - 1;
+        this.slots = slots;
+        this.slotMillis = slotMillis;
+        this.cellsPerSketch = depth * (widthMask + 1);
+        this.slotCounts = new AtomicLongArray(slots * cellsPerSketch);
+        this.slotValues = new AtomicLongArray(slots * cellsPerSketch);
+        this.totalCounts = new AtomicLongArray(cellsPerSketch);
+        this.totalValues = new AtomicLongArray(cellsPerSketch);
+    }
+
+    /**
+     * Records an event. Events older than the window are ignored.
+     *
+     * @param hash 64-bit hash of the key
+     * @param timestamp time of the event in epoch milliseconds
+     * @param value value of the event
+     */
+    void add(long hash, long timestamp, long value) {
+        long slot = Math.floorDiv(timestamp, slotMillis);
+        if (slot > currentSlot) {
+            advanceTo(slot);
+        } else if (slot <= currentSlot - slots) {
+            return;
+        }
+        int slotBase = (int) Math.floorMod(slot, (long) slots) * cellsPerSketch;
+        long second = Hashing.mix64(hash) | 1;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, second, row);
+            slotCounts.incrementAndGet(slotBase + cell);
+            slotValues.addAndGet(slotBase + cell, value);
+            totalCounts.incrementAndGet(cell);
+            totalValues.addAndGet(cell, value);
+        }
+    }
+
+    /**
+     * @param hash 64-bit hash of the key
+     * @return an upper estimate of the key's events in the window
+     */
+    long estimateCount(long hash) {
+        return estimate(totalCounts, hash);
+    }
+
+    /**
+     * @param hash 64-bit hash of the key
+     * @return an upper estimate of the key's total value in the window
+     */
+    long estimateValue(long hash) {
+        return estimate(totalValues, hash);
+    }
+
+    /**
+     * @return the memory held by the counters in bytes, independent of the number of keys
+     */
+    long sizeInBytes() {
+        return (long) (slots + 1) * cellsPerSketch * 2 * Long.BYTES;
+    }
+
+    private long estimate(AtomicLongArray totals, long hash) {
+        long second = Hashing.mix64(hash) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, totals.get(cell(hash, second, row)));
+        }
+        return min;
+    }
+
+    private int cell(long hash, long second, int row) {
+        return row * (widthMask + 1) + (int) ((hash + row * second) & widthMask);
+    }
+
+    /**
+     * Moves the window forward, expiring every slot it leaves behind.
+     */
+    private synchronized void advanceTo(long slot) {
+        long current = currentSlot;
+        if (slot <= current) {
+            return;
+        }
+        long expireFrom = current == Long.MIN_VALUE ? slot - slots + 1 : current + 1;
+        for (long expired = Math.max(expireFrom, slot - slots + 1); expired <= slot; expired++) {
+            clearSlot((int) Math.floorMod(expired, (long) slots) * cellsPerSketch);
+        }
+        currentSlot = slot;
+    }
+
+    private void clearSlot(int slotBase) {
+        for (int cell = 0; cell < cellsPerSketch; cell++) {
+            long count = slotCounts.getAndSet(slotBase + cell, 0);
+            if (count != 0) {
+                totalCounts.addAndGet(cell, -count);
+            }
+            long value = slotValues.getAndSet(slotBase + cell, 0);
+            if (value != 0) {
+                totalValues.addAndGet(cell, -value);
+            }
+        }
+    }
+}
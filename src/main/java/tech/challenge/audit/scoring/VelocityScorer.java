@@ -0,0 +1,71 @@
+package tech.challenge.audit.scoring;
+
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.Hashing;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scores each transaction by its account's recent velocity: how many transactions the account has made, and
+ * how much value it has moved, within a sliding window. An account going over either limit is flagged as an
+ * outlier so its transactions can be audited with priority. The per-account state lives in a count-min sketch,
+ * so memory stays fixed however many accounts there are; collisions can only overestimate an account's
+ * activity, so outliers are never missed, though a quiet account may occasionally be flagged.
+ */
+public class VelocityScorer {
+
+    private final SlidingWindowSketch sketch;
+    private final long maxCount;
+    private final long maxValueInPence;
+    private final LongAdder scored = new LongAdder();
+    private final LongAdder flagged = new LongAdder();
+
+    /**
+     * Constructor for VelocityScorer.
+     *
+     * @param window length of the sliding window
+     * @param slots number of slots the window is divided into; more slots expire old activity more smoothly
+     * @param depth rows of the sketch
+     * @param width counters per row of the sketch
+     * @param maxCount transactions per account in a window above which the account is flagged
+     * @param maxValue absolute value per account in a window, in pounds, above which the account is flagged
+     */
+    public VelocityScorer(Duration window, int slots, int depth, int width, long maxCount, double maxValue) {
+        this.sketch = new SlidingWindowSketch(depth, width, slots, Math.max(1, window.toMillis() / slots));
+        this.maxCount = maxCount;
+        this.maxValueInPence = Math.round(maxValue * 100);
+    }
+
+    /**
+     * Records a transaction and scores its account.
+     *
+     * @param transaction the transaction to score
+     * @return true if the account is over its velocity limits and the transaction should be audited with priority
+     */
+    public boolean score(Transaction transaction) {
+        long hash = Hashing.hash64(transaction.getAccountId());
+        sketch.add(hash, transaction.getTimestamp(), Math.round(Math.abs(transaction.getAmount()) * 100));
+        scored.increment();
+        if (sketch.estimateCount(hash) > maxCount || sketch.estimateValue(hash) > maxValueInPence) {
+            flagged.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public long getScoredCount() {
+        return scored.sum();
+    }
+
+    public long getFlaggedCount() {
+        return flagged.sum();
+    }
+
+    /**
+     * @return the memory held by the sketch in bytes
+     */
+    public long sizeInBytes() {
+        return sketch.sizeInBytes();
+    }
+}
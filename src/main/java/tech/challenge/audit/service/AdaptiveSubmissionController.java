@@ -0,0 +1,119 @@
+package tech.challenge.audit.service;
+
+import java.time.Duration;
+
+/**
+ * Adjusts the submission size and the number of concurrent submissions from the handler's observed latency
+ * and the audit queue's depth, using additive increase and multiplicative decrease (AIMD).
+ * A submission slower than the target latency shrinks both settings by a factor, backing off quickly while the
+ * handler is struggling; a fast submission with a backlog waiting grows the size by a step, and the concurrency
+ * by one when the backlog is larger than a full round of submissions, probing back up gradually.
+ */
+public class AdaptiveSubmissionController {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int minSubmissionSize;
+    private final int minConcurrency;
+    private volatile int maxSubmissionSize;
+    private volatile int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final int increaseStep;
+    private final double decreaseFactor;
+
+    private volatile int submissionSize;
+    private volatile int concurrency;
+    private volatile double averageLatencyNanos;
+
+    /**
+     * Constructor for AdaptiveSubmissionController. Both settings start at their maximum.
+     *
+     * @param minSubmissionSize smallest number of transactions per submission
+     * @param maxSubmissionSize largest number of transactions per submission
+     * @param minConcurrency fewest submissions handled at once
+     * @param maxConcurrency most submissions handled at once
+     * @param targetLatency handler latency above which the settings are reduced
+     * @param increaseStep transactions added to the submission size after a fast submission
+     * @param decreaseFactor factor, between 0 and 1, applied to both settings after a slow submission
+     */
+    public AdaptiveSubmissionController(int minSubmissionSize, int maxSubmissionSize, int minConcurrency,
+                                        int maxConcurrency, Duration targetLatency, int increaseStep,
+                                        double decreaseFactor) {
+        if (minSubmissionSize < 1 || minSubmissionSize > maxSubmissionSize
+                || minConcurrency < 1 || minConcurrency > maxConcurrency) {
+            throw new IllegalArgumentException("Adaptive submission bounds must satisfy 1 <= min <= max");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Decrease factor must be between 0 and 1");
+        }
+        this.minSubmissionSize = minSubmissionSize;
+        this.maxSubmissionSize = maxSubmissionSize;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.increaseStep = Math.max(1, increaseStep);
+        this.decreaseFactor = decreaseFactor;
+        this.submissionSize = maxSubmissionSize;
+        this.concurrency = maxConcurrency;
+    }
+
+    /**
+     * Records a handled submission and adjusts the settings.
+     *
+     * @param latencyNanos how long the handler took
+     * @param queueDepth transactions waiting in the audit queue afterwards
+     */
+    public synchronized void onSubmissionHandled(long latencyNanos, int queueDepth) {
+        averageLatencyNanos = averageLatencyNanos == 0 ? latencyNanos
+                : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+        if (latencyNanos > targetLatencyNanos) {
+            submissionSize = Math.max(Math.min(minSubmissionSize, maxSubmissionSize),
+                    (int) (submissionSize * decreaseFactor));
+            concurrency = Math.max(Math.min(minConcurrency, maxConcurrency), (int) (concurrency * decreaseFactor));
+        } else if (queueDepth >= submissionSize) {
+            submissionSize = Math.min(maxSubmissionSize, submissionSize + increaseStep);
+            if (queueDepth >= (long) submissionSize * concurrency) {
+                concurrency = Math.min(maxConcurrency, concurrency + 1);
+            }
+        }
+    }
+
+    /**
+     * Changes the maximum of both settings, as when the audit settings are changed while running. Settings above
+     * a lowered maximum are brought down to it at once; a raised maximum is probed up to gradually. A maximum
+     * below the configured minimum also becomes the minimum.
+     *
+     * @param maxSubmissionSize largest number of transactions per submission
+     * @param maxConcurrency most submissions handled at once
+     */
+    public synchronized void updateMaximums(int maxSubmissionSize, int maxConcurrency) {
+        if (maxSubmissionSize < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("Adaptive submission maximums must be positive");
+        }
+        this.maxSubmissionSize = maxSubmissionSize;
+        this.maxConcurrency = maxConcurrency;
+        submissionSize = Math.min(submissionSize, maxSubmissionSize);
+        concurrency = Math.min(concurrency, maxConcurrency);
+    }
+
+    /**
+     * @return the number of transactions to gather into a submission
+     */
+    public int getSubmissionSize() {
+        return submissionSize;
+    }
+
+    /**
+     * @return the number of submissions that may be handled at once
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return the exponentially smoothed handler latency, in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        return averageLatencyNanos / 1_000_000;
+    }
+}
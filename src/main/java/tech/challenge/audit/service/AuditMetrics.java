@@ -0,0 +1,17 @@
+package tech.challenge.audit.service;
+
+/**
+ * Point-in-time view of the audit pipeline.
+ *
+ * @param queueDepth transactions waiting to be submitted, in the regular queue or the priority lane
+ * @param inFlight submissions currently being handled
+ * @param submissionSize current number of transactions per submission
+ * @param concurrency current number of submissions that may be handled at once
+ * @param submissions submissions handled so far
+ * @param averageLatencyMillis mean handler latency
+ * @param oversizeTransactions transactions seen above the maximum batch total
+ * @param flaggedTransactions transactions sent to the priority lane by velocity scoring
+ */
+public record AuditMetrics(int queueDepth, int inFlight, int submissionSize, int concurrency, long submissions,
+                           double averageLatencyMillis, long oversizeTransactions, long flaggedTransactions) {
+}
@@ -0,0 +1,12 @@
+package tech.challenge.audit.service;
+
+/**
+ * Source of the audit pipeline's current settings and activity.
+ */
+public interface AuditMetricsProvider {
+
+    /**
+     * @return a snapshot of the audit pipeline
+     */
+    AuditMetrics metrics();
+}
@@ -0,0 +1,63 @@
+package tech.challenge.audit.service;
+
+/**
+ * Settings of the audit pipeline that can be changed while it runs. A snapshot is immutable; changing the
+ * settings publishes a new one, so a worker reads one consistent snapshot per submission without locking.
+ *
+ * @param maxTransactionsPerSubmission maximum number of transactions per submission
+ * @param maxBatchTotalValue maximum total value of a batch
+ * @param threadPoolSize number of workers, and so of submissions handled at once
+ * @param oversizeMode how transactions above the maximum batch total are audited
+ */
+public record AuditSettings(int maxTransactionsPerSubmission, double maxBatchTotalValue, int threadPoolSize,
+                            OversizeMode oversizeMode) {
+
+    /**
+     * Largest submission size accepted, so one submission cannot hold an unbounded share of the queue.
+     */
+    public static final int MAX_TRANSACTIONS_PER_SUBMISSION = 100_000;
+
+    /**
+     * Smallest batch total accepted, one penny; below it every transaction would be oversize.
+     */
+    public static final double MIN_BATCH_TOTAL_VALUE = 0.01;
+
+    /**
+     * Largest worker pool accepted.
+     */
+    public static final int MAX_THREAD_POOL_SIZE = 256;
+
+    public AuditSettings {
+        if (maxTransactionsPerSubmission <= 0 || maxTransactionsPerSubmission > MAX_TRANSACTIONS_PER_SUBMISSION) {
+            throw new IllegalArgumentException("Max transactions per submission must be between 1 and "
+                    + MAX_TRANSACTIONS_PER_SUBMISSION + ": " + maxTransactionsPerSubmission);
+        }
+        if (!(maxBatchTotalValue >= MIN_BATCH_TOTAL_VALUE) || Double.isInfinite(maxBatchTotalValue)) {
+            throw new IllegalArgumentException("Max batch total value must be finite and at least "
+                    + MIN_BATCH_TOTAL_VALUE + ": " + maxBatchTotalValue);
+        }
+        if (threadPoolSize <= 0 || threadPoolSize > MAX_THREAD_POOL_SIZE) {
+            throw new IllegalArgumentException("Thread pool size must be between 1 and " + MAX_THREAD_POOL_SIZE
+                    + ": " + threadPoolSize);
+        }
+        if (oversizeMode == null) {
+            throw new IllegalArgumentException("Oversize mode must be set");
+        }
+    }
+
+    public AuditSettings withMaxTransactionsPerSubmission(int maxTransactionsPerSubmission) {
+        return new AuditSettings(maxTransactionsPerSubmission, maxBatchTotalValue, threadPoolSize, oversizeMode);
+    }
+
+    public AuditSettings withMaxBatchTotalValue(double maxBatchTotalValue) {
+        return new AuditSettings(maxTransactionsPerSubmission, maxBatchTotalValue, threadPoolSize, oversizeMode);
+    }
+
+    public AuditSettings withThreadPoolSize(int threadPoolSize) {
+        return new AuditSettings(maxTransactionsPerSubmission, maxBatchTotalValue, threadPoolSize, oversizeMode);
+    }
+
+    public AuditSettings withOversizeMode(OversizeMode oversizeMode) {
+        return new AuditSettings(maxTransactionsPerSubmission, maxBatchTotalValue, threadPoolSize, oversizeMode);
+    }
+}
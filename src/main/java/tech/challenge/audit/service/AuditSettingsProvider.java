@@ -0,0 +1,20 @@
+package tech.challenge.audit.service;
+
+/**
+ * Source of the audit pipeline's settings, which may be changed while it runs.
+ */
+public interface AuditSettingsProvider {
+
+    /**
+     * @return the settings in force
+     */
+    AuditSettings settings();
+
+    /**
+     * Puts new settings in force. Submissions already being built finish under the settings they started with.
+     *
+     * @param settings the new settings
+     * @return the settings replaced
+     */
+    AuditSettings updateSettings(AuditSettings settings);
+}
@@ -0,0 +1,77 @@
+package tech.challenge.audit.service;
+
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.DurableFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * File holding transactions that could not be audited before shutdown, so they are audited after the next start.
+ * The file is written to a temporary name, forced to disk and moved into place, so a crash while spilling never
+ * leaves a half-written file behind and the spill is not lost once shutdown completes.
+ */
+final class AuditSpillFile {
+
+    private static final int MAGIC = 0x41535031;
+
+    private AuditSpillFile() {
+    }
+
+    static void write(Path file, Collection<Transaction> transactions) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(transactions.size());
+            for (Transaction tx : transactions) {
+                writeNullable(out, tx.getId());
+                out.writeDouble(tx.getAmount());
+                writeNullable(out, tx.getAccountId());
+                writeNullable(out, tx.getCounterpartyAccountId());
+                out.writeLong(tx.getTimestamp());
+            }
+        }
+        DurableFiles.commit(temporary, file);
+    }
+
+    static List<Transaction> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an audit spill file: " + file);
+            }
+            int count = in.readInt();
+            List<Transaction> transactions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                transactions.add(Transaction.builder()
+                        .id(readNullable(in))
+                        .amount(in.readDouble())
+                        .accountId(readNullable(in))
+                        .counterpartyAccountId(readNullable(in))
+                        .timestamp(in.readLong())
+                        .build());
+            }
+            return transactions;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,20 @@
+package tech.challenge.audit.service;
+
+/**
+ * How the audit service handles a transaction whose absolute amount exceeds the maximum batch total.
+ */
+public enum OversizeMode {
+    /**
+     * The transaction is left out of the audit.
+     */
+    DROP,
+    /**
+     * The amount is split into full-capacity batches plus a remainder packed with the other transactions. One
+     * that would need more than a thousand batches is audited as in {@link #LANE} instead.
+     */
+    SPLIT,
+    /**
+     * The transaction is submitted in its own batch, in a separate submission after the regular one.
+     */
+    LANE
+}
@@ -1,64 +1,252 @@
 package tech.challenge.audit.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import tech.challenge.audit.scoring.VelocityScorer;
 import tech.challenge.audit.submission.Batch;
 import tech.challenge.audit.submission.Submission;
 import tech.challenge.audit.submission.SubmissionHandler;
 import tech.challenge.domain.Transaction;
 import tech.challenge.exception.AuditTransactionProcessingException;
+import tech.challenge.reconcile.Reconciler;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
  * Service implementation for auditing transactions using a scoring-based approach.
  * Handles transaction batching and submission to a <class>SubmissionHandler</class> for processing.
+ * With an {@link AdaptiveSubmissionController} the submission size and concurrency follow the handler's latency,
+ * bounded by the configured maximum size and thread pool size.
+ * With a {@link VelocityScorer}, transactions on accounts over their velocity limits bypass the regular queue
+ * and are submitted in a priority lane, ahead of regular submissions and without waiting for a full submission:
+ * flagged transactions are gathered for up to `audit.scoring.priority-linger`, or until
+ * `audit.scoring.priority-batch-size` of them are waiting, so a burst of them is audited in one submission.
+ * Its settings can be changed while it runs, see {@link #updateSettings}.
+ * A partial submission is flushed when the queue has not been drained for a whole `audit.flush-interval`, so a
+ * transaction never waits for a full submission indefinitely when traffic is light.
+ * On shutdown the queue is drained by every worker within a deadline, and whatever is left is spilled to a file
+ * and audited after the next start.
  */
 @Slf4j
 @Service
-class ScoringBasedAuditService implements AuditService {
+class ScoringBasedAuditService implements AuditService, AuditMetricsProvider, AuditSettingsProvider {
 
     /**
-     * Maximum number of transactions allowed per submission.
-     * Configurable via the `audit.max.transactions.per.submission` property.
+     * Most batches a transaction is split across; one needing more is audited in its own lane instead.
      */
-    @Value("${audit.max.transactions.per.submission:1000}")
-    private int maxTransactionsPerSubmission;
+    static final int MAX_SPLIT_BATCHES = 1000;
 
     /**
-     * Maximum total value allowed for a batch of transactions.
-     * Configurable via the `audit.max.batch.total.value` property.
+     * Submission size, batch capacity, worker count and oversize mode in force, published as one snapshot.
+     * Starts from the `audit.max.transactions.per.submission`, `audit.max.batch.total.value`,
+     * `audit.thread.pool.size` and `audit.oversize.mode` properties and may be changed while running.
      */
-    @Value("${audit.max.batch.total.value:1000000.0}")
-    private double maxBatchTotalValue;
+    private volatile AuditSettings settings;
+
+    /**
+     * How long shutdown may spend auditing the transactions still queued.
+     * Configurable via the `audit.shutdown.drain-timeout` property.
+     */
+    @Value("${audit.shutdown.drain-timeout:10s}")
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+    /**
+     * File receiving the transactions left after the drain deadline; empty to discard them.
+     * Configurable via the `audit.shutdown.spill-file` property.
+     */
+    @Value("${audit.shutdown.spill-file:}")
+    private String spillFile = "";
+
+    /**
+     * How long the first flagged transaction waits for others to be submitted with it.
+     * Configurable via the `audit.scoring.priority-linger` property.
+     */
+    @Value("${audit.scoring.priority-linger:20ms}")
+    private Duration priorityLinger = Duration.ofMillis(20);
+
+    /**
+     * Number of waiting flagged transactions that are submitted without lingering any longer.
+     * Configurable via the `audit.scoring.priority-batch-size` property.
+     */
+    @Value("${audit.scoring.priority-batch-size:100}")
+    private int priorityBatchSize = 100;
 
     private final SubmissionHandler submissionHandler;
     private final BlockingQueue<Transaction> transactionQueue;
-    private final ExecutorService executorService;
-    private final Semaphore semaphore;
+    private final BlockingQueue<Transaction> priorityQueue = new LinkedBlockingQueue<>();
+    private final ThreadPoolExecutor executorService;
+    private final Object settingsLock = new Object();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object drainLock = new Object();
+    private final AtomicLong submissions = new AtomicLong();
+    private final AtomicLong handlerNanos = new AtomicLong();
+    private final AtomicLong oversizeTransactions = new AtomicLong();
+    private final AtomicLong flaggedTransactions = new AtomicLong();
+    private final AtomicLong regularDrains = new AtomicLong();
+    private final AtomicBoolean priorityLingering = new AtomicBoolean();
+    private long drainsAtLastFlush;
+
+    /**
+     * Adapts the submission size and concurrency; absent unless `audit.adaptive.enabled` is true.
+     */
+    private AdaptiveSubmissionController adaptiveController;
+
+    /**
+     * Flags transactions for the priority lane; absent unless `audit.scoring.enabled` is true.
+     */
+    private VelocityScorer velocityScorer;
+
+    /**
+     * Told about every transaction in a handled submission; absent unless `reconciliation.enabled` is true.
+     */
+    private Reconciler reconciler;
 
     /**
      * Constructor for `ScoringBasedAuditService`.
      *
      * @param submissionHandler the handler responsible for processing submissions
-     * @param threadPoolSize the size of the thread pool for processing transactions
+     * @param maxTransactionsPerSubmission the initial maximum number of transactions per submission
+     * @param maxBatchTotalValue the initial maximum total value of a batch
+     * @param threadPoolSize the initial size of the thread pool for processing transactions
+     * @param oversizeMode the initial handling of transactions above the maximum batch total
      */
-    public ScoringBasedAuditService(SubmissionHandler submissionHandler, @Value("${audit.thread.pool.size:4}") int threadPoolSize) {
+    @Autowired
+    public ScoringBasedAuditService(SubmissionHandler submissionHandler,
+                                    @Value("${audit.max.transactions.per.submission:1000}") int maxTransactionsPerSubmission,
+                                    @Value("${audit.max.batch.total.value:1000000.0}") double maxBatchTotalValue,
+                                    @Value("${audit.thread.pool.size:4}") int threadPoolSize,
+                                    @Value("${audit.oversize.mode:DROP}") OversizeMode oversizeMode) {
         this.submissionHandler = submissionHandler;
         this.transactionQueue = new LinkedBlockingQueue<>();
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
-        this.semaphore = new Semaphore(threadPoolSize);
+        this.settings = new AuditSettings(maxTransactionsPerSubmission, maxBatchTotalValue, threadPoolSize, oversizeMode);
+        this.executorService = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadPoolSize);
+    }
+
+    @Autowired(required = false)
+    public void setAdaptiveController(AdaptiveSubmissionController adaptiveController) {
+        this.adaptiveController = adaptiveController;
+    }
+
+    @Autowired(required = false)
+    public void setVelocityScorer(VelocityScorer velocityScorer) {
+        this.velocityScorer = velocityScorer;
+    }
+
+    @Autowired(required = false)
+    public void setReconciler(Reconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    /**
+     * Queues the transactions spilled at the last shutdown ahead of any new ones.
+     */
+    @PostConstruct
+    public void restoreSpilled() {
+        if (spillFile.isEmpty() || !Files.exists(Path.of(spillFile))) {
+            return;
+        }
+        Path file = Path.of(spillFile);
+        try {
+            List<Transaction> spilled = AuditSpillFile.read(file);
+            transactionQueue.addAll(spilled);
+            Files.delete(file);
+            log.info("Restored {} unaudited transactions from {}", spilled.size(), file);
+        } catch (IOException e) {
+            throw new AuditTransactionProcessingException("Failed to restore spilled transactions from " + file, e);
+        }
+        if (transactionQueue.size() >= submissionSize()) {
+            triggerProcessing();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        drain();
+    }
+
+    /**
+     * Audits everything still queued, including partial submissions, using every worker until the drain
+     * deadline, then spills whatever is left. Producers are stopped before this runs, since they depend on
+     * this service and are therefore destroyed first.
+     *
+     * @return the number of transactions spilled
+     */
+    int drain() {
+        long started = System.nanoTime();
+        long deadline = started + drainTimeout.toNanos();
+        int queued = priorityQueue.size() + transactionQueue.size();
+        for (int i = 0; i < settings.threadPoolSize(); i++) {
+            executorService.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    List<PackedSubmission> built = buildSubmissions(true);
+                    if (built.isEmpty()) {
+                        return;
+                    }
+                    try {
+                        built.forEach(this::handleSubmission);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to handle a submission while draining the audit queue", e);
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<Transaction> leftovers = new ArrayList<>();
+        priorityQueue.drainTo(leftovers);
+        transactionQueue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            spill(leftovers);
+        }
+        log.info("Audit drain of {} queued transactions finished in {} ms, {} left over", queued,
+                (System.nanoTime() - started) / 1_000_000, leftovers.size());
+        return leftovers.size();
+    }
+
+    private void spill(List<Transaction> leftovers) {
+        if (spillFile.isEmpty()) {
+            log.warn("Discarding {} unaudited transactions; no audit.shutdown.spill-file is configured", leftovers.size());
+            return;
+        }
+        try {
+            AuditSpillFile.write(Path.of(spillFile), leftovers);
+            log.info("Spilled {} unaudited transactions to {}", leftovers.size(), spillFile);
+        } catch (IOException e) {
+            log.error("Failed to spill {} unaudited transactions to {}", leftovers.size(), spillFile, e);
+        }
     }
 
     /**
      * Processes a single transaction by adding it to the transaction queue.
      * If the queue size reaches the maximum allowed transactions per submission, triggers processing.
+     * A transaction flagged by the velocity scorer goes to the priority lane, which is submitted once the priority
+     * batch size is reached or the linger started by the first waiting flagged transaction has passed.
      *
      * @param transaction the transaction to process
      * @throws AuditTransactionProcessingException if the transaction cannot be enqueued
@@ -66,8 +254,19 @@ class ScoringBasedAuditService implements AuditService {
     @Override
     public void processTransaction(Transaction transaction) {
         try {
+            if (velocityScorer != null && velocityScorer.score(transaction)) {
+                flaggedTransactions.incrementAndGet();
+                priorityQueue.put(transaction);
+                if (priorityQueue.size() >= priorityBatchSize) {
+                    triggerProcessing();
+                } else if (priorityLingering.compareAndSet(false, true)) {
+                    CompletableFuture.runAsync(this::priorityLingerPassed,
+                            CompletableFuture.delayedExecutor(priorityLinger.toNanos(), TimeUnit.NANOSECONDS));
+                }
+                return;
+            }
             transactionQueue.put(transaction);
-            if (transactionQueue.size() >= maxTransactionsPerSubmission) {
+            if (transactionQueue.size() >= submissionSize()) {
                 triggerProcessing();
             }
         } catch (InterruptedException e) {
@@ -76,50 +275,214 @@ class ScoringBasedAuditService implements AuditService {
         }
     }
 
+    @Override
+    public AuditSettings settings() {
+        return settings;
+    }
+
     /**
-     * Triggers the processing of transactions in the queue if a thread is available.
+     * Publishes new settings and resizes the worker pool to match. The concurrency limit follows the new pool
+     * size at once: submissions in flight above a lowered limit finish, and no more start until the count falls
+     * below it. Transactions already queued are submitted under the new settings.
      */
+    @Override
+    public AuditSettings updateSettings(AuditSettings next) {
+        AuditSettings previous;
+        synchronized (settingsLock) {
+            previous = settings;
+            int size = next.threadPoolSize();
+            // The maximum may never be below the core size, so grow the maximum first and shrink it last
+            if (size > executorService.getMaximumPoolSize()) {
+                executorService.setMaximumPoolSize(size);
+                executorService.setCorePoolSize(size);
+            } else {
+                executorService.setCorePoolSize(size);
+                executorService.setMaximumPoolSize(size);
+            }
+            settings = next;
+            if (adaptiveController != null) {
+                adaptiveController.updateMaximums(next.maxTransactionsPerSubmission(), size);
+            }
+        }
+        log.info("Audit settings changed from {} to {}", previous, next);
+        if (submissionWaiting()) {
+            triggerProcessing();
+        }
+        return previous;
+    }
+
+    @Override
+    public AuditMetrics metrics() {
+        long handled = submissions.get();
+        return new AuditMetrics(priorityQueue.size() + transactionQueue.size(), inFlight.get(), submissionSize(), concurrencyLimit(), handled,
+                handled == 0 ? 0 : handlerNanos.get() / 1_000_000.0 / handled, oversizeTransactions.get(),
+                flaggedTransactions.get());
+    }
+
+    /**
+     * Submits whatever is queued, however few, unless a full submission has been drained since the last flush.
+     * Runs every `audit.flush-interval`, so no transaction waits much longer than two intervals to be audited.
+     */
+    @Scheduled(fixedDelayString = "${audit.flush-interval:1s}")
+    public void flush() {
+        long drains = regularDrains.get();
+        boolean drainedSinceLastFlush = drains != drainsAtLastFlush;
+        drainsAtLastFlush = drains;
+        if (drainedSinceLastFlush || transactionQueue.isEmpty()) {
+            return;
+        }
+        triggerProcessing(true);
+    }
+
+    private void priorityLingerPassed() {
+        priorityLingering.set(false);
+        triggerProcessing();
+    }
+
+    /**
+     * @return whether a full submission, a full priority batch or flagged transactions done lingering are waiting
+     */
+    private boolean submissionWaiting() {
+        int priorityWaiting = priorityQueue.size();
+        return priorityWaiting >= priorityBatchSize || (priorityWaiting > 0 && !priorityLingering.get())
+                || transactionQueue.size() >= submissionSize();
+    }
+
     private void triggerProcessing() {
-        if (semaphore.tryAcquire()) {
-            CompletableFuture.supplyAsync(this::buildBatches, executorService)
-                    .thenApply(this::buildSubmission)
-                    .thenAccept(this::handleSubmission)
-                    .whenComplete((result, throwable) -> semaphore.release());
-        } else {
-            log.debug("All processing threads are currently busy. Waiting for a slot...");
+        triggerProcessing(false);
+    }
+
+    /**
+     * Triggers the processing of transactions in the queue if a thread is available.
+     * When a submission completes it triggers the next one if a full submission is already waiting.
+     *
+     * @param partial whether to submit fewer regular transactions than a full submission
+     */
+    private void triggerProcessing(boolean partial) {
+        if (executorService.isShutdown()) {
+            // Shutting down; the drain audits or spills whatever is queued
+            return;
+        }
+        int limit = concurrencyLimit();
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                log.debug("All processing threads are currently busy. Waiting for a slot...");
+                return;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        try {
+            CompletableFuture.supplyAsync(() -> buildSubmissions(partial), executorService)
+                    .thenAccept(built -> built.forEach(this::handleSubmission))
+                    .whenComplete((result, throwable) -> {
+                        inFlight.decrementAndGet();
+                        if (submissionWaiting()) {
+                            triggerProcessing();
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
         }
     }
 
-    private List<Batch> buildBatches() {
+    private int submissionSize() {
+        int maxTransactionsPerSubmission = settings.maxTransactionsPerSubmission();
+        return adaptiveController == null ? maxTransactionsPerSubmission
+                : Math.min(maxTransactionsPerSubmission, adaptiveController.getSubmissionSize());
+    }
+
+    private int concurrencyLimit() {
+        int threadPoolSize = settings.threadPoolSize();
+        return adaptiveController == null ? threadPoolSize
+                : Math.min(threadPoolSize, adaptiveController.getConcurrency());
+    }
+
+    /**
+     * Drains the priority lane, then a submission's worth of regular transactions, and packs each into batches.
+     * Oversize transactions are counted and handled according to the oversize mode; in LANE mode they make up a
+     * further submission.
+     *
+     * @param partial whether to drain fewer regular transactions than a full submission, as when shutting down
+     */
+    private List<PackedSubmission> buildSubmissions(boolean partial) {
+        List<Transaction> priorityTransactions = new ArrayList<>();
         List<Transaction> drainedTransactions = new ArrayList<>();
-        transactionQueue.drainTo(drainedTransactions, maxTransactionsPerSubmission);
+        // Only full submissions are drained, and only by one worker at a time, so concurrent workers never split
+        // the same transactions into partial submissions
+        synchronized (drainLock) {
+            int size = submissionSize();
+            priorityQueue.drainTo(priorityTransactions, size);
+            if (partial || transactionQueue.size() >= size) {
+                // Only full submissions count as drains; a flush's own partial drain must not hold off the next one
+                if (transactionQueue.drainTo(drainedTransactions, size) >= size) {
+                    regularDrains.incrementAndGet();
+                }
+            }
+        }
 
-        if (drainedTransactions.isEmpty()) {
+        if (priorityTransactions.isEmpty() && drainedTransactions.isEmpty()) {
             return Collections.emptyList();
         }
 
-        return drainedTransactions.stream()
-                .filter(tx -> isTransactionWithinRange(Math.abs(tx.getAmount())))
-                .collect(
-                        ArrayList::new,
-                        this::processTransactionForBatch,
-                        ArrayList::addAll
-                );
+        // One snapshot for the whole submission, even if the settings change while it is being packed
+        AuditSettings current = settings;
+        List<PackedSubmission> built = new ArrayList<>(3);
+        pack(priorityTransactions, built, current);
+        pack(drainedTransactions, built, current);
+        return built;
     }
 
+    private void pack(List<Transaction> transactions, List<PackedSubmission> built, AuditSettings current) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        List<Batch> batches = new ArrayList<>();
+        List<Transaction> packed = new ArrayList<>(transactions.size());
+        List<Batch> oversizeLane = new ArrayList<>();
+        List<Transaction> oversizePacked = new ArrayList<>();
+        double maxBatchTotalValue = current.maxBatchTotalValue();
+        for (Transaction tx : transactions) {
+            double value = Math.abs(tx.getAmount());
+            if (value <= maxBatchTotalValue) {
+                processTransactionForBatch(batches, value, maxBatchTotalValue);
+                packed.add(tx);
+                continue;
+            }
+            oversizeTransactions.incrementAndGet();
+            switch (current.oversizeMode()) {
+                case SPLIT -> {
+                    if (value / maxBatchTotalValue > MAX_SPLIT_BATCHES) {
+                        // Splitting would build more batches than a submission should hold; audit it alone
+                        oversizeLane.add(Batch.builder().transactionCount(1).totalValue(value).build());
+                        oversizePacked.add(tx);
+                    } else {
+                        splitAcrossBatches(batches, value, maxBatchTotalValue);
+                        packed.add(tx);
+                    }
+                }
+                case LANE -> {
+                    oversizeLane.add(Batch.builder().transactionCount(1).totalValue(value).build());
+                    oversizePacked.add(tx);
+                }
+                case DROP -> {
+                    // Deliberately left out of the audit, so accounted for with the submission rather than missing
+                    log.debug("Dropping transaction value {} above max batch total {}", value, maxBatchTotalValue);
+                    packed.add(tx);
+                }
+            }
+        }
 
-    private boolean isTransactionWithinRange(double value) {
-        if (value > maxBatchTotalValue) {
-            log.warn("Transaction value {} exceeds max allowed batch total {}", value, maxBatchTotalValue);
-            return false; // Skip this transaction
+        built.add(new PackedSubmission(buildSubmission(batches), packed));
+        if (!oversizeLane.isEmpty()) {
+            built.add(new PackedSubmission(buildSubmission(oversizeLane), oversizePacked));
         }
-        return true;
     }
 
     //Create new batch or add it to existing batch
-    private void processTransactionForBatch(List<Batch> batches, Transaction tx) {
-        double value = Math.abs(tx.getAmount());
-        getBatch(batches, value)
+    private void processTransactionForBatch(List<Batch> batches, double value, double maxBatchTotalValue) {
+        getBatch(batches, value, maxBatchTotalValue)
                 .ifPresentOrElse(
                         batch -> batch.addTransaction(value),
                         () -> batches.add(Batch.builder()
@@ -129,8 +492,31 @@ class ScoringBasedAuditService implements AuditService {
                 );
     }
 
+    /**
+     * Splits an oversize amount into batches filled to capacity, which need no packing, and a remainder that is
+     * packed like any other transaction. The remainder is computed in decimal so the fragments add up to the
+     * original amount. The transaction is counted once, on the remainder or else on the first full batch.
+     */
+    private void splitAcrossBatches(List<Batch> batches, double value, double maxBatchTotalValue) {
+        BigDecimal amount = BigDecimal.valueOf(value);
+        BigDecimal capacity = BigDecimal.valueOf(maxBatchTotalValue);
+        BigDecimal[] fragments = amount.divideAndRemainder(capacity);
+        long fullBatches = fragments[0].longValueExact();
+        double remainder = fragments[1].doubleValue();
+
+        for (long i = 0; i < fullBatches; i++) {
+            batches.add(Batch.builder()
+                    .transactionCount(i == 0 && remainder == 0 ? 1 : 0)
+                    .totalValue(maxBatchTotalValue)
+                    .build());
+        }
+        if (remainder > 0) {
+            processTransactionForBatch(batches, remainder, maxBatchTotalValue);
+        }
+    }
+
     //Goes through each batch and assigns the value to the batch where it fits appropriately.
-    private Optional<Batch> getBatch(List<Batch> batches, double value) {
+    private Optional<Batch> getBatch(List<Batch> batches, double value, double maxBatchTotalValue) {
         return batches.stream()
                 .filter(batch -> value <= (maxBatchTotalValue - batch.getTotalValue()))
                 .min((batch1, batch2) -> {
@@ -144,13 +530,35 @@ class ScoringBasedAuditService implements AuditService {
         return Submission.builder().batches(batches).build();
     }
 
-    private void handleSubmission(Submission submission) {
-        if (!submission.getBatches().isEmpty()) {
+    private void handleSubmission(PackedSubmission packed) {
+        Submission submission = packed.submission();
+        if (submission.getBatches().isEmpty()) {
+            // Only dropped transactions, which have nothing to submit
+            if (reconciler != null) {
+                packed.transactions().forEach(reconciler::onAudited);
+            }
+        } else {
             log.info("Handling submission: {}", submission);
-            submissionHandler.handle(submission);
+            long started = System.nanoTime();
+            try {
+                submissionHandler.handle(submission);
+                if (reconciler != null) {
+                    packed.transactions().forEach(reconciler::onAudited);
+                }
+            } finally {
+                long latency = System.nanoTime() - started;
+                submissions.incrementAndGet();
+                handlerNanos.addAndGet(latency);
+                if (adaptiveController != null) {
+                    adaptiveController.onSubmissionHandled(latency, transactionQueue.size());
+                }
+            }
         }
     }
 
-
-
-}
\ No newline at end of file
+    /**
+     * A submission together with the transactions it accounts for: those packed into it and those dropped.
+     */
+    private record PackedSubmission(Submission submission, List<Transaction> transactions) {
+    }
+}
@@ -0,0 +1,45 @@
+package tech.challenge.cluster;
+
+import tech.challenge.consumer.service.AccountDirectory;
+import tech.challenge.consumer.service.AccountNode;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lists the accounts held across the nodes of a cluster. Every node's account table has the cluster's partition
+ * count, so a partition is listed by visiting that partition on each node.
+ */
+public class ClusterAccountDirectory implements AccountDirectory {
+
+    private final List<AccountNode> nodes;
+
+    /**
+     * Constructor for ClusterAccountDirectory.
+     *
+     * @param nodes the nodes of the cluster
+     */
+    public ClusterAccountDirectory(List<AccountNode> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one node");
+        }
+        this.nodes = List.copyOf(nodes);
+    }
+
+    /**
+     * @return the nodes of the cluster
+     */
+    public List<AccountNode> nodes() {
+        return nodes;
+    }
+
+    @Override
+    public int partitionCount() {
+        return nodes.get(0).getAccountTable().partitionCount();
+    }
+
+    @Override
+    public void forEachAccountId(int partition, Consumer<String> action) {
+        nodes.forEach(node -> node.getAccountTable().forEachAccountId(partition, action));
+    }
+}
@@ -0,0 +1,61 @@
+package tech.challenge.cluster;
+
+import tech.challenge.util.Hashing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring of node ids. Each node is placed at several points of the ring so that
+ * load spreads evenly, and adding or removing a node only moves the keys adjacent to its points.
+ */
+final class ConsistentHashRing {
+
+    private final long[] tokens;
+    private final String[] owners;
+
+    /**
+     * Constructor for ConsistentHashRing.
+     *
+     * @param nodeIds the ids of the nodes on the ring
+     * @param virtualNodes the number of points each node occupies
+     */
+    ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        List<String> sorted = nodeIds.stream().sorted().toList();
+        int points = sorted.size() * virtualNodes;
+        long[] unsortedTokens = new long[points];
+        Integer[] order = new Integer[points];
+        for (int n = 0; n < sorted.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                int point = n * virtualNodes + v;
+                unsortedTokens[point] = Hashing.hash64(sorted.get(n) + "#" + v);
+                order[point] = point;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsortedTokens[a], unsortedTokens[b]));
+        this.tokens = new long[points];
+        this.owners = new String[points];
+        for (int i = 0; i < points; i++) {
+            tokens[i] = unsortedTokens[order[i]];
+            owners[i] = sorted.get(order[i] / virtualNodes);
+        }
+    }
+
+    /**
+     * Finds the node owning a hash: the node of the first point at or after it, wrapping around the ring.
+     *
+     * @param hash the hash to place
+     * @return the id of the owning node
+     */
+    String ownerOf(long hash) {
+        int index = Arrays.binarySearch(tokens, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == tokens.length ? 0 : index];
+    }
+}
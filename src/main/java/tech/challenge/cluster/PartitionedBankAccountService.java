@@ -0,0 +1,395 @@
+package tech.challenge.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.dedup.InFlightTransactions;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountSnapshot;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.InvalidTransactionException;
+import tech.challenge.util.Hashing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Routes balance operations to the node owning each account.
+ * Accounts are hashed to a fixed number of partitions and partitions are assigned to nodes with a
+ * consistent-hash ring, so when a node joins or leaves only the partitions adjacent to its ring points move.
+ * Moving a partition briefly blocks traffic to that partition only; the rest of the cluster keeps serving.
+ *
+ * <p>Redelivered transactions are recognised here, before routing, rather than only by the owning node: a node's
+ * record of the ids it has applied stays behind when its partitions move, so a redelivery reaching the new owner
+ * would otherwise be applied again. A redelivery arriving while the first delivery is still being decided waits
+ * for its outcome, so it is not reported as applied when the first delivery is then rejected.
+ */
+@Slf4j
+public class PartitionedBankAccountService implements BankAccountService {
+
+    private static final char HOLD_SEPARATOR = '#';
+
+    private final int partitionMask;
+    private final int virtualNodes;
+    private final AtomicReferenceArray<AccountNode> owners;
+    private final ReentrantReadWriteLock[] partitionLocks;
+    private final Map<String, AccountNode> nodes = new ConcurrentHashMap<>();
+    private final DuplicateTransactionDetector duplicateDetector;
+    private final InFlightTransactions inFlight = new InFlightTransactions();
+    private final LongAdder nullTransactions = new LongAdder();
+    private final LongAdder nullAccounts = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Constructor for PartitionedBankAccountService.
+     *
+     * @param partitions the number of partitions, a power of two matching every node's account table
+     * @param virtualNodes the number of ring points per node
+     * @param duplicateDetector the detector used to skip redelivered transactions wherever their account lives
+     * @param initialNodes the nodes the cluster starts with
+     */
+    public PartitionedBankAccountService(int partitions, int virtualNodes,
+                                         DuplicateTransactionDetector duplicateDetector,
+                                         List<AccountNode> initialNodes) {
+        if (partitions <= 0 || Integer.bitCount(partitions) != 1) {
+            throw new IllegalArgumentException("Partition count must be a power of two, was " + partitions);
+        }
+        this.partitionMask = partitions - 1;
+        this.virtualNodes = virtualNodes;
+        this.duplicateDetector = duplicateDetector;
+        this.owners = new AtomicReferenceArray<>(partitions);
+        this.partitionLocks = new ReentrantReadWriteLock[partitions];
+        for (int p = 0; p < partitions; p++) {
+            partitionLocks[p] = new ReentrantReadWriteLock();
+        }
+        initialNodes.forEach(this::validate);
+        initialNodes.forEach(node -> nodes.put(node.getNodeId(), node));
+        rebalance();
+    }
+
+    /**
+     * Adds a node to the cluster and moves to it the partitions it now owns.
+     *
+     * @param node the joining node
+     */
+    public synchronized void join(AccountNode node) {
+        validate(node);
+        if (nodes.putIfAbsent(node.getNodeId(), node) != null) {
+            throw new IllegalArgumentException("Node " + node.getNodeId() + " is already a member");
+        }
+        log.info("Node {} joining the cluster", node.getNodeId());
+        rebalance();
+    }
+
+    /**
+     * Removes a node from the cluster after moving its partitions to the remaining nodes.
+     *
+     * @param nodeId the id of the leaving node
+     */
+    public synchronized void leave(String nodeId) {
+        if (!nodes.containsKey(nodeId)) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not a member");
+        }
+        if (nodes.size() == 1) {
+            throw new IllegalStateException("The last node cannot leave the cluster");
+        }
+        log.info("Node {} leaving the cluster", nodeId);
+        nodes.remove(nodeId);
+        rebalance();
+    }
+
+    /**
+     * Returns the node currently owning an account.
+     */
+    public AccountNode ownerOf(String accountId) {
+        return owners.get(partitionOf(accountId));
+    }
+
+    /**
+     * Returns the number of partitions currently owned by a node.
+     */
+    public int partitionsOwnedBy(String nodeId) {
+        int owned = 0;
+        for (int p = 0; p <= partitionMask; p++) {
+            if (owners.get(p).getNodeId().equals(nodeId)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    @Override
+    public void processTransaction(Transaction transaction) {
+        int code = submitTransaction(transaction);
+        if (code != RejectionCode.ACCEPTED && code != RejectionCode.DUPLICATE) {
+            throw new InvalidTransactionException("Transaction rejected: " + RejectionCode.describe(code));
+        }
+    }
+
+    /**
+     * Submits a transaction to the node owning its account, which validates it. Transactions that cannot be
+     * routed for lack of an account, and redeliveries, are rejected and counted here.
+     */
+    @Override
+    public int submitTransaction(Transaction transaction) {
+        if (transaction == null) {
+            nullTransactions.increment();
+            return RejectionCode.NULL_TRANSACTION;
+        }
+        if (transaction.getAccountId() == null) {
+            nullAccounts.increment();
+            return RejectionCode.NULL_ACCOUNT;
+        }
+        return inFlight.process(transaction.getId(), () -> routeSubmission(transaction));
+    }
+
+    private int routeSubmission(Transaction transaction) {
+        if (isDuplicate(transaction)) {
+            return RejectionCode.DUPLICATE;
+        }
+        boolean applied = false;
+        try {
+            int code = onOwner(transaction.getAccountId(), node -> node.getService().submitTransaction(transaction));
+            applied = code == RejectionCode.ACCEPTED || code == RejectionCode.DUPLICATE;
+            return code;
+        } finally {
+            if (!applied) {
+                forget(transaction);
+            }
+        }
+    }
+
+    /**
+     * Sums the count over the current nodes, plus the transactions rejected here before routing.
+     */
+    @Override
+    public long validationCount(int rejectionCode) {
+        long count = nodes.values().stream().mapToLong(node -> node.getService().validationCount(rejectionCode)).sum();
+        if (rejectionCode == RejectionCode.NULL_TRANSACTION) {
+            count += nullTransactions.sum();
+        } else if (rejectionCode == RejectionCode.NULL_ACCOUNT) {
+            count += nullAccounts.sum();
+        } else if (rejectionCode == RejectionCode.DUPLICATE) {
+            count += duplicates.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public double retrieveBalance() {
+        return retrieveLedgerBalance(Transaction.DEFAULT_ACCOUNT);
+    }
+
+    @Override
+    public boolean processConditionalDebit(Transaction transaction) {
+        if (transaction == null || transaction.getAmount() >= 0) {
+            throw new InvalidTransactionException("Conditional debit is null or not a debit");
+        }
+        return inFlight.process(transaction.getId(), () -> routeConditionalDebit(transaction));
+    }
+
+    private boolean routeConditionalDebit(Transaction transaction) {
+        if (isDuplicate(transaction)) {
+            return true;
+        }
+        boolean applied = false;
+        try {
+            applied = onOwner(transaction.getAccountId(),
+                    node -> node.getService().processConditionalDebit(transaction));
+            return applied;
+        } finally {
+            if (!applied) {
+                forget(transaction);
+            }
+        }
+    }
+
+    /**
+     * Applies a transfer atomically as one audited event, wherever its accounts live. Both partitions are held
+     * against moving while the source node applies the transfer; when the destination account lives on another
+     * node the source node claims it in that node's table, so both legs take effect together, the destination
+     * node reports its own leg and nothing is left to undo if either side fails.
+     */
+    @Override
+    public boolean processTransfer(Transaction transfer) {
+        if (transfer == null || !transfer.isTransfer()) {
+            throw new InvalidTransactionException("Transfer is null, has zero amount or has no distinct counterparty");
+        }
+        return inFlight.process(transfer.getId(), () -> routeDedupedTransfer(transfer));
+    }
+
+    private boolean routeDedupedTransfer(Transaction transfer) {
+        if (isDuplicate(transfer)) {
+            return true;
+        }
+        boolean applied = false;
+        try {
+            applied = routeTransfer(transfer);
+            return applied;
+        } finally {
+            if (!applied) {
+                forget(transfer);
+            }
+        }
+    }
+
+    private boolean routeTransfer(Transaction transfer) {
+        int sourcePartition = partitionOf(transfer.getAccountId());
+        int destinationPartition = partitionOf(transfer.getCounterpartyAccountId());
+        Lock sourceLock = partitionLocks[sourcePartition].readLock();
+        Lock destinationLock = partitionLocks[destinationPartition].readLock();
+        sourceLock.lock();
+        destinationLock.lock();
+        try {
+            AccountNode source = owners.get(sourcePartition);
+            AccountNode destination = owners.get(destinationPartition);
+            if (source == destination) {
+                return source.getService().processTransfer(transfer);
+            }
+            return source.processTransferTo(transfer, destination);
+        } finally {
+            destinationLock.unlock();
+            sourceLock.unlock();
+        }
+    }
+
+    /**
+     * Places a hold on the owning node. The returned id carries the account id so the hold can be routed
+     * to whichever node owns the account when it is settled or released.
+     */
+    @Override
+    public Optional<String> placeHold(String accountId, double amount) {
+        return onOwner(accountId, node -> node.getService().placeHold(accountId, amount)
+                .map(holdId -> accountId + HOLD_SEPARATOR + holdId));
+    }
+
+    @Override
+    public boolean settleHold(String holdId) {
+        int separator = holdId.lastIndexOf(HOLD_SEPARATOR);
+        if (separator < 0) {
+            return false;
+        }
+        String nodeHoldId = holdId.substring(separator + 1);
+        return onOwner(holdId.substring(0, separator), node -> node.getService().settleHold(nodeHoldId));
+    }
+
+    @Override
+    public boolean releaseHold(String holdId) {
+        int separator = holdId.lastIndexOf(HOLD_SEPARATOR);
+        if (separator < 0) {
+            return false;
+        }
+        String nodeHoldId = holdId.substring(separator + 1);
+        return onOwner(holdId.substring(0, separator), node -> node.getService().releaseHold(nodeHoldId));
+    }
+
+    @Override
+    public void setOverdraftLimit(String accountId, double limit) {
+        onOwner(accountId, node -> {
+            node.getService().setOverdraftLimit(accountId, limit);
+            return null;
+        });
+    }
+
+    @Override
+    public double retrieveLedgerBalance(String accountId) {
+        return onOwner(accountId, node -> node.getService().retrieveLedgerBalance(accountId));
+    }
+
+    @Override
+    public double retrieveAvailableBalance(String accountId) {
+        return onOwner(accountId, node -> node.getService().retrieveAvailableBalance(accountId));
+    }
+
+    @Override
+    public double retrieveBalanceAsOf(String accountId, Instant asOf) {
+        return onOwner(accountId, node -> node.getService().retrieveBalanceAsOf(accountId, asOf));
+    }
+
+    private <T> T onOwner(String accountId, Function<AccountNode, T> operation) {
+        int partition = partitionOf(accountId);
+        Lock lock = partitionLocks[partition].readLock();
+        lock.lock();
+        try {
+            return operation.apply(owners.get(partition));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the transaction's id, reporting whether it was already applied somewhere in the cluster.
+     */
+    private boolean isDuplicate(Transaction transaction) {
+        if (transaction.getId() == null || !duplicateDetector.isDuplicate(transaction.getId())) {
+            return false;
+        }
+        duplicates.increment();
+        log.debug("Skipped redelivered transaction {}", transaction.getId());
+        return true;
+    }
+
+    /**
+     * Forgets the id of a transaction that was rejected without being applied, so a retry is accepted.
+     */
+    private void forget(Transaction transaction) {
+        if (transaction.getId() != null) {
+            duplicateDetector.forget(transaction.getId());
+        }
+    }
+
+    private int partitionOf(String accountId) {
+        return (int) (Hashing.hash64(accountId) & partitionMask);
+    }
+
+    /**
+     * Recomputes the owner of every partition from the current members and moves each partition whose owner
+     * changed. Only the partition being moved is blocked while its accounts are copied.
+     */
+    private void rebalance() {
+        ConsistentHashRing ring = new ConsistentHashRing(nodes.keySet(), virtualNodes);
+        int moved = 0;
+        long started = System.nanoTime();
+        for (int p = 0; p <= partitionMask; p++) {
+            AccountNode target = nodes.get(ring.ownerOf(Hashing.mix64(p)));
+            AccountNode current = owners.get(p);
+            if (current == target) {
+                continue;
+            }
+            Lock lock = partitionLocks[p].writeLock();
+            lock.lock();
+            try {
+                if (current != null) {
+                    List<AccountSnapshot> accounts = current.detachPartition(p);
+                    target.attach(accounts);
+                }
+                owners.set(p, target);
+            } finally {
+                lock.unlock();
+            }
+            moved++;
+        }
+        log.info("Rebalanced {} of {} partitions across {} nodes in {} ms", moved, partitionMask + 1, nodes.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void validate(AccountNode node) {
+        if (node.getAccountTable().partitionCount() != partitionMask + 1) {
+            throw new IllegalArgumentException("Node " + node.getNodeId() + " has "
+                    + node.getAccountTable().partitionCount() + " partitions, the cluster has " + (partitionMask + 1));
+        }
+    }
+}
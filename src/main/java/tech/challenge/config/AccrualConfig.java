@@ -0,0 +1,46 @@
+package tech.challenge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.challenge.accrual.AccrualEngine;
+import tech.challenge.accrual.AccrualPolicy;
+import tech.challenge.consumer.service.AccountDirectory;
+import tech.challenge.consumer.service.BankAccountService;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration class for the end-of-day interest and fee run.
+ * With `accrual.enabled: true` every account accrues interest and fees each night at `accrual.cron`.
+ */
+@Configuration
+@ConditionalOnProperty(name = "accrual.enabled", havingValue = "true")
+public class AccrualConfig {
+
+    /**
+     * Defines the accrual engine.
+     *
+     * @param accounts the accounts to accrue, those of every node in partitioned mode
+     * @param annualInterestRate yearly interest paid on credit balances
+     * @param annualOverdraftRate yearly interest charged on overdrawn balances
+     * @param overdrawnFee daily fee in pounds charged on overdrawn accounts
+     * @param progressFile file recording the dates and partitions accrued; empty to keep them in memory only
+     * @param cpuShare share of the cores the run may use, leaving the rest to live traffic
+     * @param chunkSize number of postings between pauses
+     * @return the AccrualEngine
+     */
+    @Bean
+    public AccrualEngine accrualEngine(AccountDirectory accounts, BankAccountService bankAccountService,
+                                       @Value("${accrual.interest.annual-rate:0.02}") double annualInterestRate,
+                                       @Value("${accrual.overdraft.annual-rate:0.15}") double annualOverdraftRate,
+                                       @Value("${accrual.overdraft.daily-fee:0}") double overdrawnFee,
+                                       @Value("${accrual.progress-file:accrual-progress.properties}") String progressFile,
+                                       @Value("${accrual.cpu-share:0.5}") double cpuShare,
+                                       @Value("${accrual.chunk-size:1024}") int chunkSize) {
+        return new AccrualEngine(accounts, bankAccountService,
+                AccrualPolicy.ofAnnualRates(annualInterestRate, annualOverdraftRate, overdrawnFee),
+                progressFile.isEmpty() ? null : Path.of(progressFile), cpuShare, chunkSize);
+    }
+}
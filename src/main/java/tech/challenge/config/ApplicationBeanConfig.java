@@ -1,5 +1,6 @@
 package tech.challenge.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,12 +16,15 @@ public class ApplicationBeanConfig {
 
     /**
      * Defines a bean that supplies random double values.
-     * The supplier generates random double values in the range [0.0, 1.0).
+     * The supplier generates random double values in the range [0.0, 1.0) from a single generator, seeded with
+     * `producer.seed` when it is set so that the producer's amounts repeat from run to run.
      *
+     * @param seed seed of the generator, or null for an unseeded one
      * @return a Supplier of random double values
      */
     @Bean
-    public Supplier<Double> randomDoubleSupplier() {
-        return () -> new Random().nextDouble(); // [0.0, 1.0)
+    public Supplier<Double> randomDoubleSupplier(@Value("${producer.seed:#{null}}") Long seed) {
+        Random random = seed == null ? new Random() : new Random(seed);
+        return random::nextDouble; // [0.0, 1.0)
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package tech.challenge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.challenge.audit.scoring.VelocityScorer;
+import tech.challenge.audit.service.AdaptiveSubmissionController;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the audit pipeline.
+ * With `audit.adaptive.enabled: true` the submission size and concurrency adapt to the submission handler's
+ * latency instead of staying at `audit.max.transactions.per.submission` and `audit.thread.pool.size`.
+ * With `audit.scoring.enabled: true` transactions on accounts with unusual velocity are audited with priority.
+ */
+@Configuration
+public class AuditConfig {
+
+    /**
+     * Defines the controller adapting submissions to the handler's latency. The configured maximum submission
+     * size and thread pool size are the upper bounds.
+     *
+     * @param minSubmissionSize smallest number of transactions per submission
+     * @param maxSubmissionSize largest number of transactions per submission
+     * @param minConcurrency fewest submissions handled at once
+     * @param maxConcurrency most submissions handled at once
+     * @param targetLatency handler latency above which submissions are made smaller and fewer
+     * @param increaseStep transactions added to the submission size after a fast submission
+     * @param decreaseFactor factor applied to both settings after a slow submission
+     * @return the AdaptiveSubmissionController
+     */
+    @Bean
+    @ConditionalOnProperty(name = "audit.adaptive.enabled", havingValue = "true")
+    public AdaptiveSubmissionController adaptiveSubmissionController(
+            @Value("${audit.adaptive.min-transactions-per-submission:50}") int minSubmissionSize,
+            @Value("${audit.max.transactions.per.submission:1000}") int maxSubmissionSize,
+            @Value("${audit.adaptive.min-concurrency:1}") int minConcurrency,
+            @Value("${audit.thread.pool.size:4}") int maxConcurrency,
+            @Value("${audit.adaptive.target-latency:200ms}") Duration targetLatency,
+            @Value("${audit.adaptive.increase-step:50}") int increaseStep,
+            @Value("${audit.adaptive.decrease-factor:0.5}") double decreaseFactor) {
+        return new AdaptiveSubmissionController(Math.min(minSubmissionSize, maxSubmissionSize), maxSubmissionSize,
+                Math.min(minConcurrency, maxConcurrency), maxConcurrency, targetLatency, increaseStep,
+                decreaseFactor);
+    }
+
+    /**
+     * Defines the scorer flagging accounts whose transaction count or value over the sliding window exceeds
+     * the configured limits.
+     *
+     * @param window length of the sliding window
+     * @param slots number of slots the window is divided into
+     * @param depth rows of the count-min sketch
+     * @param width counters per row of the count-min sketch
+     * @param maxCount transactions per account in a window above which it is flagged
+     * @param maxValue value per account in a window, in pounds, above which it is flagged
+     * @return the VelocityScorer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "audit.scoring.enabled", havingValue = "true")
+    public VelocityScorer velocityScorer(@Value("${audit.scoring.window:1h}") Duration window,
+                                         @Value("${audit.scoring.slots:12}") int slots,
+                                         @Value("${audit.scoring.sketch-depth:4}") int depth,
+                                         @Value("${audit.scoring.sketch-width:4096}") int width,
+                                         @Value("${audit.scoring.max-count-per-window:1000}") long maxCount,
+                                         @Value("${audit.scoring.max-value-per-window:1000000}") double maxValue) {
+        return new VelocityScorer(window, slots, depth, width, maxCount, maxValue);
+    }
+}
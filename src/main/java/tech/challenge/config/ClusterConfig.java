@@ -0,0 +1,110 @@
+package tech.challenge.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import tech.challenge.audit.service.AuditService;
+import tech.challenge.cluster.ClusterAccountDirectory;
+import tech.challenge.cluster.PartitionedBankAccountService;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.BalanceHistory;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.journal.JournalStartupRecovery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for the partitioned deployment mode.
+ * When `cluster.enabled` is true, the REST layer and the producers talk to a router spreading accounts
+ * over several nodes hosted in this JVM instead of to a single balance tracker.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    /**
+     * Number of account partitions distributed across the nodes.
+     * Configurable via the `cluster.partitions` property.
+     */
+    @Value("${cluster.partitions:256}")
+    private int partitions;
+
+    /**
+     * Number of ring points per node; more points spread partitions more evenly.
+     * Configurable via the `cluster.virtual-nodes` property.
+     */
+    @Value("${cluster.virtual-nodes:64}")
+    private int virtualNodes;
+
+    /**
+     * Number of nodes started in this JVM.
+     * Configurable via the `cluster.local-nodes` property.
+     */
+    @Value("${cluster.local-nodes:4}")
+    private int localNodes;
+
+    @Value("${accounts.overdraft.default-limit:0}")
+    private double defaultOverdraftLimit;
+
+    @Value("${ingest.dedup.expected-ids-per-window:10000000}")
+    private long expectedIdsPerWindow;
+
+    @Value("${ingest.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${ingest.dedup.window:1h}")
+    private Duration dedupWindow;
+
+    /**
+     * Defines the nodes hosted in this JVM, which also list the accounts for bulk jobs such as the accrual run.
+     *
+     * @return the ClusterAccountDirectory over the local nodes
+     */
+    @Bean
+    @Primary
+    public ClusterAccountDirectory clusterAccountDirectory(AuditService auditService,
+                                                           List<PostingListener> postingListeners,
+                                                           BalanceHistory balanceHistory) {
+        List<AccountNode> nodes = new ArrayList<>();
+        for (int i = 0; i < localNodes; i++) {
+            nodes.add(new AccountNode("node-" + i, auditService,
+                    new DuplicateTransactionDetector(Math.max(1, expectedIdsPerWindow / localNodes), falsePositiveRate,
+                            dedupWindow),
+                    new AccountTable(partitions, defaultOverdraftLimit), postingListeners, balanceHistory));
+        }
+        return new ClusterAccountDirectory(nodes);
+    }
+
+    /**
+     * Defines the router used in place of the single balance tracker.
+     * Redeliveries are recognised by the router with the full dedup capacity, since a node's record of the ids
+     * it applied stays behind when its partitions move; each node keeps a share for the legs routed to it.
+     * With a journal, each account's recovered balance is placed on the node the router assigns it to.
+     *
+     * @param cluster the nodes to route to
+     * @param journalRecovery the recovery of state from the journal, if journaling is enabled
+     * @return the partitioned BankAccountService
+     */
+    @Bean
+    @Primary
+    public BankAccountService partitionedBankAccountService(ClusterAccountDirectory cluster,
+                                                            ObjectProvider<JournalStartupRecovery> journalRecovery) {
+        log.info("Partitioned mode with {} local nodes over {} partitions", localNodes, partitions);
+        PartitionedBankAccountService router = new PartitionedBankAccountService(partitions, virtualNodes,
+                new DuplicateTransactionDetector(expectedIdsPerWindow, falsePositiveRate, dedupWindow),
+                cluster.nodes());
+        journalRecovery.ifAvailable(recovery ->
+                recovery.recover(accountId -> router.ownerOf(accountId).getAccountTable()));
+        return router;
+    }
+}
@@ -0,0 +1,128 @@
+package tech.challenge.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.history.TransactionHistoryStore;
+import tech.challenge.journal.JournalCompactor;
+import tech.challenge.journal.JournalFollower;
+import tech.challenge.journal.JournalShippingServer;
+import tech.challenge.journal.JournalStartupRecovery;
+import tech.challenge.journal.TransactionJournal;
+import tech.challenge.statement.WindowedAggregates;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the transaction journal and journal-shipping read replicas.
+ * A leader (`replication.role: leader`) journals every posting and ships the journal to followers;
+ * a follower (`replication.role: follower`) applies the shipped journal to its own balances and serves reads.
+ */
+@Slf4j
+@Configuration
+public class ReplicationConfig {
+
+    /**
+     * Loopback port the leader ships its journal on and followers connect to.
+     * Configurable via the `replication.port` property.
+     */
+    @Value("${replication.port:7400}")
+    private int replicationPort;
+
+    /**
+     * Defines the recovery of balances, transaction history and statements from an existing journal, skipped
+     * when `journal.recover-on-start` is false.
+     *
+     * @param directory directory holding the journal segments
+     * @param recoverOnStart whether to rebuild state from the journal
+     * @param recoveryParallelism number of recovery workers, 0 for one per core
+     * @param historyStore the transaction history and balance checkpoints to rebuild
+     * @param statements the statement aggregates to rebuild
+     * @return the JournalStartupRecovery
+     */
+    @Bean
+    @ConditionalOnProperty(name = "journal.enabled", havingValue = "true")
+    public JournalStartupRecovery journalStartupRecovery(@Value("${journal.directory:journal}") Path directory,
+                                                         @Value("${journal.recover-on-start:true}") boolean recoverOnStart,
+                                                         @Value("${journal.recovery-parallelism:0}") int recoveryParallelism,
+                                                         TransactionHistoryStore historyStore,
+                                                         WindowedAggregates statements) {
+        return new JournalStartupRecovery(directory, recoverOnStart, recoveryParallelism,
+                List.of(historyStore, statements));
+    }
+
+    /**
+     * Defines the journal recording every posting. In single-node mode the state recorded in an existing journal
+     * is recovered into the account table first; in partitioned mode it is recovered once the partitions have
+     * been assigned to the nodes.
+     *
+     * @param directory directory holding the journal segments
+     * @param segmentBytes size after which a new segment is started
+     * @param flushInterval how often buffered postings are written out
+     * @param fsyncInterval how often written postings are forced to disk, zero to force them on every flush
+     * @param partitioned whether the accounts are partitioned over nodes
+     * @param startupRecovery the recovery of state from the journal
+     * @return the TransactionJournal
+     */
+    @Bean
+    @ConditionalOnProperty(name = "journal.enabled", havingValue = "true")
+    public TransactionJournal transactionJournal(@Value("${journal.directory:journal}") Path directory,
+                                                 @Value("${journal.segment-bytes:67108864}") long segmentBytes,
+                                                 @Value("${journal.flush-interval:2ms}") Duration flushInterval,
+                                                 @Value("${journal.fsync-interval:10ms}") Duration fsyncInterval,
+                                                 @Value("${cluster.enabled:false}") boolean partitioned,
+                                                 JournalStartupRecovery startupRecovery,
+                                                 AccountTable accountTable) {
+        TransactionJournal journal = new TransactionJournal(directory, segmentBytes, flushInterval, fsyncInterval);
+        if (!partitioned) {
+            startupRecovery.recover(accountId -> accountTable);
+        }
+        return journal;
+    }
+
+    /**
+     * Defines the background compaction folding segments older than the retention window into a balance snapshot.
+     *
+     * @param retention how long segments are kept
+     * @param maxBytesPerSecond cap on the compaction's I/O rate
+     * @param interval how often compaction runs
+     * @return the JournalCompactor
+     */
+    @Bean
+    @ConditionalOnProperty(name = {"journal.enabled", "journal.compaction.enabled"}, havingValue = "true")
+    public JournalCompactor journalCompactor(TransactionJournal transactionJournal,
+                                             @Value("${journal.compaction.retention:24h}") Duration retention,
+                                             @Value("${journal.compaction.max-bytes-per-second:33554432}") long maxBytesPerSecond,
+                                             @Value("${journal.compaction.interval:1m}") Duration interval) {
+        return new JournalCompactor(transactionJournal, retention, maxBytesPerSecond, interval);
+    }
+
+    /**
+     * Defines the server shipping the journal to followers; the journal must be enabled.
+     *
+     * @return the JournalShippingServer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "replication.role", havingValue = "leader")
+    public JournalShippingServer journalShippingServer(TransactionJournal transactionJournal) {
+        return new JournalShippingServer(transactionJournal, replicationPort);
+    }
+
+    /**
+     * Defines the follower applying the leader's journal to this instance's account table.
+     *
+     * @return the JournalFollower
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "replication.role", havingValue = "follower")
+    public JournalFollower journalFollower(AccountTable accountTable) {
+        return new JournalFollower(replicationPort, accountTable);
+    }
+}
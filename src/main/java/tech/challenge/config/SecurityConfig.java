@@ -1,5 +1,6 @@
 package tech.challenge.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -34,7 +35,7 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable) // Disables CSRF protection
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/v1/balance").authenticated() // Requires authentication for specific endpoints
+                        .requestMatchers("/api/v1/**").authenticated() // Requires authentication for all API endpoints
                         .anyRequest().permitAll() // Allows all other requests
                 )
                 .httpBasic(httpBasic -> {}); // Enables HTTP Basic authentication
@@ -43,20 +44,30 @@ public class SecurityConfig {
     }
 
     /**
-     * Configures an in-memory user details service with a single user.
-     * The user has a username, an encoded password, and a role.
+     * Configures an in-memory user details service with a single user, and an administrator when an
+     * administrator password is configured.
+     * Each user has a username, an encoded password, and a role.
      *
+     * @param adminPassword password of the "admin" user; empty to have no administrator
      * @return the configured UserDetailsService
      */
     @Bean
-    public UserDetailsService userDetailsService() {
+    public UserDetailsService userDetailsService(@Value("${security.admin.password:}") String adminPassword) {
         UserDetails user = User.builder()
                 .username("test") // Sets the username
                 .password(passwordEncoder().encode("p@ssword12")) // Encodes the password securely
                 .roles("USER") // Assigns the role "USER"
                 .build();
 
-        return new InMemoryUserDetailsManager(user);
+        InMemoryUserDetailsManager manager = new InMemoryUserDetailsManager(user);
+        if (!adminPassword.isBlank()) {
+            manager.createUser(User.builder()
+                    .username("admin")
+                    .password(passwordEncoder().encode(adminPassword))
+                    .roles("USER", "ADMIN") // Administrators may also change the audit settings
+                    .build());
+        }
+        return manager;
     }
 
     /**
@@ -0,0 +1,55 @@
+package tech.challenge.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the REST serving mode.
+ * Selects the thread model used by Tomcat to handle requests and the number of connections it keeps open.
+ */
+@Slf4j
+@Configuration
+public class ServingConfig {
+
+    /**
+     * Thread model used to serve requests.
+     * Configurable via the `api.serving.mode` property.
+     */
+    @Value("${api.serving.mode:platform}")
+    private ServingMode servingMode;
+
+    /**
+     * Maximum number of connections Tomcat accepts and keeps open at the same time.
+     * Configurable via the `api.serving.max-connections` property.
+     */
+    @Value("${api.serving.max-connections:8192}")
+    private int maxConnections;
+
+    /**
+     * Customizes the embedded Tomcat according to the configured serving mode.
+     *
+     * @return the customizer applied to the Tomcat web server factory
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> servingModeCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(protocolHandler -> {
+            if (protocolHandler instanceof AbstractProtocol<?> protocol) {
+                protocol.setMaxConnections(maxConnections);
+            }
+            if (servingMode == ServingMode.VIRTUAL) {
+                if (Runtime.version().feature() < 21) {
+                    throw new IllegalStateException("Serving mode VIRTUAL requires Java 21 or later, running on "
+                            + Runtime.version());
+                }
+                protocolHandler.setExecutor(new VirtualThreadExecutor("balance-http-"));
+            }
+            log.info("REST layer serving mode {} with max {} connections", servingMode, maxConnections);
+        });
+    }
+}
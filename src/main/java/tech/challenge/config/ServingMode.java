@@ -0,0 +1,18 @@
+package tech.challenge.config;
+
+/**
+ * Thread model used by the embedded web server to serve REST requests.
+ */
+public enum ServingMode {
+
+    /**
+     * Default Tomcat behaviour: each request runs on a pooled platform thread.
+     */
+    PLATFORM,
+
+    /**
+     * Each request runs on its own virtual thread, so blocked requests do not pin a pool thread.
+     * Requires a Java 21+ runtime.
+     */
+    VIRTUAL
+}
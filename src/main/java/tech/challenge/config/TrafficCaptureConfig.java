@@ -0,0 +1,33 @@
+package tech.challenge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.challenge.replay.TrafficCapturePostProcessor;
+import tech.challenge.replay.TrafficWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration class for capturing the incoming transaction stream to a file, enabled with `capture.enabled`.
+ * A capture is replayed with `replay.enabled` and `replay.file`.
+ */
+@Configuration
+public class TrafficCaptureConfig {
+
+    /**
+     * Defines the post-processor recording every transaction that enters the bank account service. Static, as a
+     * post-processor must be created before the beans it processes.
+     *
+     * @param file the capture file, replaced if it exists
+     * @return the TrafficCapturePostProcessor
+     */
+    @Bean
+    @ConditionalOnProperty(name = "capture.enabled", havingValue = "true")
+    public static TrafficCapturePostProcessor trafficCapturePostProcessor(
+            @Value("${capture.file:traffic.bin}") Path file) throws IOException {
+        return new TrafficCapturePostProcessor(new TrafficWriter(file));
+    }
+}
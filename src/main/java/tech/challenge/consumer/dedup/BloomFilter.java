@@ -0,0 +1,72 @@
+package tech.challenge.consumer.dedup;
+
+import tech.challenge.util.Hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over pre-computed 64-bit hashes.
+ * Bits are set with CAS so concurrent writers never lose each other's updates.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Creates a filter sized for the expected number of insertions at the requested false-positive rate.
+     *
+     * @param expectedInsertions number of distinct values the filter should hold
+     * @param falsePositiveRate target probability of reporting an absent value as present
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) >>> 6);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param hash 64-bit hash of the value
+     */
+    void put(long hash) {
+        long second = Hashing.mix64(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash + i * second, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a value may have been recorded.
+     *
+     * @param hash 64-bit hash of the value
+     * @return false if the value was definitely never recorded, true if it possibly was
+     */
+    boolean mightContain(long hash) {
+        long second = Hashing.mix64(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash + i * second, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the memory held by the bit array in bytes
+     */
+    long sizeInBytes() {
+        return bitCount >>> 3;
+    }
+}
@@ -0,0 +1,151 @@
+package tech.challenge.consumer.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.challenge.util.Hashing;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects redelivered transactions by id so that they are applied and audited only once.
+ *
+ * <p>A pair of rotating Bloom filters answers the common "never seen" case. Each filter generation is paired with
+ * an exact record of the ids added during it, held as 64-bit hashes at a fixed 8 bytes each, so the exact window
+ * is the same as the filter window: an id is recognised for at least one and at most two windows. A filter
+ * negative records the id with a single insert into the active generation's record, without looking it up in
+ * the previous one; only filter positives are confirmed against both records, so a false positive is accepted
+ * as new rather than rejected. The generations rotate once per window or once the expected number of ids is
+ * reached, whichever comes first, so memory stays fixed regardless of ingest volume.
+ */
+@Slf4j
+@Component
+public class DuplicateTransactionDetector {
+
+    private final long expectedIdsPerWindow;
+    private final double falsePositiveRate;
+    private final long windowNanos;
+    private final AtomicReference<Generations> generations;
+    private final AtomicLong insertionsInWindow = new AtomicLong();
+    private final AtomicBoolean rotating = new AtomicBoolean();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Constructor for DuplicateTransactionDetector.
+     *
+     * @param expectedIdsPerWindow number of distinct ids each generation is sized for
+     * @param falsePositiveRate target false-positive rate of each filter generation
+     * @param window time after which the generation rotates
+     */
+    public DuplicateTransactionDetector(@Value("${ingest.dedup.expected-ids-per-window:10000000}") long expectedIdsPerWindow,
+                                        @Value("${ingest.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                                        @Value("${ingest.dedup.window:1h}") Duration window) {
+        this.expectedIdsPerWindow = expectedIdsPerWindow;
+        this.falsePositiveRate = falsePositiveRate;
+        this.windowNanos = window.toNanos();
+        this.generations = new AtomicReference<>(new Generations(
+                new BloomFilter(expectedIdsPerWindow, falsePositiveRate), new RecentIdSet(expectedIdsPerWindow),
+                null, null, System.nanoTime()));
+    }
+
+    /**
+     * Records a transaction id and reports whether it has been seen before.
+     *
+     * @param transactionId the id of the transaction being ingested
+     * @return true if the id was already recorded and the transaction must not be applied again
+     */
+    public boolean isDuplicate(String transactionId) {
+        long hash = Hashing.hash64(transactionId);
+        Generations current = currentGenerations();
+
+        if (current.previous != null && current.previous.mightContain(hash) && current.previousIds.contains(hash)) {
+            return recordDuplicate(true);
+        }
+        if (!current.active.mightContain(hash)) {
+            current.active.put(hash);
+        }
+        // The insert also arbitrates concurrent first deliveries: only one of them adds the id
+        if (!current.activeIds.add(hash)) {
+            return recordDuplicate(true);
+        }
+        insertionsInWindow.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Forgets a recorded id so that a later delivery is accepted again,
+     * for transactions that were recorded but then rejected without being applied.
+     * The filters still report the id, so the retry is confirmed against the exact records and found absent.
+     *
+     * @param transactionId the id to forget
+     */
+    public void forget(String transactionId) {
+        long hash = Hashing.hash64(transactionId);
+        Generations current = generations.get();
+        current.activeIds.remove(hash);
+        if (current.previousIds != null) {
+            current.previousIds.remove(hash);
+        }
+    }
+
+    /**
+     * @return the number of duplicates detected since startup
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return the memory held by the filter generations and their exact records, in bytes
+     */
+    public long estimatedFilterBytes() {
+        Generations current = generations.get();
+        long bytes = current.active.sizeInBytes() + current.activeIds.sizeInBytes();
+        if (current.previous != null) {
+            bytes += current.previous.sizeInBytes() + current.previousIds.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private boolean recordDuplicate(boolean duplicate) {
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+
+    private Generations currentGenerations() {
+        Generations current = generations.get();
+        boolean due = insertionsInWindow.get() >= expectedIdsPerWindow
+                || System.nanoTime() - current.startedAt >= windowNanos;
+        // Only one thread pays for allocating the next generation; the others keep using the current one
+        if (due && rotating.compareAndSet(false, true)) {
+            try {
+                if (generations.get() != current) {
+                    return generations.get();
+                }
+                Generations rotated = new Generations(new BloomFilter(expectedIdsPerWindow, falsePositiveRate),
+                        new RecentIdSet(expectedIdsPerWindow), current.active, current.activeIds, System.nanoTime());
+                generations.set(rotated);
+                insertionsInWindow.set(0);
+                log.debug("Rotated duplicate filter generation");
+                return rotated;
+            } finally {
+                rotating.set(false);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The filter and exact record receiving new ids together with the ones they replaced, which are still
+     * consulted so that ids near the rotation boundary are not forgotten.
+     */
+    private record Generations(BloomFilter active, RecentIdSet activeIds, BloomFilter previous,
+                               RecentIdSet previousIds, long startedAt) {
+    }
+}
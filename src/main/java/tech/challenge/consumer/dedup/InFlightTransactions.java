@@ -0,0 +1,55 @@
+package tech.challenge.consumer.dedup;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets only one delivery of a transaction id be processed at a time, and gives concurrent deliveries of the
+ * same id the outcome of the one being processed.
+ *
+ * <p>A delivery whose id is recorded by the {@link DuplicateTransactionDetector} but then rejected has its id
+ * forgotten, so that a retry is accepted. Without this, a redelivery racing with it would be reported as an
+ * already applied duplicate before the rejection was known; instead it waits for the outcome and reports that.
+ */
+public class InFlightTransactions {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Processes a delivery, unless another delivery of the same id is being processed, in which case it waits
+     * for that one and returns its outcome. The id is released only after the operation has finished,
+     * including forgetting the id of a rejected transaction.
+     *
+     * @param transactionId the id of the delivered transaction, or null to process it unconditionally
+     * @param operation validates and applies the transaction, returning its outcome
+     * @return the outcome of the operation, or of the concurrent delivery it waited for
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T process(String transactionId, Supplier<T> operation) {
+        if (transactionId == null) {
+            return operation.get();
+        }
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(transactionId, outcome);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T result = operation.get();
+            outcome.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(transactionId, outcome);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package tech.challenge.consumer.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exact record of the ids added during one filter generation, each held as its 64-bit hash at a fixed 8 bytes in
+ * an open-addressed table, so the set covers the same ids as the Bloom filter it is paired with and is dropped
+ * with it. Adds and removals are lock-free. A removed id leaves a tombstone, which keeps later ids in its probe
+ * sequence reachable and is never reused, since the table only lives for one generation.
+ */
+class RecentIdSet {
+
+    /**
+     * Highest share of slots in use for the expected number of ids, keeping probe sequences short.
+     */
+    static final double MAX_LOAD = 0.75;
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private final AtomicLongArray slots;
+
+    /**
+     * @param expectedIds number of ids the set is sized for
+     */
+    RecentIdSet(long expectedIds) {
+        long size = Math.max(16, (long) Math.ceil(expectedIds / MAX_LOAD));
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many expected ids for one generation: " + expectedIds);
+        }
+        this.slots = new AtomicLongArray((int) size);
+    }
+
+    /**
+     * Adds an id unless it is already present.
+     *
+     * @param hash 64-bit hash of the id
+     * @return true if the id was not already present, including when the table is full and it cannot be recorded
+     */
+    boolean add(long hash) {
+        long fingerprint = fingerprint(hash);
+        int length = slots.length();
+        int slot = (int) Long.remainderUnsigned(fingerprint, length);
+        for (int probes = 0; probes < length; probes++) {
+            long current = slots.get(slot);
+            if (current == EMPTY) {
+                if (slots.compareAndSet(slot, EMPTY, fingerprint)) {
+                    return true;
+                }
+                // Another writer took the slot; look at what it wrote before moving on
+                current = slots.get(slot);
+            }
+            if (current == fingerprint) {
+                return false;
+            }
+            slot = slot + 1 == length ? 0 : slot + 1;
+        }
+        // Only reachable when far more ids arrive than the generation was sized for, before it rotates
+        return true;
+    }
+
+    /**
+     * @param hash 64-bit hash of the id
+     * @return whether the id is present
+     */
+    boolean contains(long hash) {
+        return slotOf(fingerprint(hash)) >= 0;
+    }
+
+    /**
+     * Removes an id, leaving a tombstone in its slot.
+     *
+     * @param hash 64-bit hash of the id
+     */
+    void remove(long hash) {
+        long fingerprint = fingerprint(hash);
+        int slot = slotOf(fingerprint);
+        if (slot >= 0) {
+            slots.compareAndSet(slot, fingerprint, REMOVED);
+        }
+    }
+
+    /**
+     * @return the memory held by the table in bytes
+     */
+    long sizeInBytes() {
+        return (long) slots.length() << 3;
+    }
+
+    private int slotOf(long fingerprint) {
+        int length = slots.length();
+        int slot = (int) Long.remainderUnsigned(fingerprint, length);
+        for (int probes = 0; probes < length; probes++) {
+            long current = slots.get(slot);
+            if (current == fingerprint) {
+                return slot;
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+            slot = slot + 1 == length ? 0 : slot + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Maps the two hashes reserved as slot markers onto another value; a collision at 64 bits is negligible.
+     */
+    private static long fingerprint(long hash) {
+        return hash == EMPTY || hash == REMOVED ? 1 : hash;
+    }
+}
@@ -0,0 +1,344 @@
+package tech.challenge.consumer.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Balance state of a single account, held in pence.
+ *
+ * <p>The ledger balance is the sum of all posted transactions. The available balance is the ledger balance
+ * minus funds reserved by open holds, and is the value checked against the overdraft limit. Both balances and
+ * the limit are held in one immutable state that every change replaces with a compare-and-set, so the two
+ * balances always move together and no lock is taken: a posting that loses a race simply retries against the
+ * state that beat it.
+ *
+ * <p>A transfer claims the source and the destination by swapping in states that point to the transfer, then
+ * decides it with a single write to the transfer itself; both legs take effect at that write, so no reader ever
+ * sees one leg without the other. Anyone meeting a claim still being taken spins briefly, then aborts the
+ * transfer, which retries, and replaces a decided claim with its outcome, so no posting ever waits on a
+ * transfer's thread.
+ */
+public final class AccountBalance {
+
+    private static final AtomicReferenceFieldUpdater<AccountBalance, State> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(AccountBalance.class, State.class, "state");
+
+    /**
+     * Times a claim still being taken is re-read before the transfer holding it is aborted.
+     */
+    private static final int CLAIM_SPINS = 64;
+
+    private final String accountId;
+    private volatile State state;
+
+    AccountBalance(String accountId, long overdraftLimitInPence) {
+        this.accountId = accountId;
+        this.state = new State(0, 0, overdraftLimitInPence, null);
+    }
+
+    AccountBalance(AccountSnapshot snapshot) {
+        this.accountId = snapshot.accountId();
+        this.state = new State(snapshot.ledgerInPence(), snapshot.availableInPence(),
+                snapshot.overdraftLimitInPence(), null);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public long getLedgerInPence() {
+        return view().ledgerInPence();
+    }
+
+    public long getAvailableInPence() {
+        return view().availableInPence();
+    }
+
+    public long getOverdraftLimitInPence() {
+        return view().overdraftLimitInPence();
+    }
+
+    void setOverdraftLimitInPence(long overdraftLimitInPence) {
+        while (true) {
+            State current = settled();
+            State next = new State(current.ledgerInPence(), current.availableInPence(), overdraftLimitInPence, null);
+            if (STATE.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Posts an amount unconditionally, regardless of the overdraft limit.
+     *
+     * @param amountInPence signed amount to post
+     * @return the ledger balance after posting
+     */
+    long post(long amountInPence) {
+        while (true) {
+            State current = settled();
+            State next = current.plus(amountInPence, amountInPence);
+            if (STATE.compareAndSet(this, current, next)) {
+                return next.ledgerInPence();
+            }
+        }
+    }
+
+    /**
+     * Reserves funds from the available balance if doing so keeps it within the overdraft limit.
+     *
+     * @param amountInPence positive amount to reserve
+     * @return true if the funds were reserved
+     */
+    boolean tryReserve(long amountInPence) {
+        while (true) {
+            State current = settled();
+            if (!current.permits(amountInPence)) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, current, current.plus(0, -amountInPence))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Posts a debit if doing so keeps the available balance within the overdraft limit, checking and applying
+     * it as one compare-and-set.
+     *
+     * @param amountInPence positive amount to debit
+     * @return the ledger balance after the debit, or {@link Long#MIN_VALUE} if it was rejected
+     */
+    long tryDebit(long amountInPence) {
+        while (true) {
+            State current = settled();
+            if (!current.permits(amountInPence)) {
+                return Long.MIN_VALUE;
+            }
+            State next = current.plus(-amountInPence, -amountInPence);
+            if (STATE.compareAndSet(this, current, next)) {
+                return next.ledgerInPence();
+            }
+        }
+    }
+
+    /**
+     * Moves previously reserved funds onto the ledger.
+     *
+     * @param amountInPence positive amount that was reserved
+     * @return the ledger balance after settlement
+     */
+    long settleReserved(long amountInPence) {
+        while (true) {
+            State current = settled();
+            State next = current.plus(-amountInPence, 0);
+            if (STATE.compareAndSet(this, current, next)) {
+                return next.ledgerInPence();
+            }
+        }
+    }
+
+    /**
+     * Returns previously reserved funds to the available balance.
+     *
+     * @param amountInPence positive amount that was reserved
+     */
+    void releaseReserved(long amountInPence) {
+        while (true) {
+            State current = settled();
+            if (STATE.compareAndSet(this, current, current.plus(0, amountInPence))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves funds from one account to another as one step, checking the debit against the source's overdraft
+     * limit. Both accounts are claimed, always in account id order so that transfers in opposite directions
+     * meet on the same account first, and the transfer takes effect at the single write deciding it. A transfer
+     * aborted by a concurrent posting is retried.
+     *
+     * @param source the account debited
+     * @param destination the account credited, different from the source
+     * @param amountInPence positive amount to move
+     * @return the ledger balances of the source and the destination after the transfer, or null if the debit
+     * would breach the source's overdraft limit
+     */
+    static long[] transfer(AccountBalance source, AccountBalance destination, long amountInPence) {
+        boolean sourceFirst = source.accountId.compareTo(destination.accountId) < 0;
+        AccountBalance first = sourceFirst ? source : destination;
+        AccountBalance second = sourceFirst ? destination : source;
+        for (int attempt = 1; ; attempt++) {
+            Transfer transfer = new Transfer(source, amountInPence);
+            State firstClaim = first.claim(transfer);
+            State secondClaim = firstClaim == null ? null : second.claim(transfer);
+            if (secondClaim != null) {
+                State sourceClaim = sourceFirst ? firstClaim : secondClaim;
+                transfer.decide(sourceClaim.permits(amountInPence) ? Transfer.APPLIED : Transfer.REJECTED);
+            } else {
+                transfer.decide(Transfer.ABORTED);
+            }
+            if (firstClaim != null) {
+                first.release(transfer, firstClaim);
+            }
+            if (secondClaim != null) {
+                second.release(transfer, secondClaim);
+            }
+            switch (transfer.phase) {
+                case Transfer.APPLIED -> {
+                    State sourceClaim = sourceFirst ? firstClaim : secondClaim;
+                    State destinationClaim = sourceFirst ? secondClaim : firstClaim;
+                    return new long[]{sourceClaim.ledgerInPence() - amountInPence,
+                            destinationClaim.ledgerInPence() + amountInPence};
+                }
+                case Transfer.REJECTED -> {
+                    return null;
+                }
+                default -> {
+                    // Aborted by a posting that met one of the claims; back off so the two stop colliding
+                    for (int i = 0; i < Math.min(attempt, 16) * CLAIM_SPINS; i++) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the ledger balances of two accounts as of one instant, so a transfer between them is seen either
+     * whole or not at all. Transfers still claiming either account are settled first, and the read is retried
+     * until neither account changed while the other was read.
+     *
+     * @param first one account
+     * @param second another account
+     * @return the ledger balances of the first and the second account
+     */
+    static long[] ledgersInPence(AccountBalance first, AccountBalance second) {
+        while (true) {
+            State firstState = first.settled();
+            State secondState = second.settled();
+            if (first.state == firstState && second.state == secondState) {
+                return new long[]{firstState.ledgerInPence(), secondState.ledgerInPence()};
+            }
+        }
+    }
+
+    /**
+     * Reads the account's state with its balances as of one instant.
+     *
+     * @param holdsInPence the open holds on the account, by hold id
+     * @return the state of the account
+     */
+    AccountSnapshot snapshot(Map<String, Long> holdsInPence) {
+        State current = view();
+        return new AccountSnapshot(accountId, current.ledgerInPence(), current.availableInPence(),
+                current.overdraftLimitInPence(), holdsInPence);
+    }
+
+    /**
+     * @return the current state as readers see it: a claimed state shows the transfer's outcome once decided
+     */
+    private State view() {
+        State current = state;
+        return current.claimedBy() == null ? current : current.claimedBy().outcome(this, current);
+    }
+
+    /**
+     * @return the current state once any transfer claiming the account has been decided and its claim released
+     */
+    private State settled() {
+        int spins = 0;
+        while (true) {
+            State current = state;
+            Transfer transfer = current.claimedBy();
+            if (transfer == null) {
+                return current;
+            }
+            if (transfer.phase == Transfer.CLAIMING && ++spins < CLAIM_SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // The transfer is decided, or its thread is slow to finish claiming; abort it if still undecided
+            transfer.decide(Transfer.ABORTED);
+            release(transfer, current);
+        }
+    }
+
+    /**
+     * @return the claimed state, or null if the transfer was aborted before the account could be claimed
+     */
+    private State claim(Transfer transfer) {
+        while (true) {
+            if (transfer.phase != Transfer.CLAIMING) {
+                return null;
+            }
+            State current = settled();
+            State claimed = new State(current.ledgerInPence(), current.availableInPence(),
+                    current.overdraftLimitInPence(), transfer);
+            if (STATE.compareAndSet(this, current, claimed)) {
+                return claimed;
+            }
+        }
+    }
+
+    /**
+     * Replaces a claim of a decided transfer with its outcome, unless someone already has.
+     */
+    private void release(Transfer transfer, State claimed) {
+        STATE.compareAndSet(this, claimed, transfer.outcome(this, claimed));
+    }
+
+    /**
+     * Balances and limit of an account, claimed by a transfer when {@code claimedBy} is set, in which case the
+     * balances are those before the transfer.
+     */
+    private record State(long ledgerInPence, long availableInPence, long overdraftLimitInPence,
+                         Transfer claimedBy) {
+
+        State plus(long ledgerDelta, long availableDelta) {
+            return new State(ledgerInPence + ledgerDelta, availableInPence + availableDelta, overdraftLimitInPence,
+                    null);
+        }
+
+        boolean permits(long debitInPence) {
+            return availableInPence - debitInPence >= -overdraftLimitInPence;
+        }
+    }
+
+    /**
+     * A transfer in progress. Its phase moves once from claiming to applied, rejected or aborted, and that move
+     * is when the transfer takes effect, or is known not to, on both accounts at once.
+     */
+    private static final class Transfer {
+
+        static final int CLAIMING = 0;
+        static final int APPLIED = 1;
+        static final int REJECTED = 2;
+        static final int ABORTED = 3;
+
+        private static final AtomicIntegerFieldUpdater<Transfer> PHASE =
+                AtomicIntegerFieldUpdater.newUpdater(Transfer.class, "phase");
+
+        private final AccountBalance source;
+        private final long amountInPence;
+        volatile int phase = CLAIMING;
+
+        Transfer(AccountBalance source, long amountInPence) {
+            this.source = source;
+            this.amountInPence = amountInPence;
+        }
+
+        void decide(int outcome) {
+            PHASE.compareAndSet(this, CLAIMING, outcome);
+        }
+
+        /**
+         * @return the unclaimed state the account has once the transfer is applied, or keeps otherwise
+         */
+        State outcome(AccountBalance account, State claimed) {
+            long delta = phase != APPLIED ? 0 : account == source ? -amountInPence : amountInPence;
+            return claimed.plus(delta, delta);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package tech.challenge.consumer.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Lists the accounts that exist, partition by partition, so bulk jobs can walk them in parallel.
+ */
+public interface AccountDirectory {
+
+    /**
+     * @return the number of partitions the accounts are spread over
+     */
+    int partitionCount();
+
+    /**
+     * Visits the id of every account in one partition.
+     *
+     * @param partition the partition index
+     * @param action the action applied to each account id
+     */
+    void forEachAccountId(int partition, Consumer<String> action);
+}
@@ -0,0 +1,86 @@
+package tech.challenge.consumer.service;
+
+import tech.challenge.audit.service.AuditService;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+
+import java.util.List;
+
+/**
+ * One node of a partitioned deployment: a balance tracker over its own account table.
+ * A node owns whole partitions of the account space; partitions are moved between nodes with
+ * {@link #detachPartition(int)} and {@link #attach(List)}.
+ */
+public final class AccountNode {
+
+    private final String nodeId;
+    private final AccountTable accountTable;
+    private final BalanceTracker balanceTracker;
+
+    /**
+     * Constructor for AccountNode.
+     *
+     * @param nodeId the id of the node, unique in the cluster
+     * @param auditService the AuditService used for auditing the node's transactions
+     * @param duplicateDetector the detector used to skip redelivered transactions
+     * @param accountTable the table holding the node's accounts
+     * @param postingListeners listeners notified after each posting
+     * @param balanceHistory the source of point-in-time balances
+     */
+    public AccountNode(String nodeId, AuditService auditService, DuplicateTransactionDetector duplicateDetector,
+                       AccountTable accountTable, List<PostingListener> postingListeners,
+                       BalanceHistory balanceHistory) {
+        this.nodeId = nodeId;
+        this.accountTable = accountTable;
+        this.balanceTracker = new BalanceTracker(auditService, duplicateDetector, accountTable, postingListeners,
+                balanceHistory);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public BankAccountService getService() {
+        return balanceTracker;
+    }
+
+    public AccountTable getAccountTable() {
+        return accountTable;
+    }
+
+    /**
+     * Applies a transfer from an account on this node to an account on another node as one step, audited once.
+     * The caller must keep both accounts from moving between nodes until this returns.
+     *
+     * @param transfer the transfer, whose source account lives on this node
+     * @param destination the node holding the counterparty account
+     * @return true if the transfer was applied, false if it was rejected
+     */
+    public boolean processTransferTo(Transaction transfer, AccountNode destination) {
+        return balanceTracker.processTransfer(transfer, destination.balanceTracker);
+    }
+
+    /**
+     * Removes the accounts of a partition from this node.
+     *
+     * @param partition the partition index
+     * @return the state of every removed account, including its open holds
+     */
+    public List<AccountSnapshot> detachPartition(int partition) {
+        return balanceTracker.detachPartition(partition);
+    }
+
+    /**
+     * Adds accounts detached from another node.
+     *
+     * @param accounts the state of the accounts to add
+     */
+    public void attach(List<AccountSnapshot> accounts) {
+        balanceTracker.attach(accounts);
+    }
+
+    @Override
+    public String toString() {
+        return nodeId;
+    }
+}
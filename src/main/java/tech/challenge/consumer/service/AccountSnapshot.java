@@ -0,0 +1,16 @@
+package tech.challenge.consumer.service;
+
+import java.util.Map;
+
+/**
+ * Complete balance state of one account, used to move the account between nodes.
+ *
+ * @param accountId the account id
+ * @param ledgerInPence the ledger balance
+ * @param availableInPence the available balance
+ * @param overdraftLimitInPence the overdraft limit
+ * @param holdsInPence the open holds on the account, by hold id
+ */
+public record AccountSnapshot(String accountId, long ledgerInPence, long availableInPence,
+                              long overdraftLimitInPence, Map<String, Long> holdsInPence) {
+}
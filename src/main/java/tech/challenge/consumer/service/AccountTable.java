@@ -0,0 +1,127 @@
+package tech.challenge.consumer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.challenge.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Table of account balances, split into a fixed number of hash partitions.
+ * Partitions let bulk jobs walk the table in parallel and give every account a stable shard.
+ */
+@Component
+public class AccountTable implements AccountDirectory {
+
+    private final Map<String, AccountBalance>[] partitions;
+    private final int partitionMask;
+    private final long defaultOverdraftLimitInPence;
+
+    /**
+     * Constructor for AccountTable.
+     *
+     * @param partitionCount number of partitions, must be a power of two
+     * @param defaultOverdraftLimit overdraft limit in pounds given to newly created accounts
+     */
+    @SuppressWarnings("unchecked")
+    public AccountTable(@Value("${accounts.partitions:64}") int partitionCount,
+                        @Value("${accounts.overdraft.default-limit:0}") double defaultOverdraftLimit) {
+        if (partitionCount <= 0 || Integer.bitCount(partitionCount) != 1) {
+            throw new IllegalArgumentException("Partition count must be a power of two: " + partitionCount);
+        }
+        this.partitions = new Map[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new ConcurrentHashMap<>();
+        }
+        this.partitionMask = partitionCount - 1;
+        this.defaultOverdraftLimitInPence = Math.round(defaultOverdraftLimit * 100);
+    }
+
+    /**
+     * @param accountId the account id
+     * @return the partition the account belongs to
+     */
+    public int partitionOf(String accountId) {
+        return (int) (Hashing.hash64(accountId) & partitionMask);
+    }
+
+    @Override
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * @param accountId the account id
+     * @return the account's balance, or null if the account has never been used
+     */
+    public AccountBalance find(String accountId) {
+        return partitions[partitionOf(accountId)].get(accountId);
+    }
+
+    AccountBalance getOrCreate(String accountId) {
+        Map<String, AccountBalance> partition = partitions[partitionOf(accountId)];
+        AccountBalance balance = partition.get(accountId);
+        return balance != null
+                ? balance
+                : partition.computeIfAbsent(accountId, id -> new AccountBalance(id, defaultOverdraftLimitInPence));
+    }
+
+    /**
+     * Applies a posting replayed from the journal, bypassing duplicate detection, overdraft limits and auditing,
+     * which were all applied when the posting was first accepted.
+     *
+     * @param accountId the account the posting was applied to
+     * @param amountInPence the signed amount in pence
+     * @return the account's ledger balance in pence after the posting
+     */
+    public long replay(String accountId, long amountInPence) {
+        return getOrCreate(accountId).post(amountInPence);
+    }
+
+    /**
+     * Removes every account of a partition, handing them to the caller.
+     *
+     * @param partition the partition index
+     * @return the removed accounts
+     */
+    List<AccountBalance> detachPartition(int partition) {
+        Map<String, AccountBalance> accounts = partitions[partition];
+        List<AccountBalance> detached = new ArrayList<>(accounts.values());
+        detached.forEach(account -> accounts.remove(account.getAccountId()));
+        return detached;
+    }
+
+    void attach(AccountBalance account) {
+        partitions[partitionOf(account.getAccountId())].put(account.getAccountId(), account);
+    }
+
+    /**
+     * Visits every account in one partition.
+     *
+     * @param partition the partition index
+     * @param action the action applied to each account
+     */
+    public void forEachInPartition(int partition, Consumer<AccountBalance> action) {
+        partitions[partition].values().forEach(action);
+    }
+
+    @Override
+    public void forEachAccountId(int partition, Consumer<String> action) {
+        partitions[partition].keySet().forEach(action);
+    }
+
+    /**
+     * @return the number of accounts across all partitions
+     */
+    public long size() {
+        long size = 0;
+        for (Map<String, AccountBalance> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,16 @@
+package tech.challenge.consumer.service;
+
+/**
+ * Source of historical ledger balances.
+ */
+public interface BalanceHistory {
+
+    /**
+     * Computes an account's ledger balance from every posting made at or before the given time.
+     *
+     * @param accountId the account to query
+     * @param epochMillis the point in time, in epoch milliseconds
+     * @return the ledger balance at that time, in pence
+     */
+    long balanceAsOfInPence(String accountId, long epochMillis);
+}
@@ -1,77 +1,384 @@
 package tech.challenge.consumer.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tech.challenge.audit.service.AuditService;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.dedup.InFlightTransactions;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.consumer.validation.TransactionValidator;
 import tech.challenge.domain.Transaction;
 import tech.challenge.exception.InvalidTransactionException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Service class responsible for tracking the balance of a bank account and processing transactions.
- * It ensures thread-safe updates to the balance and delegates transaction auditing to the AuditService.
+ * Service class responsible for tracking the balance of bank accounts and processing transactions.
+ * It ensures thread-safe updates to the balances and delegates transaction auditing to the AuditService.
  */
 @Slf4j
 @Service
 class BalanceTracker implements BankAccountService {
 
-    // Storing balance in pence to avoid floating-point errors
+    // Storing balances in pence to avoid floating-point errors
     private final AuditService auditService;
-    private final AtomicLong balanceInPence = new AtomicLong(0);
+    private final DuplicateTransactionDetector duplicateDetector;
+    private final TransactionValidator validator;
+    private final AccountTable accountTable;
+    private final List<PostingListener> postingListeners;
+    private final BalanceHistory balanceHistory;
+    private final InFlightTransactions inFlight = new InFlightTransactions();
+    private final Map<String, Hold> openHolds = new ConcurrentHashMap<>();
+    // Open hold ids by account, so a partition's holds are found without scanning every hold
+    private final Map<String, Set<String>> holdIdsByAccount = new ConcurrentHashMap<>();
 
     /**
      * Constructor for BalanceTracker.
      *
      * @param auditService the AuditService used for auditing transactions
+     * @param duplicateDetector the detector used to skip redelivered transactions
+     * @param accountTable the table holding every account's balance
+     * @param postingListeners listeners notified after each posting, such as the history store
+     * @param balanceHistory the source of point-in-time balances
      */
-    public BalanceTracker(AuditService auditService) {
+    public BalanceTracker(AuditService auditService, DuplicateTransactionDetector duplicateDetector,
+                          AccountTable accountTable, List<PostingListener> postingListeners,
+                          BalanceHistory balanceHistory) {
         this.auditService = auditService;
+        this.duplicateDetector = duplicateDetector;
+        this.validator = new TransactionValidator(duplicateDetector);
+        this.accountTable = accountTable;
+        this.postingListeners = List.copyOf(postingListeners);
+        this.balanceHistory = balanceHistory;
+    }
+
+    /**
+     * Sets the largest absolute amount a transaction may carry.
+     * Configurable via the `ingest.validation.max-amount` property.
+     *
+     * @param maxAmount the limit in pounds
+     */
+    @Value("${ingest.validation.max-amount:1000000000}")
+    public void setMaxAmount(double maxAmount) {
+        validator.setMaxAmount(maxAmount);
     }
 
     /**
      * Processes a given transaction by updating the account balance and auditing the transaction.
+     * A transaction whose id has already been processed is ignored, so redeliveries are applied only once.
      *
      * @param transaction the transaction to process
-     * @throws InvalidTransactionException if the transaction is null or has zero amount
+     * @throws InvalidTransactionException if the transaction fails validation for any reason other than being a duplicate
      */
     @Override
     public void processTransaction(Transaction transaction) {
-        Optional.ofNullable(transaction)
-                .ifPresentOrElse(
-                        tx -> {
-                            // Convert transaction amount to pence and update the balance
-                            long amountInPence = Math.round(tx.getAmount() * 100);
-                            long updated = balanceInPence.addAndGet(amountInPence);
-
-                            // Audit the transaction
-                            auditService.processTransaction(transaction);
-
-                            // Log the processed transaction and updated balance
-                            log.info("Processed transaction {}. New balance: {} pence", tx.getId(), updated);
-                        },
-                        () -> {
-                            // Log and throw an exception for invalid or null transactions
-                            log.warn("Invalid or null transaction received");
-                            throw new InvalidTransactionException("Transaction is null or has zero amount");
-                        }
-                );
+        int code = submitTransaction(transaction);
+        if (code != RejectionCode.ACCEPTED && code != RejectionCode.DUPLICATE) {
+            throw new InvalidTransactionException("Transaction rejected: " + RejectionCode.describe(code));
+        }
+    }
+
+    @Override
+    public int submitTransaction(Transaction transaction) {
+        int code = validator.validate(transaction);
+        if (code != RejectionCode.ACCEPTED) {
+            // Skipped redeliveries are neither double-counted nor re-audited
+            log.debug("Rejected transaction: {}", RejectionCode.describe(code));
+            return code;
+        }
+
+        // Convert transaction amount to pence and update the balance
+        long amountInPence = toPence(transaction.getAmount());
+        long updated = accountTable.getOrCreate(transaction.getAccountId()).post(amountInPence);
+        notifyPosted(transaction, transaction.getAccountId(), amountInPence, updated);
+
+        // Audit the transaction
+        auditService.processTransaction(transaction);
+
+        // Log the processed transaction and updated balance
+        log.info("Processed transaction {}. New balance: {} pence", transaction.getId(), updated);
+        return RejectionCode.ACCEPTED;
+    }
+
+    @Override
+    public long validationCount(int rejectionCode) {
+        return validator.count(rejectionCode);
+    }
+
+    /**
+     * Applies a debit only if the account's available balance stays within its overdraft limit.
+     * The check and the debit happen as one compare-and-set on the account's state, so concurrent debits cannot
+     * jointly breach the limit and no reader sees the funds reserved but not yet debited. A redelivery arriving while the
+     * debit is being decided waits for, and returns, its outcome.
+     *
+     * @param transaction the debit transaction to process
+     * @return true if the debit was applied, false if it was rejected
+     * @throws InvalidTransactionException if the transaction is null or is not a debit
+     */
+    @Override
+    public boolean processConditionalDebit(Transaction transaction) {
+        if (transaction == null || transaction.getAmount() >= 0) {
+            throw new InvalidTransactionException("Conditional debit is null or not a debit");
+        }
+        return inFlight.process(transaction.getId(), () -> applyConditionalDebit(transaction));
+    }
+
+    private boolean applyConditionalDebit(Transaction transaction) {
+        int code = validator.validate(transaction);
+        if (code == RejectionCode.DUPLICATE) {
+            return true;
+        }
+        if (code != RejectionCode.ACCEPTED) {
+            throw new InvalidTransactionException("Conditional debit rejected: " + RejectionCode.describe(code));
+        }
+
+        long amountInPence = -toPence(transaction.getAmount());
+        long updated = accountTable.getOrCreate(transaction.getAccountId()).tryDebit(amountInPence);
+        if (updated == Long.MIN_VALUE) {
+            // A rejected debit was never applied, so a retry with the same id must not be treated as a duplicate
+            if (transaction.getId() != null) {
+                duplicateDetector.forget(transaction.getId());
+            }
+            log.debug("Rejected debit {} of {} pence: overdraft limit reached", transaction.getId(), amountInPence);
+            return false;
+        }
+        notifyPosted(transaction, transaction.getAccountId(), -amountInPence, updated);
+        auditService.processTransaction(transaction);
+        log.info("Processed conditional debit {}. New balance: {} pence", transaction.getId(), updated);
+        return true;
+    }
+
+    /**
+     * Applies a transfer as one step on both accounts, claimed in account id order so that transfers in opposite
+     * directions meet on the same account first. The debit is checked against the source's overdraft limit and
+     * both legs take effect together, so no reader sees one leg without the other.
+     *
+     * @param transfer the transfer transaction to process
+     * @return true if the transfer was applied, false if it was rejected
+     * @throws InvalidTransactionException if the transaction is not a transfer between two different accounts
+     */
+    @Override
+    public boolean processTransfer(Transaction transfer) {
+        if (transfer == null || !transfer.isTransfer()
+                || transfer.getCounterpartyAccountId().equals(transfer.getAccountId())) {
+            throw new InvalidTransactionException("Transfer is null or has no distinct counterparty");
+        }
+        return inFlight.process(transfer.getId(), () -> applyTransfer(transfer, this));
+    }
+
+    /**
+     * Applies a transfer whose destination account is held by another node's tracker, as one step on both
+     * accounts exactly as if they shared a table: each leg is reported to the listeners of the tracker holding
+     * the account and the transfer is audited once. The caller must keep both accounts from moving between nodes
+     * until this returns.
+     *
+     * @param transfer the transfer transaction to process
+     * @param destinationTracker the tracker holding the destination account
+     * @return true if the transfer was applied, false if it was rejected
+     * @throws InvalidTransactionException if the transaction is not a transfer between two different accounts
+     */
+    boolean processTransfer(Transaction transfer, BalanceTracker destinationTracker) {
+        if (transfer == null || !transfer.isTransfer()
+                || transfer.getCounterpartyAccountId().equals(transfer.getAccountId())) {
+            throw new InvalidTransactionException("Transfer is null or has no distinct counterparty");
+        }
+        return inFlight.process(transfer.getId(), () -> applyTransfer(transfer, destinationTracker));
+    }
+
+    private boolean applyTransfer(Transaction transfer, BalanceTracker destinationTracker) {
+        int code = validator.validate(transfer);
+        if (code == RejectionCode.DUPLICATE) {
+            return true;
+        }
+        if (code != RejectionCode.ACCEPTED) {
+            throw new InvalidTransactionException("Transfer rejected: " + RejectionCode.describe(code));
+        }
+
+        long amountInPence = Math.abs(toPence(transfer.getAmount()));
+        AccountBalance source = accountTable.getOrCreate(transfer.getAccountId());
+        AccountBalance destination = destinationTracker.accountTable.getOrCreate(transfer.getCounterpartyAccountId());
+        long[] balances = AccountBalance.transfer(source, destination, amountInPence);
+        if (balances == null) {
+            if (transfer.getId() != null) {
+                duplicateDetector.forget(transfer.getId());
+            }
+            log.debug("Rejected transfer {} of {} pence: overdraft limit reached", transfer.getId(), amountInPence);
+            return false;
+        }
+        notifyPosted(transfer, transfer.getAccountId(), -amountInPence, balances[0]);
+        destinationTracker.notifyPosted(transfer, transfer.getCounterpartyAccountId(), amountInPence, balances[1]);
+
+        // The audit service sees the transfer as one event rather than a debit and a credit
+        auditService.processTransaction(transfer);
+        log.info("Processed transfer {} of {} pence from {} to {}", transfer.getId(), amountInPence,
+                transfer.getAccountId(), transfer.getCounterpartyAccountId());
+        return true;
+    }
+
+    @Override
+    public Optional<String> placeHold(String accountId, double amount) {
+        long amountInPence = toPence(Math.abs(amount));
+        if (!accountTable.getOrCreate(accountId).tryReserve(amountInPence)) {
+            log.debug("Rejected hold of {} pence on {}: overdraft limit reached", amountInPence, accountId);
+            return Optional.empty();
+        }
+        String holdId = UUID.randomUUID().toString();
+        openHolds.put(holdId, new Hold(accountId, amountInPence));
+        indexHold(accountId, holdId);
+        return Optional.of(holdId);
+    }
+
+    /**
+     * Settles a hold by posting the reserved funds to the ledger and auditing the resulting debit.
+     * The hold id becomes the id of the settled transaction.
+     */
+    @Override
+    public boolean settleHold(String holdId) {
+        Hold hold = openHolds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        unindexHold(hold.accountId(), holdId);
+        long updated = accountTable.getOrCreate(hold.accountId()).settleReserved(hold.amountInPence());
+        Transaction settlement = Transaction.builder()
+                .id(holdId)
+                .accountId(hold.accountId())
+                .amount(-hold.amountInPence() / 100.0)
+                .build();
+        notifyPosted(settlement, hold.accountId(), -hold.amountInPence(), updated);
+        auditService.processTransaction(settlement);
+        log.info("Settled hold {}. New balance: {} pence", holdId, updated);
+        return true;
+    }
+
+    @Override
+    public boolean releaseHold(String holdId) {
+        Hold hold = openHolds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        unindexHold(hold.accountId(), holdId);
+        accountTable.getOrCreate(hold.accountId()).releaseReserved(hold.amountInPence());
+        return true;
+    }
+
+    @Override
+    public void setOverdraftLimit(String accountId, double limit) {
+        accountTable.getOrCreate(accountId).setOverdraftLimitInPence(toPence(Math.abs(limit)));
     }
 
     /**
-     * Retrieves the current balance of the account.
+     * Retrieves the current balance of the default account.
      *
      * @return the current balance in pounds as a double
      */
     @Override
     public double retrieveBalance() {
+        return retrieveLedgerBalance(Transaction.DEFAULT_ACCOUNT);
+    }
+
+    @Override
+    public double retrieveLedgerBalance(String accountId) {
+        AccountBalance account = accountTable.find(accountId);
         // Convert balance from pence to pounds
-        double balance = balanceInPence.get() / 100.0;
+        double balance = account == null ? 0 : account.getLedgerInPence() / 100.0;
 
         // Log the retrieved balance
-        log.trace("Balance retrieved: {}", balance);
+        log.trace("Balance retrieved for {}: {}", accountId, balance);
+
+        return balance;
+    }
 
+    @Override
+    public double retrieveAvailableBalance(String accountId) {
+        AccountBalance account = accountTable.find(accountId);
+        return account == null ? 0 : account.getAvailableInPence() / 100.0;
+    }
+
+    @Override
+    public double retrieveBalanceAsOf(String accountId, Instant asOf) {
+        double balance = balanceHistory.balanceAsOfInPence(accountId, asOf.toEpochMilli()) / 100.0;
+        log.trace("Balance retrieved for {} as of {}: {}", accountId, asOf, balance);
         return balance;
     }
-}
\ No newline at end of file
+
+    /**
+     * Removes the accounts of a partition, together with their open holds, so they can be attached elsewhere.
+     * The caller must stop traffic to the partition first.
+     *
+     * @param partition the account table partition
+     * @return the state of every removed account
+     */
+    List<AccountSnapshot> detachPartition(int partition) {
+        List<AccountSnapshot> snapshots = new ArrayList<>();
+        for (AccountBalance account : accountTable.detachPartition(partition)) {
+            Map<String, Long> holds = new HashMap<>();
+            Set<String> holdIds = holdIdsByAccount.remove(account.getAccountId());
+            if (holdIds != null) {
+                for (String holdId : holdIds) {
+                    Hold hold = openHolds.remove(holdId);
+                    if (hold != null) {
+                        holds.put(holdId, hold.amountInPence());
+                    }
+                }
+            }
+            snapshots.add(account.snapshot(holds));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Adds accounts, with their open holds, previously detached from another tracker.
+     *
+     * @param snapshots the state of the accounts to add
+     */
+    void attach(List<AccountSnapshot> snapshots) {
+        for (AccountSnapshot snapshot : snapshots) {
+            accountTable.attach(new AccountBalance(snapshot));
+            snapshot.holdsInPence().forEach((holdId, amount) -> {
+                openHolds.put(holdId, new Hold(snapshot.accountId(), amount));
+                indexHold(snapshot.accountId(), holdId);
+            });
+        }
+    }
+
+    private void indexHold(String accountId, String holdId) {
+        holdIdsByAccount.compute(accountId, (account, holdIds) -> {
+            Set<String> ids = holdIds == null ? ConcurrentHashMap.newKeySet() : holdIds;
+            ids.add(holdId);
+            return ids;
+        });
+    }
+
+    private void unindexHold(String accountId, String holdId) {
+        holdIdsByAccount.computeIfPresent(accountId, (account, holdIds) -> {
+            holdIds.remove(holdId);
+            return holdIds.isEmpty() ? null : holdIds;
+        });
+    }
+
+    private void notifyPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        for (PostingListener listener : postingListeners) {
+            listener.onPosted(transaction, accountId, amountInPence, ledgerBalanceInPence);
+        }
+    }
+
+    private static long toPence(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Funds reserved on an account until the hold is settled or released.
+     */
+    private record Hold(String accountId, long amountInPence) {
+    }
+}
@@ -2,6 +2,9 @@ package tech.challenge.consumer.service;
 
 import tech.challenge.domain.Transaction;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Service to aggregate transactions tracking the overall balance for an account.
  */
@@ -12,8 +15,90 @@ public interface BankAccountService {
      * @param transaction transaction to process
      */
     void processTransaction(Transaction transaction);
+
+    /**
+     * Process a transaction, reporting bad input as a code instead of throwing.
+     * A duplicate is reported as {@link tech.challenge.consumer.validation.RejectionCode#DUPLICATE} and ignored.
+     *
+     * @param transaction transaction to process
+     * @return {@link tech.challenge.consumer.validation.RejectionCode#ACCEPTED} or the reason it was rejected
+     */
+    int submitTransaction(Transaction transaction);
+
+    /**
+     * Count the transactions validated with an outcome.
+     *
+     * @param rejectionCode a {@link tech.challenge.consumer.validation.RejectionCode}
+     * @return how many transactions had that outcome
+     */
+    long validationCount(int rejectionCode);
     /**
      * Retrieve the balance in the account
      */
     double retrieveBalance();
+
+    /**
+     * Apply a debit only if it keeps the account's available balance within its overdraft limit.
+     *
+     * @param transaction debit transaction to process
+     * @return true if the debit was applied, false if it was rejected for breaching the limit
+     */
+    boolean processConditionalDebit(Transaction transaction);
+
+    /**
+     * Move funds from the transaction's account to its counterparty account as a single audited event.
+     * Both legs are applied or neither is; the debit leg is subject to the source account's overdraft limit.
+     *
+     * @param transfer transfer transaction, see {@link Transaction#transfer(String, String, double)}
+     * @return true if the transfer was applied, false if it was rejected for breaching the limit
+     */
+    boolean processTransfer(Transaction transfer);
+
+    /**
+     * Reserve funds against an account's available balance without posting them to the ledger.
+     *
+     * @param accountId account to place the hold on
+     * @param amount amount in pounds to reserve
+     * @return the id of the hold, or empty if reserving the funds would breach the overdraft limit
+     */
+    Optional<String> placeHold(String accountId, double amount);
+
+    /**
+     * Post the funds reserved by a hold to the ledger as a debit.
+     *
+     * @param holdId id returned by {@link #placeHold(String, double)}
+     * @return true if the hold was open and has been settled
+     */
+    boolean settleHold(String holdId);
+
+    /**
+     * Return the funds reserved by a hold to the available balance.
+     *
+     * @param holdId id returned by {@link #placeHold(String, double)}
+     * @return true if the hold was open and has been released
+     */
+    boolean releaseHold(String holdId);
+
+    /**
+     * Set how far an account's available balance may go below zero.
+     *
+     * @param accountId account to configure
+     * @param limit overdraft limit in pounds
+     */
+    void setOverdraftLimit(String accountId, double limit);
+
+    /**
+     * Retrieve the ledger balance of an account: the sum of all posted transactions.
+     */
+    double retrieveLedgerBalance(String accountId);
+
+    /**
+     * Retrieve the available balance of an account: the ledger balance minus open holds.
+     */
+    double retrieveAvailableBalance(String accountId);
+
+    /**
+     * Retrieve the ledger balance of an account as it stood at a point in time.
+     */
+    double retrieveBalanceAsOf(String accountId, Instant asOf);
 }
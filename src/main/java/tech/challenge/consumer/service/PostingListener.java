@@ -0,0 +1,31 @@
+package tech.challenge.consumer.service;
+
+import tech.challenge.domain.Transaction;
+
+/**
+ * Listener notified after a transaction has been posted to an account's ledger.
+ * A transfer produces two postings, one for each account it touches.
+ * Implementations run on the ingest thread and must be fast and thread-safe.
+ */
+public interface PostingListener {
+
+    /**
+     * Called after a posting has been applied.
+     *
+     * @param transaction the transaction that caused the posting
+     * @param accountId the account the posting was applied to
+     * @param amountInPence the signed amount posted, in pence
+     * @param ledgerBalanceInPence the account's ledger balance after the posting, in pence
+     */
+    void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence);
+
+    /**
+     * Called during recovery, before any posting of the account is replayed, for an account whose earlier
+     * postings survive only as a balance because they were compacted away.
+     *
+     * @param accountId the account
+     * @param ledgerBalanceInPence the account's ledger balance before the postings that follow, in pence
+     */
+    default void onOpeningBalance(String accountId, long ledgerBalanceInPence) {
+    }
+}
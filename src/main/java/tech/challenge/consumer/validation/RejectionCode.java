@@ -0,0 +1,40 @@
+package tech.challenge.consumer.validation;
+
+/**
+ * Outcomes of validating a transaction, as primitive codes so that rejecting bad input costs no allocation.
+ */
+public final class RejectionCode {
+
+    public static final int ACCEPTED = 0;
+    public static final int NULL_TRANSACTION = 1;
+    public static final int NULL_ACCOUNT = 2;
+    public static final int NOT_A_NUMBER = 3;
+    public static final int ZERO_AMOUNT = 4;
+    public static final int OUT_OF_RANGE = 5;
+    public static final int DUPLICATE = 6;
+    public static final int ID_TOO_LONG = 7;
+
+    static final int COUNT = 8;
+
+    private static final String[] DESCRIPTIONS = {
+            "accepted",
+            "transaction is null",
+            "account is null",
+            "amount is not a number",
+            "amount is zero",
+            "amount is out of range",
+            "transaction id was already processed",
+            "transaction id is too long"
+    };
+
+    private RejectionCode() {
+    }
+
+    /**
+     * @param code a code returned by {@link TransactionValidator#validate}
+     * @return a human-readable description of the code
+     */
+    public static String describe(int code) {
+        return code >= 0 && code < COUNT ? DESCRIPTIONS[code] : "unknown rejection code " + code;
+    }
+}
@@ -0,0 +1,90 @@
+package tech.challenge.consumer.validation;
+
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.TransactionIds;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks transactions before they are posted and counts every outcome.
+ * Bad input is reported as a {@link RejectionCode} rather than an exception, so a burst of rejects costs no stack
+ * trace capture or unwinding; only the public API turns a rejection into an exception. The duplicate check runs
+ * last because it records the id, so a transaction rejected for another reason can be corrected and resent.
+ */
+public final class TransactionValidator {
+
+    /**
+     * Largest absolute amount accepted by default, in pounds.
+     */
+    public static final double DEFAULT_MAX_AMOUNT = 1_000_000_000;
+
+    private final DuplicateTransactionDetector duplicateDetector;
+    private final LongAdder[] counts = new LongAdder[RejectionCode.COUNT];
+    private volatile double maxAmount = DEFAULT_MAX_AMOUNT;
+
+    /**
+     * Constructor for TransactionValidator.
+     *
+     * @param duplicateDetector the detector recognising transaction ids already processed
+     */
+    public TransactionValidator(DuplicateTransactionDetector duplicateDetector) {
+        this.duplicateDetector = duplicateDetector;
+        for (int code = 0; code < counts.length; code++) {
+            counts[code] = new LongAdder();
+        }
+    }
+
+    /**
+     * Validates a transaction.
+     *
+     * @param transaction the transaction to check
+     * @return {@link RejectionCode#ACCEPTED} or the reason for rejecting it
+     */
+    public int validate(Transaction transaction) {
+        int code = check(transaction);
+        counts[code].increment();
+        return code;
+    }
+
+    /**
+     * @param code a rejection code
+     * @return how many transactions have been validated with that outcome
+     */
+    public long count(int code) {
+        return counts[code].sum();
+    }
+
+    /**
+     * @param maxAmount the largest absolute amount accepted, in pounds
+     */
+    public void setMaxAmount(double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    private int check(Transaction transaction) {
+        if (transaction == null) {
+            return RejectionCode.NULL_TRANSACTION;
+        }
+        if (transaction.getAccountId() == null) {
+            return RejectionCode.NULL_ACCOUNT;
+        }
+        double amount = transaction.getAmount();
+        if (Double.isNaN(amount)) {
+            return RejectionCode.NOT_A_NUMBER;
+        }
+        if (amount == 0) {
+            return RejectionCode.ZERO_AMOUNT;
+        }
+        if (Math.abs(amount) > maxAmount) {
+            return RejectionCode.OUT_OF_RANGE;
+        }
+        if (transaction.getId() != null && !TransactionIds.fitsMaxLength(transaction.getId())) {
+            return RejectionCode.ID_TOO_LONG;
+        }
+        if (transaction.getId() != null && duplicateDetector.isDuplicate(transaction.getId())) {
+            return RejectionCode.DUPLICATE;
+        }
+        return RejectionCode.ACCEPTED;
+    }
+}
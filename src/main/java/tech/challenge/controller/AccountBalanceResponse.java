@@ -0,0 +1,42 @@
+package tech.challenge.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountBalanceResponse {
+
+    private final String accountId;
+    private final String ledgerBalance;
+    /**
+     * Current available balance; omitted for point-in-time queries, which only know the ledger.
+     */
+    private final String availableBalance;
+    /**
+     * Point in time the balance was computed for; omitted for current balances.
+     */
+    private final Instant asOf;
+
+    public static class AccountBalanceResponseBuilder {
+        public AccountBalanceResponseBuilder ledgerBalance(double ledgerBalance) {
+            this.ledgerBalance = formatAmount(ledgerBalance);
+            return this;
+        }
+
+        public AccountBalanceResponseBuilder availableBalance(double availableBalance) {
+            this.availableBalance = formatAmount(availableBalance);
+            return this;
+        }
+
+        private static String formatAmount(double amount) {
+            return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AccountCountResponse {
+
+    private final String accountId;
+    private final long count;
+    private final long maxError;
+}
@@ -0,0 +1,27 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+public class AccountValueResponse {
+
+    private final String accountId;
+    private final String value;
+    private final String maxError;
+
+    public static class AccountValueResponseBuilder {
+        public AccountValueResponseBuilder valueInPence(long valueInPence) {
+            this.value = BigDecimal.valueOf(valueInPence, 2).toPlainString();
+            return this;
+        }
+
+        public AccountValueResponseBuilder maxErrorInPence(long maxErrorInPence) {
+            this.maxError = BigDecimal.valueOf(maxErrorInPence, 2).toPlainString();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tech.challenge.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.activity.HeavyHitters;
+import tech.challenge.activity.TopAccounts;
+
+import java.time.Instant;
+
+/**
+ * REST controller reporting the accounts driving the most activity right now.
+ */
+@RestController
+@ConditionalOnProperty(name = "activity.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api/v1")
+public class ActivityController {
+
+    private final HeavyHitters heavyHitters;
+
+    /**
+     * Constructor for ActivityController.
+     *
+     * @param heavyHitters the tracker of the busiest accounts
+     */
+    public ActivityController(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * Endpoint to retrieve the top accounts by number of postings and by value posted over the recent window.
+     * Figures are estimates that may exceed the true ones by at most the reported error.
+     *
+     * @param k number of accounts to list, capped at the tracker's capacity
+     * @return a ResponseEntity containing the top accounts
+     */
+    @GetMapping("/accounts/top")
+    public ResponseEntity<TopAccountsResponse> getTopAccounts(@RequestParam(defaultValue = "10") int k) {
+        int limit = Math.max(1, Math.min(k, heavyHitters.getCapacity()));
+        TopAccounts top = heavyHitters.top(limit, System.currentTimeMillis());
+
+        TopAccountsResponse response = TopAccountsResponse.builder()
+                .start(Instant.ofEpochMilli(top.windowStart()))
+                .end(Instant.ofEpochMilli(top.windowEnd()))
+                .byCount(top.byCount().stream()
+                        .map(activity -> AccountCountResponse.builder()
+                                .accountId(activity.accountId())
+                                .count(activity.estimate())
+                                .maxError(activity.maxError())
+                                .build())
+                        .toList())
+                .byValue(top.byValue().stream()
+                        .map(activity -> AccountValueResponse.builder()
+                                .accountId(activity.accountId())
+                                .valueInPence(activity.estimate())
+                                .maxErrorInPence(activity.maxError())
+                                .build())
+                        .toList())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
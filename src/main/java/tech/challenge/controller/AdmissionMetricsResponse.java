@@ -0,0 +1,14 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AdmissionMetricsResponse {
+
+    private final String priority;
+    private final long admitted;
+    private final long delayed;
+    private final long shed;
+}
@@ -0,0 +1,105 @@
+package tech.challenge.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.audit.service.AuditMetrics;
+import tech.challenge.audit.service.AuditMetricsProvider;
+import tech.challenge.audit.service.AuditSettings;
+import tech.challenge.audit.service.AuditSettingsProvider;
+
+/**
+ * REST controller exposing the state of the audit pipeline and changing its settings while it runs.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/audit")
+public class AuditController {
+
+    private final AuditMetricsProvider auditMetricsProvider;
+    private final AuditSettingsProvider auditSettingsProvider;
+
+    /**
+     * Constructor for AuditController.
+     *
+     * @param auditMetricsProvider the source of the audit pipeline's metrics
+     * @param auditSettingsProvider the source of the audit pipeline's settings
+     */
+    public AuditController(AuditMetricsProvider auditMetricsProvider, AuditSettingsProvider auditSettingsProvider) {
+        this.auditMetricsProvider = auditMetricsProvider;
+        this.auditSettingsProvider = auditSettingsProvider;
+    }
+
+    /**
+     * Endpoint to retrieve the audit queue depth and the current submission size and concurrency.
+     *
+     * @return a ResponseEntity containing the audit metrics
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<AuditMetricsResponse> getMetrics() {
+        AuditMetrics metrics = auditMetricsProvider.metrics();
+        return ResponseEntity.ok(AuditMetricsResponse.builder()
+                .queueDepth(metrics.queueDepth())
+                .inFlight(metrics.inFlight())
+                .submissionSize(metrics.submissionSize())
+                .concurrency(metrics.concurrency())
+                .submissions(metrics.submissions())
+                .averageLatencyMillis(metrics.averageLatencyMillis())
+                .oversizeTransactions(metrics.oversizeTransactions())
+                .flaggedTransactions(metrics.flaggedTransactions())
+                .build());
+    }
+
+    /**
+     * Endpoint to retrieve the audit settings in force.
+     *
+     * @return a ResponseEntity containing the audit settings
+     */
+    @GetMapping("/settings")
+    public ResponseEntity<AuditSettingsResponse> getSettings() {
+        return ResponseEntity.ok(toResponse(auditSettingsProvider.settings()));
+    }
+
+    /**
+     * Endpoint to change the audit settings without a restart. Settings left out of the request keep their
+     * current values; the queue is kept, and the worker pool is resized in place. Only administrators may change
+     * the settings.
+     *
+     * @param request the settings to change
+     * @return a ResponseEntity containing the settings now in force, or 400 if they are invalid
+     */
+    @PutMapping("/settings")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditSettingsResponse> updateSettings(@RequestBody AuditSettingsRequest request) {
+        AuditSettings current = auditSettingsProvider.settings();
+        AuditSettings next;
+        try {
+            next = new AuditSettings(
+                    request.getMaxTransactionsPerSubmission() == null ? current.maxTransactionsPerSubmission()
+                            : request.getMaxTransactionsPerSubmission(),
+                    request.getMaxBatchTotalValue() == null ? current.maxBatchTotalValue()
+                            : request.getMaxBatchTotalValue(),
+                    request.getThreadPoolSize() == null ? current.threadPoolSize() : request.getThreadPoolSize(),
+                    request.getOversizeMode() == null ? current.oversizeMode() : request.getOversizeMode());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected audit settings: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        auditSettingsProvider.updateSettings(next);
+        return ResponseEntity.ok(toResponse(next));
+    }
+
+    private static AuditSettingsResponse toResponse(AuditSettings settings) {
+        return AuditSettingsResponse.builder()
+                .maxTransactionsPerSubmission(settings.maxTransactionsPerSubmission())
+                .maxBatchTotalValue(settings.maxBatchTotalValue())
+                .threadPoolSize(settings.threadPoolSize())
+                .oversizeMode(settings.oversizeMode())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AuditMetricsResponse {
+
+    private final int queueDepth;
+    private final int inFlight;
+    private final int submissionSize;
+    private final int concurrency;
+    private final long submissions;
+    private final double averageLatencyMillis;
+    private final long oversizeTransactions;
+    private final long flaggedTransactions;
+}
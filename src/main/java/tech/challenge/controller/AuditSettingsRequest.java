@@ -0,0 +1,20 @@
+package tech.challenge.controller;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tech.challenge.audit.service.OversizeMode;
+
+/**
+ * Changes to the audit settings; settings left out keep their current values.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuditSettingsRequest {
+
+    private Integer maxTransactionsPerSubmission;
+    private Double maxBatchTotalValue;
+    private Integer threadPoolSize;
+    private OversizeMode oversizeMode;
+}
@@ -0,0 +1,15 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+import tech.challenge.audit.service.OversizeMode;
+
+@Getter
+@Builder
+public class AuditSettingsResponse {
+
+    private final int maxTransactionsPerSubmission;
+    private final double maxBatchTotalValue;
+    private final int threadPoolSize;
+    private final OversizeMode oversizeMode;
+}
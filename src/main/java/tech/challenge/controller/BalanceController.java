@@ -1,23 +1,49 @@
 package tech.challenge.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.journal.ReplicationStatus;
+
+import java.time.Duration;
+import java.time.Instant;
 
 /**
  * REST controller for handling balance-related API endpoints.
- * Provides an endpoint to retrieve the current account balance.
+ * Provides endpoints to retrieve the current account balance and per-account balances, including point-in-time balances.
  */
 @Slf4j
 @RestController
 @RequestMapping("/api/v1")
 public class BalanceController {
 
+    static final String SEQUENCE_HEADER = "X-Journal-Sequence";
+    static final String LAG_HEADER = "X-Replication-Lag-Ms";
+
     private final BankAccountService bankAccountService;
 
+    /**
+     * How far the balances have caught up with the journal; absent unless journaling or replication is enabled.
+     */
+    private ReplicationStatus replicationStatus;
+
+    /**
+     * How long a read waits for the sequence a client asked for before giving up.
+     * Configurable via the `replication.read-your-writes-timeout` property.
+     */
+    @Value("${replication.read-your-writes-timeout:1s}")
+    private Duration readYourWritesTimeout = Duration.ofSeconds(1);
+
     /**
      * Constructor for BalanceController.
      *
@@ -27,13 +53,25 @@ public class BalanceController {
         this.bankAccountService = bankAccountService;
     }
 
+    @Autowired(required = false)
+    public void setReplicationStatus(ReplicationStatus replicationStatus) {
+        this.replicationStatus = replicationStatus;
+    }
+
     /**
      * Endpoint to retrieve the current account balance.
+     * When the balances are journaled, the response reports the journal sequence they reflect and, on a replica,
+     * the replication lag. A client passing a sequence it has seen before is guaranteed to read a balance at
+     * least that recent, or gets 503 if the replica does not catch up in time.
      *
+     * @param minSequence optional journal sequence the balance must reflect
      * @return a ResponseEntity containing the balance response
      */
     @GetMapping("/balance")
-    public ResponseEntity<BalanceResponse> getBalance() {
+    public ResponseEntity<BalanceResponse> getBalance(@RequestParam(required = false) Long minSequence) {
+        if (minSequence != null && !reached(minSequence)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).headers(replicationHeaders()).build();
+        }
         try {
             // Retrieve the current balance from the service
             double balance = bankAccountService.retrieveBalance();
@@ -44,11 +82,55 @@ public class BalanceController {
                     .build();
 
             // Return the response with HTTP 200 status
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().headers(replicationHeaders()).body(response);
         } catch (Exception ex) {
             // Log the error and propagate the exception
             log.error("Error retrieving balance", ex);
             throw ex; // Let it propagate to GlobalExceptionHandler
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to retrieve an account's balance, either now or as it stood at a point in time.
+     *
+     * @param accountId the account to query
+     * @param asOf optional point in time (ISO-8601); when present only the ledger balance is returned
+     * @return a ResponseEntity containing the account balance response
+     */
+    @GetMapping("/accounts/{accountId}/balance")
+    public ResponseEntity<AccountBalanceResponse> getAccountBalance(
+            @PathVariable String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        AccountBalanceResponse.AccountBalanceResponseBuilder response = AccountBalanceResponse.builder()
+                .accountId(accountId);
+        if (asOf == null) {
+            response.ledgerBalance(bankAccountService.retrieveLedgerBalance(accountId))
+                    .availableBalance(bankAccountService.retrieveAvailableBalance(accountId));
+        } else {
+            response.ledgerBalance(bankAccountService.retrieveBalanceAsOf(accountId, asOf))
+                    .asOf(asOf);
+        }
+        return ResponseEntity.ok(response.build());
+    }
+
+    private boolean reached(long sequence) {
+        if (replicationStatus == null) {
+            return true;
+        }
+        try {
+            return replicationStatus.awaitSequence(sequence, readYourWritesTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpHeaders replicationHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        if (replicationStatus != null) {
+            headers.set(SEQUENCE_HEADER, Long.toString(replicationStatus.appliedSequence()));
+            headers.set(LAG_HEADER, Long.toString(replicationStatus.lagMillis()));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,139 @@
+package tech.challenge.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.admission.AdmissionControl;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.InvalidTransactionException;
+import tech.challenge.journal.ReplicationStatus;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for submitting transactions.
+ * Each request is admitted against the rate of the authenticated client before it reaches the service, and
+ * turned away at once rather than kept waiting for a token, so request threads are never held. When postings
+ * are journaled, an applied transaction's response carries the journal sequence it is covered by, which the
+ * client can pass to the balance endpoint to read its own write.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1")
+public class IngestController {
+
+    static final String ANONYMOUS_CLIENT = "anonymous";
+
+    private final BankAccountService bankAccountService;
+
+    /**
+     * Limits the rate of each client; absent unless `admission.enabled` is true.
+     */
+    private AdmissionControl admissionControl;
+
+    /**
+     * How far the journal has got; absent unless journaling or replication is enabled.
+     */
+    private ReplicationStatus replicationStatus;
+
+    /**
+     * Constructor for IngestController.
+     *
+     * @param bankAccountService the service transactions are submitted to
+     */
+    public IngestController(BankAccountService bankAccountService) {
+        this.bankAccountService = bankAccountService;
+    }
+
+    @Autowired(required = false)
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Autowired(required = false)
+    public void setReplicationStatus(ReplicationStatus replicationStatus) {
+        this.replicationStatus = replicationStatus;
+    }
+
+    /**
+     * Endpoint to submit a credit, a debit (negative amount) or, when a counterparty is named, a transfer.
+     * Returns 429 if the client is over its rate, and 422 if the transaction is rejected. A transaction already
+     * applied returns 200 with its outcome, so a client retrying after a lost response sees success. A 200 carries
+     * the journal sequence in the `X-Journal-Sequence` header when the postings are journaled.
+     *
+     * @param request the transaction; an id is generated if none is given
+     * @param principal the authenticated client
+     * @return a ResponseEntity containing the outcome
+     */
+    @PostMapping("/transactions")
+    public ResponseEntity<IngestResponse> submitTransaction(@RequestBody TransactionRequest request,
+                                                            Principal principal) {
+        String clientId = principal == null ? ANONYMOUS_CLIENT : principal.getName();
+        if (admissionControl != null && !admissionControl.tryAdmit(clientId)) {
+            log.debug("Shed transaction from client {}", clientId);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(IngestResponse.builder().transactionId(request.getId()).outcome("rate limited").build());
+        }
+
+        Transaction transaction = Transaction.builder()
+                .id(request.getId() == null ? UUID.randomUUID().toString() : request.getId())
+                .accountId(request.getAccountId() == null ? Transaction.DEFAULT_ACCOUNT : request.getAccountId())
+                .counterpartyAccountId(request.getCounterpartyAccountId())
+                .amount(request.getAmount())
+                .build();
+        if (transaction.isTransfer()) {
+            try {
+                boolean applied = bankAccountService.processTransfer(transaction);
+                return respond(transaction, applied ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY,
+                        applied ? RejectionCode.describe(RejectionCode.ACCEPTED) : "overdraft limit reached");
+            } catch (InvalidTransactionException e) {
+                return respond(transaction, HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+            }
+        }
+        int code = bankAccountService.submitTransaction(transaction);
+        boolean applied = code == RejectionCode.ACCEPTED || code == RejectionCode.DUPLICATE;
+        return respond(transaction, applied ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY,
+                RejectionCode.describe(code));
+    }
+
+    /**
+     * Endpoint to retrieve how many requests each priority class has had admitted, delayed and turned away.
+     *
+     * @return a ResponseEntity containing the admission metrics, empty when admission control is disabled
+     */
+    @GetMapping("/admission/metrics")
+    public ResponseEntity<List<AdmissionMetricsResponse>> getAdmissionMetrics() {
+        if (admissionControl == null) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(admissionControl.metrics().stream()
+                .map(metrics -> AdmissionMetricsResponse.builder()
+                        .priority(metrics.priority().name())
+                        .admitted(metrics.admitted())
+                        .delayed(metrics.delayed())
+                        .shed(metrics.shed())
+                        .build())
+                .toList());
+    }
+
+    private ResponseEntity<IngestResponse> respond(Transaction transaction, HttpStatus status, String outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (status == HttpStatus.OK && replicationStatus != null) {
+            // Postings are journaled as they are applied, so the journal has reached the transaction's sequence
+            response.header(BalanceController.SEQUENCE_HEADER, Long.toString(replicationStatus.appliedSequence()));
+        }
+        return response.body(IngestResponse.builder().transactionId(transaction.getId()).outcome(outcome).build());
+    }
+}
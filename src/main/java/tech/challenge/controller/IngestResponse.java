@@ -0,0 +1,12 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class IngestResponse {
+
+    private final String transactionId;
+    private final String outcome;
+}
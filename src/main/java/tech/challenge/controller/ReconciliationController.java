@@ -0,0 +1,62 @@
+package tech.challenge.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.reconcile.Reconciler;
+import tech.challenge.reconcile.ReconciliationReport;
+
+import java.time.Instant;
+
+/**
+ * REST controller reporting whether the ledger reconciles with the audited transactions.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnProperty(name = "reconciliation.enabled", havingValue = "true")
+public class ReconciliationController {
+
+    private final Reconciler reconciler;
+
+    /**
+     * Constructor for ReconciliationController.
+     *
+     * @param reconciler the reconciler comparing the ledger with the audit
+     */
+    public ReconciliationController(Reconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    /**
+     * Endpoint to run a reconciliation check. Only transactions older than the settle delay are compared, and
+     * any disagreement is reported per shard.
+     *
+     * @return a ResponseEntity containing the outcome of the check
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationResponse> getReconciliation() {
+        ReconciliationReport report = reconciler.check(System.currentTimeMillis());
+
+        ReconciliationResponse response = ReconciliationResponse.builder()
+                .watermark(Instant.ofEpochMilli(report.watermark()))
+                .reconciled(report.isReconciled())
+                .ledgerCount(report.ledgerCount())
+                .ledgerTotalInPence(report.ledgerTotalInPence())
+                .auditedCount(report.auditedCount())
+                .auditedTotalInPence(report.auditedTotalInPence())
+                .mismatches(report.mismatches().stream()
+                        .map(mismatch -> ShardMismatchResponse.builder()
+                                .shard(mismatch.shard())
+                                .ledgerCount(mismatch.ledgerCount())
+                                .auditedCount(mismatch.auditedCount())
+                                .ledgerTotalInPence(mismatch.ledgerTotalInPence())
+                                .auditedTotalInPence(mismatch.auditedTotalInPence())
+                                .build())
+                        .toList())
+                .elapsedMicros(report.elapsedMicros())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
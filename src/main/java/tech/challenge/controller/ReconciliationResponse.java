@@ -0,0 +1,34 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Builder
+public class ReconciliationResponse {
+
+    private final Instant watermark;
+    private final boolean reconciled;
+    private final long ledgerCount;
+    private final String ledgerTotal;
+    private final long auditedCount;
+    private final String auditedTotal;
+    private final List<ShardMismatchResponse> mismatches;
+    private final long elapsedMicros;
+
+    public static class ReconciliationResponseBuilder {
+        public ReconciliationResponseBuilder ledgerTotalInPence(long ledgerTotalInPence) {
+            this.ledgerTotal = BigDecimal.valueOf(ledgerTotalInPence, 2).toPlainString();
+            return this;
+        }
+
+        public ReconciliationResponseBuilder auditedTotalInPence(long auditedTotalInPence) {
+            this.auditedTotal = BigDecimal.valueOf(auditedTotalInPence, 2).toPlainString();
+            return this;
+        }
+    }
+}
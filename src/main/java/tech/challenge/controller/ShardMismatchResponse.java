@@ -0,0 +1,29 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+public class ShardMismatchResponse {
+
+    private final int shard;
+    private final long ledgerCount;
+    private final long auditedCount;
+    private final String ledgerTotal;
+    private final String auditedTotal;
+
+    public static class ShardMismatchResponseBuilder {
+        public ShardMismatchResponseBuilder ledgerTotalInPence(long ledgerTotalInPence) {
+            this.ledgerTotal = BigDecimal.valueOf(ledgerTotalInPence, 2).toPlainString();
+            return this;
+        }
+
+        public ShardMismatchResponseBuilder auditedTotalInPence(long auditedTotalInPence) {
+            this.auditedTotal = BigDecimal.valueOf(auditedTotalInPence, 2).toPlainString();
+            return this;
+        }
+    }
+}
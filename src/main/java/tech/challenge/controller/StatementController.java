@@ -0,0 +1,71 @@
+package tech.challenge.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.statement.WindowGranularity;
+import tech.challenge.statement.WindowedAggregates;
+
+import java.time.Instant;
+
+/**
+ * REST controller serving account statements from precomputed window aggregates.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class StatementController {
+
+    private static final int DEFAULT_WINDOWS = 24;
+
+    private final WindowedAggregates windowedAggregates;
+
+    /**
+     * Constructor for StatementController.
+     *
+     * @param windowedAggregates the per-account window aggregates
+     */
+    public StatementController(WindowedAggregates windowedAggregates) {
+        this.windowedAggregates = windowedAggregates;
+    }
+
+    /**
+     * Endpoint to retrieve an account's statement as hourly or daily totals.
+     * Without a range it covers the last 24 windows up to now.
+     *
+     * @param accountId the account to query
+     * @param granularity the window width, HOURLY or DAILY
+     * @param from optional inclusive start of the range (ISO-8601)
+     * @param to optional exclusive end of the range (ISO-8601)
+     * @return a ResponseEntity containing the statement windows that have postings
+     */
+    @GetMapping("/accounts/{accountId}/statement")
+    public ResponseEntity<StatementResponse> getStatement(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "HOURLY") WindowGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        long end = to == null ? System.currentTimeMillis() : to.toEpochMilli();
+        long start = from == null ? end - DEFAULT_WINDOWS * granularity.getWidthMillis() : from.toEpochMilli();
+
+        StatementResponse response = StatementResponse.builder()
+                .accountId(accountId)
+                .granularity(granularity)
+                .windows(windowedAggregates.statement(accountId, granularity, start, end).stream()
+                        .map(window -> StatementWindowResponse.builder()
+                                .start(Instant.ofEpochMilli(window.windowStart()))
+                                .end(Instant.ofEpochMilli(window.windowEnd()))
+                                .credits(window.creditsInPence())
+                                .debits(window.debitsInPence())
+                                .count(window.count())
+                                .min(window.minInPence())
+                                .max(window.maxInPence())
+                                .build())
+                        .toList())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
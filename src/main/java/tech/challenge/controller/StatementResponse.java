@@ -0,0 +1,16 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+import tech.challenge.statement.WindowGranularity;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class StatementResponse {
+
+    private final String accountId;
+    private final WindowGranularity granularity;
+    private final List<StatementWindowResponse> windows;
+}
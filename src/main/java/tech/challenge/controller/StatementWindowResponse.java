@@ -0,0 +1,46 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@Builder
+public class StatementWindowResponse {
+
+    private final Instant start;
+    private final Instant end;
+    private final String credits;
+    private final String debits;
+    private final long count;
+    private final String min;
+    private final String max;
+
+    public static class StatementWindowResponseBuilder {
+        public StatementWindowResponseBuilder credits(long creditsInPence) {
+            this.credits = formatPence(creditsInPence);
+            return this;
+        }
+
+        public StatementWindowResponseBuilder debits(long debitsInPence) {
+            this.debits = formatPence(debitsInPence);
+            return this;
+        }
+
+        public StatementWindowResponseBuilder min(long minInPence) {
+            this.min = formatPence(minInPence);
+            return this;
+        }
+
+        public StatementWindowResponseBuilder max(long maxInPence) {
+            this.max = formatPence(maxInPence);
+            return this;
+        }
+
+        private static String formatPence(long pence) {
+            return BigDecimal.valueOf(pence, 2).toPlainString();
+        }
+    }
+}
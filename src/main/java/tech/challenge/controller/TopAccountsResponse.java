@@ -0,0 +1,17 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Builder
+public class TopAccountsResponse {
+
+    private final Instant start;
+    private final Instant end;
+    private final List<AccountCountResponse> byCount;
+    private final List<AccountValueResponse> byValue;
+}
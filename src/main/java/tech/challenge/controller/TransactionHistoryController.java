@@ -0,0 +1,78 @@
+package tech.challenge.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.challenge.history.HistoryRecord;
+import tech.challenge.history.TransactionHistoryStore;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * REST controller for paged queries over an account's transaction history.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class TransactionHistoryController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final TransactionHistoryStore historyStore;
+
+    /**
+     * Constructor for TransactionHistoryController.
+     *
+     * @param historyStore the store holding each account's transaction history
+     */
+    public TransactionHistoryController(TransactionHistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    /**
+     * Endpoint to retrieve a page of an account's transactions.
+     * Without a time range it returns the latest transactions, newest first;
+     * with {@code from} and/or {@code to} it returns the transactions in that range, oldest first.
+     *
+     * @param accountId the account to query
+     * @param from optional inclusive start of the range (ISO-8601)
+     * @param to optional exclusive end of the range (ISO-8601)
+     * @param offset number of transactions to skip
+     * @param limit page size, capped at 1000
+     * @return a ResponseEntity containing the page of transactions
+     */
+    @GetMapping("/accounts/{accountId}/transactions")
+    public ResponseEntity<TransactionHistoryResponse> getTransactions(
+            @PathVariable String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long pageOffset = Math.max(0, offset);
+
+        List<HistoryRecord> page = from == null && to == null
+                ? historyStore.latest(accountId, pageOffset, pageSize)
+                : historyStore.between(accountId,
+                        from == null ? Long.MIN_VALUE : from.toEpochMilli(),
+                        to == null ? Long.MAX_VALUE : to.toEpochMilli(),
+                        pageOffset, pageSize);
+
+        TransactionHistoryResponse response = TransactionHistoryResponse.builder()
+                .accountId(accountId)
+                .transactions(page.stream()
+                        .map(record -> TransactionRecordResponse.builder()
+                                .id(record.id())
+                                .amountInPence(record.amountInPence())
+                                .timestamp(Instant.ofEpochMilli(record.timestamp()))
+                                .build())
+                        .toList())
+                .nextOffset(page.size() == pageSize ? pageOffset + pageSize : null)
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,18 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class TransactionHistoryResponse {
+
+    private final String accountId;
+    private final List<TransactionRecordResponse> transactions;
+    /**
+     * Offset of the next page, or null when this page is the last one.
+     */
+    private final Long nextOffset;
+}
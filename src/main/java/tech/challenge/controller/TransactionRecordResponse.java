@@ -0,0 +1,23 @@
+package tech.challenge.controller;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@Builder
+public class TransactionRecordResponse {
+
+    private final String id;
+    private final String amount;
+    private final Instant timestamp;
+
+    public static class TransactionRecordResponseBuilder {
+        public TransactionRecordResponseBuilder amountInPence(long amountInPence) {
+            this.amount = BigDecimal.valueOf(amountInPence, 2).toPlainString();
+            return this;
+        }
+    }
+}
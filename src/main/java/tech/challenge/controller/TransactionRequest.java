@@ -0,0 +1,16 @@
+package tech.challenge.controller;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionRequest {
+
+    private String id;
+    private String accountId;
+    private String counterpartyAccountId;
+    private double amount;
+}
@@ -8,20 +8,60 @@ import java.util.UUID;
 @Getter
 @Builder
 public class Transaction {
+
+    /**
+     * Account used when a transaction does not name one explicitly.
+     */
+    public static final String DEFAULT_ACCOUNT = "default";
+
     private final String id;
     private final double amount;
+    @Builder.Default
+    private final String accountId = DEFAULT_ACCOUNT;
+    /**
+     * Account credited by a transfer out of {@code accountId}; null for plain credits and debits.
+     */
+    private final String counterpartyAccountId;
+    /**
+     * Time the transaction was created, in epoch milliseconds.
+     */
+    @Builder.Default
+    private final long timestamp = System.currentTimeMillis();
 
     public static Transaction credit(double amount) {
+        return credit(DEFAULT_ACCOUNT, amount);
+    }
+
+    public static Transaction debit(double amount) {
+        return debit(DEFAULT_ACCOUNT, amount);
+    }
+
+    public static Transaction credit(String accountId, double amount) {
         return Transaction.builder()
                 .id(UUID.randomUUID().toString())
+                .accountId(accountId)
                 .amount(Math.abs(amount))
                 .build();
     }
 
-    public static Transaction debit(double amount) {
+    public static Transaction debit(String accountId, double amount) {
         return Transaction.builder()
                 .id(UUID.randomUUID().toString())
+                .accountId(accountId)
                 .amount(-Math.abs(amount))
                 .build();
     }
-}
\ No newline at end of file
+
+    public static Transaction transfer(String fromAccountId, String toAccountId, double amount) {
+        return Transaction.builder()
+                .id(UUID.randomUUID().toString())
+                .accountId(fromAccountId)
+                .counterpartyAccountId(toAccountId)
+                .amount(-Math.abs(amount))
+                .build();
+    }
+
+    public boolean isTransfer() {
+        return counterpartyAccountId != null;
+    }
+}
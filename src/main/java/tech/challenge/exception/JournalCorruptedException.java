@@ -0,0 +1,7 @@
+package tech.challenge.exception;
+
+public class JournalCorruptedException extends RuntimeException {
+    public JournalCorruptedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,436 @@
+package tech.challenge.history;
+
+import tech.challenge.util.TransactionIds;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Append-only transaction history of a single account, stored off-heap.
+ *
+ * <p>Records are fixed-size (timestamp, amount, 128-bit id) and live in direct buffers whose capacity doubles
+ * from 16 records up to 65,536 records per block, so quiet accounts stay small while busy ones avoid copying.
+ * The i-th record's block and offset are computed arithmetically, giving O(1) access by index and
+ * O(log n) seeks by timestamp. Timestamps are clamped to be non-decreasing so that the binary search holds.
+ *
+ * <p>Every {@code checkpointInterval} records the running balance is checkpointed in primitive arrays, so the
+ * balance as of any time is one binary search over checkpoints plus a scan of at most one interval of records.
+ * A history rebuilt after its oldest postings were compacted away starts from an opening balance standing for
+ * them, which every point in time includes, since the history holds nothing earlier.
+ *
+ * <p>Ids that are canonical UUIDs are stored in the record. Any other id, at most
+ * {@link TransactionIds#MAX_ID_BYTES} long, is stored in UTF-8 in an off-heap area belonging to the record's
+ * block, and the record holds its offset and length, tagged with a UUID variant no stored UUID carries. Every id
+ * is returned exactly as it was posted, and the area is freed with its block.
+ *
+ * <p>Once more than {@code retainedPostings} records are held, the oldest blocks are dropped whole, so an account
+ * holds at most that many records plus one block of at most 65,536 records. Point-in-time balances keep working across dropped records:
+ * from the last dropped record onwards they stay exact, and earlier times are answered from the checkpoint at
+ * or before them, as the records between checkpoints are gone.
+ *
+ * <p>Appends are serialised per account; readers never lock and read through a {@link View}, which only sees
+ * records published through {@code size} and still retained.
+ */
+final class AccountHistory {
+
+    static final int RECORD_BYTES = 32;
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int AMOUNT_OFFSET = 8;
+    private static final int ID_HIGH_OFFSET = 16;
+    private static final int ID_LOW_OFFSET = 24;
+
+    private static final int FIRST_BLOCK_SHIFT = 4;
+    private static final int LAST_BLOCK_SHIFT = 16;
+    private static final int GROWING_BLOCKS = LAST_BLOCK_SHIFT - FIRST_BLOCK_SHIFT;
+    private static final long GROWING_RECORDS = (1L << FIRST_BLOCK_SHIFT) * ((1L << GROWING_BLOCKS) - 1);
+
+    // The reserved UUID variant (top three bits of the low half set) marks an id held in the block's id area
+    private static final long STORED_ID_TAG = 0xE000_0000_0000_0000L;
+    private static final int FIRST_ID_AREA_BYTES = 256;
+
+    private final int checkpointInterval;
+    private final long retainedPostings;
+    private volatile ByteBuffer[] blocks = new ByteBuffer[4];
+    private volatile ByteBuffer[] idAreas = new ByteBuffer[4];
+    private volatile long size;
+    private volatile Retained retained = new Retained(0, 0, 0, Long.MIN_VALUE);
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long runningBalanceInPence;
+    private volatile long openingBalanceInPence;
+    private int idAreaPosition;
+
+    // Checkpoint k holds the timestamp and running balance after record (k + 1) * checkpointInterval - 1
+    private volatile long[] checkpointTimestamps = new long[8];
+    private volatile long[] checkpointBalances = new long[8];
+    private volatile int checkpointCount;
+
+    /**
+     * @param checkpointInterval number of records between balance checkpoints
+     * @param retainedPostings number of records kept before the oldest blocks are dropped, 0 to keep every record
+     */
+    AccountHistory(int checkpointInterval, long retainedPostings) {
+        this.checkpointInterval = checkpointInterval;
+        this.retainedPostings = retainedPostings;
+    }
+
+    /**
+     * Sets the balance the history starts from, before any record is appended.
+     *
+     * @param balanceInPence the balance of the postings preceding the first record
+     * @throws IllegalStateException if records have already been appended
+     */
+    synchronized void open(long balanceInPence) {
+        if (size != 0) {
+            throw new IllegalStateException("An opening balance must precede the first record");
+        }
+        openingBalanceInPence = balanceInPence;
+        runningBalanceInPence = balanceInPence;
+        retained = new Retained(0, 0, balanceInPence, Long.MIN_VALUE);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param timestamp the posting time in epoch milliseconds
+     * @param amountInPence the signed amount in pence
+     * @param transactionId the transaction id, may be null
+     * @return the index of the appended record
+     */
+    synchronized long append(long timestamp, long amountInPence, String transactionId) {
+        long index = size;
+        int block = blockOf(index);
+        ByteBuffer buffer = blockForWrite(block);
+        int position = offsetOf(index, block) * RECORD_BYTES;
+
+        long idHigh;
+        long idLow;
+        if (isStoredAsUuid(transactionId)) {
+            UUID id = TransactionIds.toUuid(transactionId);
+            idHigh = id.getMostSignificantBits();
+            idLow = id.getLeastSignificantBits();
+        } else {
+            byte[] bytes = transactionId.getBytes(StandardCharsets.UTF_8);
+            idHigh = storeId(block, bytes);
+            idLow = STORED_ID_TAG | bytes.length;
+        }
+
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        buffer.putLong(position + TIMESTAMP_OFFSET, lastTimestamp);
+        buffer.putLong(position + AMOUNT_OFFSET, amountInPence);
+        buffer.putLong(position + ID_HIGH_OFFSET, idHigh);
+        buffer.putLong(position + ID_LOW_OFFSET, idLow);
+
+        size = index + 1;
+
+        runningBalanceInPence += amountInPence;
+        if ((index + 1) % checkpointInterval == 0) {
+            addCheckpoint(lastTimestamp, runningBalanceInPence);
+        }
+        if (retainedPostings > 0) {
+            dropBeyondRetention(index + 1);
+        }
+        return index;
+    }
+
+    /**
+     * Computes the balance from all records posted at or before the given time.
+     *
+     * @param timestamp time in epoch milliseconds
+     * @return the opening balance plus the sum of the amounts of every record with a timestamp not after
+     * {@code timestamp}, to checkpoint precision for times before the last dropped record
+     */
+    long balanceAsOf(long timestamp) {
+        // Read the checkpoint count before the view: every published checkpoint then covers published records only
+        int checkpoints = checkpointCount;
+        long[] timestamps = checkpointTimestamps;
+        long[] balances = checkpointBalances;
+        View view = view();
+
+        int low = 0;
+        int high = checkpoints;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        long balance = low == 0 ? openingBalanceInPence : balances[low - 1];
+        long start = (long) low * checkpointInterval;
+        if (start < view.first()) {
+            if (timestamp < view.retained.lastDroppedTimestamp()) {
+                // The records between the checkpoint and the time asked for were dropped
+                return balance;
+            }
+            balance = view.retained.balanceBeforeInPence();
+            start = view.first();
+        }
+        for (long index = start; index < view.size(); index++) {
+            if (view.timestampAt(index) > timestamp) {
+                break;
+            }
+            balance += view.amountAt(index);
+        }
+        return balance;
+    }
+
+    /**
+     * @return the records currently published and retained, readable without locking
+     */
+    View view() {
+        while (true) {
+            // The writer moves the retained range before dropping blocks, so a view that saw a dropped block also
+            // sees the range move and is taken again
+            Retained range = retained;
+            long published = size;
+            ByteBuffer[] records = blocks;
+            ByteBuffer[] ids = idAreas;
+            if (range == retained) {
+                return new View(range, published, records, ids);
+            }
+        }
+    }
+
+    /**
+     * @return the number of records appended, including dropped ones
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return the off-heap bytes allocated for this account
+     */
+    long allocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer block : blocks) {
+            if (block != null) {
+                bytes += block.capacity();
+            }
+        }
+        for (ByteBuffer area : idAreas) {
+            if (area != null) {
+                bytes += area.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean isStoredAsUuid(String transactionId) {
+        if (transactionId == null) {
+            return true;
+        }
+        // A canonical UUID of the reserved variant would read back as a stored id, so it is stored as text
+        return TransactionIds.isCanonicalUuid(transactionId) && transactionId.charAt(19) < 'e';
+    }
+
+    /**
+     * Copies an id into the block's id area, growing the area as needed.
+     *
+     * @return the offset of the id in the area
+     */
+    private long storeId(int block, byte[] bytes) {
+        ByteBuffer[] areas = idAreas;
+        if (block >= areas.length) {
+            areas = Arrays.copyOf(areas, Math.max(areas.length * 2, block + 1));
+        }
+        ByteBuffer area = areas[block];
+        if (area == null) {
+            idAreaPosition = 0;
+        }
+        if (area == null || area.capacity() - idAreaPosition < bytes.length) {
+            int capacity = area == null ? FIRST_ID_AREA_BYTES : area.capacity();
+            while (capacity - idAreaPosition < bytes.length) {
+                capacity *= 2;
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            if (area != null) {
+                grown.put(0, area, 0, idAreaPosition);
+                // Readers may hold the published array, so the grown area goes into a copy of it
+                areas = areas == idAreas ? areas.clone() : areas;
+            }
+            areas[block] = grown;
+            area = grown;
+        }
+        area.put(idAreaPosition, bytes);
+        long offset = idAreaPosition;
+        idAreaPosition += bytes.length;
+        // Published before the record's size, so readers of the record see the area holding its id
+        idAreas = areas;
+        return offset;
+    }
+
+    /**
+     * Drops the oldest blocks while the records after them still number at least the retention limit.
+     */
+    private void dropBeyondRetention(long published) {
+        Retained current = retained;
+        while (true) {
+            long firstIndex = current.firstIndex();
+            int block = current.firstBlock();
+            long blockEnd = firstIndex + blockLength(block);
+            if (published - blockEnd < retainedPostings) {
+                return;
+            }
+            ByteBuffer buffer = blocks[block];
+            long dropped = 0;
+            for (int offset = 0; offset < blockLength(block); offset++) {
+                dropped += buffer.getLong(offset * RECORD_BYTES + AMOUNT_OFFSET);
+            }
+            long lastDropped = buffer.getLong((blockLength(block) - 1) * RECORD_BYTES + TIMESTAMP_OFFSET);
+            current = new Retained(blockEnd, block + 1, current.balanceBeforeInPence() + dropped, lastDropped);
+            retained = current;
+
+            ByteBuffer[] remainingBlocks = blocks.clone();
+            remainingBlocks[block] = null;
+            blocks = remainingBlocks;
+            if (block < idAreas.length && idAreas[block] != null) {
+                ByteBuffer[] remainingIds = idAreas.clone();
+                remainingIds[block] = null;
+                idAreas = remainingIds;
+            }
+        }
+    }
+
+    private void addCheckpoint(long timestamp, long balanceInPence) {
+        int count = checkpointCount;
+        long[] timestamps = checkpointTimestamps;
+        long[] balances = checkpointBalances;
+        if (count == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, count * 2);
+            balances = Arrays.copyOf(balances, count * 2);
+        }
+        timestamps[count] = timestamp;
+        balances[count] = balanceInPence;
+        checkpointTimestamps = timestamps;
+        checkpointBalances = balances;
+        checkpointCount = count + 1;
+    }
+
+    private ByteBuffer blockForWrite(int block) {
+        ByteBuffer[] current = blocks;
+        if (block >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[block] == null) {
+            current[block] = ByteBuffer.allocateDirect(blockLength(block) * RECORD_BYTES).order(ByteOrder.nativeOrder());
+            blocks = current;
+        }
+        return current[block];
+    }
+
+    private static int blockLength(int block) {
+        return 1 << Math.min(FIRST_BLOCK_SHIFT + block, LAST_BLOCK_SHIFT);
+    }
+
+    static int blockOf(long index) {
+        if (index < GROWING_RECORDS) {
+            return 63 - Long.numberOfLeadingZeros((index >>> FIRST_BLOCK_SHIFT) + 1);
+        }
+        return GROWING_BLOCKS + (int) ((index - GROWING_RECORDS) >>> LAST_BLOCK_SHIFT);
+    }
+
+    static int offsetOf(long index, int block) {
+        if (block < GROWING_BLOCKS) {
+            return (int) (index - (1L << FIRST_BLOCK_SHIFT) * ((1L << block) - 1));
+        }
+        return (int) ((index - GROWING_RECORDS) & ((1L << LAST_BLOCK_SHIFT) - 1));
+    }
+
+    /**
+     * The records retained when the history was last dropped from: the first retained index, its block, the
+     * balance of every record before it and the timestamp of the last record dropped.
+     */
+    private record Retained(long firstIndex, int firstBlock, long balanceBeforeInPence, long lastDroppedTimestamp) {
+    }
+
+    /**
+     * Records of a history as published when the view was taken. Indexes keep counting dropped records, so they
+     * stay stable as the history is trimmed; only indexes from {@link #first()} to {@link #size()} are readable.
+     */
+    static final class View {
+
+        private final Retained retained;
+        private final long size;
+        private final ByteBuffer[] blocks;
+        private final ByteBuffer[] idAreas;
+
+        private View(Retained retained, long size, ByteBuffer[] blocks, ByteBuffer[] idAreas) {
+            this.retained = retained;
+            this.size = size;
+            this.blocks = blocks;
+            this.idAreas = idAreas;
+        }
+
+        /**
+         * @return the index of the oldest retained record
+         */
+        long first() {
+            return retained.firstIndex();
+        }
+
+        /**
+         * @return the index after the newest published record
+         */
+        long size() {
+            return size;
+        }
+
+        long timestampAt(long index) {
+            return readLong(index, TIMESTAMP_OFFSET);
+        }
+
+        long amountAt(long index) {
+            return readLong(index, AMOUNT_OFFSET);
+        }
+
+        HistoryRecord recordAt(long index) {
+            int block = blockOf(index);
+            ByteBuffer buffer = blocks[block];
+            int position = offsetOf(index, block) * RECORD_BYTES;
+            long idHigh = buffer.getLong(position + ID_HIGH_OFFSET);
+            long idLow = buffer.getLong(position + ID_LOW_OFFSET);
+            String id;
+            if ((idLow & STORED_ID_TAG) == STORED_ID_TAG) {
+                byte[] bytes = new byte[(int) (idLow & 0xFFFF)];
+                idAreas[block].get((int) idHigh, bytes);
+                id = new String(bytes, StandardCharsets.UTF_8);
+            } else {
+                id = new UUID(idHigh, idLow).toString();
+            }
+            return new HistoryRecord(id, buffer.getLong(position + TIMESTAMP_OFFSET),
+                    buffer.getLong(position + AMOUNT_OFFSET));
+        }
+
+        /**
+         * Finds the first retained record posted at or after the given time.
+         *
+         * @param timestamp time in epoch milliseconds
+         * @return the index of the first record with a timestamp not before {@code timestamp}, or {@link #size()}
+         * if none
+         */
+        long lowerBound(long timestamp) {
+            long low = first();
+            long high = size;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (timestampAt(mid) < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private long readLong(long index, int field) {
+            int block = blockOf(index);
+            return blocks[block].getLong(offsetOf(index, block) * RECORD_BYTES + field);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package tech.challenge.history;
+
+/**
+ * A transaction as retained by the history store.
+ *
+ * @param id the transaction id as posted
+ * @param timestamp the time the transaction was posted, in epoch milliseconds
+ * @param amountInPence the signed amount posted to the account, in pence
+ */
+public record HistoryRecord(String id, long timestamp, long amountInPence) {
+}
@@ -0,0 +1,169 @@
+package tech.challenge.history;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.BalanceHistory;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retains the recent postings of each account in compact off-heap storage and answers paged history queries.
+ * Both "latest N" and time-range queries seek directly to their first record, so their cost depends on
+ * the page size rather than on how much history an account has. Point-in-time balances are answered from
+ * periodic balance checkpoints, so their cost is bounded by the checkpoint interval. Each account keeps about
+ * {@code history.retained-postings-per-account} postings, so memory is bounded however long the service runs.
+ */
+@Component
+public class TransactionHistoryStore implements PostingListener, BalanceHistory {
+
+    private final Map<String, AccountHistory> histories = new ConcurrentHashMap<>();
+    private final int checkpointInterval;
+    private final long retainedPostings;
+
+    /**
+     * Constructor for TransactionHistoryStore keeping every posting.
+     *
+     * @param checkpointInterval number of postings between balance checkpoints
+     */
+    public TransactionHistoryStore(int checkpointInterval) {
+        this(checkpointInterval, 0);
+    }
+
+    /**
+     * Constructor for TransactionHistoryStore.
+     *
+     * @param checkpointInterval number of postings between balance checkpoints
+     * @param retainedPostings number of postings kept per account before the oldest are dropped, 0 to keep all
+     */
+    @Autowired
+    public TransactionHistoryStore(@Value("${history.checkpoint-interval:1024}") int checkpointInterval,
+                                   @Value("${history.retained-postings-per-account:1048576}") long retainedPostings) {
+        this.checkpointInterval = checkpointInterval;
+        this.retainedPostings = retainedPostings;
+    }
+
+    @Override
+    public void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        append(accountId, transaction.getTimestamp(), amountInPence, transaction.getId());
+    }
+
+    /**
+     * Starts an account's history from the balance its compacted postings left, so point-in-time balances include
+     * them.
+     */
+    @Override
+    public void onOpeningBalance(String accountId, long ledgerBalanceInPence) {
+        historyOf(accountId).open(ledgerBalanceInPence);
+    }
+
+    /**
+     * Appends a posting to an account's history.
+     *
+     * @param accountId the account the posting was applied to
+     * @param timestamp the posting time in epoch milliseconds
+     * @param amountInPence the signed amount in pence
+     * @param transactionId the id of the transaction
+     */
+    public void append(String accountId, long timestamp, long amountInPence, String transactionId) {
+        historyOf(accountId).append(timestamp, amountInPence, transactionId);
+    }
+
+    /**
+     * Returns the most recent postings of an account, newest first.
+     *
+     * @param accountId the account to query
+     * @param offset number of most recent postings to skip, not negative
+     * @param limit maximum number of postings to return
+     * @return the requested page of postings
+     * @throws IllegalArgumentException if the offset is negative
+     */
+    public List<HistoryRecord> latest(String accountId, long offset, int limit) {
+        checkOffset(offset);
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            return Collections.emptyList();
+        }
+        AccountHistory.View view = history.view();
+        long retained = view.size() - view.first();
+        long newest = view.size() - 1 - Math.min(offset, retained);
+        List<HistoryRecord> page = new ArrayList<>((int) Math.min(limit, newest + 1 - view.first()));
+        for (long index = newest; index >= view.first() && page.size() < limit; index--) {
+            page.add(view.recordAt(index));
+        }
+        return page;
+    }
+
+    /**
+     * Returns the postings of an account within a time range, oldest first.
+     *
+     * @param accountId the account to query
+     * @param fromInclusive start of the range in epoch milliseconds
+     * @param toExclusive end of the range in epoch milliseconds
+     * @param offset number of postings in the range to skip, not negative
+     * @param limit maximum number of postings to return
+     * @return the requested page of postings
+     * @throws IllegalArgumentException if the offset is negative
+     */
+    public List<HistoryRecord> between(String accountId, long fromInclusive, long toExclusive, long offset, int limit) {
+        checkOffset(offset);
+        AccountHistory history = histories.get(accountId);
+        if (history == null || fromInclusive >= toExclusive) {
+            return Collections.emptyList();
+        }
+        AccountHistory.View view = history.view();
+        long lower = view.lowerBound(fromInclusive);
+        // Clamped before adding, so an offset past the end cannot overflow
+        long start = lower + Math.min(offset, view.size() - lower);
+        List<HistoryRecord> page = new ArrayList<>();
+        for (long index = start; index < view.size() && page.size() < limit; index++) {
+            if (view.timestampAt(index) >= toExclusive) {
+                break;
+            }
+            page.add(view.recordAt(index));
+        }
+        return page;
+    }
+
+    @Override
+    public long balanceAsOfInPence(String accountId, long epochMillis) {
+        AccountHistory history = histories.get(accountId);
+        return history == null ? 0 : history.balanceAsOf(epochMillis);
+    }
+
+    /**
+     * @param accountId the account to query
+     * @return the number of postings retained for the account
+     */
+    public long count(String accountId) {
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            return 0;
+        }
+        AccountHistory.View view = history.view();
+        return view.size() - view.first();
+    }
+
+    /**
+     * @return the off-heap bytes allocated across all accounts
+     */
+    public long allocatedBytes() {
+        return histories.values().stream().mapToLong(AccountHistory::allocatedBytes).sum();
+    }
+
+    private AccountHistory historyOf(String accountId) {
+        return histories.computeIfAbsent(accountId, id -> new AccountHistory(checkpointInterval, retainedPostings));
+    }
+
+    private static void checkOffset(long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tech.challenge.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces a stream of I/O to a fixed byte rate by sleeping whenever the caller gets ahead of schedule.
+ * Used by background work so it leaves disk bandwidth to the foreground.
+ */
+final class IoThrottle {
+
+    private final long bytesPerSecond;
+    private final long startNanos = System.nanoTime();
+    private long bytes;
+
+    /**
+     * @param bytesPerSecond the rate to keep to, 0 or less for no limit
+     */
+    IoThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Accounts for bytes read or written, sleeping until the rate allows them.
+     */
+    void acquire(long count) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        bytes += count;
+        long dueNanos = startNanos + bytes * 1_000_000_000L / bytesPerSecond;
+        long aheadNanos = dueNanos - System.nanoTime();
+        if (aheadNanos > 1_000_000) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+}
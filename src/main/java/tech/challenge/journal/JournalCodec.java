@@ -0,0 +1,111 @@
+package tech.challenge.journal;
+
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.util.TransactionIds;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of a journal record: a length prefix, the fixed-width fields, the account id in UTF-8, then for
+ * an id that is not a canonical UUID the id as posted in UTF-8, and a CRC32C of everything after the length
+ * prefix. Records without the trailing id, including every record written before it was added, read back with
+ * the id in its UUID form. The same layout is used on disk and on the replication socket.
+ */
+final class JournalCodec {
+
+    /** Length prefix, sequence, timestamp, amount, id (two longs), account id length and checksum. */
+    static final int FIXED_BYTES = 4 + 5 * Long.BYTES + Short.BYTES + Integer.BYTES;
+
+    private static final int MIN_BODY_BYTES = 5 * Long.BYTES + Short.BYTES;
+    private static final int MAX_BODY_BYTES = MIN_BODY_BYTES + 0xFFFF + Short.BYTES + TransactionIds.MAX_ID_BYTES;
+
+    /** Largest encoded record: the longest account id and the longest id as posted. */
+    static final int MAX_ENCODED_BYTES = Integer.BYTES + MAX_BODY_BYTES + Integer.BYTES;
+
+    private JournalCodec() {
+    }
+
+    static int encodedSize(String accountId, String originalId) {
+        int size = FIXED_BYTES + accountId.getBytes(StandardCharsets.UTF_8).length;
+        return originalId == null ? size : size + Short.BYTES + originalId.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Writes a record; the buffer must have {@link #encodedSize(String, String)} bytes remaining.
+     */
+    static void write(ByteBuffer buffer, JournalRecord record) {
+        byte[] account = record.accountId().getBytes(StandardCharsets.UTF_8);
+        byte[] original = record.originalId() == null ? null : record.originalId().getBytes(StandardCharsets.UTF_8);
+        if (original != null && original.length > TransactionIds.MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Transaction id longer than " + TransactionIds.MAX_ID_BYTES
+                    + " bytes: " + record.originalId());
+        }
+        int bodyLength = MIN_BODY_BYTES + account.length + (original == null ? 0 : Short.BYTES + original.length);
+        buffer.putInt(bodyLength);
+        int bodyStart = buffer.position();
+        buffer.putLong(record.sequence())
+                .putLong(record.timestamp())
+                .putLong(record.amountInPence())
+                .putLong(record.transactionId().getMostSignificantBits())
+                .putLong(record.transactionId().getLeastSignificantBits())
+                .putShort((short) account.length)
+                .put(account);
+        if (original != null) {
+            buffer.putShort((short) original.length).put(original);
+        }
+        buffer.putInt(checksum(buffer, bodyStart, bodyLength));
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or null if the buffer does not hold a complete record; the position is then unchanged
+     * @throws JournalCorruptedException if the record fails its checksum
+     */
+    static JournalRecord read(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int bodyLength = buffer.getInt(start);
+        if (bodyLength < MIN_BODY_BYTES || bodyLength > MAX_BODY_BYTES) {
+            throw new JournalCorruptedException("Invalid record length " + bodyLength + " at offset " + start);
+        }
+        if (buffer.remaining() < Integer.BYTES + bodyLength + Integer.BYTES) {
+            return null;
+        }
+        int bodyStart = start + Integer.BYTES;
+        if (buffer.getInt(bodyStart + bodyLength) != checksum(buffer, bodyStart, bodyLength)) {
+            throw new JournalCorruptedException("Checksum mismatch for record at offset " + start);
+        }
+        buffer.position(bodyStart);
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        long amount = buffer.getLong();
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        int accountLength = buffer.getShort() & 0xFFFF;
+        if (accountLength > bodyLength - MIN_BODY_BYTES) {
+            throw new JournalCorruptedException("Invalid account id length " + accountLength + " at offset " + start);
+        }
+        byte[] account = new byte[accountLength];
+        buffer.get(account);
+        String originalId = null;
+        if (buffer.position() < bodyStart + bodyLength) {
+            byte[] original = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(original);
+            originalId = new String(original, StandardCharsets.UTF_8);
+        }
+        buffer.position(bodyStart + bodyLength + Integer.BYTES);
+        return new JournalRecord(sequence, timestamp, new String(account, StandardCharsets.UTF_8), amount, id,
+                originalId);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(offset).limit(offset + length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,163 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.util.DurableFiles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background compaction of the journal. Closed segments older than the retention window are folded, together
+ * with the previous snapshot, into a new snapshot of every account's balance, and are then deleted. Recovery
+ * starts from the snapshot, so both disk usage and recovery time stay bounded by the retention window.
+ * Compaction runs on a single low-priority thread and paces its reads and writes, leaving the disk to the
+ * journal's own appends.
+ */
+@Slf4j
+public class JournalCompactor implements Closeable {
+
+    private final TransactionJournal journal;
+    private final Duration retention;
+    private final long maxBytesPerSecond;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor for JournalCompactor.
+     *
+     * @param journal the journal to compact
+     * @param retention how long segments are kept before being folded into the snapshot
+     * @param maxBytesPerSecond cap on the compaction's combined read and write rate, 0 for no cap
+     * @param interval how often to look for segments to compact, or null to only compact on demand
+     */
+    public JournalCompactor(TransactionJournal journal, Duration retention, long maxBytesPerSecond, Duration interval) {
+        this.journal = journal;
+        this.retention = retention;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        if (interval != null) {
+            scheduler.scheduleWithFixedDelay(this::compactQuietly, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Folds every segment past the retention window into a new snapshot.
+     *
+     * @return the number of segments folded
+     */
+    public synchronized int compact() throws IOException, InterruptedException {
+        Path directory = journal.getDirectory();
+        List<Path> eligible = eligibleSegments();
+        if (eligible.isEmpty()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        IoThrottle throttle = new IoThrottle(maxBytesPerSecond);
+        Optional<Path> previous = JournalSnapshot.latest(directory);
+        JournalSnapshot base = previous.isPresent() ? JournalSnapshot.read(previous.get()) : JournalSnapshot.empty();
+        Map<String, long[]> balances = base.balances();
+
+        long sequence = base.sequence();
+        List<Path> folded = new ArrayList<>();
+        for (Path segment : eligible) {
+            long first = TransactionJournal.firstSequenceOf(segment);
+            if (first <= base.sequence()) {
+                // Already folded by a compaction interrupted before it could delete the segment
+                folded.add(segment);
+                continue;
+            }
+            if (first != sequence + 1) {
+                throw new JournalCorruptedException("Journal segment " + segment + " starts at sequence " + first
+                        + ", expected " + (sequence + 1));
+            }
+            sequence = fold(directory, segment, balances, throttle);
+            folded.add(segment);
+        }
+
+        Path snapshot = new JournalSnapshot(sequence, balances).write(directory, throttle);
+        for (Path old : JournalSnapshot.all(directory)) {
+            if (!old.equals(snapshot)) {
+                Files.deleteIfExists(old);
+            }
+        }
+        // The snapshot is durable by now, so the segments it replaces can go
+        for (Path segment : folded) {
+            Files.deleteIfExists(TransactionJournal.checksumsOf(segment));
+            Files.deleteIfExists(segment);
+        }
+        DurableFiles.forceDirectory(directory);
+        log.info("Compacted {} journal segments into a snapshot of {} accounts at sequence {} in {} ms",
+                folded.size(), balances.size(), sequence, (System.nanoTime() - started) / 1_000_000);
+        return folded.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the oldest closed segments last written before the retention window, stopping at the first segment
+     * that is still open or recent so that the snapshot always covers a contiguous prefix of the journal.
+     */
+    private List<Path> eligibleSegments() throws IOException {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Path> eligible = new ArrayList<>();
+        for (Path segment : journal.segments()) {
+            boolean closed = Files.exists(TransactionJournal.checksumsOf(segment));
+            if (!closed || Files.getLastModifiedTime(segment).toMillis() > cutoff) {
+                break;
+            }
+            eligible.add(segment);
+        }
+        return eligible;
+    }
+
+    private static long fold(Path directory, Path segment, Map<String, long[]> balances, IoThrottle throttle)
+            throws IOException, InterruptedException {
+        SegmentChecksums computed = new SegmentChecksums();
+        long sequence = TransactionJournal.firstSequenceOf(segment) - 1;
+        try (JournalReader reader = new JournalReader(directory, 0, segment)) {
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                computed.add(SegmentChecksums.partitionOf(record.accountId()), record);
+                balances.computeIfAbsent(record.accountId(), id -> new long[1])[0] += record.amountInPence();
+                sequence = record.sequence();
+                throttle.acquire(JournalCodec.FIXED_BYTES + record.accountId().length());
+            }
+        }
+        List<Integer> mismatched = SegmentChecksums.read(TransactionJournal.checksumsOf(segment))
+                .mismatchedPartitions(computed);
+        if (!mismatched.isEmpty()) {
+            throw new JournalCorruptedException("Journal segment " + segment
+                    + " failed checksum verification for partitions " + mismatched);
+        }
+        return sequence;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal compaction failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.AccountBalance;
+import tech.challenge.consumer.service.AccountTable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read replica that tails a leader's journal and applies it to its own account table.
+ * Postings are replayed as they were accepted by the leader, so they are neither re-validated nor re-audited.
+ * The follower reconnects after a lost connection and resumes from the last sequence it applied.
+ */
+@Slf4j
+public class JournalFollower implements ReplicationStatus, Closeable {
+
+    private static final Duration RECONNECT_DELAY = Duration.ofMillis(500);
+
+    private final int leaderPort;
+    private final AccountTable accountTable;
+    private final Object appliedSignal = new Object();
+    private final Thread applier;
+
+    private volatile boolean running = true;
+    private volatile Socket socket;
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long caughtUpAtMillis = System.currentTimeMillis();
+
+    /**
+     * Starts following a leader.
+     *
+     * @param leaderPort the loopback port the leader ships its journal on
+     * @param accountTable the table the journal is applied to
+     */
+    public JournalFollower(int leaderPort, AccountTable accountTable) {
+        this.leaderPort = leaderPort;
+        this.accountTable = accountTable;
+        this.applier = new Thread(this::follow, "journal-follower");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    @Override
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return the last sequence the leader is known to have written
+     */
+    public long leaderSequence() {
+        return leaderSequence;
+    }
+
+    @Override
+    public long lagMillis() {
+        return appliedSequence >= leaderSequence ? 0 : System.currentTimeMillis() - caughtUpAtMillis;
+    }
+
+    @Override
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (appliedSignal) {
+            long remaining;
+            while (appliedSequence < sequence && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(appliedSignal, remaining);
+            }
+        }
+        return appliedSequence >= sequence;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        applier.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Error closing connection to leader", e);
+            }
+        }
+    }
+
+    private void follow() {
+        while (running) {
+            try (Socket connection = new Socket(InetAddress.getLoopbackAddress(), leaderPort)) {
+                socket = connection;
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(appliedSequence + 1);
+                out.flush();
+                log.info("Following leader on port {} from sequence {}", leaderPort, appliedSequence + 1);
+                apply(new DataInputStream(new BufferedInputStream(connection.getInputStream(), 64 * 1024)));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Lost connection to leader on port {}: {}", leaderPort, e.getMessage());
+                }
+            }
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(JournalCodec.MAX_ENCODED_BYTES);
+        while (running) {
+            byte type = in.readByte();
+            if (type == JournalShippingServer.HEARTBEAT_FRAME) {
+                leaderSequence = Math.max(leaderSequence, in.readLong());
+                in.readLong();
+            } else if (type == JournalShippingServer.SNAPSHOT_FRAME) {
+                applySnapshot(JournalSnapshot.readFrom(in));
+            } else {
+                int bodyLength = in.readInt();
+                frame.clear().putInt(bodyLength);
+                in.readFully(frame.array(), Integer.BYTES, bodyLength + Integer.BYTES);
+                frame.limit(Integer.BYTES + bodyLength + Integer.BYTES).position(0);
+                JournalRecord record = JournalCodec.read(frame);
+                accountTable.replay(record.accountId(), record.amountInPence());
+                appliedSequence = record.sequence();
+                if (appliedSequence > leaderSequence) {
+                    leaderSequence = appliedSequence;
+                }
+            }
+            if (in.available() == 0) {
+                // End of a burst: publish progress to readers waiting for their writes
+                if (appliedSequence >= leaderSequence) {
+                    caughtUpAtMillis = System.currentTimeMillis();
+                }
+                synchronized (appliedSignal) {
+                    appliedSignal.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Brings every account to its balance in a snapshot the leader sent because the postings this follower still
+     * needed were compacted away. The snapshot includes everything applied here so far, so it replaces it.
+     */
+    private void applySnapshot(JournalSnapshot snapshot) {
+        snapshot.balances().forEach((accountId, balance) -> {
+            AccountBalance account = accountTable.find(accountId);
+            long current = account == null ? 0 : account.getLedgerInPence();
+            if (balance[0] != current) {
+                accountTable.replay(accountId, balance[0] - current);
+            }
+        });
+        appliedSequence = snapshot.sequence();
+        if (appliedSequence > leaderSequence) {
+            leaderSequence = appliedSequence;
+        }
+        log.info("Applied leader snapshot at sequence {} with {} accounts", snapshot.sequence(),
+                snapshot.balances().size());
+    }
+}
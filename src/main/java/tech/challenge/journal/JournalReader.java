@@ -0,0 +1,179 @@
+package tech.challenge.journal;
+
+import tech.challenge.exception.JournalCorruptedException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sequential reader over the journal's segments that can keep tailing a journal still being written.
+ * {@link #next()} returns null once it has caught up with what has been written; calling it again later
+ * continues from the same position, moving on to newer segments as they appear. Records are returned in
+ * unbroken sequence: a missing sequence, such as one compacted into a snapshot before it could be read,
+ * fails the read rather than being skipped.
+ */
+public final class JournalReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final Path directory;
+    private final long fromSequence;
+    private final Path onlySegment;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).limit(0);
+
+    private Path current;
+    private FileChannel channel;
+    private long fileOffset;
+    private long expectedSequence;
+
+    /**
+     * Opens a reader over every segment of a journal directory.
+     *
+     * @param directory the journal directory
+     * @param fromSequence the first sequence to return
+     */
+    public JournalReader(Path directory, long fromSequence) {
+        this(directory, fromSequence, null);
+    }
+
+    /**
+     * Opens a reader over a single segment.
+     *
+     * @param directory the journal directory
+     * @param fromSequence the first sequence to return
+     * @param onlySegment the segment to read, or null to read them all
+     */
+    JournalReader(Path directory, long fromSequence, Path onlySegment) {
+        this.directory = directory;
+        this.fromSequence = fromSequence;
+        this.onlySegment = onlySegment;
+        this.expectedSequence = fromSequence;
+    }
+
+    /**
+     * @return the next record, or null if every record written so far has been read
+     * @throws JournalCorruptedException if a record fails its checksum or a sequence is missing
+     */
+    public JournalRecord next() {
+        try {
+            while (true) {
+                if (current == null && !advance()) {
+                    return null;
+                }
+                JournalRecord record = JournalCodec.read(buffer);
+                if (record != null) {
+                    if (record.sequence() < fromSequence) {
+                        continue;
+                    }
+                    // A reader from sequence 0 takes whatever the first segment starts with
+                    if (expectedSequence > 0 && record.sequence() != expectedSequence) {
+                        throw new JournalCorruptedException("Journal skips from sequence " + expectedSequence
+                                + " to " + record.sequence() + " in segment " + current
+                                + "; the missing records may have been compacted into a snapshot");
+                    }
+                    expectedSequence = record.sequence() + 1;
+                    return record;
+                }
+                if (fill() > 0) {
+                    continue;
+                }
+                if (onlySegment != null || !advance()) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read journal segment " + current, e);
+        }
+    }
+
+    /**
+     * @return the byte offset, within the current segment, just after the last record returned
+     */
+    long segmentOffset() {
+        return fileOffset - buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close journal segment " + current, e);
+            }
+        }
+    }
+
+    private int fill() throws IOException {
+        buffer.compact();
+        int read;
+        try {
+            read = channel.read(buffer);
+        } finally {
+            buffer.flip();
+        }
+        if (read > 0) {
+            fileOffset += read;
+        }
+        return Math.max(read, 0);
+    }
+
+    /**
+     * Moves to the next segment, if one has been started since the current one was opened.
+     * A segment is only started once the previous one is complete, so no record is skipped.
+     */
+    private boolean advance() throws IOException {
+        Path next = onlySegment != null ? (current == null ? onlySegment : null) : nextSegment();
+        if (next == null) {
+            return false;
+        }
+        if (current != null && fill() > 0) {
+            // The rest of the current segment was written after the last read; finish it first
+            return true;
+        }
+        if (buffer.hasRemaining()) {
+            throw new JournalCorruptedException("Incomplete record at the end of segment " + current);
+        }
+        close();
+        current = next;
+        channel = FileChannel.open(next, StandardOpenOption.READ);
+        fileOffset = 0;
+        buffer.clear().limit(0);
+        return true;
+    }
+
+    private Path nextSegment() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(TransactionJournal::isSegment).sorted().toList();
+        }
+        if (segments.isEmpty()) {
+            return null;
+        }
+        if (current == null) {
+            // Start from the newest segment beginning at or before the requested sequence
+            Path start = segments.get(0);
+            for (Path segment : segments) {
+                if (TransactionJournal.firstSequenceOf(segment) <= fromSequence) {
+                    start = segment;
+                }
+            }
+            return start;
+        }
+        long currentFirst = TransactionJournal.firstSequenceOf(current);
+        for (Path segment : segments) {
+            if (TransactionJournal.firstSequenceOf(segment) > currentFirst) {
+                return segment;
+            }
+        }
+        return null;
+    }
+}
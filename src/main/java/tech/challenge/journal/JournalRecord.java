@@ -0,0 +1,29 @@
+package tech.challenge.journal;
+
+import tech.challenge.util.TransactionIds;
+
+import java.util.UUID;
+
+/**
+ * One posting as recorded in the transaction journal.
+ *
+ * @param sequence the position of the posting in the journal, starting at 1
+ * @param timestamp the transaction time in epoch milliseconds
+ * @param accountId the account the posting was applied to
+ * @param amountInPence the signed amount in pence
+ * @param transactionId the id of the transaction as a UUID, or the nil UUID if it had none
+ * @param originalId the id as posted when it is not a canonical UUID, otherwise null
+ */
+public record JournalRecord(long sequence, long timestamp, String accountId, long amountInPence,
+                            UUID transactionId, String originalId) {
+
+    /**
+     * @return the id of the transaction as it was posted, or null if it had none
+     */
+    public String id() {
+        if (originalId != null) {
+            return originalId;
+        }
+        return transactionId.equals(TransactionIds.NONE) ? null : transactionId.toString();
+    }
+}
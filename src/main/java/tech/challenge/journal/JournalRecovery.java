@@ -0,0 +1,339 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.JournalCorruptedException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds account balances from the journal at startup using every available core.
+ * Recovery starts from the latest compaction snapshot, if any. The remaining segments are scanned concurrently,
+ * each one folded into per-partition, per-account totals and checked against the checksums written when it was
+ * closed. The partitions are then applied concurrently, so no two workers touch the same account and the work
+ * shrinks with the number of cores rather than the journal length. Each account's total goes to the table that
+ * holds it, which in partitioned mode is the table of the node owning the account.
+ *
+ * <p>State kept by posting listeners, such as the transaction history and statements, is rebuilt afterwards by
+ * replaying every posting after the snapshot to them in sequence order. Postings folded into the snapshot
+ * survive only as balances, which are handed to the listeners as each account's opening balance first, so
+ * point-in-time balances still include them. Ids are replayed as they were posted.
+ */
+@Slf4j
+public class JournalRecovery {
+
+    private final int parallelism;
+
+    /**
+     * Constructor for JournalRecovery.
+     *
+     * @param parallelism number of worker threads, 0 for one per available core
+     */
+    public JournalRecovery(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Receives recovery progress after each scanned segment.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void onProgress(long bytesScanned, long totalBytes);
+    }
+
+    /**
+     * Replays every segment of a journal into the account tables, then to the posting listeners.
+     *
+     * @param directory the journal directory
+     * @param tables the table holding each account
+     * @param listeners the listeners to replay each posting after the snapshot to
+     * @param progress receives progress updates
+     * @return a summary of what was replayed
+     * @throws JournalCorruptedException if a record or a partition checksum does not match
+     */
+    public RecoveryResult recover(Path directory, Function<String, AccountTable> tables,
+                                  List<PostingListener> listeners, Progress progress) {
+        long started = System.nanoTime();
+        JournalSnapshot snapshot = readSnapshot(directory);
+        // Segments folded into the snapshot may remain if compaction stopped before deleting them
+        List<Path> segments = listSegments(directory).stream()
+                .filter(segment -> TransactionJournal.firstSequenceOf(segment) > snapshot.sequence())
+                .toList();
+        long totalBytes = segments.stream().mapToLong(JournalRecovery::sizeOf).sum();
+        AtomicLong bytesScanned = new AtomicLong();
+        AtomicLong accounts = new AtomicLong();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<SegmentScan> scans = pool.invoke(new RecursiveTask<>() {
+                @Override
+                protected List<SegmentScan> compute() {
+                    List<ScanSegment> tasks = new ArrayList<>();
+                    for (int i = 0; i < segments.size(); i++) {
+                        tasks.add(new ScanSegment(directory, segments.get(i), i == segments.size() - 1,
+                                bytesScanned, totalBytes, progress));
+                    }
+                    invokeAll(tasks);
+                    return tasks.stream().map(RecursiveTask::join).toList();
+                }
+            });
+            verifyContinuity(snapshot, segments, scans);
+            List<SegmentScan> sources = new ArrayList<>(scans);
+            sources.add(SegmentScan.of(snapshot));
+
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<ApplyPartition> tasks = new ArrayList<>();
+                    for (int p = 0; p < SegmentChecksums.PARTITIONS; p++) {
+                        tasks.add(new ApplyPartition(p, sources, tables, accounts));
+                    }
+                    invokeAll(tasks);
+                }
+            });
+
+            long records = scans.stream().mapToLong(scan -> scan.records).sum();
+            long lastSequence = scans.isEmpty() ? snapshot.sequence() : scans.get(scans.size() - 1).lastSequence;
+            if (!listeners.isEmpty() && (records > 0 || !snapshot.balances().isEmpty())) {
+                replayToListeners(directory, snapshot, listeners);
+            }
+            RecoveryResult result = new RecoveryResult(segments.size(), records, accounts.get(), lastSequence,
+                    (System.nanoTime() - started) / 1_000_000);
+            log.info("Recovered {} journal records from {} segments into {} accounts in {} ms with {} workers",
+                    result.records(), result.segments(), result.accounts(), result.elapsedMillis(), parallelism);
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Hands each account's snapshot balance to the listeners as its opening balance, then replays the postings
+     * after the snapshot, in sequence order, with each account's running ledger balance.
+     */
+    private static void replayToListeners(Path directory, JournalSnapshot snapshot, List<PostingListener> listeners) {
+        snapshot.balances().forEach((accountId, balance) -> {
+            for (PostingListener listener : listeners) {
+                listener.onOpeningBalance(accountId, balance[0]);
+            }
+        });
+        Map<String, long[]> balances = new HashMap<>();
+        try (JournalReader reader = new JournalReader(directory, snapshot.sequence() + 1)) {
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                String accountId = record.accountId();
+                long[] balance = balances.computeIfAbsent(accountId, id -> {
+                    long[] folded = snapshot.balances().get(id);
+                    return new long[]{folded == null ? 0 : folded[0]};
+                });
+                balance[0] += record.amountInPence();
+                Transaction transaction = Transaction.builder()
+                        .id(record.id())
+                        .accountId(accountId)
+                        .amount(record.amountInPence() / 100.0)
+                        .timestamp(record.timestamp())
+                        .build();
+                for (PostingListener listener : listeners) {
+                    listener.onPosted(transaction, accountId, record.amountInPence(), balance[0]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that each segment starts right after the snapshot or the previous segment ends, so no segment is missing.
+     */
+    private static void verifyContinuity(JournalSnapshot snapshot, List<Path> segments, List<SegmentScan> scans) {
+        for (int i = 0; i < scans.size(); i++) {
+            long expected = (i == 0 ? snapshot.sequence() : scans.get(i - 1).lastSequence) + 1;
+            long first = TransactionJournal.firstSequenceOf(segments.get(i));
+            if (first != expected) {
+                throw new JournalCorruptedException("Journal segment " + segments.get(i) + " starts at sequence "
+                        + first + ", expected " + expected);
+            }
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(TransactionJournal::isSegment).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list journal segments in " + directory, e);
+        }
+    }
+
+    private static JournalSnapshot readSnapshot(Path directory) {
+        try {
+            if (!Files.isDirectory(directory)) {
+                return JournalSnapshot.empty();
+            }
+            Optional<Path> latest = JournalSnapshot.latest(directory);
+            return latest.isPresent() ? JournalSnapshot.read(latest.get()) : JournalSnapshot.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read journal snapshot in " + directory, e);
+        }
+    }
+
+    private static long sizeOf(Path segment) {
+        try {
+            return Files.size(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * Summary of a recovery run.
+     *
+     * @param segments number of segments replayed
+     * @param records number of records replayed
+     * @param accounts number of accounts with a recovered balance
+     * @param lastSequence sequence of the last record replayed
+     * @param elapsedMillis wall-clock duration of the recovery
+     */
+    public record RecoveryResult(int segments, long records, long accounts, long lastSequence, long elapsedMillis) {
+    }
+
+    /**
+     * Per-partition account totals of one segment.
+     */
+    private static final class SegmentScan {
+        @SuppressWarnings("unchecked")
+        private final Map<String, long[]>[] totals = new Map[SegmentChecksums.PARTITIONS];
+        private long records;
+        private long lastSequence;
+
+        static SegmentScan of(JournalSnapshot snapshot) {
+            SegmentScan scan = new SegmentScan();
+            snapshot.balances().forEach((accountId, balance) -> {
+                int partition = SegmentChecksums.partitionOf(accountId);
+                if (scan.totals[partition] == null) {
+                    scan.totals[partition] = new HashMap<>();
+                }
+                scan.totals[partition].put(accountId, balance);
+            });
+            scan.lastSequence = snapshot.sequence();
+            return scan;
+        }
+    }
+
+    private static final class ScanSegment extends RecursiveTask<SegmentScan> {
+
+        private final Path directory;
+        private final Path segment;
+        private final boolean newest;
+        private final AtomicLong bytesScanned;
+        private final long totalBytes;
+        private final Progress progress;
+
+        ScanSegment(Path directory, Path segment, boolean newest, AtomicLong bytesScanned, long totalBytes,
+                    Progress progress) {
+            this.directory = directory;
+            this.segment = segment;
+            this.newest = newest;
+            this.bytesScanned = bytesScanned;
+            this.totalBytes = totalBytes;
+            this.progress = progress;
+        }
+
+        @Override
+        protected SegmentScan compute() {
+            SegmentScan scan = new SegmentScan();
+            SegmentChecksums checksums = new SegmentChecksums();
+            long expectedSequence = TransactionJournal.firstSequenceOf(segment);
+            scan.lastSequence = expectedSequence - 1;
+            try (JournalReader reader = new JournalReader(directory, 0, segment)) {
+                JournalRecord record;
+                while ((record = reader.next()) != null) {
+                    if (record.sequence() != expectedSequence) {
+                        throw new JournalCorruptedException("Journal segment " + segment + " has sequence "
+                                + record.sequence() + " where " + expectedSequence + " was expected");
+                    }
+                    expectedSequence++;
+                    int partition = SegmentChecksums.partitionOf(record.accountId());
+                    checksums.add(partition, record);
+                    Map<String, long[]> totals = scan.totals[partition];
+                    if (totals == null) {
+                        totals = scan.totals[partition] = new HashMap<>();
+                    }
+                    totals.computeIfAbsent(record.accountId(), id -> new long[1])[0] += record.amountInPence();
+                    scan.records++;
+                    scan.lastSequence = record.sequence();
+                }
+            }
+            verify(checksums);
+            progress.onProgress(bytesScanned.addAndGet(sizeOf(segment)), totalBytes);
+            return scan;
+        }
+
+        private void verify(SegmentChecksums computed) {
+            Path checksumFile = TransactionJournal.checksumsOf(segment);
+            if (!Files.exists(checksumFile)) {
+                // Only the segment being written when the journal last stopped may lack checksums; an older one was
+                // rolled over just before a crash and gets them when the journal next opens
+                if (!newest) {
+                    log.warn("Journal segment {} has no checksums; replaying it unverified", segment);
+                }
+                return;
+            }
+            try {
+                List<Integer> mismatched = SegmentChecksums.read(checksumFile).mismatchedPartitions(computed);
+                if (!mismatched.isEmpty()) {
+                    throw new JournalCorruptedException("Journal segment " + segment
+                            + " failed checksum verification for partitions " + mismatched);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read checksums of " + segment, e);
+            }
+        }
+    }
+
+    private static final class ApplyPartition extends RecursiveAction {
+
+        private final int partition;
+        private final List<SegmentScan> scans;
+        private final Function<String, AccountTable> tables;
+        private final AtomicLong accounts;
+
+        ApplyPartition(int partition, List<SegmentScan> scans, Function<String, AccountTable> tables,
+                       AtomicLong accounts) {
+            this.partition = partition;
+            this.scans = scans;
+            this.tables = tables;
+            this.accounts = accounts;
+        }
+
+        @Override
+        protected void compute() {
+            Map<String, long[]> merged = new HashMap<>();
+            for (SegmentScan scan : scans) {
+                Map<String, long[]> totals = scan.totals[partition];
+                if (totals != null) {
+                    totals.forEach((accountId, total) ->
+                            merged.computeIfAbsent(accountId, id -> new long[1])[0] += total[0]);
+                }
+            }
+            merged.forEach((accountId, total) -> tables.apply(accountId).replay(accountId, total[0]));
+            accounts.addAndGet(merged.size());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.exception.JournalCorruptedException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the journal to followers over a loopback socket.
+ * A follower connects and sends the first sequence it needs; the server then ships every record from that
+ * point on and keeps tailing the journal. If compaction has already folded that sequence into a snapshot, the
+ * snapshot's balances are shipped first and the records follow on from it. Heartbeats interleaved with the
+ * records carry the last written sequence, so followers can tell how far behind they are.
+ */
+@Slf4j
+public class JournalShippingServer implements Closeable {
+
+    static final byte RECORD_FRAME = 0;
+    static final byte HEARTBEAT_FRAME = 1;
+    static final byte SNAPSHOT_FRAME = 2;
+
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofMillis(50);
+
+    private final TransactionJournal journal;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    /**
+     * Starts listening for followers.
+     *
+     * @param journal the journal to ship
+     * @param port the loopback port to listen on, 0 for any free port
+     */
+    public JournalShippingServer(TransactionJournal journal, int port) {
+        this.journal = journal;
+        try {
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to listen for journal followers on port " + port, e);
+        }
+        Thread acceptor = new Thread(this::acceptFollowers, "journal-shipping-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Shipping journal to followers on port {}", getPort());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of followers currently connected
+     */
+    public int followerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+            for (Socket follower : followers) {
+                follower.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to stop journal shipping", e);
+        }
+    }
+
+    private void acceptFollowers() {
+        while (running) {
+            try {
+                Socket follower = serverSocket.accept();
+                follower.setTcpNoDelay(true);
+                followers.add(follower);
+                Thread shipper = new Thread(() -> ship(follower), "journal-shipper-" + follower.getPort());
+                shipper.setDaemon(true);
+                shipper.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.error("Failed to accept journal follower", e);
+                }
+            }
+        }
+    }
+
+    private void ship(Socket follower) {
+        ByteBuffer frame = ByteBuffer.allocate(1 + JournalCodec.MAX_ENCODED_BYTES);
+        try (follower;
+             OutputStream out = new BufferedOutputStream(follower.getOutputStream(), 64 * 1024)) {
+            long fromSequence = new DataInputStream(new BufferedInputStream(follower.getInputStream())).readLong();
+            log.info("Follower {} connected from sequence {}", follower.getRemoteSocketAddress(), fromSequence);
+            fromSequence = shipSnapshotIfCompacted(fromSequence, out);
+            long lastHeartbeat = 0;
+            try (JournalReader reader = journal.openReader(fromSequence)) {
+                while (running) {
+                    // Anything written before this read is either returned by the reader or already shipped
+                    long written = journal.flushedSequence();
+                    if (System.nanoTime() - lastHeartbeat >= HEARTBEAT_INTERVAL.toNanos()) {
+                        frame.clear().put(HEARTBEAT_FRAME).putLong(written).putLong(System.currentTimeMillis());
+                        out.write(frame.array(), 0, frame.position());
+                        lastHeartbeat = System.nanoTime();
+                    }
+                    JournalRecord record = reader.next();
+                    if (record != null) {
+                        frame.clear().put(RECORD_FRAME);
+                        JournalCodec.write(frame, record);
+                        out.write(frame.array(), 0, frame.position());
+                        continue;
+                    }
+                    out.flush();
+                    journal.awaitFlushAfter(written, HEARTBEAT_INTERVAL);
+                }
+            }
+        } catch (IOException e) {
+            log.info("Follower {} disconnected: {}", follower.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JournalCorruptedException e) {
+            // Compaction overtook the shipper; the follower reconnects and is sent the new snapshot
+            log.warn("Stopped shipping journal to follower {}: {}", follower.getRemoteSocketAddress(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Stopped shipping journal to follower {}", follower.getRemoteSocketAddress(), e);
+        } finally {
+            followers.remove(follower);
+        }
+    }
+
+    /**
+     * Ships the latest snapshot if the follower needs records it has replaced.
+     *
+     * @return the first sequence to ship records from
+     */
+    private long shipSnapshotIfCompacted(long fromSequence, OutputStream out) throws IOException {
+        Optional<Path> latest = JournalSnapshot.latest(journal.getDirectory());
+        if (latest.isEmpty()) {
+            return fromSequence;
+        }
+        JournalSnapshot snapshot = JournalSnapshot.read(latest.get());
+        if (fromSequence > snapshot.sequence()) {
+            return fromSequence;
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte(SNAPSHOT_FRAME);
+        snapshot.writeTo(data);
+        data.flush();
+        log.info("Shipped snapshot at sequence {} with {} accounts", snapshot.sequence(), snapshot.balances().size());
+        return snapshot.sequence() + 1;
+    }
+}
@@ -0,0 +1,155 @@
+package tech.challenge.journal;
+
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.util.DurableFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Balance of every account as of a journal sequence, replacing the segments folded into it.
+ * Layout: magic, sequence, account count, then per account its id and balance, followed by a CRC32C.
+ */
+final class JournalSnapshot {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int MAGIC = 0x4a534e31;
+
+    private final long sequence;
+    private final Map<String, long[]> balances;
+
+    JournalSnapshot(long sequence, Map<String, long[]> balances) {
+        this.sequence = sequence;
+        this.balances = balances;
+    }
+
+    static JournalSnapshot empty() {
+        return new JournalSnapshot(0, new HashMap<>());
+    }
+
+    /**
+     * @return the sequence of the last posting folded into the snapshot
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return balance in pence by account id
+     */
+    Map<String, long[]> balances() {
+        return balances;
+    }
+
+    static boolean isSnapshot(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    /**
+     * @return the newest snapshot in a journal directory, if any
+     */
+    static Optional<Path> latest(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSnapshot::isSnapshot).max(Comparator.naturalOrder());
+        }
+    }
+
+    static List<Path> all(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSnapshot::isSnapshot).sorted().toList();
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file, forces it to disk and moves it into place, so a crash never leaves a
+     * partial snapshot and the segments folded into it can be deleted once this returns.
+     *
+     * @return the snapshot file
+     */
+    Path write(Path directory, IoThrottle throttle) throws IOException, InterruptedException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream raw = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(raw, 64 * 1024), crc))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(balances.size());
+            for (Map.Entry<String, long[]> entry : balances.entrySet()) {
+                byte[] account = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(account.length);
+                out.write(account);
+                out.writeLong(entry.getValue()[0]);
+                throttle.acquire(Short.BYTES + account.length + Long.BYTES);
+            }
+            out.flush();
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+        }
+        DurableFiles.commit(temporary, file);
+        return file;
+    }
+
+    /**
+     * Writes the sequence and balances, without magic or checksum, for shipping to a follower.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(sequence);
+        out.writeInt(balances.size());
+        for (Map.Entry<String, long[]> entry : balances.entrySet()) {
+            byte[] account = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(account.length);
+            out.write(account);
+            out.writeLong(entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(DataOutputStream)}.
+     */
+    static JournalSnapshot readFrom(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        int count = in.readInt();
+        Map<String, long[]> balances = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] account = new byte[in.readUnsignedShort()];
+            in.readFully(account);
+            balances.put(new String(account, StandardCharsets.UTF_8), new long[]{in.readLong()});
+        }
+        return new JournalSnapshot(sequence, balances);
+    }
+
+    static JournalSnapshot read(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new JournalCorruptedException("Invalid journal snapshot " + file);
+            }
+            JournalSnapshot snapshot = readFrom(in);
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                throw new JournalCorruptedException("Checksum mismatch in journal snapshot " + file);
+            }
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.PostingListener;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Recovers this instance's state from the journal before it accepts postings: the balances, into whichever
+ * table holds each account, and the state of the posting listeners that are rebuilt from postings, such as the
+ * transaction history with its balance checkpoints and the statement aggregates. Listeners that must only see
+ * new postings, such as the journal itself, are left out.
+ *
+ * <p>Recovery runs where the tables are built: with the journal in single-node mode, and once the partitions
+ * have been assigned in partitioned mode, so each account's balance lands on the node that owns it.
+ */
+@Slf4j
+public class JournalStartupRecovery {
+
+    private final Path directory;
+    private final boolean enabled;
+    private final JournalRecovery recovery;
+    private final List<PostingListener> listeners;
+
+    /**
+     * Constructor for JournalStartupRecovery.
+     *
+     * @param directory the journal directory
+     * @param enabled whether to recover at all
+     * @param parallelism number of recovery workers, 0 for one per core
+     * @param listeners the listeners to replay the postings to
+     */
+    public JournalStartupRecovery(Path directory, boolean enabled, int parallelism, List<PostingListener> listeners) {
+        this.directory = directory;
+        this.enabled = enabled;
+        this.recovery = new JournalRecovery(parallelism);
+        this.listeners = listeners;
+    }
+
+    /**
+     * Recovers the balances into the given tables and replays the postings to the listeners, unless disabled.
+     *
+     * @param tables the table holding each account
+     */
+    public void recover(Function<String, AccountTable> tables) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger lastReported = new AtomicInteger();
+        recovery.recover(directory, tables, listeners, (scanned, total) -> {
+            int percent = total == 0 ? 100 : (int) (scanned * 100 / total);
+            if (percent / 10 > lastReported.getAndAccumulate(percent / 10, Math::max)) {
+                log.info("Journal recovery {}% ({} of {} bytes)", percent, scanned, total);
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package tech.challenge.journal;
+
+import java.time.Duration;
+
+/**
+ * How far this instance's balances have caught up with the journal.
+ */
+public interface ReplicationStatus {
+
+    /**
+     * @return the sequence of the last journal record reflected in this instance's balances
+     */
+    long appliedSequence();
+
+    /**
+     * @return how long this instance has been behind the leader, in milliseconds; 0 when caught up
+     */
+    long lagMillis();
+
+    /**
+     * Waits until the balances reflect a journal sequence, so a client can read its own writes.
+     *
+     * @param sequence the sequence to wait for
+     * @param timeout how long to wait at most
+     * @return true if the sequence has been applied
+     */
+    boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException;
+}
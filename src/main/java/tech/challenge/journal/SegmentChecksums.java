@@ -0,0 +1,101 @@
+package tech.challenge.journal;
+
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.util.DurableFiles;
+import tech.challenge.util.Hashing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Per-partition record counts and checksums of one journal segment, kept in a small file next to the segment.
+ * The checksum of a partition is the sum of its records' hashes, so it does not depend on the order in which
+ * records are visited and recovery can recompute it from any split of the segment.
+ */
+final class SegmentChecksums {
+
+    /** Number of account partitions the journal is checksummed and replayed by; a power of two. */
+    static final int PARTITIONS = 256;
+
+    private static final int MAGIC = 0x4a534d31;
+
+    private final long[] counts = new long[PARTITIONS];
+    private final long[] sums = new long[PARTITIONS];
+
+    static int partitionOf(String accountId) {
+        return (int) (Hashing.hash64(accountId) & (PARTITIONS - 1));
+    }
+
+    static long hashOf(JournalRecord record) {
+        long hash = Hashing.mix64(record.sequence());
+        hash = Hashing.mix64(hash ^ record.timestamp());
+        hash = Hashing.mix64(hash ^ record.amountInPence());
+        hash = Hashing.mix64(hash ^ record.transactionId().getMostSignificantBits());
+        hash = Hashing.mix64(hash ^ record.transactionId().getLeastSignificantBits());
+        return hash ^ Hashing.hash64(record.accountId());
+    }
+
+    void add(int partition, JournalRecord record) {
+        counts[partition]++;
+        sums[partition] += hashOf(record);
+    }
+
+    long count(int partition) {
+        return counts[partition];
+    }
+
+    long sum(int partition) {
+        return sums[partition];
+    }
+
+    /**
+     * @return the partitions whose count or checksum differ from the other summary
+     */
+    List<Integer> mismatchedPartitions(SegmentChecksums other) {
+        List<Integer> mismatched = new ArrayList<>();
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (counts[p] != other.counts[p] || sums[p] != other.sums[p]) {
+                mismatched.add(p);
+            }
+        }
+        return mismatched;
+    }
+
+    void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + 2 * PARTITIONS * Long.BYTES + Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(PARTITIONS);
+        for (int p = 0; p < PARTITIONS; p++) {
+            buffer.putLong(counts[p]).putLong(sums[p]);
+        }
+        buffer.putInt(crcOf(buffer.array(), buffer.position()));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        DurableFiles.commit(temporary, file);
+    }
+
+    static SegmentChecksums read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int bodyBytes = 2 * Integer.BYTES + 2 * PARTITIONS * Long.BYTES;
+        if (buffer.remaining() != bodyBytes + Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != PARTITIONS
+                || buffer.getInt(bodyBytes) != crcOf(buffer.array(), bodyBytes)) {
+            throw new JournalCorruptedException("Invalid segment checksum file " + file);
+        }
+        SegmentChecksums checksums = new SegmentChecksums();
+        for (int p = 0; p < PARTITIONS; p++) {
+            checksums.counts[p] = buffer.getLong();
+            checksums.sums[p] = buffer.getLong();
+        }
+        return checksums;
+    }
+
+    private static int crcOf(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,496 @@
+package tech.challenge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.util.DurableFiles;
+import tech.challenge.util.TransactionIds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary journal of every posting, written to size-bounded segment files.
+ * Postings are staged in a buffer and written out when it fills or on a short flush interval, so journaling
+ * does not add a disk write to every posting. What has been written out is forced to disk as a group on the
+ * fsync interval; only writing out the buffer takes the append lock, so appends carry on while the disk
+ * catches up. Each record carries a sequence number, which readers use to resume from any point and replicas
+ * use to report how far they have caught up. When a segment fills, appends move on to a new one and the
+ * flusher forces and closes the full one, then writes per-partition checksums of its records next to it so
+ * recovery can verify what it replays; the append lock is never held across a force.
+ *
+ * <p>On opening, a damaged record at the end of the newest segment is taken to be a write torn by a crash and
+ * cut off. Damage followed by intact records is not, and fails the opening rather than discarding them.
+ */
+@Slf4j
+public class TransactionJournal implements PostingListener, ReplicationStatus, Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKSUM_SUFFIX = ".sum";
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final Object flushSignal = new Object();
+    private final Object syncLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final Queue<RolledSegment> rolled = new ConcurrentLinkedQueue<>();
+
+    private FileChannel segment;
+    private long segmentFirstSequence;
+    private long segmentPosition;
+    private SegmentChecksums segmentChecksums = new SegmentChecksums();
+    private long lastSequence;
+    private volatile long flushedSequence;
+    private volatile long durableSequence;
+
+    /**
+     * Opens the journal in a directory, continuing the sequence of any segments already there.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentBytes size after which a new segment is started
+     * @param flushInterval how often buffered postings are written out
+     * @param fsyncInterval how often written postings are forced to disk, zero to force them on every flush
+     */
+    public TransactionJournal(Path directory, long segmentBytes, Duration flushInterval, Duration fsyncInterval) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                // Every segment may have been folded into a snapshot; continue the sequence after it
+                Optional<Path> snapshot = JournalSnapshot.latest(directory);
+                lastSequence = snapshot.isPresent() ? JournalSnapshot.read(snapshot.get()).sequence() : 0;
+                openSegment(lastSequence + 1);
+            } else {
+                checksumUnsealed(segments.subList(0, segments.size() - 1));
+                recoverTail(segments.get(segments.size() - 1));
+            }
+            DurableFiles.forceDirectory(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open journal in " + directory, e);
+        }
+        this.flushedSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        // Flushes and forces run on their own threads, so a slow force does not hold up readers waiting to tail
+        this.flusher = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMicros = Math.max(1, flushInterval.toNanos() / 1_000);
+        if (fsyncInterval.isZero()) {
+            flusher.scheduleWithFixedDelay(this::syncQuietly, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+        } else {
+            long fsyncMicros = Math.max(1, fsyncInterval.toNanos() / 1_000);
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+            flusher.scheduleWithFixedDelay(this::syncQuietly, fsyncMicros, fsyncMicros, TimeUnit.MICROSECONDS);
+        }
+        log.info("Journal opened in {} at sequence {}", directory, lastSequence);
+    }
+
+    @Override
+    public void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        append(transaction.getTimestamp(), accountId, amountInPence, transaction.getId());
+    }
+
+    /**
+     * Appends a posting to the journal, keeping an id that is not a canonical UUID as it was posted.
+     *
+     * @param transactionId the id of the transaction, may be null
+     * @return the sequence assigned to the posting
+     */
+    public long append(long timestamp, String accountId, long amountInPence, String transactionId) {
+        String originalId = transactionId == null || TransactionIds.isCanonicalUuid(transactionId) ? null : transactionId;
+        return append(timestamp, accountId, amountInPence, TransactionIds.toUuid(transactionId), originalId);
+    }
+
+    /**
+     * Appends a posting to the journal.
+     *
+     * @return the sequence assigned to the posting
+     */
+    public long append(long timestamp, String accountId, long amountInPence, UUID transactionId) {
+        return append(timestamp, accountId, amountInPence, transactionId, null);
+    }
+
+    private synchronized long append(long timestamp, String accountId, long amountInPence, UUID transactionId,
+                                     String originalId) {
+        int size = JournalCodec.encodedSize(accountId, originalId);
+        try {
+            if (segmentPosition + buffer.position() + size > segmentBytes && segmentPosition + buffer.position() > 0) {
+                rollSegment();
+            } else if (buffer.remaining() < size) {
+                writeBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write journal segment", e);
+        }
+        JournalRecord record = new JournalRecord(++lastSequence, timestamp, accountId, amountInPence, transactionId,
+                originalId);
+        JournalCodec.write(buffer, record);
+        segmentChecksums.add(SegmentChecksums.partitionOf(accountId), record);
+        return lastSequence;
+    }
+
+    /**
+     * Writes out every buffered posting and wakes up readers tailing the journal.
+     */
+    public void flush() {
+        writeOut();
+    }
+
+    /**
+     * Writes out every buffered posting and forces everything written to disk. The force runs outside the
+     * append lock and covers every posting written out by then, so one force serves a whole group of postings.
+     */
+    public void sync() {
+        long sequence = writeOut();
+        FileChannel channel;
+        synchronized (this) {
+            // Postings up to the sequence are in this segment or in earlier ones, which are sealed first
+            channel = segment;
+        }
+        synchronized (syncLock) {
+            if (sequence <= durableSequence) {
+                return;
+            }
+            try {
+                sealRolled();
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // The segment was rolled over and sealed since, or closed with the journal, either of which forced it
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to force journal segment to disk", e);
+            }
+            durableSequence = sequence;
+        }
+    }
+
+    /**
+     * @return the sequence of the last posting forced to disk
+     */
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Waits until a flush makes postings after a sequence readable.
+     *
+     * @param sequence the last sequence the caller has seen
+     * @param timeout how long to wait at most
+     */
+    public void awaitFlushAfter(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (flushSignal) {
+            long remaining;
+            while (flushedSequence <= sequence && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(flushSignal, remaining);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence of the last posting written out, and so visible to readers
+     */
+    public long flushedSequence() {
+        return flushedSequence;
+    }
+
+    /**
+     * @return the segment files, oldest first
+     */
+    public List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(TransactionJournal::isSegment).sorted().toList();
+        }
+    }
+
+    /**
+     * Opens a reader positioned at a sequence.
+     *
+     * @param fromSequence the first sequence to return
+     */
+    public JournalReader openReader(long fromSequence) {
+        return new JournalReader(directory, fromSequence);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized long appliedSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public long lagMillis() {
+        return 0;
+    }
+
+    @Override
+    public boolean awaitSequence(long sequence, Duration timeout) {
+        return sequence <= appliedSequence();
+    }
+
+    @Override
+    public void close() {
+        // Interrupting a flush or force would close the segment's channel under it, so let it finish instead
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (syncLock) {
+            try {
+                sealRolled();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close journal segment", e);
+            }
+        }
+        synchronized (this) {
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close journal segment", e);
+            }
+            durableSequence = lastSequence;
+        }
+        log.info("Journal closed at sequence {}", lastSequence);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    static Path checksumsOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + CHECKSUM_SUFFIX);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Journal flush failed", e);
+        }
+    }
+
+    private void sealQuietly() {
+        synchronized (syncLock) {
+            try {
+                sealRolled();
+            } catch (IOException e) {
+                // Left queued, so the next sync retries it
+                log.error("Unable to seal journal segment", e);
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Journal fsync failed", e);
+        }
+    }
+
+    /**
+     * @return the sequence of the last posting written out
+     */
+    private long writeOut() {
+        long sequence;
+        synchronized (this) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write journal segment", e);
+            }
+            sequence = lastSequence;
+            flushedSequence = sequence;
+        }
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+        return sequence;
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentPosition += segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void closeSegment() throws IOException {
+        writeBuffer();
+        segment.force(false);
+        segment.close();
+        segmentChecksums.write(checksumsOf(directory.resolve(segmentName(segmentFirstSequence))));
+    }
+
+    /**
+     * Moves appends on to a new segment and leaves the full one to the flusher to seal, so the append lock is
+     * not held while it is forced.
+     */
+    private void rollSegment() throws IOException {
+        writeBuffer();
+        rolled.add(new RolledSegment(segment, directory.resolve(segmentName(segmentFirstSequence)), segmentChecksums));
+        openSegment(lastSequence + 1);
+        flusher.execute(this::sealQuietly);
+    }
+
+    /**
+     * Forces and closes the segments rolled over so far and writes their checksums, oldest first. Writing the
+     * checksums forces the directory, which also makes the entry of the segment that followed durable. Called
+     * under the sync lock.
+     */
+    private void sealRolled() throws IOException {
+        RolledSegment next;
+        while ((next = rolled.peek()) != null) {
+            if (next.channel().isOpen()) {
+                next.channel().force(false);
+                next.channel().close();
+            }
+            next.checksums().write(checksumsOf(next.file()));
+            rolled.remove();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        segmentFirstSequence = firstSequence;
+        segmentChecksums = new SegmentChecksums();
+        // Its directory entry is made durable when the previous segment is sealed, or on opening the journal
+        segment = FileChannel.open(directory.resolve(segmentName(firstSequence)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segmentPosition = segment.size();
+        segment.position(segmentPosition);
+    }
+
+    /**
+     * Writes the checksums of older segments that were rolled over but not yet sealed when the journal stopped,
+     * so they can be compacted. Their records are as written; what was never forced is already lost.
+     */
+    private void checksumUnsealed(List<Path> older) throws IOException {
+        for (Path file : older) {
+            if (Files.exists(checksumsOf(file))) {
+                continue;
+            }
+            SegmentChecksums checksums = new SegmentChecksums();
+            try (JournalReader reader = new JournalReader(directory, 0, file)) {
+                JournalRecord record;
+                while ((record = reader.next()) != null) {
+                    checksums.add(SegmentChecksums.partitionOf(record.accountId()), record);
+                }
+            }
+            log.warn("Journal segment {} was not sealed before the journal stopped; writing its checksums", file);
+            checksums.write(checksumsOf(file));
+        }
+    }
+
+    /**
+     * Finds the last complete record of the newest segment and cuts off anything after it, such as a record
+     * torn by a crash, so appends continue from a clean boundary.
+     *
+     * @throws JournalCorruptedException if a damaged record is followed by intact ones, which a torn write at
+     * the end of the journal cannot explain
+     */
+    private void recoverTail(Path last) throws IOException {
+        segmentFirstSequence = firstSequenceOf(last);
+        lastSequence = segmentFirstSequence - 1;
+        long validBytes = 0;
+        try (JournalReader reader = new JournalReader(directory, 0, last)) {
+            try {
+                JournalRecord record;
+                while ((record = reader.next()) != null) {
+                    lastSequence = record.sequence();
+                    segmentChecksums.add(SegmentChecksums.partitionOf(record.accountId()), record);
+                }
+            } catch (JournalCorruptedException e) {
+                long damagedAt = reader.segmentOffset();
+                if (hasRecordAfter(last, damagedAt, lastSequence)) {
+                    throw new JournalCorruptedException("Journal segment " + last + " is damaged at offset "
+                            + damagedAt + " (" + e.getMessage() + ") but holds intact records after it;"
+                            + " repair or remove it to start");
+                }
+                log.warn("Journal segment {} ends with a damaged record: {}", last, e.getMessage());
+            }
+            validBytes = reader.segmentOffset();
+        }
+        // The segment is written to again, so its checksums are rewritten when it is next closed
+        Files.deleteIfExists(checksumsOf(last));
+        segment = FileChannel.open(last, StandardOpenOption.WRITE);
+        if (segment.size() > validBytes) {
+            log.warn("Truncating {} bytes of incomplete journal records from {}", segment.size() - validBytes, last);
+            segment.truncate(validBytes);
+        }
+        segmentPosition = validBytes;
+        segment.position(validBytes);
+    }
+
+    /**
+     * Looks for an intact record, with a later sequence than the last one read, anywhere after the damage.
+     */
+    private static boolean hasRecordAfter(Path segment, long damagedAt, long lastSequence) throws IOException {
+        ByteBuffer rest;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            rest = ByteBuffer.allocate((int) Math.max(0, channel.size() - damagedAt));
+            while (rest.hasRemaining() && channel.read(rest, damagedAt + rest.position()) > 0) {
+                // keep reading
+            }
+        }
+        rest.flip();
+        for (int start = 1; start + JournalCodec.FIXED_BYTES <= rest.limit(); start++) {
+            try {
+                JournalRecord record = JournalCodec.read(rest.position(start));
+                if (record != null && record.sequence() > lastSequence) {
+                    return true;
+                }
+            } catch (JournalCorruptedException e) {
+                // not a record boundary
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A segment rolled over but not yet forced, closed and checksummed.
+     */
+    private record RolledSegment(FileChannel channel, Path file, SegmentChecksums checksums) {
+    }
+}
@@ -1,7 +1,10 @@
 package tech.challenge.producer.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import tech.challenge.admission.AdmissionControl;
 import tech.challenge.consumer.service.BankAccountService;
 import tech.challenge.domain.Transaction;
 
@@ -18,6 +21,7 @@ import java.util.function.Supplier;
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "producer.enabled", havingValue = "true", matchIfMissing = true)
 public class TransactionProducer {
 
     private final BankAccountService bankAccountService;
@@ -25,6 +29,16 @@ public class TransactionProducer {
     private final ScheduledExecutorService debitExecutor;
     private final Supplier<Double> randomSupplier;
 
+    /**
+     * Client name the producer is admitted under.
+     */
+    static final String CLIENT_ID = "producer";
+
+    /**
+     * Limits the producer's rate like any other client; absent unless `admission.enabled` is true.
+     */
+    private AdmissionControl admissionControl;
+
     private static final double MIN = 200; // Minimum transaction amount
     private static final double MAX = 500_000; // Maximum transaction amount
 
@@ -41,6 +55,11 @@ public class TransactionProducer {
         this.debitExecutor = Executors.newSingleThreadScheduledExecutor();
     }
 
+    @Autowired(required = false)
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
     /**
      * Initializes the TransactionProducer by starting scheduled tasks for producing credit and debit transactions.
      * This method is called automatically after the bean is constructed.
@@ -65,6 +84,9 @@ public class TransactionProducer {
         try {
             double amount = getRandomAmount();
             Transaction tx = Transaction.credit(amount);
+            if (!admitted()) {
+                return;
+            }
             bankAccountService.processTransaction(tx);
             log.debug("Produced credit: {}", tx);
         } catch (Exception e) {
@@ -80,6 +102,9 @@ public class TransactionProducer {
         try {
             double amount = getRandomAmount();
             Transaction tx = Transaction.debit(amount);
+            if (!admitted()) {
+                return;
+            }
             bankAccountService.processTransaction(tx);
             log.debug("Produced debit: {}", tx);
         } catch (Exception e) {
@@ -88,10 +113,33 @@ public class TransactionProducer {
     }
 
 
+    private boolean admitted() {
+        if (admissionControl == null || admissionControl.admitAndWait(CLIENT_ID)) {
+            return true;
+        }
+        log.debug("Producer is over its admission rate; skipping a transaction");
+        return false;
+    }
+
+    /**
+     * Stops producing, letting a transaction already being produced finish so it is not cut off halfway through
+     * processing. Runs before the audit service drains its queue, which depends on nothing more arriving.
+     */
     @PreDestroy
     public void stop() {
-        creditExecutor.shutdownNow();
-        debitExecutor.shutdownNow();
+        creditExecutor.shutdown();
+        debitExecutor.shutdown();
+        try {
+            if (!creditExecutor.awaitTermination(1, TimeUnit.SECONDS)
+                    || !debitExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                creditExecutor.shutdownNow();
+                debitExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            creditExecutor.shutdownNow();
+            debitExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
         log.info("TransactionProducer shutdown.");
     }
 }
\ No newline at end of file
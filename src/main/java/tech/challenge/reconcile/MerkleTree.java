@@ -0,0 +1,62 @@
+package tech.challenge.reconcile;
+
+import tech.challenge.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary hash tree over per-shard digests. Comparing two trees walks down only the branches whose hashes
+ * differ, so a mismatch is narrowed to its shards in O(mismatches × log shards) comparisons.
+ */
+final class MerkleTree {
+
+    private final int leaves;
+    private final long[] nodes;
+
+    /**
+     * Builds a tree over a snapshot of shard counts, totals and checksums.
+     *
+     * @param snapshot counts, totals and checksums indexed by shard; the shard count must be a power of two
+     */
+    MerkleTree(long[][] snapshot) {
+        this.leaves = snapshot[0].length;
+        this.nodes = new long[2 * leaves];
+        for (int shard = 0; shard < leaves; shard++) {
+            long digest = Hashing.mix64(snapshot[0][shard]);
+            digest = Hashing.mix64(digest ^ snapshot[1][shard]);
+            nodes[leaves + shard] = Hashing.mix64(digest ^ snapshot[2][shard]);
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            nodes[node] = Hashing.mix64(nodes[2 * node] ^ Long.rotateLeft(nodes[2 * node + 1], 31));
+        }
+    }
+
+    long root() {
+        return nodes[1];
+    }
+
+    /**
+     * @return the shards whose digests differ between the two trees, in ascending order
+     */
+    List<Integer> diff(MerkleTree other) {
+        List<Integer> shards = new ArrayList<>();
+        if (leaves != other.leaves) {
+            throw new IllegalArgumentException("Trees cover " + leaves + " and " + other.leaves + " shards");
+        }
+        walk(other, 1, shards);
+        return shards;
+    }
+
+    private void walk(MerkleTree other, int node, List<Integer> shards) {
+        if (nodes[node] == other.nodes[node]) {
+            return;
+        }
+        if (node >= leaves) {
+            shards.add(node - leaves);
+            return;
+        }
+        walk(other, 2 * node, shards);
+        walk(other, 2 * node + 1, shards);
+    }
+}
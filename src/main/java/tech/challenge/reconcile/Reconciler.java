@@ -0,0 +1,156 @@
+package tech.challenge.reconcile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.Hashing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Continuously reconciles account balances against what the audit service actually submitted.
+ * Every ledger posting is recorded as a leg (account, signed amount) as it is applied, and every transaction
+ * in a handled audit submission is recorded as the same legs, a transfer as a debit and a credit. Both sides
+ * keep rolling per-shard counts, totals and checksums, so a check costs the same however many transactions
+ * have been posted: the two sides are snapshotted up to a watermark that trails the clock by
+ * `reconciliation.settle-delay`, leaving time for transactions to pass through the audit queue, and a Merkle
+ * comparison narrows any difference down to the shards, each a fixed slice of the accounts, that disagree.
+ *
+ * <p>Transactions dropped from the audit as oversize (`audit.oversize.mode: DROP`) are never submitted, but are
+ * recorded as audited along with the submission they were dropped from, since leaving them out is deliberate.
+ * Transactions queued below a full submission are flushed every `audit.flush-interval`, which must stay well
+ * under the settle delay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reconciliation.enabled", havingValue = "true")
+public class Reconciler implements PostingListener {
+
+    private final int shardMask;
+    private final long epochMillis;
+    private final long settleDelayMillis;
+    private final ShardChecksums ledger;
+    private final ShardChecksums audited;
+    private volatile ReconciliationReport lastReport;
+
+    /**
+     * Constructor for Reconciler.
+     *
+     * @param shards number of shards the accounts are split into, a power of two
+     * @param epoch granularity at which recent legs are held apart
+     * @param slots number of recent epochs held apart; they must span more than the settle delay
+     * @param settleDelay how long a transaction may take to be audited before its absence is a mismatch
+     */
+    public Reconciler(@Value("${reconciliation.shards:1024}") int shards,
+                      @Value("${reconciliation.epoch:1s}") Duration epoch,
+                      @Value("${reconciliation.slots:64}") int slots,
+                      @Value("${reconciliation.settle-delay:10s}") Duration settleDelay) {
+        if (shards <= 0 || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two: " + shards);
+        }
+        this.shardMask = shards - 1;
+        this.epochMillis = Math.max(1, epoch.toMillis());
+        this.settleDelayMillis = settleDelay.toMillis();
+        if ((long) slots * epochMillis < settleDelayMillis + 2 * epochMillis) {
+            throw new IllegalArgumentException("Reconciliation slots must span the settle delay plus two epochs");
+        }
+        this.ledger = new ShardChecksums(shards, slots);
+        this.audited = new ShardChecksums(shards, slots);
+    }
+
+    @Override
+    public void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        record(ledger, transaction, accountId, amountInPence);
+    }
+
+    /**
+     * Records a transaction the audit service has submitted.
+     *
+     * @param transaction the audited transaction
+     */
+    public void onAudited(Transaction transaction) {
+        long amountInPence = Math.round(transaction.getAmount() * 100);
+        if (transaction.isTransfer()) {
+            long transferred = Math.abs(amountInPence);
+            record(audited, transaction, transaction.getAccountId(), -transferred);
+            record(audited, transaction, transaction.getCounterpartyAccountId(), transferred);
+        } else {
+            record(audited, transaction, transaction.getAccountId(), amountInPence);
+        }
+    }
+
+    /**
+     * Compares the ledger with the audit up to the watermark.
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the outcome of the comparison
+     */
+    public ReconciliationReport check(long now) {
+        long started = System.nanoTime();
+        long watermarkEpoch = Math.floorDiv(now - settleDelayMillis, epochMillis) - 1;
+        long[][] ledgerSnapshot = ledger.snapshot(watermarkEpoch);
+        long[][] auditedSnapshot = audited.snapshot(watermarkEpoch);
+
+        List<ShardMismatch> mismatches = new ArrayList<>();
+        for (int shard : new MerkleTree(ledgerSnapshot).diff(new MerkleTree(auditedSnapshot))) {
+            mismatches.add(new ShardMismatch(shard, ledgerSnapshot[0][shard], auditedSnapshot[0][shard],
+                    ledgerSnapshot[1][shard], auditedSnapshot[1][shard]));
+        }
+        ReconciliationReport report = new ReconciliationReport((watermarkEpoch + 1) * epochMillis,
+                sum(ledgerSnapshot[0]), sum(ledgerSnapshot[1]), sum(auditedSnapshot[0]), sum(auditedSnapshot[1]),
+                mismatches, (System.nanoTime() - started) / 1_000);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Runs a check and logs any shards that do not reconcile.
+     */
+    @Scheduled(fixedDelayString = "${reconciliation.interval:5s}")
+    public void checkPeriodically() {
+        ReconciliationReport report = check(System.currentTimeMillis());
+        if (!report.isReconciled()) {
+            log.warn("{} shards do not reconcile up to {}: {}", report.mismatches().size(), report.watermark(),
+                    report.mismatches().subList(0, Math.min(10, report.mismatches().size())));
+        }
+    }
+
+    /**
+     * @return the outcome of the last check, or null if none has run
+     */
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * @param accountId the account id
+     * @return the shard the account is reconciled in
+     */
+    public int shardOf(String accountId) {
+        return (int) (Hashing.hash64(accountId) & shardMask);
+    }
+
+    private void record(ShardChecksums side, Transaction transaction, String accountId, long amountInPence) {
+        long accountHash = Hashing.hash64(accountId);
+        long hash = Hashing.mix64(accountHash ^ Hashing.mix64(amountInPence));
+        if (transaction.getId() != null) {
+            hash = Hashing.mix64(hash ^ Hashing.hash64(transaction.getId()));
+        }
+        side.add((int) (accountHash & shardMask), Math.floorDiv(transaction.getTimestamp(), epochMillis),
+                amountInPence, hash);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,22 @@
+package tech.challenge.reconcile;
+
+import java.util.List;
+
+/**
+ * Outcome of one reconciliation check.
+ *
+ * @param watermark legs of transactions timestamped before this time, in epoch milliseconds, were compared
+ * @param ledgerCount number of legs posted to the ledger up to the watermark
+ * @param ledgerTotalInPence sum of those legs
+ * @param auditedCount number of legs submitted for audit up to the watermark
+ * @param auditedTotalInPence sum of those legs
+ * @param mismatches the shards that disagree, empty when the ledger and the audit reconcile
+ * @param elapsedMicros time the check took
+ */
+public record ReconciliationReport(long watermark, long ledgerCount, long ledgerTotalInPence, long auditedCount,
+                                   long auditedTotalInPence, List<ShardMismatch> mismatches, long elapsedMicros) {
+
+    public boolean isReconciled() {
+        return mismatches.isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package tech.challenge.reconcile;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling per-shard count, total and checksum of one side of the reconciliation, updated as each leg is
+ * recorded. Checksums are sums of leg hashes, so they do not depend on the order legs arrive in.
+ *
+ * <p>Legs are kept by epoch, taken from the transaction's timestamp, in a ring of slots. When a slot is needed
+ * for a newer epoch its contents are folded into the settled totals, which hold everything older than the ring.
+ * A snapshot up to a watermark epoch therefore covers exactly the legs of those epochs, letting both sides be
+ * compared while legs of recent epochs are still on their way through the audit queue. A leg racing with the
+ * folding of its slot may be counted under the slot's new epoch instead, which delays it but never loses it.
+ */
+final class ShardChecksums {
+
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int HASH = 2;
+
+    private final int shards;
+    private final int slots;
+    private final AtomicLongArray slotEpochs;
+    private final AtomicLongArray slotCells;
+    private final long[] settled;
+
+    /**
+     * @param shards number of shards
+     * @param slots number of epochs held apart from the settled totals
+     */
+    ShardChecksums(int shards, int slots) {
+        this.shards = shards;
+        this.slots = slots;
+        this.slotEpochs = new AtomicLongArray(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            slotEpochs.set(slot, Long.MIN_VALUE);
+        }
+        this.slotCells = new AtomicLongArray(slots * shards * 3);
+        this.settled = new long[shards * 3];
+    }
+
+    /**
+     * Records a leg.
+     *
+     * @param shard the shard of the leg's account
+     * @param epoch the epoch of the leg's transaction
+     * @param amountInPence the signed amount of the leg
+     * @param hash the leg's hash
+     */
+    void add(int shard, long epoch, long amountInPence, long hash) {
+        int slot = (int) Math.floorMod(epoch, (long) slots);
+        if (slotEpochs.get(slot) != epoch && !claim(slot, epoch)) {
+            // Older than anything left in the ring
+            synchronized (this) {
+                settled[shard * 3 + COUNT]++;
+                settled[shard * 3 + TOTAL] += amountInPence;
+                settled[shard * 3 + HASH] += hash;
+            }
+            return;
+        }
+        int base = (slot * shards + shard) * 3;
+        slotCells.incrementAndGet(base + COUNT);
+        slotCells.addAndGet(base + TOTAL, amountInPence);
+        slotCells.addAndGet(base + HASH, hash);
+    }
+
+    /**
+     * Sums, per shard, every leg of an epoch at or before the watermark.
+     *
+     * @return counts, totals and checksums, each indexed by shard
+     */
+    synchronized long[][] snapshot(long watermarkEpoch) {
+        long[][] snapshot = new long[3][shards];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int field = 0; field < 3; field++) {
+                snapshot[field][shard] = settled[shard * 3 + field];
+            }
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            long epoch = slotEpochs.get(slot);
+            if (epoch == Long.MIN_VALUE || epoch > watermarkEpoch) {
+                continue;
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                int base = (slot * shards + shard) * 3;
+                for (int field = 0; field < 3; field++) {
+                    snapshot[field][shard] += slotCells.get(base + field);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Makes a slot hold an epoch, folding the older epoch it held into the settled totals.
+     *
+     * @return false if the slot already holds a newer epoch
+     */
+    private synchronized boolean claim(int slot, long epoch) {
+        long current = slotEpochs.get(slot);
+        if (current == epoch) {
+            return true;
+        }
+        if (current > epoch) {
+            return false;
+        }
+        for (int cell = 0; cell < shards * 3; cell++) {
+            settled[cell] += slotCells.getAndSet(slot * shards * 3 + cell, 0);
+        }
+        slotEpochs.set(slot, epoch);
+        return true;
+    }
+}
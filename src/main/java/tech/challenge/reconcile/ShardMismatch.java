@@ -0,0 +1,14 @@
+package tech.challenge.reconcile;
+
+/**
+ * A shard whose ledger postings and audited transactions disagree.
+ *
+ * @param shard the shard, see {@link Reconciler#shardOf(String)}
+ * @param ledgerCount number of legs posted to the ledger
+ * @param auditedCount number of legs submitted for audit
+ * @param ledgerTotalInPence sum of the legs posted to the ledger
+ * @param auditedTotalInPence sum of the legs submitted for audit
+ */
+public record ShardMismatch(int shard, long ledgerCount, long auditedCount, long ledgerTotalInPence,
+                            long auditedTotalInPence) {
+}
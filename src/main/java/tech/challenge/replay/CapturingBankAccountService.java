@@ -0,0 +1,114 @@
+package tech.challenge.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.domain.Transaction;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Records every transaction entering a {@link BankAccountService} to a capture before passing it on, so the
+ * stream can later be replayed with {@link TrafficReplayer}. Holds, overdraft limits and reads are passed on
+ * without being recorded. If the capture cannot be written, capturing stops and the service carries on.
+ */
+@Slf4j
+public class CapturingBankAccountService implements BankAccountService {
+
+    private final BankAccountService delegate;
+    private final TrafficWriter writer;
+    private volatile boolean capturing = true;
+
+    /**
+     * Constructor for CapturingBankAccountService.
+     *
+     * @param delegate the service transactions are passed on to
+     * @param writer the capture transactions are recorded to
+     */
+    public CapturingBankAccountService(BankAccountService delegate, TrafficWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public void processTransaction(Transaction transaction) {
+        capture(TrafficKind.SUBMIT, transaction);
+        delegate.processTransaction(transaction);
+    }
+
+    @Override
+    public int submitTransaction(Transaction transaction) {
+        capture(TrafficKind.SUBMIT, transaction);
+        return delegate.submitTransaction(transaction);
+    }
+
+    @Override
+    public long validationCount(int rejectionCode) {
+        return delegate.validationCount(rejectionCode);
+    }
+
+    @Override
+    public double retrieveBalance() {
+        return delegate.retrieveBalance();
+    }
+
+    @Override
+    public boolean processConditionalDebit(Transaction transaction) {
+        capture(TrafficKind.CONDITIONAL_DEBIT, transaction);
+        return delegate.processConditionalDebit(transaction);
+    }
+
+    @Override
+    public boolean processTransfer(Transaction transfer) {
+        capture(TrafficKind.TRANSFER, transfer);
+        return delegate.processTransfer(transfer);
+    }
+
+    @Override
+    public Optional<String> placeHold(String accountId, double amount) {
+        return delegate.placeHold(accountId, amount);
+    }
+
+    @Override
+    public boolean settleHold(String holdId) {
+        return delegate.settleHold(holdId);
+    }
+
+    @Override
+    public boolean releaseHold(String holdId) {
+        return delegate.releaseHold(holdId);
+    }
+
+    @Override
+    public void setOverdraftLimit(String accountId, double limit) {
+        delegate.setOverdraftLimit(accountId, limit);
+    }
+
+    @Override
+    public double retrieveLedgerBalance(String accountId) {
+        return delegate.retrieveLedgerBalance(accountId);
+    }
+
+    @Override
+    public double retrieveAvailableBalance(String accountId) {
+        return delegate.retrieveAvailableBalance(accountId);
+    }
+
+    @Override
+    public double retrieveBalanceAsOf(String accountId, Instant asOf) {
+        return delegate.retrieveBalanceAsOf(accountId, asOf);
+    }
+
+    private void capture(TrafficKind kind, Transaction transaction) {
+        if (!capturing || transaction == null) {
+            return;
+        }
+        try {
+            writer.append(kind, transaction);
+        } catch (IOException e) {
+            capturing = false;
+            log.error("Failed to write traffic capture; capturing stopped after {} transactions", writer.count(), e);
+        }
+    }
+}
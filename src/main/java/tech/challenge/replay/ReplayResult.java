@@ -0,0 +1,23 @@
+package tech.challenge.replay;
+
+/**
+ * Summary of a replay.
+ *
+ * @param transactions number of transactions replayed
+ * @param rejected number the service rejected, by rejection code, overdraft limit or exception
+ * @param elapsedNanos wall-clock duration of the replay
+ * @param p50Nanos median latency of a call
+ * @param p99Nanos 99th percentile latency of a call
+ * @param p999Nanos 99.9th percentile latency of a call
+ * @param maxNanos slowest call
+ */
+public record ReplayResult(long transactions, long rejected, long elapsedNanos, long p50Nanos, long p99Nanos,
+                           long p999Nanos, long maxNanos) {
+
+    /**
+     * @return transactions replayed per second
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : transactions / (elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,85 @@
+package tech.challenge.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.BankAccountService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays a transaction stream into the bank account service once the application has started, from the capture
+ * at `replay.file` or, when no file is set, from a {@link TrafficGenerator} seeded with `replay.seed`. The
+ * stream is replayed at `replay.speed` times its original rate, or as fast as possible when that is 0. Set
+ * `producer.enabled` to false for the balances to depend on the replayed stream alone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "replay.enabled", havingValue = "true")
+public class ReplayRunner {
+
+    private final BankAccountService bankAccountService;
+
+    @Value("${replay.file:}")
+    private String file;
+
+    @Value("${replay.speed:1}")
+    private double speed;
+
+    @Value("${replay.seed:42}")
+    private long seed;
+
+    @Value("${replay.count:100000}")
+    private long count;
+
+    @Value("${replay.accounts:1000}")
+    private int accounts;
+
+    @Value("${replay.rate:1000}")
+    private double rate;
+
+    /**
+     * Constructor for ReplayRunner.
+     *
+     * @param bankAccountService the service the stream is replayed into
+     */
+    public ReplayRunner(BankAccountService bankAccountService) {
+        this.bankAccountService = bankAccountService;
+    }
+
+    /**
+     * Starts the replay on its own thread, so that it does not hold up the rest of the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::replay, "traffic-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void replay() {
+        TrafficReplayer replayer = new TrafficReplayer();
+        try {
+            ReplayResult result;
+            if (file.isBlank()) {
+                log.info("Replaying {} generated transactions with seed {} at speed {}", count, seed, speed);
+                result = replayer.replay(new TrafficGenerator(seed, count, accounts, rate), bankAccountService, speed);
+            } else {
+                log.info("Replaying capture {} at speed {}", file, speed);
+                try (TrafficReader reader = new TrafficReader(Path.of(file))) {
+                    result = replayer.replay(reader, bankAccountService, speed);
+                }
+            }
+            log.info("Replayed {} transactions ({} rejected) in {} ms: {} tx/s, p50={}µs p99={}µs p99.9={}µs max={}µs",
+                    result.transactions(), result.rejected(), result.elapsedNanos() / 1_000_000,
+                    String.format("%.0f", result.throughput()), result.p50Nanos() / 1_000,
+                    result.p99Nanos() / 1_000, result.p999Nanos() / 1_000, result.maxNanos() / 1_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Replay failed", e);
+        }
+    }
+}
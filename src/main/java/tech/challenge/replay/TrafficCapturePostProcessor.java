@@ -0,0 +1,43 @@
+package tech.challenge.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import tech.challenge.consumer.service.BankAccountService;
+
+import java.io.IOException;
+
+/**
+ * Wraps every {@link BankAccountService} bean in a {@link CapturingBankAccountService}, so that all callers,
+ * whichever bean they are given, have their transactions recorded to one capture. The capture is closed when the
+ * application shuts down.
+ */
+@Slf4j
+public class TrafficCapturePostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final TrafficWriter writer;
+
+    /**
+     * Constructor for TrafficCapturePostProcessor.
+     *
+     * @param writer the capture transactions are recorded to
+     */
+    public TrafficCapturePostProcessor(TrafficWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof BankAccountService service && !(bean instanceof CapturingBankAccountService)) {
+            log.info("Capturing transactions entering {}", beanName);
+            return new CapturingBankAccountService(service, writer);
+        }
+        return bean;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        writer.close();
+        log.info("Traffic capture closed after {} transactions", writer.count());
+    }
+}
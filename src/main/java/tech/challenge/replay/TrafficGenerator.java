@@ -0,0 +1,89 @@
+package tech.challenge.replay;
+
+import tech.challenge.domain.Transaction;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates a transaction stream from a seed, so a run can be repeated exactly without a capture file. The same
+ * seed, count, accounts and rate always give the same ids, amounts, accounts, timestamps and arrival times.
+ *
+ * <p>Amounts are whole pence between £200 and £500,000, like those of the producer. Eight in ten transactions
+ * are plain credits or debits, one is a conditional debit and one a transfer between two different accounts.
+ */
+public class TrafficGenerator implements TrafficSource {
+
+    /**
+     * Timestamp of the first generated transaction, fixed so that generated streams do not depend on the clock.
+     */
+    static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+
+    private static final long MIN_PENCE = 20_000;
+    private static final long MAX_PENCE = 50_000_000;
+
+    private final SplittableRandom random;
+    private final long seed;
+    private final long count;
+    private final String[] accounts;
+    private final double nanosPerTransaction;
+    private long generated;
+
+    /**
+     * Constructor for TrafficGenerator.
+     *
+     * @param seed seed of the stream
+     * @param count number of transactions to generate
+     * @param accounts number of accounts the transactions are spread over
+     * @param ratePerSecond arrival rate the stream's offsets describe
+     */
+    public TrafficGenerator(long seed, long count, int accounts, double ratePerSecond) {
+        if (accounts < 2) {
+            throw new IllegalArgumentException("Generated traffic needs at least two accounts");
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Generated traffic rate must be positive");
+        }
+        this.random = new SplittableRandom(seed);
+        this.seed = seed;
+        this.count = count;
+        this.accounts = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            this.accounts[i] = "acc" + i;
+        }
+        this.nanosPerTransaction = 1e9 / ratePerSecond;
+    }
+
+    @Override
+    public TrafficRecord next() {
+        if (generated == count) {
+            return null;
+        }
+        long n = generated++;
+        long offsetNanos = (long) (n * nanosPerTransaction);
+        double amount = random.nextLong(MIN_PENCE, MAX_PENCE + 1) / 100.0;
+        int account = random.nextInt(accounts.length);
+        int roll = random.nextInt(10);
+
+        TrafficKind kind;
+        String counterparty = null;
+        if (roll < 8) {
+            kind = TrafficKind.SUBMIT;
+            amount = random.nextBoolean() ? amount : -amount;
+        } else if (roll == 8) {
+            kind = TrafficKind.CONDITIONAL_DEBIT;
+            amount = -amount;
+        } else {
+            kind = TrafficKind.TRANSFER;
+            amount = -amount;
+            counterparty = accounts[(account + 1 + random.nextInt(accounts.length - 1)) % accounts.length];
+        }
+        Transaction transaction = Transaction.builder()
+                .id("gen-" + seed + "-" + n)
+                .amount(amount)
+                .accountId(accounts[account])
+                .counterpartyAccountId(counterparty)
+                .timestamp(BASE_TIMESTAMP + offsetNanos / 1_000_000)
+                .build();
+        return new TrafficRecord(offsetNanos, kind, transaction);
+    }
+}
@@ -0,0 +1,19 @@
+package tech.challenge.replay;
+
+/**
+ * The {@link tech.challenge.consumer.service.BankAccountService} call a captured transaction arrived through.
+ */
+public enum TrafficKind {
+    /**
+     * {@code processTransaction} or {@code submitTransaction}.
+     */
+    SUBMIT,
+    /**
+     * {@code processConditionalDebit}.
+     */
+    CONDITIONAL_DEBIT,
+    /**
+     * {@code processTransfer}.
+     */
+    TRANSFER
+}
@@ -0,0 +1,109 @@
+package tech.challenge.replay;
+
+import tech.challenge.domain.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads a capture written by {@link TrafficWriter}, one transaction at a time. A record cut off at the end of
+ * the file, as when the capturing process was killed, ends the stream.
+ */
+public class TrafficReader implements TrafficSource, Closeable {
+
+    private static final TrafficKind[] KINDS = TrafficKind.values();
+
+    private final DataInputStream in;
+    private final List<String> accounts = new ArrayList<>();
+    private long offsetNanos;
+    private long timestamp;
+
+    /**
+     * Opens a capture file.
+     *
+     * @param file the capture file
+     */
+    public TrafficReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        if (in.readInt() != TrafficWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not a traffic capture: " + file);
+        }
+    }
+
+    @Override
+    public TrafficRecord next() throws IOException {
+        int flags = in.read();
+        if (flags < 0) {
+            return null;
+        }
+        try {
+            offsetNanos += readVarLong();
+            timestamp += unzigzag(readVarLong());
+            String id = switch (flags & TrafficWriter.ID_MASK) {
+                case TrafficWriter.ID_UUID -> new UUID(in.readLong(), in.readLong()).toString();
+                case TrafficWriter.ID_TEXT -> in.readUTF();
+                default -> null;
+            };
+            double amount = (flags & TrafficWriter.AMOUNT_IN_PENCE) != 0
+                    ? unzigzag(readVarLong()) / 100.0
+                    : in.readDouble();
+            Transaction transaction = Transaction.builder()
+                    .id(id)
+                    .amount(amount)
+                    .accountId(readAccount())
+                    .counterpartyAccountId(readAccount())
+                    .timestamp(timestamp)
+                    .build();
+            return new TrafficRecord(offsetNanos, KINDS[flags & TrafficWriter.KIND_MASK], transaction);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readAccount() throws IOException {
+        long reference = readVarLong();
+        if (reference == TrafficWriter.ACCOUNT_NULL) {
+            return null;
+        }
+        if (reference == TrafficWriter.ACCOUNT_NEW) {
+            String accountId = in.readUTF();
+            accounts.add(accountId);
+            return accountId;
+        }
+        int index = (int) (reference - TrafficWriter.ACCOUNT_FIRST_REFERENCE);
+        if (index >= accounts.size()) {
+            throw new IOException("Traffic capture refers to unknown account " + index);
+        }
+        return accounts.get(index);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in traffic capture");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,13 @@
+package tech.challenge.replay;
+
+import tech.challenge.domain.Transaction;
+
+/**
+ * One transaction of a captured or generated stream.
+ *
+ * @param offsetNanos time since the start of the stream at which the transaction arrived
+ * @param kind the call it arrived through
+ * @param transaction the transaction
+ */
+public record TrafficRecord(long offsetNanos, TrafficKind kind, Transaction transaction) {
+}
@@ -0,0 +1,71 @@
+package tech.challenge.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.InvalidTransactionException;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds a transaction stream into a {@link BankAccountService} from a single thread, through the same call each
+ * transaction originally arrived through.
+ *
+ * <p>At a positive speed each transaction is sent at its original offset divided by the speed, so 1 replays at
+ * the captured rate and 10 ten times faster; a speed of 0 or less sends them back to back. When paced, a call's
+ * latency is measured from the time it was due rather than the time it was sent, so a stall in the service shows
+ * in the latency of every call queued behind it instead of only its own.
+ */
+@Slf4j
+public class TrafficReplayer {
+
+    /**
+     * Replays a stream until it ends.
+     *
+     * @param source the stream to replay
+     * @param service the service to replay it into
+     * @param speed multiple of the original rate to replay at, or 0 to replay as fast as possible
+     * @return the throughput and latency of the replay
+     */
+    public ReplayResult replay(TrafficSource source, BankAccountService service, double speed) throws IOException {
+        boolean paced = speed > 0;
+        LatencyHistogram latencies = new LatencyHistogram();
+        long transactions = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+        TrafficRecord record;
+        while ((record = source.next()) != null) {
+            long due = paced ? start + (long) (record.offsetNanos() / speed) : 0;
+            if (paced) {
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long sent = System.nanoTime();
+            if (!dispatch(record, service)) {
+                rejected++;
+            }
+            latencies.record(System.nanoTime() - (paced ? due : sent));
+            transactions++;
+        }
+        long elapsed = System.nanoTime() - start;
+        return new ReplayResult(transactions, rejected, elapsed, latencies.percentile(0.50),
+                latencies.percentile(0.99), latencies.percentile(0.999), latencies.max());
+    }
+
+    private static boolean dispatch(TrafficRecord record, BankAccountService service) {
+        Transaction transaction = record.transaction();
+        try {
+            return switch (record.kind()) {
+                case SUBMIT -> service.submitTransaction(transaction) == RejectionCode.ACCEPTED;
+                case CONDITIONAL_DEBIT -> service.processConditionalDebit(transaction);
+                case TRANSFER -> service.processTransfer(transaction);
+            };
+        } catch (InvalidTransactionException e) {
+            log.debug("Replayed transaction {} was rejected: {}", transaction.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
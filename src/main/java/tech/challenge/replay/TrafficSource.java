@@ -0,0 +1,14 @@
+package tech.challenge.replay;
+
+import java.io.IOException;
+
+/**
+ * A stream of transactions to replay, read from a capture or generated.
+ */
+public interface TrafficSource {
+
+    /**
+     * @return the next transaction, or null at the end of the stream
+     */
+    TrafficRecord next() throws IOException;
+}
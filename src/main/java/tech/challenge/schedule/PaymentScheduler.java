@@ -0,0 +1,332 @@
+package tech.challenge.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schedules deferred payments, standing orders and hold expiries on a single timing wheel instead of one
+ * executor task per item, so millions can be pending at once. Scheduling and cancelling cost O(1). On every
+ * tick the payments falling due are collected under the lock and then passed to the {@link BankAccountService}
+ * outside it, in batches of at most `schedule.batch-size`, so scheduling is never held up by a large backlog.
+ * Pending payments are saved to `schedule.state-file` on shutdown and scheduled again on the next start,
+ * falling due at once if their time has passed in between.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schedule.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentScheduler {
+
+    private static final int LEVELS = 6;
+
+    private final BankAccountService bankAccountService;
+    private final long tickMillis;
+    private final int batchSize;
+    private final TimingWheel<ScheduledPayment> wheel;
+    private final Map<Long, TimingWheel.Entry<ScheduledPayment>> pending = new HashMap<>();
+    private final ArrayDeque<ScheduledPayment> due = new ArrayDeque<>();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ScheduledExecutorService ticker;
+    private long nextId = 1;
+
+    @Value("${schedule.state-file:}")
+    private String stateFile = "";
+
+    /**
+     * Constructor for PaymentScheduler.
+     *
+     * @param bankAccountService the service due payments are passed to
+     * @param tick resolution of the schedule; payments fall due at most one tick late
+     * @param batchSize most payments passed to the service per tick
+     */
+    public PaymentScheduler(BankAccountService bankAccountService,
+                            @Value("${schedule.tick:10ms}") Duration tick,
+                            @Value("${schedule.batch-size:10000}") int batchSize) {
+        this.bankAccountService = bankAccountService;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(LEVELS, System.currentTimeMillis() / tickMillis);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules pending payments saved at the last shutdown and starts the clock.
+     */
+    @PostConstruct
+    public void start() {
+        if (!stateFile.isEmpty() && Files.exists(Path.of(stateFile))) {
+            Path file = Path.of(stateFile);
+            try {
+                List<ScheduledPayment> saved = ScheduleFile.read(file);
+                restore(saved);
+                Files.delete(file);
+                log.info("Restored {} scheduled payments from {}", saved.size(), file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to restore scheduled payments from " + file, e);
+            }
+        }
+        ticker.scheduleWithFixedDelay(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the clock and saves the payments still pending. A batch already taken off the dispatch queue is
+     * finished first, as it is no longer among the pending payments and would otherwise be neither applied nor
+     * saved; the tick stops after that batch.
+     */
+    @PreDestroy
+    public void stop() {
+        ticker.shutdown();
+        try {
+            while (!ticker.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.info("Waiting for a batch of scheduled payments to finish dispatching");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (stateFile.isEmpty()) {
+            return;
+        }
+        Path file = Path.of(stateFile);
+        List<ScheduledPayment> remaining = pendingPayments();
+        try {
+            if (remaining.isEmpty()) {
+                Files.deleteIfExists(file);
+            } else {
+                ScheduleFile.write(file, remaining);
+                log.info("Saved {} scheduled payments to {}", remaining.size(), file);
+            }
+        } catch (IOException e) {
+            log.error("Failed to save {} scheduled payments to {}", remaining.size(), file, e);
+        }
+    }
+
+    /**
+     * Schedules a transaction to be posted once.
+     *
+     * @return the id of the scheduled payment
+     */
+    public long schedule(Transaction transaction, Instant dueAt) {
+        return add(ScheduledAction.POST, dueAt, Duration.ZERO, transaction, null);
+    }
+
+    /**
+     * Schedules a standing order, posting a copy of the transaction at every interval from the first due time
+     * until cancelled. Each instalment gets its own id, derived from the transaction's id and due time.
+     *
+     * @return the id of the standing order
+     */
+    public long scheduleRepeating(Transaction transaction, Instant firstDueAt, Duration interval) {
+        if (interval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Standing order interval must be positive: " + interval);
+        }
+        return add(ScheduledAction.POST, firstDueAt, interval, transaction, null);
+    }
+
+    /**
+     * Schedules a debit to be posted only if the account can cover it when it falls due.
+     *
+     * @return the id of the scheduled payment
+     */
+    public long scheduleConditionalDebit(Transaction debit, Instant dueAt) {
+        return add(ScheduledAction.CONDITIONAL_DEBIT, dueAt, Duration.ZERO, debit, null);
+    }
+
+    /**
+     * Places a hold through the bank account service that is released if it is still open when it expires.
+     *
+     * @param accountId account to place the hold on
+     * @param amount amount in pounds to reserve
+     * @param expiresAt time the hold is released unless settled or released before
+     * @return the id of the hold, or empty if reserving the funds would breach the overdraft limit
+     */
+    public Optional<String> placeHold(String accountId, double amount, Instant expiresAt) {
+        Optional<String> holdId = bankAccountService.placeHold(accountId, amount);
+        holdId.ifPresent(id -> scheduleHoldExpiry(id, expiresAt));
+        return holdId;
+    }
+
+    /**
+     * Schedules a hold to be released if it is still open when it expires.
+     *
+     * @return the id of the scheduled expiry
+     */
+    public long scheduleHoldExpiry(String holdId, Instant expiresAt) {
+        return add(ScheduledAction.RELEASE_HOLD, expiresAt, Duration.ZERO, null, holdId);
+    }
+
+    /**
+     * Cancels a scheduled payment, or every future instalment of a standing order.
+     *
+     * @return true if the payment was pending, false if it was unknown or has already fallen due
+     */
+    public synchronized boolean cancel(long id) {
+        TimingWheel.Entry<ScheduledPayment> entry = pending.remove(id);
+        return entry != null && wheel.cancel(entry);
+    }
+
+    /**
+     * Moves the schedule forward and passes one batch of due payments to the bank account service.
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the number of payments passed to the service
+     */
+    public int runDue(long now) {
+        List<ScheduledPayment> batch;
+        synchronized (this) {
+            wheel.advanceTo(now / tickMillis, this::fallDue);
+            if (due.isEmpty()) {
+                return 0;
+            }
+            batch = new ArrayList<>(Math.min(due.size(), batchSize));
+            while (batch.size() < batchSize && !due.isEmpty()) {
+                batch.add(due.poll());
+            }
+        }
+        for (ScheduledPayment payment : batch) {
+            try {
+                if (!dispatch(payment)) {
+                    rejected.increment();
+                }
+            } catch (RuntimeException e) {
+                rejected.increment();
+                log.warn("Scheduled payment {} failed: {}", payment.id(), e.getMessage());
+            }
+        }
+        dispatched.add(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * @return the number of payments waiting to fall due or to be passed to the service
+     */
+    public synchronized int getPendingCount() {
+        return wheel.size() + due.size();
+    }
+
+    /**
+     * @return the number of payments passed to the service
+     */
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @return the number of payments the service rejected or failed to apply
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Sets the file pending payments are saved to on shutdown.
+     */
+    void setStateFile(String stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * @return every pending payment, whether waiting to fall due or to be passed to the service
+     */
+    synchronized List<ScheduledPayment> pendingPayments() {
+        List<ScheduledPayment> payments = new ArrayList<>(wheel.size() + due.size());
+        payments.addAll(due);
+        wheel.forEach(entry -> payments.add(entry.item()));
+        return payments;
+    }
+
+    private synchronized void restore(List<ScheduledPayment> payments) {
+        for (ScheduledPayment payment : payments) {
+            pending.put(payment.id(), wheel.schedule(tickOf(payment.dueAt()), payment));
+            nextId = Math.max(nextId, payment.id() + 1);
+        }
+    }
+
+    private synchronized long add(ScheduledAction action, Instant dueAt, Duration interval, Transaction transaction,
+                                  String holdId) {
+        ScheduledPayment payment = new ScheduledPayment(nextId++, action, dueAt.toEpochMilli(), interval.toMillis(),
+                transaction, holdId);
+        pending.put(payment.id(), wheel.schedule(tickOf(payment.dueAt()), payment));
+        return payment.id();
+    }
+
+    /**
+     * Moves a payment that has fallen due to the dispatch queue, and schedules the next instalment of a
+     * standing order under the same id.
+     */
+    private void fallDue(ScheduledPayment payment) {
+        due.add(payment);
+        if (payment.isRepeating()) {
+            ScheduledPayment next = payment.next();
+            pending.put(next.id(), wheel.schedule(tickOf(next.dueAt()), next));
+        } else {
+            pending.remove(payment.id());
+        }
+    }
+
+    private boolean dispatch(ScheduledPayment payment) {
+        return switch (payment.action()) {
+            case POST -> payment.transaction().getCounterpartyAccountId() != null
+                    ? bankAccountService.processTransfer(instalment(payment))
+                    : bankAccountService.submitTransaction(instalment(payment)) == RejectionCode.ACCEPTED;
+            case CONDITIONAL_DEBIT -> bankAccountService.processConditionalDebit(instalment(payment));
+            case RELEASE_HOLD -> bankAccountService.releaseHold(payment.holdId());
+        };
+    }
+
+    /**
+     * Builds the transaction posted for a payment, stamped with the time it is posted.
+     */
+    private static Transaction instalment(ScheduledPayment payment) {
+        Transaction template = payment.transaction();
+        return Transaction.builder()
+                .id(payment.isRepeating() ? template.getId() + "@" + payment.dueAt() : template.getId())
+                .amount(template.getAmount())
+                .accountId(template.getAccountId())
+                .counterpartyAccountId(template.getCounterpartyAccountId())
+                .build();
+    }
+
+    private long tickOf(long epochMillis) {
+        // Round up so that a payment never falls due before its time
+        return Math.floorDiv(epochMillis + tickMillis - 1, tickMillis);
+    }
+
+    private void tickQuietly() {
+        try {
+            int ran;
+            do {
+                ran = runDue(System.currentTimeMillis());
+            } while (ran == batchSize && !ticker.isShutdown());
+        } catch (RuntimeException e) {
+            log.error("Scheduled payments tick failed", e);
+        }
+    }
+}
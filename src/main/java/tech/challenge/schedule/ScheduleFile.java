@@ -0,0 +1,96 @@
+package tech.challenge.schedule;
+
+import tech.challenge.domain.Transaction;
+import tech.challenge.util.DurableFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * File holding the scheduled payments pending at shutdown, so they are scheduled again after the next start.
+ * The file is written to a temporary name, forced to disk and moved into place, so a crash while saving never
+ * leaves a half-written file behind.
+ */
+final class ScheduleFile {
+
+    private static final int MAGIC = 0x53434831;
+    private static final ScheduledAction[] ACTIONS = ScheduledAction.values();
+
+    private ScheduleFile() {
+    }
+
+    static void write(Path file, Collection<ScheduledPayment> payments) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(payments.size());
+            for (ScheduledPayment payment : payments) {
+                out.writeLong(payment.id());
+                out.writeByte(payment.action().ordinal());
+                out.writeLong(payment.dueAt());
+                out.writeLong(payment.intervalMillis());
+                writeNullable(out, payment.holdId());
+                Transaction tx = payment.transaction();
+                out.writeBoolean(tx != null);
+                if (tx != null) {
+                    writeNullable(out, tx.getId());
+                    out.writeDouble(tx.getAmount());
+                    writeNullable(out, tx.getAccountId());
+                    writeNullable(out, tx.getCounterpartyAccountId());
+                    out.writeLong(tx.getTimestamp());
+                }
+            }
+        }
+        DurableFiles.commit(temporary, file);
+    }
+
+    static List<ScheduledPayment> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a schedule file: " + file);
+            }
+            int count = in.readInt();
+            List<ScheduledPayment> payments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                ScheduledAction action = ACTIONS[in.readByte()];
+                long dueAt = in.readLong();
+                long intervalMillis = in.readLong();
+                String holdId = readNullable(in);
+                Transaction tx = null;
+                if (in.readBoolean()) {
+                    tx = Transaction.builder()
+                            .id(readNullable(in))
+                            .amount(in.readDouble())
+                            .accountId(readNullable(in))
+                            .counterpartyAccountId(readNullable(in))
+                            .timestamp(in.readLong())
+                            .build();
+                }
+                payments.add(new ScheduledPayment(id, action, dueAt, intervalMillis, tx, holdId));
+            }
+            return payments;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,19 @@
+package tech.challenge.schedule;
+
+/**
+ * What a scheduled payment does when it falls due.
+ */
+public enum ScheduledAction {
+    /**
+     * Posts the transaction, as a deferred credit or debit or one instalment of a standing order.
+     */
+    POST,
+    /**
+     * Posts the debit only if the account's balance and overdraft limit allow it.
+     */
+    CONDITIONAL_DEBIT,
+    /**
+     * Releases an expired hold, returning its funds to the account's available balance.
+     */
+    RELEASE_HOLD
+}
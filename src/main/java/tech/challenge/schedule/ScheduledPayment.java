@@ -0,0 +1,31 @@
+package tech.challenge.schedule;
+
+import tech.challenge.domain.Transaction;
+
+/**
+ * A pending scheduled payment.
+ *
+ * @param id the id returned when the payment was scheduled, used to cancel it
+ * @param action what to do when the payment falls due
+ * @param dueAt when the payment next falls due, in epoch milliseconds
+ * @param intervalMillis time between occurrences of a standing order, 0 for a one-off payment
+ * @param transaction the transaction to post, null for a hold release
+ * @param holdId the hold to release, null for anything else
+ */
+public record ScheduledPayment(long id, ScheduledAction action, long dueAt, long intervalMillis,
+                               Transaction transaction, String holdId) {
+
+    /**
+     * @return whether the payment repeats
+     */
+    public boolean isRepeating() {
+        return intervalMillis > 0;
+    }
+
+    /**
+     * @return the same payment due at its next occurrence
+     */
+    ScheduledPayment next() {
+        return new ScheduledPayment(id, action, dueAt + intervalMillis, intervalMillis, transaction, holdId);
+    }
+}
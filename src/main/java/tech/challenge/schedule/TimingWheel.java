@@ -0,0 +1,214 @@
+package tech.challenge.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding any number of pending items in O(1) per insert and cancel.
+ * Time is counted in ticks. Each level is a ring of 64 buckets, each bucket a doubly-linked list of entries,
+ * and one bucket of a level spans a whole turn of the level below. An entry is placed on the lowest level whose
+ * turn it falls within; when the clock enters a bucket on a higher level, the bucket's entries cascade down to
+ * the level below, until they reach level 0 and fall due. Entries beyond the top level wait in an overflow
+ * list that is re-examined each time the top level turns. Advancing the clock costs O(1) per tick plus O(1)
+ * per entry per level it cascades through. Not thread-safe.
+ *
+ * @param <T> the type of the scheduled items
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+
+    private final int levels;
+    private final Entry<T>[][] buckets;
+    private final Entry<T> overflow = new Entry<>(0, null);
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a wheel.
+     *
+     * @param levels number of levels; the wheel spans 64^levels ticks before using the overflow list
+     * @param startTick the tick the clock starts at
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(int levels, long startTick) {
+        this.levels = levels;
+        this.currentTick = startTick;
+        this.buckets = new Entry[levels][BUCKETS];
+        for (int level = 0; level < levels; level++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                buckets[level][bucket] = new Entry<>(0, null);
+            }
+        }
+    }
+
+    /**
+     * Adds an item due at a tick. An item due at or before the current tick falls due on the next advance.
+     *
+     * @return the entry, which can be passed to {@link #cancel(Entry)}
+     */
+    Entry<T> schedule(long tick, T item) {
+        Entry<T> entry = new Entry<>(tick, item);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Removes an entry that has not fallen due yet.
+     *
+     * @return true if the entry was pending
+     */
+    boolean cancel(Entry<T> entry) {
+        if (!entry.isLinked()) {
+            return false;
+        }
+        entry.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward, passing every item falling due to a consumer in due order, tick by tick.
+     * Items due in the same tick are passed in no particular order.
+     *
+     * @param tick the tick to move to
+     * @param due receives the items falling due
+     */
+    void advanceTo(long tick, Consumer<T> due) {
+        // Anything due at or before the current tick sits in the current level-0 bucket
+        expire(buckets[0][(int) (currentTick & MASK)], due);
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                return;
+            }
+            currentTick++;
+            cascade();
+            expire(buckets[0][(int) (currentTick & MASK)], due);
+        }
+    }
+
+    /**
+     * Passes every pending item to a consumer, in no particular order, without removing it.
+     */
+    void forEach(Consumer<Entry<T>> consumer) {
+        for (Entry<T>[] level : buckets) {
+            for (Entry<T> head : level) {
+                forEachIn(head, consumer);
+            }
+        }
+        forEachIn(overflow, consumer);
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Cascades the bucket the clock has just entered on each level whose lower levels have all turned,
+     * starting with the highest so that entries can cascade through several levels at once.
+     */
+    private void cascade() {
+        int turned = 0;
+        while (turned < levels - 1 && ((currentTick >>> (BITS * (turned + 1))) << (BITS * (turned + 1))) == currentTick) {
+            turned++;
+        }
+        if (turned == levels - 1 && (currentTick & ((1L << (BITS * levels)) - 1)) == 0) {
+            replace(overflow);
+        }
+        for (int level = turned; level >= 1; level--) {
+            replace(buckets[level][(int) ((currentTick >>> (BITS * level)) & MASK)]);
+        }
+    }
+
+    private void replace(Entry<T> head) {
+        Entry<T> entry = head.next;
+        head.next = head;
+        head.prev = head;
+        while (entry != head) {
+            Entry<T> next = entry.next;
+            entry.next = null;
+            entry.prev = null;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void expire(Entry<T> head, Consumer<T> due) {
+        while (head.next != head) {
+            Entry<T> entry = head.next;
+            entry.unlink();
+            size--;
+            due.accept(entry.item);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long tick = Math.max(entry.tick, currentTick);
+        for (int level = 0; level < levels; level++) {
+            int above = BITS * (level + 1);
+            if ((tick >>> above) == (currentTick >>> above)) {
+                buckets[level][(int) ((tick >>> (BITS * level)) & MASK)].append(entry);
+                return;
+            }
+        }
+        overflow.append(entry);
+    }
+
+    private static <T> void forEachIn(Entry<T> head, Consumer<Entry<T>> consumer) {
+        for (Entry<T> entry = head.next; entry != head; entry = entry.next) {
+            consumer.accept(entry);
+        }
+    }
+
+    /**
+     * A pending item and its place in a bucket. A bucket's head is an entry without an item.
+     */
+    static final class Entry<T> {
+        private final long tick;
+        private final T item;
+        private Entry<T> prev;
+        private Entry<T> next;
+
+        private Entry(long tick, T item) {
+            this.tick = tick;
+            this.item = item;
+            if (item == null) {
+                prev = this;
+                next = this;
+            }
+        }
+
+        long tick() {
+            return tick;
+        }
+
+        T item() {
+            return item;
+        }
+
+        private boolean isLinked() {
+            return next != null;
+        }
+
+        private void append(Entry<T> entry) {
+            entry.prev = prev;
+            entry.next = this;
+            prev.next = entry;
+            prev = entry;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
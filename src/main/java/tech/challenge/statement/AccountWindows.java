@@ -0,0 +1,87 @@
+package tech.challenge.statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring of tumbling-window counters for one account at one granularity, packed into a single primitive array.
+ * A slot is reset in place the first time a posting lands in a newer window, so windows roll over lazily on
+ * the ingest path without any background job or pause. Postings older than the retained windows are dropped.
+ */
+final class AccountWindows {
+
+    private static final int WINDOW = 0;
+    private static final int CREDITS = 1;
+    private static final int DEBITS = 2;
+    private static final int COUNT = 3;
+    private static final int MIN = 4;
+    private static final int MAX = 5;
+    private static final int FIELDS = 6;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final WindowGranularity granularity;
+    private final int windows;
+    private final long[] slots;
+
+    AccountWindows(WindowGranularity granularity, int windows) {
+        this.granularity = granularity;
+        this.windows = windows;
+        this.slots = new long[windows * FIELDS];
+        for (int slot = 0; slot < windows; slot++) {
+            slots[slot * FIELDS + WINDOW] = EMPTY;
+        }
+    }
+
+    /**
+     * Adds a posting to the window containing its timestamp.
+     *
+     * @return false if the posting is older than every retained window and was dropped
+     */
+    synchronized boolean add(long epochMillis, long amountInPence) {
+        long window = granularity.windowOf(epochMillis);
+        int base = (int) Math.floorMod(window, (long) windows) * FIELDS;
+        long current = slots[base + WINDOW];
+        if (current > window) {
+            return false;
+        }
+        if (current < window) {
+            slots[base + WINDOW] = window;
+            slots[base + CREDITS] = 0;
+            slots[base + DEBITS] = 0;
+            slots[base + COUNT] = 0;
+            slots[base + MIN] = Long.MAX_VALUE;
+            slots[base + MAX] = Long.MIN_VALUE;
+        }
+        if (amountInPence >= 0) {
+            slots[base + CREDITS] += amountInPence;
+        } else {
+            slots[base + DEBITS] -= amountInPence;
+        }
+        slots[base + COUNT]++;
+        slots[base + MIN] = Math.min(slots[base + MIN], amountInPence);
+        slots[base + MAX] = Math.max(slots[base + MAX], amountInPence);
+        return true;
+    }
+
+    /**
+     * Reads the retained windows overlapping a time range, oldest first. Only windows with postings are returned.
+     */
+    synchronized List<WindowAggregate> read(long fromInclusive, long toExclusive) {
+        long first = granularity.windowOf(fromInclusive);
+        long last = granularity.windowOf(toExclusive - 1);
+        // Only the most recent `windows` window ids can still be in the ring
+        first = Math.max(first, last - windows + 1);
+
+        long width = granularity.getWidthMillis();
+        List<WindowAggregate> result = new ArrayList<>();
+        for (long window = first; window <= last; window++) {
+            int base = (int) Math.floorMod(window, (long) windows) * FIELDS;
+            if (slots[base + WINDOW] == window) {
+                result.add(new WindowAggregate(window * width, (window + 1) * width, slots[base + CREDITS],
+                        slots[base + DEBITS], slots[base + COUNT], slots[base + MIN], slots[base + MAX]));
+            }
+        }
+        return result;
+    }
+}
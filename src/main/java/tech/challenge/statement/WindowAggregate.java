@@ -0,0 +1,16 @@
+package tech.challenge.statement;
+
+/**
+ * Totals of an account's postings within one tumbling window.
+ *
+ * @param windowStart start of the window in epoch milliseconds
+ * @param windowEnd exclusive end of the window in epoch milliseconds
+ * @param creditsInPence sum of credits
+ * @param debitsInPence sum of debits, as a positive amount
+ * @param count number of postings
+ * @param minInPence smallest signed posting
+ * @param maxInPence largest signed posting
+ */
+public record WindowAggregate(long windowStart, long windowEnd, long creditsInPence, long debitsInPence,
+                              long count, long minInPence, long maxInPence) {
+}
@@ -0,0 +1,26 @@
+package tech.challenge.statement;
+
+import java.time.Duration;
+
+/**
+ * Width of the tumbling windows that statement aggregates are kept in. Windows are aligned to UTC.
+ */
+public enum WindowGranularity {
+
+    HOURLY(Duration.ofHours(1)),
+    DAILY(Duration.ofDays(1));
+
+    private final long widthMillis;
+
+    WindowGranularity(Duration width) {
+        this.widthMillis = width.toMillis();
+    }
+
+    public long getWidthMillis() {
+        return widthMillis;
+    }
+
+    long windowOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, widthMillis);
+    }
+}
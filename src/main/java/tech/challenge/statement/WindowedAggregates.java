@@ -0,0 +1,75 @@
+package tech.challenge.statement;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.domain.Transaction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains per-account hourly and daily totals of credits, debits, counts, minimum and maximum as postings
+ * are applied. Statements read these precomputed windows, so their cost grows with the number of windows
+ * requested rather than with the number of transactions.
+ */
+@Component
+public class WindowedAggregates implements PostingListener {
+
+    private final int hourlyWindows;
+    private final int dailyWindows;
+    private final Map<String, AccountWindows[]> accounts = new ConcurrentHashMap<>();
+    private final LongAdder latePostings = new LongAdder();
+
+    /**
+     * Constructor for WindowedAggregates.
+     *
+     * @param hourlyWindows number of hourly windows retained per account
+     * @param dailyWindows number of daily windows retained per account
+     */
+    public WindowedAggregates(@Value("${statement.hourly-windows:48}") int hourlyWindows,
+                              @Value("${statement.daily-windows:31}") int dailyWindows) {
+        this.hourlyWindows = hourlyWindows;
+        this.dailyWindows = dailyWindows;
+    }
+
+    @Override
+    public void onPosted(Transaction transaction, String accountId, long amountInPence, long ledgerBalanceInPence) {
+        AccountWindows[] windows = accounts.computeIfAbsent(accountId, id -> new AccountWindows[]{
+                new AccountWindows(WindowGranularity.HOURLY, hourlyWindows),
+                new AccountWindows(WindowGranularity.DAILY, dailyWindows)});
+        for (AccountWindows window : windows) {
+            if (!window.add(transaction.getTimestamp(), amountInPence)) {
+                latePostings.increment();
+            }
+        }
+    }
+
+    /**
+     * Reads an account's windows overlapping a time range.
+     *
+     * @param accountId the account to query
+     * @param granularity the window width
+     * @param fromInclusive start of the range in epoch milliseconds
+     * @param toExclusive end of the range in epoch milliseconds
+     * @return the windows with postings, oldest first
+     */
+    public List<WindowAggregate> statement(String accountId, WindowGranularity granularity,
+                                           long fromInclusive, long toExclusive) {
+        AccountWindows[] windows = accounts.get(accountId);
+        if (windows == null || fromInclusive >= toExclusive) {
+            return Collections.emptyList();
+        }
+        return windows[granularity.ordinal()].read(fromInclusive, toExclusive);
+    }
+
+    /**
+     * @return the number of postings too old for any retained window, counted once per granularity
+     */
+    public long getLatePostingCount() {
+        return latePostings.sum();
+    }
+}
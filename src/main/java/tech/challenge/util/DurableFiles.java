@@ -0,0 +1,50 @@
+package tech.challenge.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so that the new content survives a crash or power failure once the call returns.
+ */
+public final class DurableFiles {
+
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private DurableFiles() {
+    }
+
+    /**
+     * Forces a fully written temporary file to disk, moves it over the target in one step and forces the
+     * directory, so the target holds either its old content or all of the new content, and the move itself is
+     * not lost.
+     *
+     * @param temporary the written and closed temporary file
+     * @param file the file it replaces
+     */
+    public static void commit(Path temporary, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to disk, making files created, moved or deleted in it durable.
+     *
+     * @param directory the directory
+     */
+    public static void forceDirectory(Path directory) throws IOException {
+        if (WINDOWS) {
+            // Directories cannot be opened for syncing on Windows, where NTFS journals the entries itself
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package tech.challenge.util;
+
+/**
+ * Allocation-free 64-bit hashing helpers shared by the probabilistic structures and partitioning logic.
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * Hashes a character sequence to 64 bits using FNV-1a followed by a MurmurHash3 finalizer,
+     * which spreads the entropy of short keys (such as account ids) across all bits.
+     *
+     * @param value the characters to hash
+     * @return the 64-bit hash
+     */
+    public static long hash64(CharSequence value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
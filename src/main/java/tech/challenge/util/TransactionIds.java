@@ -0,0 +1,70 @@
+package tech.challenge.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Converts transaction ids to fixed-width UUIDs for compact binary storage.
+ */
+public final class TransactionIds {
+
+    /** Stored for transactions without an id. */
+    public static final UUID NONE = new UUID(0, 0);
+
+    /** Longest id accepted, in UTF-8 bytes, so every stored form of an id has a fixed upper bound. */
+    public static final int MAX_ID_BYTES = 128;
+
+    private TransactionIds() {
+    }
+
+    /**
+     * Parses a canonical UUID id, or derives a name-based UUID from any other id. The name-based UUID does not
+     * give the original id back, so callers that must return ids as given keep the others alongside.
+     *
+     * @param transactionId the transaction id, may be null
+     * @return the id as a UUID, {@link #NONE} if the id is null
+     */
+    public static UUID toUuid(String transactionId) {
+        if (transactionId == null) {
+            return NONE;
+        }
+        if (isCanonicalUuid(transactionId)) {
+            return UUID.fromString(transactionId);
+        }
+        return UUID.nameUUIDFromBytes(transactionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param transactionId the transaction id, not null
+     * @return whether the id is at most {@link #MAX_ID_BYTES} long in UTF-8
+     */
+    public static boolean fitsMaxLength(String transactionId) {
+        int length = transactionId.length();
+        if (length > MAX_ID_BYTES) {
+            return false;
+        }
+        // A char takes at most three UTF-8 bytes, so short ids need no encoding
+        return length * 3 <= MAX_ID_BYTES || transactionId.getBytes(StandardCharsets.UTF_8).length <= MAX_ID_BYTES;
+    }
+
+    /**
+     * @param transactionId the transaction id, not null
+     * @return whether the id is a UUID in its canonical lower-case form, and so is given back by
+     * {@link UUID#toString()} on the parsed value
+     */
+    public static boolean isCanonicalUuid(String transactionId) {
+        if (transactionId.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = transactionId.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package tech.challenge;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold-start benchmark comparing the ways the application can be launched: the plain jar, the extracted jar, with
+ * Spring AOT, with AOT and the class-data-sharing archive, and as a native image when one has been built. Each
+ * launch reports the startup time Spring logs and the time from launching the process to the first authenticated
+ * `GET /api/v1/balance` answered, as the median of several launches.
+ *
+ * <p>Needs the artifacts of {@code mvn -Pfast-startup package -DskipTests} (and {@code mvn -Pnative native:compile}
+ * for the native image), then run with {@code mvn test -Pbenchmark -Dtest=StartupBenchmark -Dbench.runs=5}.
+ */
+class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started BankAccount in ([0-9.]+) seconds");
+    private static final Path TARGET = Path.of("target").toAbsolutePath();
+    private static final Path JAR = TARGET.resolve("bank-account-1.0.0.jar");
+    private static final Path EXTRACTED_JAR = TARGET.resolve("startup/application/bank-account-1.0.0.jar");
+    private static final Path CDS_ARCHIVE = TARGET.resolve("startup/application.jsa");
+    private static final Path NATIVE_IMAGE = TARGET.resolve("bank-account");
+
+    @Test
+    void benchmarkStartup() throws Exception {
+        Assumptions.assumeTrue(Files.exists(JAR), "Build the application first: mvn -Pfast-startup package -DskipTests");
+        int runs = Integer.getInteger("bench.runs", 5);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        run("jar", runs, JAR, java, "-jar", JAR.toString());
+        run("extracted", runs, EXTRACTED_JAR, java, "-jar", EXTRACTED_JAR.toString());
+        run("extracted+aot", runs, EXTRACTED_JAR, java, "-Dspring.aot.enabled=true", "-jar", EXTRACTED_JAR.toString());
+        run("extracted+aot+cds", runs, CDS_ARCHIVE, java, "-XX:SharedArchiveFile=" + CDS_ARCHIVE,
+                "-Xlog:cds=off", "-Xlog:cds+dynamic=off", "-Dspring.aot.enabled=true",
+                "-jar", EXTRACTED_JAR.toString());
+        run("native", runs, NATIVE_IMAGE, NATIVE_IMAGE.toString());
+    }
+
+    private void run(String mode, int runs, Path required, String... command) throws Exception {
+        if (!Files.exists(required)) {
+            System.out.printf("mode=%s skipped: %s not built%n", mode, required);
+            return;
+        }
+        double[] startup = new double[runs];
+        double[] firstRequest = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            double[] timings = launch(command);
+            startup[i] = timings[0];
+            firstRequest[i] = timings[1];
+        }
+        System.out.printf("mode=%s runs=%d startup=%.0fms first-request=%.0fms (min %.0fms, max %.0fms)%n",
+                mode, runs, median(startup), median(firstRequest),
+                Arrays.stream(firstRequest).min().orElse(0), Arrays.stream(firstRequest).max().orElse(0));
+    }
+
+    /**
+     * @return the startup time Spring logged and the time to the first answered request, in milliseconds
+     */
+    private double[] launch(String... command) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path workingDirectory = Files.createTempDirectory("startup-benchmark");
+        Path log = workingDirectory.resolve("application.log");
+        List<String> arguments = new ArrayList<>(List.of(command));
+        arguments.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/balance"))
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString("test:p@ssword12".getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(60);
+            while (true) {
+                if (System.nanoTime() > deadline || !process.isAlive()) {
+                    throw new IllegalStateException("Application did not start; see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(2);
+            }
+            double firstRequestMillis = (System.nanoTime() - start) / 1e6;
+            Matcher started = STARTED.matcher(Files.readString(log));
+            double startupMillis = started.find() ? Double.parseDouble(started.group(1)) * 1000 : Double.NaN;
+            return new double[]{startupMillis, firstRequestMillis};
+        } finally {
+            process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+            deleteQuietly(workingDirectory);
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void deleteQuietly(Path directory) {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // leave it for the OS to clean up
+        }
+    }
+}
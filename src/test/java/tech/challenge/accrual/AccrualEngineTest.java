@@ -0,0 +1,194 @@
+package tech.challenge.accrual;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.challenge.cluster.ClusterAccountDirectory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccrualEngineTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 31);
+    private static final Instant END_OF_DAY = Instant.parse("2026-03-31T23:59:59.999Z");
+
+    @Mock
+    private BankAccountService bankAccountService;
+
+    private final AccountTable accountTable = new AccountTable(8, 0);
+    private final AccrualPolicy policy = AccrualPolicy.ofAnnualRates(0.0365, 0.365, 5);
+    private final Map<String, Long> endOfDayBalances = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(bankAccountService.retrieveBalanceAsOf(anyString(), eq(END_OF_DAY)))
+                .thenAnswer(invocation -> endOfDayBalances.getOrDefault(invocation.<String>getArgument(0), 0L) / 100.0);
+    }
+
+    @Test
+    @DisplayName("Given accounts in every partition, then each gets its interest and fee posted with a date-derived id")
+    void testGivenAccountsThenAccrualsPosted() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            account("acc" + i, i % 10 == 0 ? -1_000_000 : 1_000_000);
+        }
+        account("empty", 0);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+
+        // When
+        AccrualResult result = new AccrualEngine(accountTable, bankAccountService, policy, null, 1.0, 16).run(DATE);
+
+        // Then
+        ArgumentCaptor<Transaction> postings = ArgumentCaptor.forClass(Transaction.class);
+        verify(bankAccountService, times(110)).submitTransaction(postings.capture());
+        Map<String, Double> byId = postings.getAllValues().stream()
+                .collect(Collectors.toMap(Transaction::getId, Transaction::getAmount));
+        assertThat(byId).containsEntry("accrual-interest:2026-03-31:acc1", 1.00)
+                .containsEntry("accrual-interest:2026-03-31:acc10", -10.00)
+                .containsEntry("accrual-fee:2026-03-31:acc10", -5.00)
+                .doesNotContainKey("accrual-fee:2026-03-31:acc1")
+                .doesNotContainKey("accrual-interest:2026-03-31:empty");
+        assertThat(result.accounts()).isEqualTo(101);
+        assertThat(result.postings()).isEqualTo(110);
+        assertThat(result.interestInPence()).isEqualTo(90 * 100 - 10 * 1_000);
+        assertThat(result.feesInPence()).isEqualTo(10 * 500);
+        assertThat(result.rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given postings already applied for the date, then they are counted as rejected")
+    void testGivenRepeatedRunThenRejectedCounted() {
+        // Given
+        account("acc1", 1_000_000);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.DUPLICATE);
+
+        // When
+        AccrualResult result = new AccrualEngine(accountTable, bankAccountService, policy, null, 0.5, 16).run(DATE);
+
+        // Then
+        assertThat(result.postings()).isZero();
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.interestInPence()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given a balance changed after midnight, then interest is accrued on the end-of-day balance")
+    void testGivenLaterPostingsThenEndOfDayBalanceAccrued() {
+        // Given
+        account("acc1", 1_000_000);
+        accountTable.replay("acc1", 9_000_000);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+
+        // When
+        AccrualResult result = new AccrualEngine(accountTable, bankAccountService, policy, null, 1.0, 16).run(DATE);
+
+        // Then
+        assertThat(result.interestInPence()).isEqualTo(100);
+        verify(bankAccountService).retrieveBalanceAsOf("acc1", END_OF_DAY);
+    }
+
+    @Test
+    @DisplayName("Given a completed date, when the run is repeated after a restart, then nothing is posted again")
+    void testGivenCompletedDateThenNotAccruedAgain(@TempDir Path directory) {
+        // Given
+        Path progressFile = directory.resolve("accrual-progress.properties");
+        account("acc1", 1_000_000);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        new AccrualEngine(accountTable, bankAccountService, policy, progressFile, 1.0, 16).run(DATE);
+
+        // When
+        AccrualResult repeated = new AccrualEngine(accountTable, bankAccountService, policy, progressFile, 1.0, 16)
+                .run(DATE);
+
+        // Then
+        assertThat(repeated.accounts()).isZero();
+        assertThat(repeated.postings()).isZero();
+        verify(bankAccountService, times(1)).submitTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given a run interrupted part way, when it is repeated, then only the unfinished partitions are posted")
+    void testGivenInterruptedRunThenResumedWithUnfinishedPartitions(@TempDir Path directory) {
+        // Given
+        Path progressFile = directory.resolve("accrual-progress.properties");
+        for (int i = 0; i < 100; i++) {
+            account("acc" + i, 1_000_000);
+        }
+        AccrualProgress progress = new AccrualProgress(progressFile);
+        for (int partition = 0; partition < 4; partition++) {
+            progress.partitionDone(DATE, partition);
+        }
+        long accountsLeft = 0;
+        for (int partition = 4; partition < accountTable.partitionCount(); partition++) {
+            long[] count = new long[1];
+            accountTable.forEachAccountId(partition, id -> count[0]++);
+            accountsLeft += count[0];
+        }
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+
+        // When
+        AccrualResult result = new AccrualEngine(accountTable, bankAccountService, policy, progressFile, 1.0, 16)
+                .run(DATE);
+
+        // Then
+        assertThat(result.accounts()).isEqualTo(accountsLeft).isLessThan(100);
+        assertThat(result.postings()).isEqualTo(accountsLeft);
+        assertThat(new AccrualProgress(progressFile).isCompleted(DATE)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Given accounts spread over cluster nodes, then every node's accounts are accrued")
+    void testGivenClusterThenEveryNodeAccrued() {
+        // Given
+        List<AccountNode> nodes = List.of(node("a"), node("b"));
+        nodes.get(0).getAccountTable().replay("acc1", 1_000_000);
+        nodes.get(1).getAccountTable().replay("acc2", 1_000_000);
+        endOfDayBalances.put("acc1", 1_000_000L);
+        endOfDayBalances.put("acc2", 1_000_000L);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+
+        // When
+        AccrualResult result = new AccrualEngine(new ClusterAccountDirectory(nodes), bankAccountService, policy, null,
+                1.0, 16).run(DATE);
+
+        // Then
+        assertThat(result.accounts()).isEqualTo(2);
+        assertThat(result.interestInPence()).isEqualTo(200);
+    }
+
+    private void account(String accountId, long endOfDayBalanceInPence) {
+        accountTable.replay(accountId, endOfDayBalanceInPence);
+        endOfDayBalances.put(accountId, endOfDayBalanceInPence);
+    }
+
+    private static AccountNode node(String nodeId) {
+        return new AccountNode(nodeId, tx -> { },
+                new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1)),
+                new AccountTable(8, 0), List.of(), (account, time) -> 0);
+    }
+}
@@ -0,0 +1,50 @@
+package tech.challenge.accrual;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccrualPolicyTest {
+
+    @Test
+    @DisplayName("Rates should round half to even in both directions")
+    void shouldRoundHalfToEven() {
+        assertThat(AccrualPolicy.applyRate(5, 100_000_000)).isZero();        // 0.5 -> 0
+        assertThat(AccrualPolicy.applyRate(15, 100_000_000)).isEqualTo(2);   // 1.5 -> 2
+        assertThat(AccrualPolicy.applyRate(-5, 100_000_000)).isZero();       // -0.5 -> 0
+        assertThat(AccrualPolicy.applyRate(-15, 100_000_000)).isEqualTo(-2); // -1.5 -> -2
+        assertThat(AccrualPolicy.applyRate(16, 100_000_000)).isEqualTo(2);   // 1.6 -> 2
+        assertThat(AccrualPolicy.applyRate(-14, 100_000_000)).isEqualTo(-1); // -1.4 -> -1
+    }
+
+    @Test
+    @DisplayName("Integer accruals should match BigDecimal for every balance, including ones too large for a long product")
+    void shouldMatchBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long balance = i % 100 == 0 ? random.nextLong() / 4 : random.nextLong() % 10_000_000_000L;
+            long rate = 1 + random.nextInt(1_000_000);
+            long expected = BigDecimal.valueOf(balance).multiply(BigDecimal.valueOf(rate))
+                    .divide(BigDecimal.valueOf(1_000_000_000L), 0, RoundingMode.HALF_EVEN).longValueExact();
+            assertThat(AccrualPolicy.applyRate(balance, rate)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Credit balances should earn interest and overdrawn ones be charged interest and the fee")
+    void shouldApplyInterestAndFees() {
+        AccrualPolicy policy = AccrualPolicy.ofAnnualRates(0.0365, 0.365, 5);
+
+        assertThat(policy.interestPerBillion()).isEqualTo(100_000);
+        assertThat(policy.interestInPence(1_000_000)).isEqualTo(100);
+        assertThat(policy.feeInPence(1_000_000)).isZero();
+        assertThat(policy.interestInPence(-1_000_000)).isEqualTo(-1_000);
+        assertThat(policy.feeInPence(-1)).isEqualTo(-500);
+        assertThat(policy.interestInPence(0)).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package tech.challenge.activity;
+
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of updating the heavy-hitter summaries per posting over a skewed stream, and of a top-K query, against
+ * a 1M TPS budget of 1 µs per posting. {@code bench.threads} splits the stream across posting threads to show
+ * how they contend for the stripes. Run with
+ * {@code mvn test -Pbenchmark -Dtest=HeavyHittersBenchmark -Dbench.accounts=1000000 -Dbench.capacity=1000}.
+ */
+class HeavyHittersBenchmark {
+
+    @Test
+    void benchmarkUpdates() throws InterruptedException {
+        int postings = Integer.getInteger("bench.postings", 5_000_000);
+        int accounts = Integer.getInteger("bench.accounts", 1_000_000);
+        int capacity = Integer.getInteger("bench.capacity", 1_000);
+        int threads = Integer.getInteger("bench.threads", 1);
+        int slots = 6;
+        String[] ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "acc" + i;
+        }
+        Transaction[] stream = new Transaction[postings];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < postings; i++) {
+            // A fifth of the postings go to 100 hot accounts, the rest spread across every account
+            String id = random.nextInt(5) == 0 ? ids[random.nextInt(100)] : ids[random.nextInt(accounts)];
+            stream[i] = Transaction.builder().id("id").accountId(id).amount(1 + random.nextInt(1_000))
+                    .timestamp(now + i / 1_000).build();
+        }
+
+        for (int round = 0; round < 2; round++) {
+            HeavyHitters heavyHitters = new HeavyHitters(Duration.ofMinutes(1), slots, capacity, 0);
+            Thread[] posters = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int from = (int) ((long) postings * t / threads);
+                int to = (int) ((long) postings * (t + 1) / threads);
+                posters[t] = new Thread(() -> {
+                    for (int i = from; i < to; i++) {
+                        Transaction tx = stream[i];
+                        heavyHitters.onPosted(tx, tx.getAccountId(), (long) (tx.getAmount() * 100), 0);
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Thread poster : posters) {
+                poster.start();
+            }
+            for (Thread poster : posters) {
+                poster.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            long queryStart = System.nanoTime();
+            TopAccounts top = heavyHitters.top(10, now + postings / 1_000);
+            long queryElapsed = System.nanoTime() - queryStart;
+            if (round > 0) {
+                System.out.printf("threads=%d accounts=%d capacity=%d  %.1f ns/posting (%,.0f postings/s)  top-10 query %.2f ms"
+                                + "  counters=%,d per stripe  top=%s%n",
+                        threads, accounts, capacity, (double) elapsed / postings, postings * 1e9 / elapsed,
+                        queryElapsed / 1e6, 2L * slots * capacity, top.byCount().get(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package tech.challenge.activity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    private static final long SLOT = 10_000;
+
+    private final HeavyHitters heavyHitters = new HeavyHitters(Duration.ofMinutes(1), 6, 16, 4);
+
+    @Test
+    @DisplayName("Given a skewed stream over many more accounts than counters, then the heavy accounts are reported with bounded error")
+    void testGivenSkewedStreamThenHeavyAccountsReported() {
+        // Given
+        Random random = new Random(7);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String account = random.nextInt(4) == 0 ? "hot" + random.nextInt(3) : "acc" + random.nextInt(5_000);
+            post(account, 1_000, 100);
+            counts.merge(account, 1L, Long::sum);
+        }
+
+        // When
+        TopAccounts top = heavyHitters.top(3, 1_000);
+
+        // Then
+        assertThat(top.byCount()).extracting(AccountActivity::accountId)
+                .containsExactlyInAnyOrder("hot0", "hot1", "hot2");
+        for (AccountActivity activity : top.byCount()) {
+            long actual = counts.get(activity.accountId());
+            assertThat(activity.estimate()).isBetween(actual, actual + activity.maxError());
+        }
+        assertThat(top.byValue()).extracting(AccountActivity::accountId)
+                .containsExactlyInAnyOrder("hot0", "hot1", "hot2");
+    }
+
+    @Test
+    @DisplayName("Given a large debit and small credits, then the top by value ranks by amount in either direction")
+    void testGivenDebitsThenRankedByAbsoluteValue() {
+        // Given
+        post("small", 1_000, 10);
+        post("small", 1_000, 10);
+        post("large", 1_000, -5_000);
+
+        // When
+        TopAccounts top = heavyHitters.top(2, 1_000);
+
+        // Then
+        assertThat(top.byCount()).containsExactly(new AccountActivity("small", 2, 0), new AccountActivity("large", 1, 0));
+        assertThat(top.byValue()).containsExactly(new AccountActivity("large", 5_000, 0), new AccountActivity("small", 20, 0));
+    }
+
+    @Test
+    @DisplayName("Given postings older than the window, then they no longer count and late postings are dropped")
+    void testGivenOldPostingsThenExpired() {
+        // Given
+        post("old", 0, 100);
+        post("new", 6 * SLOT, 100);
+
+        // When
+        TopAccounts top = heavyHitters.top(5, 6 * SLOT);
+        post("old", 0, 100);
+
+        // Then
+        assertThat(top.windowStart()).isEqualTo(SLOT);
+        assertThat(top.windowEnd()).isEqualTo(7 * SLOT);
+        assertThat(top.byCount()).extracting(AccountActivity::accountId).containsExactly("new");
+        assertThat(heavyHitters.getLatePostingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given postings from several threads, then their summaries are merged")
+    void testGivenSeveralThreadsThenMerged() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    post("shared", 1_000, 1);
+                }
+                done.countDown();
+            });
+        }
+
+        // When
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // Then
+        assertThat(heavyHitters.top(1, 1_000).byCount()).containsExactly(new AccountActivity("shared", 4_000, 0));
+    }
+
+    @Test
+    @DisplayName("Given more posting threads than stripes and queries running alongside, then no posting is lost")
+    void testGivenMoreThreadsThanStripesThenNoPostingLost() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    post("shared", 1_000, 1);
+                }
+                done.countDown();
+            });
+        }
+
+        // When
+        while (done.getCount() > 0) {
+            heavyHitters.top(1, 1_000);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(heavyHitters.top(1, 1_000).byCount()).containsExactly(new AccountActivity("shared", 80_000, 0));
+    }
+
+    @Test
+    @DisplayName("Given many short-lived threads, then their postings share the fixed stripes and are all merged")
+    void testGivenShortLivedThreadsThenStripesShared() throws InterruptedException {
+        // Given
+        for (int t = 0; t < 200; t++) {
+            Thread thread = new Thread(() -> post("shared", 1_000, 1));
+            thread.start();
+            thread.join();
+        }
+
+        // When
+        TopAccounts top = heavyHitters.top(1, 1_000);
+
+        // Then
+        assertThat(heavyHitters.getStripeCount()).isEqualTo(4);
+        assertThat(top.byCount()).containsExactly(new AccountActivity("shared", 200, 0));
+    }
+
+    private void post(String accountId, long timestamp, long amountInPence) {
+        Transaction transaction = Transaction.builder().id("id").accountId(accountId)
+                .amount(amountInPence / 100.0).timestamp(timestamp).build();
+        heavyHitters.onPosted(transaction, accountId, amountInPence, 0);
+    }
+}
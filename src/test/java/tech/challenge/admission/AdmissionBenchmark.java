@@ -0,0 +1,72 @@
+package tech.challenge.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of an admission decision per call, against a 1M TPS budget of 1 µs per transaction, for a single caller
+ * and for several threads sharing the service-wide bucket. Run with
+ * {@code mvn test -Pbenchmark -Dtest=AdmissionBenchmark -Dbench.clients=10000 -Dbench.threads=4}.
+ */
+class AdmissionBenchmark {
+
+    @Test
+    void benchmarkAdmit() throws InterruptedException {
+        int calls = Integer.getInteger("bench.calls", 10_000_000);
+        int clients = Integer.getInteger("bench.clients", 10_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        String[] ids = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            ids[i] = "client" + i;
+        }
+
+        for (int round = 0; round < 2; round++) {
+            AdmissionControl admission = new AdmissionControl(1_000, 100, 1e9, 1_000_000, Duration.ofMillis(20),
+                    clients);
+            long shed = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                if (admission.admit(ids[i % clients], System.nanoTime()) == AdmissionControl.SHED) {
+                    shed++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            AdmissionControl shared = new AdmissionControl(1_000, 100, 1e9, 1_000_000, Duration.ofMillis(20),
+                    clients);
+            AtomicLong sharedShed = new AtomicLong();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch done = new CountDownLatch(threads);
+            long sharedStart = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    long localShed = 0;
+                    for (int i = offset; i < calls; i += threads) {
+                        if (shared.admit(ids[i % clients], System.nanoTime()) == AdmissionControl.SHED) {
+                            localShed++;
+                        }
+                    }
+                    sharedShed.addAndGet(localShed);
+                    done.countDown();
+                });
+            }
+            done.await(10, TimeUnit.MINUTES);
+            long sharedElapsed = System.nanoTime() - sharedStart;
+            executor.shutdown();
+            if (round > 0) {
+                System.out.printf("clients=%d  1 thread: %.1f ns/call (%,.0f calls/s, %.1f%% shed)"
+                                + "  %d threads: %.1f ns/call (%,.0f calls/s, %.1f%% shed)%n",
+                        clients, (double) elapsed / calls, calls * 1e9 / elapsed, 100.0 * shed / calls,
+                        threads, (double) sharedElapsed / calls, calls * 1e9 / sharedElapsed,
+                        100.0 * sharedShed.get() / calls);
+            }
+        }
+    }
+}
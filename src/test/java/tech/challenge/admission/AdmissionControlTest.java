@@ -0,0 +1,157 @@
+package tech.challenge.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+
+    private static final long MILLI = 1_000_000;
+
+    @Test
+    @DisplayName("Given one client flooding and several polite ones, then the polite clients are all admitted and the flood is held to its rate")
+    void testGivenSkewedClientsThenFairShares() {
+        // Given
+        AdmissionControl admission = new AdmissionControl(100, 10, 1_000, 100, Duration.ZERO, 1_000);
+        long start = System.nanoTime();
+        Map<String, Integer> sent = new HashMap<>();
+        Map<String, Integer> admitted = new HashMap<>();
+
+        // When: over one second the hog sends 50 requests a millisecond, five others one every 20 ms
+        for (int millis = 0; millis < 1_000; millis++) {
+            long now = start + millis * MILLI;
+            for (int i = 0; i < 50; i++) {
+                offer(admission, "hog", now, sent, admitted);
+            }
+            if (millis % 20 == 0) {
+                for (int client = 0; client < 5; client++) {
+                    offer(admission, "polite" + client, now, sent, admitted);
+                }
+            }
+        }
+
+        // Then
+        for (int client = 0; client < 5; client++) {
+            assertThat(admitted.get("polite" + client)).isEqualTo(sent.get("polite" + client));
+        }
+        assertThat(sent.get("hog")).isEqualTo(50_000);
+        assertThat(admitted.get("hog")).isBetween(100, 111);
+        assertThat(admission.metrics()).filteredOn(metrics -> metrics.priority() == AdmissionPriority.NORMAL)
+                .singleElement().satisfies(metrics -> assertThat(metrics.shed()).isEqualTo(50_000 - admitted.get("hog")));
+    }
+
+    @Test
+    @DisplayName("Given the service-wide burst used up by a low priority client, then a high priority client is still admitted")
+    void testGivenLowPriorityFloodThenHighPriorityAdmitted() {
+        // Given
+        AdmissionControl admission = new AdmissionControl(1_000_000, 1_000_000, 100, 100, Duration.ZERO, 1_000);
+        long now = System.nanoTime();
+        admission.setHighPriorityClients(Set.of("payments"));
+        admission.setLowPriorityClients(Set.of("batch"));
+
+        // When
+        int batchAdmitted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (admission.admit("batch", now) != AdmissionControl.SHED) {
+                batchAdmitted++;
+            }
+        }
+        int paymentsAdmitted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (admission.admit("payments", now) != AdmissionControl.SHED) {
+                paymentsAdmitted++;
+            }
+        }
+
+        // Then: low priority draws on half the burst, leaving the other half to high priority
+        assertThat(batchAdmitted).isEqualTo(50);
+        assertThat(paymentsAdmitted).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Given a client out of tokens, then a normal priority request waits for its token and a low priority one is shed")
+    void testGivenEmptyBucketThenQueueOrShedByPriority() {
+        // Given
+        AdmissionControl admission = new AdmissionControl(100, 1, 1_000_000, 1_000_000, Duration.ofMillis(20), 1_000);
+        long now = System.nanoTime();
+        admission.setLowPriorityClients(Set.of("batch"));
+        assertThat(admission.admit("online", now)).isZero();
+        assertThat(admission.admit("batch", now)).isZero();
+
+        // When
+        long onlineWait = admission.admit("online", now);
+        long batchWait = admission.admit("batch", now);
+        long tooLongWait = admission.admit("online", now);
+
+        // Then: tokens come every 10 ms, so the second waits one interval and the third would wait two
+        assertThat(onlineWait).isEqualTo(10 * MILLI);
+        assertThat(batchWait).isEqualTo(AdmissionControl.SHED);
+        assertThat(tooLongWait).isEqualTo(20 * MILLI);
+        assertThat(admission.admit("online", now)).isEqualTo(AdmissionControl.SHED);
+    }
+
+    @Test
+    @DisplayName("Given more clients than the table holds, then the extra clients share one bucket")
+    void testGivenTooManyClientsThenOverflowBucketShared() {
+        // Given
+        AdmissionControl admission = new AdmissionControl(1, 1, 1_000_000, 1_000_000, Duration.ZERO, 2);
+        long now = System.nanoTime();
+        admission.admit("a", now);
+        admission.admit("b", now);
+
+        // When
+        long first = admission.admit("c", now);
+        long second = admission.admit("d", now);
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(AdmissionControl.SHED);
+    }
+
+    @Test
+    @DisplayName("Given many threads drawing on one client's bucket at once, then exactly its burst is admitted")
+    void testGivenConcurrentRequestsThenBurstAdmittedExactlyOnce() throws InterruptedException {
+        // Given
+        AdmissionControl admission = new AdmissionControl(0.001, 1_000, 1_000_000, 1_000_000, Duration.ZERO, 1_000);
+        long now = System.nanoTime();
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+
+        // When
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (admission.admit("client", now) != AdmissionControl.SHED) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertThat(admitted.get()).isEqualTo(1_000);
+    }
+
+    private static void offer(AdmissionControl admission, String client, long now, Map<String, Integer> sent,
+                              Map<String, Integer> admitted) {
+        sent.merge(client, 1, Integer::sum);
+        if (admission.admit(client, now) != AdmissionControl.SHED) {
+            admitted.merge(client, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package tech.challenge.audit.archive;
+
+import org.junit.jupiter.api.Test;
+import tech.challenge.audit.submission.Submission;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the archive size per batch and the encode and decode throughput, with and without block compression,
+ * against the text form the submissions are logged in.
+ * Run with {@code mvn test -Pbenchmark -Dtest=SubmissionArchiveBenchmark -Dbench.submissions=200000}.
+ */
+class SubmissionArchiveBenchmark {
+
+    @Test
+    void benchmarkArchive() throws Exception {
+        int count = Integer.getInteger("bench.submissions", 200_000);
+        int perBlock = Integer.getInteger("bench.submissions-per-block", 1_024);
+        List<Submission> submissions = SubmissionArchiveTest.randomSubmissions(count, new Random(42));
+        long batches = submissions.stream().mapToLong(s -> s.getBatches().size()).sum();
+        long textBytes = submissions.stream()
+                .mapToLong(s -> s.toString().getBytes(StandardCharsets.UTF_8).length).sum();
+        System.out.printf("text: %.1f bytes/batch%n", (double) textBytes / batches);
+
+        for (boolean compress : new boolean[] {false, true}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            try (SubmissionArchiveWriter writer = new SubmissionArchiveWriter(bytes, compress, perBlock)) {
+                for (Submission submission : submissions) {
+                    writer.write(submission);
+                }
+            }
+            long encodeNanos = System.nanoTime() - start;
+
+            byte[] archive = bytes.toByteArray();
+            long read = 0;
+            start = System.nanoTime();
+            try (SubmissionArchiveReader reader = new SubmissionArchiveReader(new ByteArrayInputStream(archive))) {
+                while (reader.hasNext()) {
+                    read += reader.next().getBatches().size();
+                }
+            }
+            long decodeNanos = System.nanoTime() - start;
+
+            System.out.printf("compress=%s: %.2f bytes/batch, encode %.0f batches/s, decode %.0f batches/s (%d read)%n",
+                    compress, (double) archive.length / batches, batches * 1e9 / encodeNanos,
+                    batches * 1e9 / decodeNanos, read);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package tech.challenge.audit.archive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.audit.submission.Batch;
+import tech.challenge.audit.submission.Submission;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubmissionArchiveTest {
+
+    @Test
+    @DisplayName("Given submissions spanning several blocks, when archived with compression, then reading gives them back in order")
+    void testRoundTripCompressed() throws IOException {
+        List<Submission> submissions = randomSubmissions(250, new Random(7));
+
+        List<Submission> read = readAll(write(submissions, true, 16));
+
+        assertThat(read).hasSize(submissions.size());
+        for (int i = 0; i < submissions.size(); i++) {
+            assertThat(read.get(i).toString()).isEqualTo(submissions.get(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Given totals that are not whole pence, when archived without compression, then they are read back exactly")
+    void testInexactTotalsRoundTrip() throws IOException {
+        Submission submission = Submission.builder().batches(List.of(
+                batch(3, 0.1 + 0.2),
+                batch(1, 12.34),
+                batch(7, -1e-9),
+                batch(Integer.MAX_VALUE, 999_999.99))).build();
+
+        List<Submission> read = readAll(write(List.of(submission), false, 4));
+
+        assertThat(read).singleElement().satisfies(copy -> {
+            for (int i = 0; i < submission.getBatches().size(); i++) {
+                Batch expected = submission.getBatches().get(i);
+                assertThat(copy.getBatches().get(i).getTransactionCount()).isEqualTo(expected.getTransactionCount());
+                assertThat(copy.getBatches().get(i).getTotalValue()).isEqualTo(expected.getTotalValue());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Given typical submissions, when archived, then each batch takes a few bytes instead of a text record")
+    void testEncodingIsCompact() throws IOException {
+        List<Submission> submissions = randomSubmissions(1_000, new Random(11));
+        long batches = submissions.stream().mapToLong(s -> s.getBatches().size()).sum();
+
+        byte[] archive = write(submissions, true, 256);
+
+        assertThat((double) archive.length / batches).isLessThan(6.0);
+    }
+
+    @Test
+    @DisplayName("Given a block damaged on disk, when read, then the checksum mismatch is reported")
+    void testCorruptedBlockIsDetected() throws IOException {
+        byte[] archive = write(randomSubmissions(10, new Random(3)), false, 10);
+        archive[archive.length - 3] ^= 0x40;
+
+        assertThatThrownBy(() -> readAll(archive))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasRootCauseMessage("Checksum mismatch in archive block");
+    }
+
+    private static byte[] write(List<Submission> submissions, boolean compress, int perBlock) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SubmissionArchiveWriter writer = new SubmissionArchiveWriter(bytes, compress, perBlock)) {
+            for (Submission submission : submissions) {
+                writer.write(submission);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Submission> readAll(byte[] archive) throws IOException {
+        List<Submission> submissions = new ArrayList<>();
+        try (SubmissionArchiveReader reader = new SubmissionArchiveReader(new ByteArrayInputStream(archive))) {
+            reader.forEachRemaining(submissions::add);
+        }
+        return submissions;
+    }
+
+    static List<Submission> randomSubmissions(int count, Random random) {
+        List<Submission> submissions = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            List<Batch> batches = new ArrayList<>();
+            for (int b = 1 + random.nextInt(10); b > 0; b--) {
+                batches.add(batch(1 + random.nextInt(100), random.nextInt(100_000_000) / 100.0));
+            }
+            submissions.add(Submission.builder().batches(batches).build());
+        }
+        return submissions;
+    }
+
+    private static Batch batch(int transactionCount, double totalValue) {
+        return Batch.builder().transactionCount(transactionCount).totalValue(totalValue).build();
+    }
+}
@@ -0,0 +1,71 @@
+package tech.challenge.audit.scoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.util.Hashing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowSketchTest {
+
+    @Test
+    @DisplayName("Estimates should never be below the true count and value of a key")
+    void shouldNeverUnderestimate() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(4, 256, 4, 1_000);
+        Random random = new Random(42);
+        Map<String, long[]> truth = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String key = "ACC" + random.nextInt(2_000);
+            long value = random.nextInt(10_000);
+            sketch.add(Hashing.hash64(key), 500, value);
+            long[] totals = truth.computeIfAbsent(key, k -> new long[2]);
+            totals[0]++;
+            totals[1] += value;
+        }
+
+        truth.forEach((key, totals) -> {
+            assertThat(sketch.estimateCount(Hashing.hash64(key))).isGreaterThanOrEqualTo(totals[0]);
+            assertThat(sketch.estimateValue(Hashing.hash64(key))).isGreaterThanOrEqualTo(totals[1]);
+        });
+    }
+
+    @Test
+    @DisplayName("Events should expire slot by slot once they fall out of the window")
+    void shouldExpireEventsOutsideTheWindow() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(4, 64, 3, 1_000);
+        long key = Hashing.hash64("ACC1");
+        sketch.add(key, 0, 10);
+        sketch.add(key, 1_000, 20);
+        sketch.add(key, 2_000, 30);
+        assertThat(sketch.estimateCount(key)).isEqualTo(3);
+        assertThat(sketch.estimateValue(key)).isEqualTo(60);
+
+        sketch.add(key, 3_000, 40);
+        assertThat(sketch.estimateCount(key)).isEqualTo(3);
+        assertThat(sketch.estimateValue(key)).isEqualTo(90);
+
+        sketch.add(Hashing.hash64("ACC2"), 10_000, 1);
+        assertThat(sketch.estimateCount(key)).isZero();
+        assertThat(sketch.estimateValue(key)).isZero();
+
+        // Late events from before the window are ignored
+        sketch.add(key, 5_000, 50);
+        assertThat(sketch.estimateCount(key)).isZero();
+    }
+
+    @Test
+    @DisplayName("Memory should depend on the sketch dimensions only")
+    void shouldUseFixedMemory() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(4, 1000, 12, 1_000);
+        long before = sketch.sizeInBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(Hashing.hash64("ACC" + i), i, 1);
+        }
+
+        assertThat(sketch.sizeInBytes()).isEqualTo(before).isEqualTo(13L * 4 * 1024 * 2 * Long.BYTES);
+    }
+}
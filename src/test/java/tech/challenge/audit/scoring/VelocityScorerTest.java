@@ -0,0 +1,44 @@
+package tech.challenge.audit.scoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityScorerTest {
+
+    private static Transaction transaction(String accountId, double amount, long timestamp) {
+        return Transaction.builder().id("id").accountId(accountId).amount(amount).timestamp(timestamp).build();
+    }
+
+    @Test
+    @DisplayName("An account making more transactions than allowed in the window should be flagged")
+    void shouldFlagAccountOverCountLimit() {
+        VelocityScorer scorer = new VelocityScorer(Duration.ofMinutes(1), 6, 4, 1024, 3, 1_000_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(scorer.score(transaction("busy", 1, i))).isFalse();
+            assertThat(scorer.score(transaction("quiet-" + i, 1, i))).isFalse();
+        }
+        assertThat(scorer.score(transaction("busy", 1, 3))).isTrue();
+        assertThat(scorer.getScoredCount()).isEqualTo(7);
+        assertThat(scorer.getFlaggedCount()).isEqualTo(1);
+
+        // Once the window has moved on the account is no longer flagged
+        assertThat(scorer.score(transaction("busy", 1, Duration.ofMinutes(2).toMillis()))).isFalse();
+    }
+
+    @Test
+    @DisplayName("An account moving more value than allowed in the window should be flagged, debits and credits alike")
+    void shouldFlagAccountOverValueLimit() {
+        VelocityScorer scorer = new VelocityScorer(Duration.ofMinutes(1), 6, 4, 1024, 1_000, 500);
+
+        assertThat(scorer.score(transaction("ACC1", 300, 0))).isFalse();
+        assertThat(scorer.score(transaction("ACC1", -200, 0))).isFalse();
+        assertThat(scorer.score(transaction("ACC1", 0.01, 0))).isTrue();
+        assertThat(scorer.score(transaction("ACC2", 499.99, 0))).isFalse();
+    }
+}
@@ -0,0 +1,49 @@
+package tech.challenge.audit.scoring;
+
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-transaction cost of velocity scoring at growing account counts, with the sketch memory that stays the same
+ * throughout. Run with {@code mvn test -Pbenchmark -Dtest=VelocityScoringBenchmark -Dbench.accounts=1000,1000000}.
+ */
+class VelocityScoringBenchmark {
+
+    @Test
+    void benchmarkScoring() {
+        int transactions = Integer.getInteger("bench.transactions", 2_000_000);
+        int width = Integer.getInteger("bench.sketch-width", 4096);
+        // Warm up so the first measured run is not paying for compilation
+        run(-1, stream(transactions, 10_000), width);
+
+        for (String count : System.getProperty("bench.accounts", "1000,100000,1000000").split(",")) {
+            int accounts = Integer.parseInt(count.trim());
+            run(accounts, stream(transactions, accounts), width);
+        }
+    }
+
+    private static void run(int accounts, Transaction[] stream, int width) {
+        VelocityScorer scorer = new VelocityScorer(Duration.ofHours(1), 12, 4, width, 1_000, 1_000_000);
+        long start = System.nanoTime();
+        for (Transaction tx : stream) {
+            scorer.score(tx);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (accounts >= 0) {
+            System.out.printf("accounts=%-8d %6.1f ns/tx  sketch=%,d bytes  flagged=%d%n", accounts,
+                    (double) elapsed / stream.length, scorer.sizeInBytes(), scorer.getFlaggedCount());
+        }
+    }
+
+    private static Transaction[] stream(int transactions, int accounts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Transaction[] stream = new Transaction[transactions];
+        for (int i = 0; i < transactions; i++) {
+            stream[i] = Transaction.credit("acc" + random.nextInt(accounts), 1 + random.nextInt(1_000));
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,150 @@
+package tech.challenge.audit.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveSubmissionControllerTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    @DisplayName("Given a slow submission, when recorded, then size and concurrency are cut by the decrease factor within bounds")
+    void testSlowSubmissionDecreasesMultiplicatively() {
+        AdaptiveSubmissionController controller = controller();
+
+        controller.onSubmissionHandled(50 * MILLIS, 0);
+        assertThat(controller.getSubmissionSize()).isEqualTo(500);
+        assertThat(controller.getConcurrency()).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onSubmissionHandled(50 * MILLIS, 0);
+        }
+        assertThat(controller.getSubmissionSize()).isEqualTo(50);
+        assertThat(controller.getConcurrency()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given fast submissions, when a backlog is waiting, then size grows by a step and concurrency by one")
+    void testFastSubmissionWithBacklogIncreasesAdditively() {
+        AdaptiveSubmissionController controller = controller();
+        controller.onSubmissionHandled(50 * MILLIS, 0);
+        controller.onSubmissionHandled(50 * MILLIS, 0);
+
+        assertThat(controller.getSubmissionSize()).isEqualTo(250);
+        assertThat(controller.getConcurrency()).isEqualTo(1);
+
+        controller.onSubmissionHandled(MILLIS, 300);
+        assertThat(controller.getSubmissionSize()).isEqualTo(300);
+        assertThat(controller.getConcurrency()).isEqualTo(2);
+
+        controller.onSubmissionHandled(MILLIS, 10_000);
+        assertThat(controller.getSubmissionSize()).isEqualTo(350);
+        assertThat(controller.getConcurrency()).isEqualTo(3);
+
+        controller.onSubmissionHandled(MILLIS, 100);
+        assertThat(controller.getSubmissionSize()).isEqualTo(350);
+        assertThat(controller.getConcurrency()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Given a handler that slows down and recovers, when simulated, then submissions shrink during the slowdown and grow back afterwards")
+    void testSimulatedSlowdownAndRecovery() {
+        AdaptiveSubmissionController controller = controller();
+        long queue = 0;
+        int minSizeDuringSlowdown = Integer.MAX_VALUE;
+        long maxQueueDuringSlowdown = 0;
+
+        // One tick is 1 ms and the handler costs 2 ms + 10 us per transaction. It is five times slower between
+        // ticks 2 000 and 4 000, after which arrivals jump from 20 to 200 transactions per tick
+        long[] busyUntil = new long[4];
+        for (long tick = 0; tick < 8_000; tick++) {
+            queue += tick < 4_000 ? 20 : 200;
+            boolean slow = tick >= 2_000 && tick < 4_000;
+            for (int worker = 0; worker < controller.getConcurrency(); worker++) {
+                int size = controller.getSubmissionSize();
+                if (busyUntil[worker] > tick || queue < size) {
+                    continue;
+                }
+                queue -= size;
+                long latencyMillis = (2 + size / 100) * (slow ? 5 : 1);
+                busyUntil[worker] = tick + latencyMillis;
+                controller.onSubmissionHandled(latencyMillis * MILLIS, (int) queue);
+            }
+            if (tick >= 2_500 && tick < 4_000) {
+                minSizeDuringSlowdown = Math.min(minSizeDuringSlowdown, controller.getSubmissionSize());
+                maxQueueDuringSlowdown = Math.max(maxQueueDuringSlowdown, queue);
+            }
+        }
+
+        assertThat(minSizeDuringSlowdown).isLessThanOrEqualTo(250);
+        assertThat(maxQueueDuringSlowdown).isLessThan(1_000);
+        assertThat(controller.getSubmissionSize()).isGreaterThan(minSizeDuringSlowdown);
+        assertThat(controller.getConcurrency()).isGreaterThan(1);
+        assertThat(queue).isLessThan(5_000);
+    }
+
+    @Test
+    @DisplayName("Given a variable-latency handler, when the audit service submits, then its submissions follow the controller")
+    void testServiceFollowsController() {
+        AtomicBoolean slow = new AtomicBoolean(true);
+        AtomicInteger largestSubmission = new AtomicInteger();
+        ScoringBasedAuditService service = new ScoringBasedAuditService(submission -> {
+            int size = submission.getBatches().stream().mapToInt(b -> b.getTransactionCount()).sum();
+            largestSubmission.accumulateAndGet(size, Math::max);
+            sleep(slow.get() ? 30 : 1);
+        }, 1000, 1_000_000.0, 4, OversizeMode.DROP);
+        service.updateSettings(service.settings()
+                .withMaxTransactionsPerSubmission(400)
+                .withMaxBatchTotalValue(1_000_000.0));
+        AdaptiveSubmissionController controller = new AdaptiveSubmissionController(10, 400, 1, 4,
+                Duration.ofMillis(10), 20, 0.5);
+        service.setAdaptiveController(controller);
+
+        for (int i = 0; i < 2_000; i++) {
+            service.processTransaction(Transaction.credit("acc", 1.0));
+        }
+        awaitUntil(() -> controller.getSubmissionSize() == 10);
+        assertThat(controller.getConcurrency()).isEqualTo(1);
+
+        slow.set(false);
+        for (int i = 0; i < 20_000; i++) {
+            service.processTransaction(Transaction.credit("acc", 1.0));
+        }
+        awaitUntil(() -> controller.getSubmissionSize() > 100);
+        // The controller keeps adjusting, so compare against a size that held across the metrics read
+        awaitUntil(() -> {
+            int before = controller.getSubmissionSize();
+            int reported = service.metrics().submissionSize();
+            return before == controller.getSubmissionSize() && reported == before;
+        });
+        assertThat(largestSubmission.get()).isLessThanOrEqualTo(400);
+    }
+
+    private static AdaptiveSubmissionController controller() {
+        return new AdaptiveSubmissionController(50, 1_000, 1, 4, Duration.ofMillis(20), 50, 0.5);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
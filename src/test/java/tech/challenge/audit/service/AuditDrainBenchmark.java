@@ -0,0 +1,59 @@
+package tech.challenge.audit.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures how long shutdown takes to audit a full queue, and how long spilling takes when the deadline is too
+ * short to audit it all.
+ * Run with {@code mvn test -Pbenchmark -Dtest=AuditDrainBenchmark -Dbench.queued=1000000 -Dbench.workers=4}.
+ */
+class AuditDrainBenchmark {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkDrain() {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int queued = Integer.getInteger("bench.queued", 1_000_000);
+        int workers = Integer.getInteger("bench.workers", 4);
+
+        measure(queued, workers, Duration.ofMinutes(1));
+        measure(queued, workers, Duration.ofMillis(Long.getLong("bench.short-deadline-ms", 100)));
+    }
+
+    private void measure(int queued, int workers, Duration deadline) {
+        Path spillFile = directory.resolve("spill-" + deadline.toMillis() + ".bin");
+        ScoringBasedAuditService service = new ScoringBasedAuditService(submission -> { }, 1000, 1_000_000.0, workers,
+                OversizeMode.DROP);
+        service.updateSettings(service.settings().withMaxBatchTotalValue(1_000_000.0));
+        ReflectionTestUtils.setField(service, "drainTimeout", deadline);
+        ReflectionTestUtils.setField(service, "spillFile", spillFile.toString());
+
+        // Queue everything without triggering submissions, then drain in submissions of 1 000
+        service.updateSettings(service.settings().withMaxTransactionsPerSubmission(Integer.MAX_VALUE));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < queued; i++) {
+            service.processTransaction(Transaction.credit("acc" + random.nextInt(10_000), random.nextInt(1, 500_000)));
+        }
+        service.updateSettings(service.settings().withMaxTransactionsPerSubmission(1_000));
+
+        long start = System.nanoTime();
+        int spilled = service.drain();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("deadline=%d ms workers=%d queued=%d drained in %d ms, spilled=%d (%d bytes)%n",
+                deadline.toMillis(), workers, queued, elapsedMillis, spilled,
+                spilled == 0 ? 0 : spillFile.toFile().length());
+    }
+}
@@ -3,16 +3,23 @@ package tech.challenge.audit.service;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import tech.challenge.audit.scoring.VelocityScorer;
 import tech.challenge.audit.submission.Batch;
 import tech.challenge.audit.submission.Submission;
 import tech.challenge.audit.submission.SubmissionHandler;
 import tech.challenge.domain.Transaction;
 import tech.challenge.exception.AuditTransactionProcessingException;
+import tech.challenge.reconcile.Reconciler;
+import tech.challenge.reconcile.ReconciliationReport;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
@@ -28,6 +35,28 @@ class ScoringBasedAuditServiceTest {
     private SubmissionHandler submissionHandler;
 
 
+    // Helper method to create a service with the default submission size, batch capacity and oversize mode
+    private ScoringBasedAuditService newService(int threadPoolSize) {
+        return new ScoringBasedAuditService(submissionHandler, 1000, 1_000_000.0, threadPoolSize, OversizeMode.DROP);
+    }
+
+    // Helper method waiting until no more than the given number of submissions are still to start
+    private static void awaitStarted(CountDownLatch started, long remaining) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (started.getCount() > remaining && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    // Helper method waiting until the queue is empty and no submission is in flight
+    private static void awaitIdle(ScoringBasedAuditService service) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while ((service.metrics().queueDepth() > 0 || service.metrics().inFlight() > 0)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
     // Helper method to create a Transaction
     private Transaction createTransaction(double amount) {
         return Transaction.builder()
@@ -42,9 +71,10 @@ class ScoringBasedAuditServiceTest {
     void shouldCreate4BatchesFor10TransactionsWithMaxValue100And1Worker() throws InterruptedException {
         // Given
         double[] transactionAmounts = {30, -40, 45, 25, -45, 65, -11, 5, 75, 25, -62, 24};
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 10);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100.0);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
 
         CountDownLatch latch = new CountDownLatch(1);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
@@ -79,9 +109,10 @@ class ScoringBasedAuditServiceTest {
     void shouldCreate4BatchesFor4TransactionsPerBatchWithMaxValue100And4Workers() throws InterruptedException {
         // Given
         double[] transactionAmounts = {12, 34, 1, 45, -4, -30, -40, 45, 25, -45, 65, -11, 5, 75, 25, -62};
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 4);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 4);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100.0);
+        ScoringBasedAuditService scoringBasedAuditService = newService(4);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(4)
+                .withMaxBatchTotalValue(100.0));
         CountDownLatch latch = new CountDownLatch(4);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
         doAnswer(invocation -> {
@@ -128,9 +159,10 @@ class ScoringBasedAuditServiceTest {
     void shouldCreate1BatchFor10TransactionsWithMaxValue5() throws InterruptedException {
         // Given
         double[] transactionAmounts = {1, 0, 1, 0, 1, 0, 1, 0, 1, 0};
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 10);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 5);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(5));
         CountDownLatch latch = new CountDownLatch(1);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
         doAnswer(invocation -> {
@@ -160,9 +192,10 @@ class ScoringBasedAuditServiceTest {
     void shouldCreateBatchForEachTransactionWhenEachTransactionEqualsMaxValue() throws InterruptedException {
         // Given
         double[] transactionAmounts = {100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100, 100};
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 20);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(20)
+                .withMaxBatchTotalValue(100));
 
         CountDownLatch latch = new CountDownLatch(1);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
@@ -194,9 +227,10 @@ class ScoringBasedAuditServiceTest {
     void testGivenSingleTransactionExceedValue_then0BatchesSubmitted() throws InterruptedException {
         // Given
         double[] transactionAmounts = {101};
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100.0);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(1)
+                .withMaxBatchTotalValue(100.0));
         CountDownLatch latch = new CountDownLatch(1);
 
         // When
@@ -210,15 +244,178 @@ class ScoringBasedAuditServiceTest {
         // Then
         assertFalse(completed, "Submission handler should not have been invoked");
         verify(submissionHandler, times(0)).handle(any(Submission.class));
+        assertEquals(1, scoringBasedAuditService.metrics().oversizeTransactions());
+    }
+
+    @Test
+    @DisplayName("Given an oversize transaction in SPLIT mode, should pack full batches and the remainder with the exact total")
+    void testGivenOversizeTransactionInSplitMode_thenSplitIntoFullBatchesAndRemainder() throws InterruptedException {
+        // Given
+        double[] transactionAmounts = {30, -250.5, 20};
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(3)
+                .withMaxBatchTotalValue(100.0)
+                .withOversizeMode(OversizeMode.SPLIT));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(any(Submission.class));
+
+        // When
+        for (double amount : transactionAmounts) {
+            scoringBasedAuditService.processTransaction(createTransaction(amount));
+        }
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Submission handler was not invoked in time");
+        List<Batch> batches = captureSubmission().getBatches();
+        assertEquals(4, batches.size());
+        assertBatch(batches.get(0), 2, 80.5);  // 30, remainder 50.5
+        assertBatch(batches.get(1), 0, 100.0); // full fragment
+        assertBatch(batches.get(2), 0, 100.0); // full fragment
+        assertBatch(batches.get(3), 1, 20.0);  // does not fit next to 80.5
+        assertEquals(300.5, batches.stream().mapToDouble(Batch::getTotalValue).sum());
+        assertEquals(3, batches.stream().mapToInt(Batch::getTransactionCount).sum());
+        assertEquals(1, scoringBasedAuditService.metrics().oversizeTransactions());
+    }
+
+    @Test
+    @DisplayName("Given an oversize transaction in LANE mode, should submit it separately after the regular submission")
+    void testGivenOversizeTransactionInLaneMode_thenSubmittedInOversizeLane() throws InterruptedException {
+        // Given
+        double[] transactionAmounts = {30, 250, 20};
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(3)
+                .withMaxBatchTotalValue(100.0)
+                .withOversizeMode(OversizeMode.LANE));
+        CountDownLatch latch = new CountDownLatch(2);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+
+        // When
+        for (double amount : transactionAmounts) {
+            scoringBasedAuditService.processTransaction(createTransaction(amount));
+        }
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Submission handler was not invoked in time");
+        List<Submission> submissions = submissionCaptor.getAllValues();
+        assertEquals(2, submissions.size());
+        assertEquals(1, submissions.get(0).getBatches().size());
+        assertBatch(submissions.get(0).getBatches().get(0), 2, 50.0);
+        assertEquals(1, submissions.get(1).getBatches().size());
+        assertBatch(submissions.get(1).getBatches().get(0), 1, 250.0);
+    }
+
+    @Test
+    @DisplayName("Given an account over its velocity limit, should submit its transactions in the priority lane at once")
+    void testGivenAccountOverVelocityLimit_thenSubmittedInPriorityLane() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        scoringBasedAuditService.setVelocityScorer(new VelocityScorer(Duration.ofHours(1), 12, 4, 1024, 2, 1_000_000));
+        CountDownLatch latch = new CountDownLatch(1);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+
+        // When
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            scoringBasedAuditService.processTransaction(Transaction.builder()
+                    .id("test-id").accountId("busy").amount(10).timestamp(now).build());
+        }
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Priority submission was not handled in time");
+        assertBatch(submissionCaptor.getValue().getBatches().get(0), 1, 10.0);
+        assertEquals(1, scoringBasedAuditService.metrics().flaggedTransactions());
+        assertEquals(2, scoringBasedAuditService.metrics().queueDepth());
+    }
+
+    @Test
+    @DisplayName("Given several flagged transactions within the priority linger, should submit them together")
+    void testGivenFlaggedTransactionsWithinLinger_thenSubmittedTogether() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        scoringBasedAuditService.setVelocityScorer(new VelocityScorer(Duration.ofHours(1), 12, 4, 1024, 2, 1_000_000));
+        ReflectionTestUtils.setField(scoringBasedAuditService, "priorityLinger", Duration.ofMillis(200));
+        CountDownLatch latch = new CountDownLatch(1);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+
+        // When
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            scoringBasedAuditService.processTransaction(Transaction.builder()
+                    .id("test-id").accountId("busy").amount(10).timestamp(now).build());
+        }
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Priority submission was not handled in time");
+        verify(submissionHandler, times(1)).handle(any());
+        assertBatch(submissionCaptor.getValue().getBatches().get(0), 3, 30.0);
+        assertEquals(3, scoringBasedAuditService.metrics().flaggedTransactions());
+        assertEquals(2, scoringBasedAuditService.metrics().queueDepth());
+    }
+
+    @Test
+    @DisplayName("Given flagged transactions reaching the priority batch size, should submit them without lingering")
+    void testGivenPriorityBatchSizeReached_thenSubmittedAtOnce() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        scoringBasedAuditService.setVelocityScorer(new VelocityScorer(Duration.ofHours(1), 12, 4, 1024, 2, 1_000_000));
+        ReflectionTestUtils.setField(scoringBasedAuditService, "priorityLinger", Duration.ofHours(1));
+        ReflectionTestUtils.setField(scoringBasedAuditService, "priorityBatchSize", 3);
+        CountDownLatch latch = new CountDownLatch(1);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            scoringBasedAuditService.processTransaction(Transaction.builder()
+                    .id("test-id").accountId("busy").amount(10).timestamp(now).build());
+        }
+        assertEquals(4, scoringBasedAuditService.metrics().queueDepth());
+
+        // When
+        scoringBasedAuditService.processTransaction(Transaction.builder()
+                .id("test-id").accountId("busy").amount(10).timestamp(now).build());
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Full priority batch was not submitted at once");
+        assertBatch(submissionCaptor.getValue().getBatches().get(0), 3, 30.0);
     }
 
     @Test
     @DisplayName("Given more transactions than allowed in queue, should submit only max transactions per submission")
     void testGivenMoreThanTransactionsInQueue_shouldSubmitOnlyMaxTransactionsPerSubmission() throws InterruptedException {
         // Given
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 1000);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100_000.0);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(1000)
+                .withMaxBatchTotalValue(100_000.0));
         CountDownLatch latch = new CountDownLatch(1);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
         doAnswer(invocation -> {
@@ -245,9 +442,10 @@ class ScoringBasedAuditServiceTest {
     @DisplayName("Given batch size 1 and max value equal to transaction amount, should submit 1 batch")
     void testGivenBatchSize1MaxValueEqualToTransactionAmount_then1BatchSubmitted() throws InterruptedException {
         // Given
-        ScoringBasedAuditService scoringBasedAuditService = new ScoringBasedAuditService(submissionHandler, 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxTransactionsPerSubmission", 1);
-        ReflectionTestUtils.setField(scoringBasedAuditService, "maxBatchTotalValue", 100.0);
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(1)
+                .withMaxBatchTotalValue(100.0));
         CountDownLatch latch = new CountDownLatch(1);
         ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
         doAnswer(invocation -> {
@@ -268,6 +466,304 @@ class ScoringBasedAuditServiceTest {
         assertEquals(100.0, submission.getBatches().get(0).getTotalValue());
     }
 
+    @Test
+    @DisplayName("Given fewer queued transactions than a submission, when drained on shutdown, should submit them")
+    void testGivenPartialQueue_whenDrained_thenSubmitted() {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(2);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        for (int i = 0; i < 25; i++) {
+            scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        }
+
+        // When
+        int spilled = scoringBasedAuditService.drain();
+
+        // Then
+        assertEquals(0, spilled);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        verify(submissionHandler, times(3)).handle(submissionCaptor.capture());
+        int audited = submissionCaptor.getAllValues().stream()
+                .flatMap(s -> s.getBatches().stream())
+                .mapToInt(Batch::getTransactionCount)
+                .sum();
+        assertEquals(25, audited);
+    }
+
+    @Test
+    @DisplayName("Given a queue short of a full submission, when it has not been drained since the last flush, should submit it")
+    void testGivenPartialQueue_whenFlushed_thenSubmitted() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        CountDownLatch latch = new CountDownLatch(1);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+        for (int i = 0; i < 3; i++) {
+            scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        }
+
+        // When
+        scoringBasedAuditService.flush();
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Partial submission was not flushed");
+        assertEquals(3, submissionCaptor.getValue().getBatches().get(0).getTransactionCount());
+        assertEquals(0, scoringBasedAuditService.metrics().queueDepth());
+    }
+
+    @Test
+    @DisplayName("Given a flush that found the queue empty, when a partial submission is queued, should submit it at the next flush")
+    void testGivenEmptyFlush_whenPartialQueued_thenSubmittedAtNextFlush() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        CountDownLatch latch = new CountDownLatch(2);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+        scoringBasedAuditService.flush();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        }
+        scoringBasedAuditService.flush();
+        awaitIdle(scoringBasedAuditService);
+        for (int i = 0; i < 2; i++) {
+            scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        }
+        scoringBasedAuditService.flush();
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Partial submissions were not flushed on consecutive ticks");
+        assertEquals(3, submissionCaptor.getAllValues().get(0).getBatches().get(0).getTransactionCount());
+        assertEquals(2, submissionCaptor.getAllValues().get(1).getBatches().get(0).getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Given a queue short of a full submission, when the submission size is lowered, should submit at once under the new size")
+    void testGivenPartialQueue_whenSubmissionSizeLowered_thenSubmittedUnderNewSettings() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        CountDownLatch latch = new CountDownLatch(1);
+        ArgumentCaptor<Submission> submissionCaptor = ArgumentCaptor.forClass(Submission.class);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(submissionCaptor.capture());
+        for (int i = 0; i < 5; i++) {
+            scoringBasedAuditService.processTransaction(createTransaction(30.0));
+        }
+
+        // When
+        AuditSettings previous = scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(5)
+                .withMaxBatchTotalValue(50.0));
+
+        // Then
+        assertEquals(10, previous.maxTransactionsPerSubmission());
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Submission was not handled after the size was lowered");
+        List<Batch> batches = submissionCaptor.getValue().getBatches();
+        assertEquals(5, batches.size());
+        batches.forEach(batch -> assertBatch(batch, 1, 30.0));
+    }
+
+    @Test
+    @DisplayName("Given one worker, when the pool is grown, should handle submissions concurrently up to the new size")
+    void testGivenOneWorker_whenPoolGrown_thenSubmissionsHandledConcurrently() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(1)
+                .withMaxBatchTotalValue(100.0));
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(submissionHandler).handle(any(Submission.class));
+        scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        awaitStarted(started, 2);
+
+        // When
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings().withThreadPoolSize(3));
+        scoringBasedAuditService.processTransaction(createTransaction(10.0));
+        // Each transaction must be picked up by its own worker before the next arrives, or one worker drains both
+        awaitStarted(started, 1);
+        scoringBasedAuditService.processTransaction(createTransaction(10.0));
+
+        // Then
+        boolean concurrent = started.await(2, TimeUnit.SECONDS);
+        assertEquals(3, scoringBasedAuditService.metrics().inFlight());
+        release.countDown();
+        assertTrue(concurrent, "Submissions were not handled concurrently after the pool was grown");
+        assertEquals(3, scoringBasedAuditService.metrics().concurrency());
+    }
+
+    @Test
+    @DisplayName("Given invalid settings, should reject them and keep the settings in force")
+    void testGivenInvalidSettings_thenRejected() {
+        ScoringBasedAuditService scoringBasedAuditService = newService(2);
+        AuditSettings current = scoringBasedAuditService.settings();
+
+        assertThrows(IllegalArgumentException.class, () -> current.withThreadPoolSize(0));
+        assertThrows(IllegalArgumentException.class, () -> current.withMaxBatchTotalValue(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> current.withThreadPoolSize(AuditSettings.MAX_THREAD_POOL_SIZE + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> current.withMaxTransactionsPerSubmission(AuditSettings.MAX_TRANSACTIONS_PER_SUBMISSION + 1));
+        assertThrows(IllegalArgumentException.class, () -> current.withMaxBatchTotalValue(0.001));
+        assertEquals(current, scoringBasedAuditService.settings());
+    }
+
+    @Test
+    @DisplayName("Given adaptive sizing, when the settings are raised, then the controller may grow up to the new maximums")
+    void testGivenAdaptiveController_whenSettingsChanged_thenControllerMaximumsFollow() {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(2);
+        AdaptiveSubmissionController controller = new AdaptiveSubmissionController(10, 1000, 1, 2,
+                Duration.ofSeconds(1), 1000, 0.5);
+        scoringBasedAuditService.setAdaptiveController(controller);
+
+        // When
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(5000)
+                .withThreadPoolSize(8));
+        for (int i = 0; i < 20; i++) {
+            controller.onSubmissionHandled(1, 1_000_000);
+        }
+
+        // Then
+        assertEquals(5000, controller.getSubmissionSize());
+        assertEquals(8, controller.getConcurrency());
+
+        // When
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(100)
+                .withThreadPoolSize(1));
+
+        // Then
+        assertEquals(100, scoringBasedAuditService.metrics().submissionSize());
+        assertEquals(1, scoringBasedAuditService.metrics().concurrency());
+    }
+
+    @Test
+    @DisplayName("Given a transaction needing too many batches in SPLIT mode, should submit it in the oversize lane")
+    void testGivenHugeTransactionInSplitMode_thenSubmittedInOversizeLane() throws InterruptedException {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(2)
+                .withMaxBatchTotalValue(0.01)
+                .withOversizeMode(OversizeMode.SPLIT));
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(any(Submission.class));
+
+        // When
+        scoringBasedAuditService.processTransaction(createTransaction(1_000_000.0));
+        scoringBasedAuditService.processTransaction(createTransaction(0.01));
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Submission handler was not invoked in time");
+        verify(submissionHandler, timeout(2000).times(2)).handle(any(Submission.class));
+        ArgumentCaptor<Submission> captor = ArgumentCaptor.forClass(Submission.class);
+        verify(submissionHandler, times(2)).handle(captor.capture());
+        assertEquals(1, captor.getAllValues().get(0).getBatches().size());
+        List<Batch> lane = captor.getAllValues().get(1).getBatches();
+        assertEquals(1, lane.size());
+        assertBatch(lane.get(0), 1, 1_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Given a reconciler, should record the transactions of handled submissions and dropped ones")
+    void testGivenReconciler_whenDrained_thenHandledTransactionsRecordedAsAudited() {
+        // Given
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(10)
+                .withMaxBatchTotalValue(100.0));
+        Reconciler reconciler = new Reconciler(64, Duration.ofSeconds(1), 8, Duration.ofSeconds(1));
+        scoringBasedAuditService.setReconciler(reconciler);
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            Transaction transaction = Transaction.builder()
+                    .id("tx" + i).accountId("acc" + i).amount(i == 5 ? 500.0 : 10.0).timestamp(timestamp).build();
+            reconciler.onPosted(transaction, transaction.getAccountId(), Math.round(transaction.getAmount() * 100), 0);
+            scoringBasedAuditService.processTransaction(transaction);
+        }
+
+        // When
+        scoringBasedAuditService.drain();
+        ReconciliationReport report = reconciler.check(timestamp + 60_000);
+
+        // Then
+        assertEquals(6, report.ledgerCount());
+        assertEquals(6, report.auditedCount());
+        assertTrue(report.isReconciled());
+    }
+
+    @Test
+    @DisplayName("Given a drain deadline that passes, should spill the leftovers and audit them after the next start")
+    void testGivenDrainDeadlinePasses_thenLeftoversSpilledAndRestored(@TempDir Path directory) throws InterruptedException {
+        // Given
+        Path spillFile = directory.resolve("spill.bin");
+        ScoringBasedAuditService scoringBasedAuditService = newService(1);
+        scoringBasedAuditService.updateSettings(scoringBasedAuditService.settings()
+                .withMaxTransactionsPerSubmission(100));
+        ReflectionTestUtils.setField(scoringBasedAuditService, "drainTimeout", Duration.ZERO);
+        ReflectionTestUtils.setField(scoringBasedAuditService, "spillFile", spillFile.toString());
+        for (int i = 0; i < 50; i++) {
+            scoringBasedAuditService.processTransaction(Transaction.credit("acc-" + i, i + 1));
+        }
+
+        // When
+        int spilled = scoringBasedAuditService.drain();
+
+        // Then
+        assertEquals(50, spilled);
+        assertTrue(Files.exists(spillFile));
+        verify(submissionHandler, times(0)).handle(any(Submission.class));
+
+        // When the next instance starts
+        ScoringBasedAuditService restarted = newService(1);
+        restarted.updateSettings(restarted.settings()
+                .withMaxTransactionsPerSubmission(50)
+                .withMaxBatchTotalValue(10_000.0));
+        ReflectionTestUtils.setField(restarted, "spillFile", spillFile.toString());
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(submissionHandler).handle(any(Submission.class));
+        restarted.restoreSpilled();
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Spilled transactions were not audited");
+        assertFalse(Files.exists(spillFile));
+        Submission submission = captureSubmission();
+        assertEquals(50, submission.getBatches().get(0).getTransactionCount());
+        assertEquals(1275.0, submission.getBatches().get(0).getTotalValue());
+    }
+
     @Test
     @DisplayName("Given queue throws InterruptedException, should rethrow custom runtime exception")
     void testGivenQueueThrowsInterruptedException_thenCustomRuntimeExceptionRethrown() throws InterruptedException {
@@ -275,7 +771,7 @@ class ScoringBasedAuditServiceTest {
         BlockingQueue<Transaction> mockQueue = mock(BlockingQueue.class);
         doThrow(new InterruptedException()).when(mockQueue).put(any());
 
-        ScoringBasedAuditService service = new ScoringBasedAuditService(submissionHandler, 1);
+        ScoringBasedAuditService service = newService(1);
         ReflectionTestUtils.setField(service, "transactionQueue", mockQueue);
 
         // When & Then
@@ -0,0 +1,222 @@
+package tech.challenge.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.audit.service.AuditService;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.PostingListener;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedBankAccountServiceTest {
+
+    private static final int PARTITIONS = 64;
+
+    private PartitionedBankAccountService cluster;
+
+    @BeforeEach
+    void setUp() {
+        cluster = new PartitionedBankAccountService(PARTITIONS, 32,
+                new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1)),
+                List.of(node("a"), node("b"), node("c")));
+    }
+
+    @Test
+    @DisplayName("Given three nodes, when accounts are posted, then every node owns partitions and serves its accounts")
+    void testPartitionsAreSpreadAcrossNodes() {
+        for (int a = 0; a < 1_000; a++) {
+            cluster.processTransaction(Transaction.credit("acc" + a, a + 1));
+        }
+
+        assertThat(cluster.partitionsOwnedBy("a") + cluster.partitionsOwnedBy("b") + cluster.partitionsOwnedBy("c"))
+                .isEqualTo(PARTITIONS);
+        assertThat(List.of("a", "b", "c")).allSatisfy(id -> assertThat(cluster.partitionsOwnedBy(id)).isPositive());
+        for (int a = 0; a < 1_000; a++) {
+            assertThat(cluster.retrieveLedgerBalance("acc" + a)).isEqualTo(a + 1);
+            assertThat(cluster.ownerOf("acc" + a).getService().retrieveLedgerBalance("acc" + a)).isEqualTo(a + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a joining node, when the cluster rebalances, then only some partitions move and balances are kept")
+    void testJoinMovesPartitionsAndKeepsBalances() {
+        for (int a = 0; a < 1_000; a++) {
+            cluster.processTransaction(Transaction.credit("acc" + a, a + 1));
+        }
+        List<String> ownersBefore = new ArrayList<>();
+        for (int a = 0; a < 1_000; a++) {
+            ownersBefore.add(cluster.ownerOf("acc" + a).getNodeId());
+        }
+
+        cluster.join(node("d"));
+
+        int moved = 0;
+        for (int a = 0; a < 1_000; a++) {
+            String owner = cluster.ownerOf("acc" + a).getNodeId();
+            if (!owner.equals(ownersBefore.get(a))) {
+                assertThat(owner).isEqualTo("d");
+                moved++;
+            }
+            assertThat(cluster.retrieveLedgerBalance("acc" + a)).isEqualTo(a + 1);
+        }
+        assertThat(cluster.partitionsOwnedBy("d")).isPositive();
+        assertThat(moved).isPositive().isLessThan(1_000);
+    }
+
+    @Test
+    @DisplayName("Given a leaving node, when the cluster rebalances, then its accounts and open holds move to the others")
+    void testLeaveMovesAccountsAndHolds() {
+        cluster.processTransaction(Transaction.credit("acc1", 100.00));
+        Optional<String> hold = cluster.placeHold("acc1", 40.00);
+        String owner = cluster.ownerOf("acc1").getNodeId();
+
+        cluster.leave(owner);
+
+        assertThat(cluster.ownerOf("acc1").getNodeId()).isNotEqualTo(owner);
+        assertThat(cluster.partitionsOwnedBy(owner)).isZero();
+        assertThat(cluster.retrieveAvailableBalance("acc1")).isEqualTo(60.00);
+        assertThat(cluster.settleHold(hold.orElseThrow())).isTrue();
+        assertThat(cluster.retrieveLedgerBalance("acc1")).isEqualTo(60.00);
+    }
+
+    @Test
+    @DisplayName("Given an applied transaction, when it is redelivered after its account moved, then it is skipped")
+    void testRedeliveryAfterJoinIsSkipped() {
+        List<Transaction> credits = new ArrayList<>();
+        for (int a = 0; a < 1_000; a++) {
+            credits.add(Transaction.credit("acc" + a, 10.00));
+        }
+        credits.forEach(cluster::processTransaction);
+        Transaction transfer = Transaction.transfer("acc0", accountOnOtherNode("acc0"), 5.00);
+        assertThat(cluster.processTransfer(transfer)).isTrue();
+
+        cluster.join(node("d"));
+        credits.forEach(cluster::processTransaction);
+        assertThat(cluster.processTransfer(transfer)).isTrue();
+
+        assertThat(cluster.retrieveLedgerBalance("acc0")).isEqualTo(5.00);
+        assertThat(cluster.retrieveLedgerBalance(transfer.getCounterpartyAccountId())).isEqualTo(5.00);
+        for (int a = 1; a < 1_000; a++) {
+            assertThat(cluster.retrieveLedgerBalance("acc" + a)).isEqualTo(10.00);
+        }
+        assertThat(cluster.validationCount(RejectionCode.DUPLICATE)).isEqualTo(1_001);
+    }
+
+    @Test
+    @DisplayName("Given a rejected debit, when it is retried with the same id, then the retry is applied")
+    void testRejectedDebitCanBeRetried() {
+        Transaction debit = Transaction.builder().id("retry-1").accountId("acc1").amount(-30.00).build();
+        assertThat(cluster.processConditionalDebit(debit)).isFalse();
+
+        cluster.processTransaction(Transaction.credit("acc1", 50.00));
+
+        assertThat(cluster.processConditionalDebit(debit)).isTrue();
+        assertThat(cluster.retrieveLedgerBalance("acc1")).isEqualTo(20.00);
+    }
+
+    @Test
+    @DisplayName("Given accounts on different nodes, when a transfer breaches the limit, then neither leg is applied")
+    void testCrossNodeTransfer() {
+        String destination = accountOnOtherNode("src");
+        cluster.processTransaction(Transaction.credit("src", 50.00));
+
+        assertThat(cluster.processTransfer(Transaction.transfer("src", destination, 30.00))).isTrue();
+        assertThat(cluster.processTransfer(Transaction.transfer("src", destination, 30.00))).isFalse();
+
+        assertThat(cluster.retrieveLedgerBalance("src")).isEqualTo(20.00);
+        assertThat(cluster.retrieveLedgerBalance(destination)).isEqualTo(30.00);
+    }
+
+    @Test
+    @DisplayName("Given accounts on different nodes, when a transfer is applied, then it is audited once with both legs")
+    void testCrossNodeTransferIsOneAuditedEvent() {
+        List<Transaction> audited = new CopyOnWriteArrayList<>();
+        List<String> legs = new CopyOnWriteArrayList<>();
+        PostingListener listener = (transaction, accountId, amountInPence, balanceInPence) ->
+                legs.add(accountId + ":" + amountInPence);
+        cluster = new PartitionedBankAccountService(PARTITIONS, 32,
+                new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1)),
+                List.of(node("a", audited::add, listener), node("b", audited::add, listener)));
+        String destination = accountOnOtherNode("src");
+        cluster.processTransaction(Transaction.credit("src", 50.00));
+        audited.clear();
+        legs.clear();
+
+        Transaction transfer = Transaction.transfer("src", destination, 30.00);
+        assertThat(cluster.processTransfer(transfer)).isTrue();
+
+        assertThat(audited).containsExactly(transfer);
+        assertThat(legs).containsExactly("src:-3000", destination + ":3000");
+        assertThat(cluster.ownerOf("src").getService().retrieveLedgerBalance("src")).isEqualTo(20.00);
+        assertThat(cluster.ownerOf(destination).getService().retrieveLedgerBalance(destination)).isEqualTo(30.00);
+    }
+
+    @Test
+    @DisplayName("Given concurrent transfers, when nodes join and leave meanwhile, then no money is created or lost")
+    void testRebalanceUnderLoadConservesMoney() throws InterruptedException {
+        int accounts = 200;
+        for (int a = 0; a < accounts; a++) {
+            cluster.processTransaction(Transaction.credit("acc" + a, 100.00));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    int from = random.nextInt(accounts);
+                    int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                    cluster.processTransfer(Transaction.transfer("acc" + from, "acc" + to, 1 + random.nextInt(50)));
+                }
+            });
+        }
+        cluster.join(node("d"));
+        cluster.leave("a");
+        cluster.join(node("e"));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        double total = 0;
+        for (int a = 0; a < accounts; a++) {
+            assertThat(cluster.retrieveLedgerBalance("acc" + a)).isGreaterThanOrEqualTo(0);
+            total += cluster.retrieveLedgerBalance("acc" + a);
+        }
+        assertThat(total).isEqualTo(accounts * 100.00);
+    }
+
+    private String accountOnOtherNode(String accountId) {
+        String owner = cluster.ownerOf(accountId).getNodeId();
+        for (int a = 0; ; a++) {
+            if (!cluster.ownerOf("dst" + a).getNodeId().equals(owner)) {
+                return "dst" + a;
+            }
+        }
+    }
+
+    static AccountNode node(String nodeId) {
+        return new AccountNode(nodeId, tx -> { },
+                new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1)),
+                new AccountTable(PARTITIONS, 0), List.of(), (account, time) -> 0);
+    }
+
+    private static AccountNode node(String nodeId, AuditService auditService, PostingListener listener) {
+        return new AccountNode(nodeId, auditService,
+                new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1)),
+                new AccountTable(PARTITIONS, 0), List.of(listener), (account, time) -> 0);
+    }
+}
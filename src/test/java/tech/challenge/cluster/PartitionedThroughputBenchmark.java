@@ -0,0 +1,86 @@
+package tech.challenge.cluster;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput benchmark for the partitioned mode: each node is driven by its own client thread, so throughput
+ * should grow close to linearly with the node count until the machine runs out of cores.
+ * Run with {@code mvn test -Pbenchmark -Dtest=PartitionedThroughputBenchmark -Dbench.nodes=1,2,4,8}.
+ */
+class PartitionedThroughputBenchmark {
+
+    private static final int PARTITIONS = 256;
+
+    @Test
+    void benchmarkScaling() throws InterruptedException {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int accounts = Integer.getInteger("bench.accounts", 100_000);
+        int postingsPerNode = Integer.getInteger("bench.postings-per-node", 1_000_000);
+        double baseline = 0;
+        for (String nodes : System.getProperty("bench.nodes", "1,2,4,8").split(",")) {
+            int nodeCount = Integer.parseInt(nodes.trim());
+            double throughput = run(nodeCount, accounts, postingsPerNode);
+            if (baseline == 0) {
+                baseline = throughput / nodeCount;
+            }
+            System.out.printf("nodes=%d throughput=%.0f postings/s scaling=%.2fx of linear%n",
+                    nodeCount, throughput, throughput / (baseline * nodeCount));
+        }
+    }
+
+    private double run(int nodeCount, int accounts, int postingsPerNode) throws InterruptedException {
+        List<AccountNode> nodes = new ArrayList<>();
+        for (int n = 0; n < nodeCount; n++) {
+            nodes.add(new AccountNode("node-" + n, tx -> { },
+                    new DuplicateTransactionDetector((long) nodeCount * postingsPerNode, 0.01, Duration.ofHours(1)),
+                    new AccountTable(PARTITIONS, 0), List.of(), (account, time) -> 0));
+        }
+        PartitionedBankAccountService cluster = new PartitionedBankAccountService(PARTITIONS, 64,
+                new DuplicateTransactionDetector((long) nodeCount * postingsPerNode, 0.01, Duration.ofHours(1)),
+                nodes);
+
+        // Give each client thread the accounts of one node, as a client co-located with its node would see
+        List<List<String>> accountsByNode = new ArrayList<>();
+        nodes.forEach(node -> accountsByNode.add(new ArrayList<>()));
+        for (int a = 0; a < accounts; a++) {
+            String accountId = "acc" + a;
+            accountsByNode.get(nodes.indexOf(cluster.ownerOf(accountId))).add(accountId);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodeCount);
+        for (List<String> local : accountsByNode) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < postingsPerNode; i++) {
+                    cluster.processTransaction(Transaction.credit(local.get(random.nextInt(local.size())), 1.00));
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        return (double) nodeCount * postingsPerNode / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,48 @@
+package tech.challenge.consumer.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Measures the per-transaction cost of duplicate detection for an hour's worth of ids.
+ * Run with {@code mvn test -Pbenchmark -Dtest=DuplicateTransactionDetectorBenchmark -Dbench.ids=10000000}.
+ */
+class DuplicateTransactionDetectorBenchmark {
+
+    @Test
+    void benchmarkDuplicateDetection() {
+        int ids = Integer.getInteger("bench.ids", 10_000_000);
+        DuplicateTransactionDetector detector =
+                new DuplicateTransactionDetector(ids, 0.01, Duration.ofHours(1));
+
+        String[] batch = new String[1_000_000];
+        long newIdNanos = 0;
+        for (int offset = 0; offset < ids; offset += batch.length) {
+            int count = Math.min(batch.length, ids - offset);
+            for (int i = 0; i < count; i++) {
+                batch[i] = UUID.randomUUID().toString();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                detector.isDuplicate(batch[i]);
+            }
+            newIdNanos += System.nanoTime() - start;
+        }
+
+        // The last batch is still inside the exact window, so every lookup is a confirmed duplicate
+        int redeliveries = Math.min(batch.length, ids);
+        long start = System.nanoTime();
+        for (int i = 0; i < redeliveries; i++) {
+            detector.isDuplicate(batch[i]);
+        }
+        long duplicateNanos = System.nanoTime() - start;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("ids=%d new-id=%.1f ns/op duplicate=%.1f ns/op detected=%d filter=%.1f MB heap-used=%.1f MB%n",
+                ids, (double) newIdNanos / ids, (double) duplicateNanos / redeliveries, detector.getDuplicateCount(),
+                detector.estimatedFilterBytes() / 1e6, (runtime.totalMemory() - runtime.freeMemory()) / 1e6);
+    }
+}
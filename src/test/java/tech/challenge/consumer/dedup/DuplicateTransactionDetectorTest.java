@@ -0,0 +1,126 @@
+package tech.challenge.consumer.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateTransactionDetectorTest {
+
+    @Test
+    @DisplayName("Given an id seen before, when checked again, then it is reported as a duplicate")
+    void testGivenRepeatedIdThenDuplicate() {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1));
+
+        // When & Then
+        assertThat(detector.isDuplicate("tx1")).isFalse();
+        assertThat(detector.isDuplicate("tx2")).isFalse();
+        assertThat(detector.isDuplicate("tx1")).isTrue();
+        assertThat(detector.getDuplicateCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given more ids than the filter generation holds, when rotated, then recent ids are still detected")
+    void testGivenFilterRotationThenRecentIdsStillDetected() {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(100, 0.01, Duration.ofHours(1));
+
+        // When
+        for (int i = 0; i < 250; i++) {
+            assertThat(detector.isDuplicate("tx" + i)).isFalse();
+        }
+
+        // Then
+        assertThat(detector.isDuplicate("tx249")).isTrue();
+        assertThat(detector.isDuplicate("tx150")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Given ids older than two generations, when redelivered, then they are accepted again")
+    void testGivenIdOlderThanWindowThenAccepted() {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(10, 0.01, Duration.ofHours(1));
+        for (int i = 0; i < 30; i++) {
+            detector.isDuplicate("tx" + i);
+        }
+
+        // When & Then
+        assertThat(detector.isDuplicate("tx0")).isFalse();
+        assertThat(detector.isDuplicate("tx29")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Given more ids than the old exact set held, when redelivered within the window, then they are still duplicates")
+    void testGivenIdWithinFilterWindowThenDuplicate() {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1));
+        for (int i = 0; i < 100_000; i++) {
+            detector.isDuplicate("tx" + i);
+        }
+
+        // When & Then
+        for (int i = 0; i < 100_000; i += 997) {
+            assertThat(detector.isDuplicate("tx" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Given a forgotten id, when it is redelivered, then it is accepted once and later ids are unaffected")
+    void testGivenForgottenIdThenAcceptedAgain() {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1));
+        for (int i = 0; i < 500; i++) {
+            detector.isDuplicate("tx" + i);
+        }
+
+        // When
+        detector.forget("tx7");
+
+        // Then
+        assertThat(detector.isDuplicate("tx7")).isFalse();
+        assertThat(detector.isDuplicate("tx7")).isTrue();
+        for (int i = 0; i < 500; i++) {
+            assertThat(detector.isDuplicate("tx" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Given concurrent deliveries of the same ids, when checked, then each id is accepted exactly once")
+    void testGivenConcurrentRedeliveriesThenEachIdAcceptedOnce() throws InterruptedException {
+        // Given
+        DuplicateTransactionDetector detector = new DuplicateTransactionDetector(100_000, 0.01, Duration.ofHours(1));
+        int threads = 4;
+        int ids = 10_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ids; i++) {
+                    if (!detector.isDuplicate("tx" + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(accepted.get()).isEqualTo(ids);
+        assertThat(detector.getDuplicateCount()).isEqualTo((long) ids * (threads - 1));
+    }
+}
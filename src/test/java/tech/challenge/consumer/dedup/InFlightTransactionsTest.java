@@ -0,0 +1,76 @@
+package tech.challenge.consumer.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightTransactionsTest {
+
+    private final InFlightTransactions inFlight = new InFlightTransactions();
+
+    @Test
+    @DisplayName("Given a delivery being processed, when the same id arrives, then it waits and gets the same outcome")
+    void testGivenConcurrentDeliveryThenWaitsForOutcome() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> inFlight.process("tx1", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(finish);
+            return false;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> inFlight.process("tx1", () -> {
+            runs.incrementAndGet();
+            return true;
+        }));
+        Thread.sleep(50);
+        finish.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given a finished delivery, when the same id arrives again, then it is processed afresh")
+    void testGivenFinishedDeliveryThenProcessedAgain() {
+        // When
+        inFlight.process("tx1", () -> false);
+        boolean retried = inFlight.process("tx1", () -> true);
+
+        // Then
+        assertThat(retried).isTrue();
+    }
+
+    @Test
+    @DisplayName("Given a delivery that fails, when the id is delivered again, then the failure does not stick")
+    void testGivenFailedDeliveryThenExceptionRethrownAndIdReleased() {
+        // When & Then
+        assertThatThrownBy(() -> inFlight.process("tx1", () -> {
+            throw new IllegalStateException("rejected");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(inFlight.process("tx1", () -> 1)).isEqualTo(1);
+        assertThat(inFlight.<Integer>process(null, () -> 2)).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package tech.challenge.consumer.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentIdSetTest {
+
+    @Test
+    @DisplayName("Given colliding ids, when the first is removed, then the one probed after it is still found")
+    void testGivenRemovedIdThenLaterProbesStillFound() {
+        // Given: a 16-slot table, so these hashes share their first slot
+        RecentIdSet ids = new RecentIdSet(4);
+        assertThat(ids.add(16)).isTrue();
+        assertThat(ids.add(32)).isTrue();
+
+        // When
+        ids.remove(16);
+
+        // Then
+        assertThat(ids.contains(16)).isFalse();
+        assertThat(ids.contains(32)).isTrue();
+        assertThat(ids.add(32)).isFalse();
+        assertThat(ids.add(16)).isTrue();
+        assertThat(ids.contains(16)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Given the hashes reserved as slot markers, then they are recorded under a substitute fingerprint")
+    void testGivenReservedHashesThenRecorded() {
+        // Given
+        RecentIdSet ids = new RecentIdSet(4);
+
+        // When & Then
+        assertThat(ids.add(0)).isTrue();
+        assertThat(ids.contains(Long.MIN_VALUE)).isTrue();
+        assertThat(ids.add(Long.MIN_VALUE)).isFalse();
+    }
+}
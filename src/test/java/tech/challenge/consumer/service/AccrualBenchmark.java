@@ -0,0 +1,95 @@
+package tech.challenge.consumer.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.accrual.AccrualEngine;
+import tech.challenge.accrual.AccrualPolicy;
+import tech.challenge.accrual.AccrualResult;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Run time of an accrual over every account at several CPU shares, and the p99 latency of live postings
+ * submitted at a steady rate meanwhile. Run with
+ * {@code mvn test -Pbenchmark -Dtest=AccrualBenchmark -Dbench.accounts=10000000 -Dbench.cpu-shares=1.0,0.5,0.25 -DargLine=-Xmx4g}.
+ */
+class AccrualBenchmark {
+
+    @Test
+    void benchmarkAccrual() throws InterruptedException {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int accounts = Integer.getInteger("bench.accounts", 10_000_000);
+        String[] shares = System.getProperty("bench.cpu-shares", "1.0,0.5,0.25").split(",");
+        AccountTable accountTable = new AccountTable(64, 0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < accounts; i++) {
+            accountTable.replay("acc" + i, random.nextLong(-1_000_000, 10_000_000));
+        }
+        BalanceTracker tracker = new BalanceTracker(tx -> { },
+                new DuplicateTransactionDetector(2L * accounts * (shares.length + 1), 0.01, Duration.ofHours(1)),
+                accountTable, List.of(), (account, time) -> accountTable.find(account).getLedgerInPence());
+        AccrualPolicy policy = AccrualPolicy.ofAnnualRates(0.02, 0.15, 0.50);
+
+        System.out.printf("baseline                        live p99 %6.1f us%n", liveP99(tracker, accounts, null));
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        for (String share : shares) {
+            AccrualEngine engine = new AccrualEngine(accountTable, tracker, policy, null,
+                    Double.parseDouble(share.trim()), 1_024);
+            LocalDate businessDate = date;
+            AccrualResult[] result = new AccrualResult[1];
+            double p99 = liveP99(tracker, accounts, () -> result[0] = engine.run(businessDate));
+            System.out.printf("cpu-share=%-4s %,d accounts in %,6d ms  live p99 %6.1f us  (%,d postings)%n",
+                    share.trim(), result[0].accounts(), result[0].elapsedMillis(), p99, result[0].postings());
+            date = date.plusDays(1);
+        }
+    }
+
+    /**
+     * Submits a live posting every 200 µs while the job runs, or for two seconds without one, and returns
+     * the 99th percentile latency in microseconds.
+     */
+    private static double liveP99(BalanceTracker tracker, int accounts, Runnable job) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] latencies = new long[1 << 20];
+        int[] count = new int[1];
+        Thread live = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long next = System.nanoTime();
+            while (running.get() && count[0] < latencies.length) {
+                next += 200_000;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                long start = System.nanoTime();
+                tracker.submitTransaction(Transaction.credit("acc" + random.nextInt(accounts), 1 + random.nextInt(100)));
+                latencies[count[0]++] = System.nanoTime() - start;
+            }
+        }, "live-ingest");
+        live.start();
+        if (job == null) {
+            Thread.sleep(2_000);
+        } else {
+            job.run();
+        }
+        running.set(false);
+        live.join();
+        long[] measured = Arrays.copyOf(latencies, count[0]);
+        Arrays.sort(measured);
+        return measured.length == 0 ? 0 : measured[(int) (measured.length * 0.99)] / 1_000.0;
+    }
+}
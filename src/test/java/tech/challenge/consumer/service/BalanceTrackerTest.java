@@ -1,14 +1,27 @@
 package tech.challenge.consumer.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tech.challenge.audit.service.AuditService;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.validation.RejectionCode;
 import tech.challenge.domain.Transaction;
 import tech.challenge.exception.InvalidTransactionException;
+import tech.challenge.history.TransactionHistoryStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -20,9 +33,19 @@ class BalanceTrackerTest {
     @Mock
     private AuditService auditService;
 
-    @InjectMocks
+    private final AccountTable accountTable = new AccountTable(16, 0);
+
+    private final TransactionHistoryStore historyStore = new TransactionHistoryStore(4);
+
     private BalanceTracker balanceTracker;
 
+    @BeforeEach
+    void setUp() {
+        balanceTracker = new BalanceTracker(auditService,
+                new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1)), accountTable,
+                List.of(historyStore), historyStore);
+    }
+
     @Test
     @DisplayName("Given a positive transaction, when processed, then balance is updated and audit service is called")
     void testGivenPositiveTransactionThenBalanceUpdatedAndAuditServiceCalled() {
@@ -115,6 +138,330 @@ class BalanceTrackerTest {
         verify(auditService, times(1)).processTransaction(tx);
     }
 
+    @Test
+    @DisplayName("Given a redelivered transaction, when processed twice, then balance and audit reflect it once")
+    void testGivenRedeliveredTransactionThenAppliedOnce() {
+        // Given
+        Transaction tx = Transaction.builder().id("tx9").amount(40.00).build();
+        Transaction redelivery = Transaction.builder().id("tx9").amount(40.00).build();
+
+        // When
+        balanceTracker.processTransaction(tx);
+        balanceTracker.processTransaction(redelivery);
+
+        // Then
+        assertThat(balanceTracker.retrieveBalance()).isEqualTo(40.00);
+        verify(auditService, times(1)).processTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given a debit beyond the overdraft limit, when processed conditionally, then it is rejected")
+    void testGivenDebitBeyondLimitThenConditionalDebitRejected() {
+        // Given
+        balanceTracker.setOverdraftLimit("acc1", 10.00);
+        balanceTracker.processTransaction(Transaction.credit("acc1", 50.00));
+
+        // When
+        boolean first = balanceTracker.processConditionalDebit(Transaction.debit("acc1", 55.00));
+        boolean second = balanceTracker.processConditionalDebit(Transaction.debit("acc1", 10.00));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(balanceTracker.retrieveLedgerBalance("acc1")).isEqualTo(-5.00);
+        verify(auditService, times(2)).processTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given a rejected conditional debit, when retried with the same id after a credit, then it is applied")
+    void testGivenRejectedDebitRetriedThenApplied() {
+        // Given
+        Transaction debit = Transaction.builder().id("tx10").accountId("acc2").amount(-20.00).build();
+        assertThat(balanceTracker.processConditionalDebit(debit)).isFalse();
+
+        // When
+        balanceTracker.processTransaction(Transaction.credit("acc2", 20.00));
+        boolean retried = balanceTracker.processConditionalDebit(debit);
+
+        // Then
+        assertThat(retried).isTrue();
+        assertThat(balanceTracker.retrieveLedgerBalance("acc2")).isEqualTo(0.00);
+    }
+
+    @Test
+    @DisplayName("Given a hold, when placed, settled and released, then available and ledger balances diverge and converge")
+    void testGivenHoldThenAvailableAndLedgerBalancesTracked() {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("acc3", 100.00));
+
+        // When
+        String settled = balanceTracker.placeHold("acc3", 30.00).orElseThrow();
+        String released = balanceTracker.placeHold("acc3", 50.00).orElseThrow();
+
+        // Then
+        assertThat(balanceTracker.placeHold("acc3", 30.00)).isEmpty();
+        assertThat(balanceTracker.retrieveAvailableBalance("acc3")).isEqualTo(20.00);
+        assertThat(balanceTracker.retrieveLedgerBalance("acc3")).isEqualTo(100.00);
+
+        assertThat(balanceTracker.settleHold(settled)).isTrue();
+        assertThat(balanceTracker.releaseHold(released)).isTrue();
+        assertThat(balanceTracker.settleHold(settled)).isFalse();
+
+        assertThat(balanceTracker.retrieveAvailableBalance("acc3")).isEqualTo(70.00);
+        assertThat(balanceTracker.retrieveLedgerBalance("acc3")).isEqualTo(70.00);
+        verify(auditService, times(2)).processTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given concurrent conditional debits, when processed, then the overdraft limit is never breached")
+    void testGivenConcurrentConditionalDebitsThenLimitNeverBreached() throws InterruptedException {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("acc4", 100.00));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger applied = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            executor.submit(() -> {
+                if (balanceTracker.processConditionalDebit(Transaction.debit("acc4", 0.30))) {
+                    applied.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(applied.get()).isEqualTo(333);
+        assertThat(balanceTracker.retrieveLedgerBalance("acc4")).isEqualTo(0.10);
+    }
+
+    @Test
+    @DisplayName("Given redeliveries racing a debit that is rejected, when processed, then none reports it applied")
+    void testGivenRacingRedeliveriesOfRejectedDebitThenAllRejected() throws InterruptedException {
+        // Given
+        Transaction debit = Transaction.builder().id("tx11").accountId("acc9").amount(-20.00).build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger applied = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            executor.submit(() -> {
+                if (balanceTracker.processConditionalDebit(debit)) {
+                    applied.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(applied.get()).isZero();
+        assertThat(balanceTracker.validationCount(RejectionCode.DUPLICATE)).isZero();
+    }
+
+    @Test
+    @DisplayName("Given concurrent conditional debits, when balances are read meanwhile, then ledger and available agree")
+    void testGivenConcurrentConditionalDebitsThenLedgerAndAvailableAgree() throws Exception {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("acc10", 1_000.00));
+        AccountBalance account = accountTable.getOrCreate("acc10");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger disagreements = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 2_000; i++) {
+            executor.submit(() -> balanceTracker.processConditionalDebit(Transaction.debit("acc10", 0.75)));
+        }
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            AccountSnapshot snapshot = account.snapshot(Map.of());
+            if (snapshot.ledgerInPence() != snapshot.availableInPence()) {
+                disagreements.incrementAndGet();
+            }
+        }
+
+        // Then
+        assertThat(disagreements.get()).isZero();
+        assertThat(balanceTracker.retrieveLedgerBalance("acc10")).isEqualTo(0.25);
+        assertThat(balanceTracker.retrieveAvailableBalance("acc10")).isEqualTo(0.25);
+    }
+
+    @Test
+    @DisplayName("Given a transfer, when processed, then funds move between accounts as one audited event")
+    void testGivenTransferThenFundsMovedAndAuditedOnce() {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("acc5", 80.00));
+        Transaction transfer = Transaction.transfer("acc5", "acc6", 30.00);
+
+        // When
+        boolean applied = balanceTracker.processTransfer(transfer);
+        boolean rejected = balanceTracker.processTransfer(Transaction.transfer("acc5", "acc6", 60.00));
+
+        // Then
+        assertThat(applied).isTrue();
+        assertThat(rejected).isFalse();
+        assertThat(balanceTracker.retrieveLedgerBalance("acc5")).isEqualTo(50.00);
+        assertThat(balanceTracker.retrieveLedgerBalance("acc6")).isEqualTo(30.00);
+        verify(auditService).processTransaction(transfer);
+    }
+
+    @Test
+    @DisplayName("Given transfers in both directions, when processed concurrently, then both legs are seen together")
+    void testGivenOpposingTransfersThenLegsAppliedTogetherWithoutDeadlock() throws Exception {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("acc11", 100.00));
+        balanceTracker.processTransaction(Transaction.credit("acc12", 100.00));
+        AccountBalance first = accountTable.getOrCreate("acc11");
+        AccountBalance second = accountTable.getOrCreate("acc12");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger torn = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 4_000; i++) {
+            boolean forward = i % 2 == 0;
+            executor.submit(() -> balanceTracker.processTransfer(forward
+                    ? Transaction.transfer("acc11", "acc12", 1.00)
+                    : Transaction.transfer("acc12", "acc11", 1.00)));
+        }
+        executor.shutdown();
+        while (!executor.isTerminated()) {
+            long[] ledgers = AccountBalance.ledgersInPence(first, second);
+            if (ledgers[0] + ledgers[1] != 20_000) {
+                torn.incrementAndGet();
+            }
+        }
+
+        // Then
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(torn.get()).isZero();
+        assertThat(balanceTracker.retrieveLedgerBalance("acc11") + balanceTracker.retrieveLedgerBalance("acc12"))
+                .isEqualTo(200.00);
+    }
+
+    @Test
+    @DisplayName("Given posting listeners, when a transfer is applied, then both legs are reported")
+    void testGivenPostingListenerThenTransferLegsReported() {
+        // Given
+        PostingListener listener = mock(PostingListener.class);
+        BalanceTracker tracker = new BalanceTracker(auditService,
+                new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1)), accountTable, List.of(listener),
+                historyStore);
+        tracker.processTransaction(Transaction.credit("acc7", 10.00));
+        Transaction transfer = Transaction.transfer("acc7", "acc8", 4.00);
+
+        // When
+        tracker.processTransfer(transfer);
+
+        // Then
+        verify(listener).onPosted(transfer, "acc7", -400, 600);
+        verify(listener).onPosted(transfer, "acc8", 400, 400);
+    }
+
+    @Test
+    @DisplayName("Given concurrent random transfers, when processed, then money is conserved and no limit is breached")
+    void testGivenConcurrentTransfersThenMoneyConserved() throws InterruptedException {
+        // Given
+        int accounts = 8;
+        for (int a = 0; a < accounts; a++) {
+            balanceTracker.processTransaction(Transaction.credit("pool" + a, 100.00));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger applied = new AtomicInteger();
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    int from = random.nextInt(accounts);
+                    int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                    double amount = random.nextInt(1, 5_000) / 100.0;
+                    if (balanceTracker.processTransfer(Transaction.transfer("pool" + from, "pool" + to, amount))) {
+                        applied.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        long totalInPence = 0;
+        for (int a = 0; a < accounts; a++) {
+            AccountBalance balance = accountTable.find("pool" + a);
+            assertThat(balance.getAvailableInPence()).isGreaterThanOrEqualTo(0);
+            assertThat(balance.getAvailableInPence()).isEqualTo(balance.getLedgerInPence());
+            totalInPence += balance.getLedgerInPence();
+        }
+        assertThat(totalInPence).isEqualTo(accounts * 10_000L);
+        verify(auditService, times(accounts + applied.get())).processTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given transfers racing debits and credits on the same accounts, when processed, then every posting lands once")
+    void testGivenTransfersRacingPostingsThenEveryPostingAppliedOnce() throws InterruptedException {
+        // Given
+        balanceTracker.processTransaction(Transaction.credit("left", 1_000.00));
+        balanceTracker.processTransaction(Transaction.credit("right", 1_000.00));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger debited = new AtomicInteger();
+
+        // When
+        for (int t = 0; t < 2; t++) {
+            boolean forward = t == 0;
+            executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    balanceTracker.processTransfer(forward
+                            ? Transaction.transfer("left", "right", 0.50)
+                            : Transaction.transfer("right", "left", 0.50));
+                }
+            });
+        }
+        executor.submit(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                balanceTracker.processTransaction(Transaction.credit(i % 2 == 0 ? "left" : "right", 0.01));
+            }
+        });
+        executor.submit(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                if (balanceTracker.processConditionalDebit(Transaction.debit(i % 2 == 0 ? "left" : "right", 0.01))) {
+                    debited.incrementAndGet();
+                }
+            }
+        });
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        AccountBalance left = accountTable.find("left");
+        AccountBalance right = accountTable.find("right");
+        assertThat(left.getAvailableInPence()).isEqualTo(left.getLedgerInPence());
+        assertThat(right.getAvailableInPence()).isEqualTo(right.getLedgerInPence());
+        assertThat(left.getLedgerInPence() + right.getLedgerInPence())
+                .isEqualTo(200_000L + 5_000L - debited.get());
+    }
+
+    @Test
+    @DisplayName("Given postings over time, when the balance is retrieved as of a point in time, then only earlier postings count")
+    void testGivenPostingsOverTimeThenBalanceAsOfCountsEarlierPostings() {
+        // Given
+        for (int i = 1; i <= 10; i++) {
+            balanceTracker.processTransaction(Transaction.builder()
+                    .id("hist" + i)
+                    .accountId("acc9")
+                    .amount(i)
+                    .timestamp(1_000L * i)
+                    .build());
+        }
+
+        // When & Then
+        assertThat(balanceTracker.retrieveBalanceAsOf("acc9", Instant.ofEpochMilli(999))).isEqualTo(0.00);
+        assertThat(balanceTracker.retrieveBalanceAsOf("acc9", Instant.ofEpochMilli(3_000))).isEqualTo(6.00);
+        assertThat(balanceTracker.retrieveBalanceAsOf("acc9", Instant.ofEpochMilli(9_500))).isEqualTo(45.00);
+        assertThat(balanceTracker.retrieveBalanceAsOf("acc9", Instant.ofEpochMilli(60_000))).isEqualTo(55.00);
+    }
+
     @Test
     @DisplayName("Given invalid transactions, when processed, then audit service is not called")
     void testGivenInvalidTransactionsThenAuditServiceNotCalled() {
@@ -127,4 +474,32 @@ class BalanceTrackerTest {
 
         verifyNoInteractions(auditService);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Given a zero amount, when processed, then an InvalidTransactionException is thrown and nothing is posted")
+    void testGivenZeroAmountThenThrowInvalidTransactionException() {
+        assertThatThrownBy(() -> balanceTracker.processTransaction(Transaction.credit("acc1", 0)))
+                .isInstanceOf(InvalidTransactionException.class)
+                .hasMessageContaining("amount is zero");
+
+        assertThat(accountTable.find("acc1")).isNull();
+        verifyNoInteractions(auditService);
+    }
+
+    @Test
+    @DisplayName("Given bad input, when submitted, then rejection codes are returned and counted without throwing")
+    void testGivenBadInputWhenSubmittedThenRejectionCodesReturned() {
+        Transaction valid = Transaction.credit("acc1", 10);
+
+        assertThat(balanceTracker.submitTransaction(valid)).isEqualTo(RejectionCode.ACCEPTED);
+        assertThat(balanceTracker.submitTransaction(valid)).isEqualTo(RejectionCode.DUPLICATE);
+        assertThat(balanceTracker.submitTransaction(Transaction.credit("acc1", Double.NaN)))
+                .isEqualTo(RejectionCode.NOT_A_NUMBER);
+        assertThat(balanceTracker.submitTransaction(null)).isEqualTo(RejectionCode.NULL_TRANSACTION);
+
+        assertThat(balanceTracker.retrieveLedgerBalance("acc1")).isEqualTo(10.00);
+        assertThat(balanceTracker.validationCount(RejectionCode.ACCEPTED)).isEqualTo(1);
+        assertThat(balanceTracker.validationCount(RejectionCode.DUPLICATE)).isEqualTo(1);
+        verify(auditService, times(1)).processTransaction(any());
+    }
+}
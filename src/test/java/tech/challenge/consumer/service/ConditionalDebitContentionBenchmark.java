@@ -0,0 +1,71 @@
+package tech.challenge.consumer.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for the CAS-based conditional debit path.
+ * Every thread debits and credits the same hot account, so all threads compete on one available balance.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ConditionalDebitContentionBenchmark -Dbench.threads=1,2,4,8}.
+ */
+class ConditionalDebitContentionBenchmark {
+
+    @Test
+    void benchmarkHotAccountContention() throws InterruptedException {
+        ((Logger) LoggerFactory.getLogger(BalanceTracker.class)).setLevel(Level.WARN);
+        int operationsPerThread = Integer.getInteger("bench.operations-per-thread", 200_000);
+
+        for (String threads : System.getProperty("bench.threads", "1,2,4,8").split(",")) {
+            run(Integer.parseInt(threads.trim()), operationsPerThread);
+        }
+    }
+
+    private void run(int threads, int operationsPerThread) throws InterruptedException {
+        BalanceTracker tracker = new BalanceTracker(tx -> { },
+                new DuplicateTransactionDetector(threads * (long) operationsPerThread, 0.01, Duration.ofHours(1)),
+                new AccountTable(64, 0), List.of(), (account, time) -> 0);
+        tracker.processTransaction(Transaction.credit("hot", 1_000.00));
+
+        LongAdder rejected = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    if ((i & 1) == 0) {
+                        if (!tracker.processConditionalDebit(Transaction.debit("hot", 1.00))) {
+                            rejected.increment();
+                        }
+                    } else {
+                        tracker.processTransaction(Transaction.credit("hot", 0.90));
+                    }
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+
+        long operations = (long) threads * operationsPerThread;
+        System.out.printf("threads=%d operations=%d throughput=%.0f ops/s rejected=%d available=%.2f ledger=%.2f%n",
+                threads, operations, operations / (elapsed / 1e9), rejected.sum(),
+                tracker.retrieveAvailableBalance("hot"), tracker.retrieveLedgerBalance("hot"));
+    }
+}
@@ -0,0 +1,76 @@
+package tech.challenge.consumer.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.replay.ReplayResult;
+import tech.challenge.replay.TrafficGenerator;
+import tech.challenge.replay.TrafficReader;
+import tech.challenge.replay.TrafficRecord;
+import tech.challenge.replay.TrafficReplayer;
+import tech.challenge.replay.TrafficWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Records a seeded stream to a capture and replays it flat out into the balance tracker, reporting the cost of
+ * capturing, the size of the capture and the replay's throughput and latency. Two replays of the same capture end
+ * on the same balances. Run with
+ * {@code mvn test -Pbenchmark -Dtest=ReplayBenchmark -Dbench.transactions=1000000 -Dbench.seed=42}.
+ */
+class ReplayBenchmark {
+
+    @Test
+    void benchmarkCaptureAndReplay() throws IOException {
+        ((Logger) LoggerFactory.getLogger(BalanceTracker.class)).setLevel(Level.WARN);
+        int transactions = Integer.getInteger("bench.transactions", 1_000_000);
+        int accounts = Integer.getInteger("bench.accounts", 10_000);
+        long seed = Long.getLong("bench.seed", 42);
+        Path file = Files.createTempFile("replay-benchmark", ".bin");
+        try {
+            long start = System.nanoTime();
+            try (TrafficWriter writer = new TrafficWriter(file)) {
+                TrafficGenerator generator = new TrafficGenerator(seed, transactions, accounts, 1_000_000);
+                TrafficRecord record;
+                while ((record = generator.next()) != null) {
+                    writer.append(record.offsetNanos(), record.kind(), record.transaction());
+                }
+            }
+            long captureNanos = System.nanoTime() - start;
+            System.out.printf("captured=%d size=%.1fMB bytes/tx=%.1f capture=%.0f ns/tx%n", transactions,
+                    Files.size(file) / 1e6, Files.size(file) / (double) transactions,
+                    captureNanos / (double) transactions);
+
+            double firstTotal = 0;
+            for (int round = 0; round < 2; round++) {
+                BalanceTracker tracker = new BalanceTracker(tx -> { },
+                        new DuplicateTransactionDetector(transactions, 0.01, Duration.ofHours(1)),
+                        new AccountTable(64, 1_000_000), List.of(), (account, time) -> 0);
+                ReplayResult result;
+                try (TrafficReader reader = new TrafficReader(file)) {
+                    result = new TrafficReplayer().replay(reader, tracker, 0);
+                }
+                double total = 0;
+                for (int a = 0; a < accounts; a++) {
+                    total += tracker.retrieveLedgerBalance("acc" + a);
+                }
+                if (round == 0) {
+                    firstTotal = total;
+                }
+                System.out.printf("round=%d replayed=%d rejected=%d throughput=%.0f tx/s p50=%.2fµs p99=%.2fµs "
+                                + "p99.9=%.2fµs max=%.2fµs total=%.2f (first round %.2f)%n",
+                        round, result.transactions(), result.rejected(), result.throughput(),
+                        result.p50Nanos() / 1e3, result.p99Nanos() / 1e3, result.p999Nanos() / 1e3,
+                        result.maxNanos() / 1e3, total, firstTotal);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
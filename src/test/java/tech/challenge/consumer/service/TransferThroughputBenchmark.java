@@ -0,0 +1,100 @@
+package tech.challenge.consumer.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for transfers over Zipf-skewed account pairs, so a few hot accounts take most of the traffic.
+ * Run with {@code mvn test -Pbenchmark -Dtest=TransferThroughputBenchmark -Dbench.threads=1,2,4,8 -Dbench.skew=1.1}.
+ */
+class TransferThroughputBenchmark {
+
+    @Test
+    void benchmarkSkewedTransfers() throws InterruptedException {
+        ((Logger) LoggerFactory.getLogger(BalanceTracker.class)).setLevel(Level.WARN);
+        int accounts = Integer.getInteger("bench.accounts", 10_000);
+        int transfersPerThread = Integer.getInteger("bench.transfers-per-thread", 200_000);
+        double skew = Double.parseDouble(System.getProperty("bench.skew", "1.1"));
+        double[] cumulative = zipfCumulative(accounts, skew);
+
+        for (String threads : System.getProperty("bench.threads", "1,2,4,8").split(",")) {
+            run(Integer.parseInt(threads.trim()), accounts, transfersPerThread, cumulative);
+        }
+    }
+
+    private void run(int threads, int accounts, int transfersPerThread, double[] cumulative) throws InterruptedException {
+        BalanceTracker tracker = new BalanceTracker(tx -> { },
+                new DuplicateTransactionDetector(threads * (long) transfersPerThread + accounts, 0.01, Duration.ofHours(1)),
+                new AccountTable(64, 0), List.of(), (account, time) -> 0);
+        for (int a = 0; a < accounts; a++) {
+            tracker.processTransaction(Transaction.credit("acc" + a, 1_000.00));
+        }
+
+        LongAdder rejected = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    int from = sample(cumulative, random.nextDouble());
+                    int to = sample(cumulative, random.nextDouble());
+                    if (to == from) {
+                        to = (from + 1) % accounts;
+                    }
+                    if (!tracker.processTransfer(Transaction.transfer("acc" + from, "acc" + to, 1 + random.nextInt(100)))) {
+                        rejected.increment();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+
+        double total = 0;
+        for (int a = 0; a < accounts; a++) {
+            total += tracker.retrieveLedgerBalance("acc" + a);
+        }
+        long transfers = (long) threads * transfersPerThread;
+        System.out.printf("threads=%d transfers=%d throughput=%.0f transfers/s rejected=%d total=%.2f (expected %.2f)%n",
+                threads, transfers, transfers / (elapsed / 1e9), rejected.sum(), total, accounts * 1_000.00);
+    }
+
+    private static double[] zipfCumulative(int accounts, double skew) {
+        double[] cumulative = new double[accounts];
+        double sum = 0;
+        for (int rank = 0; rank < accounts; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < accounts; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double uniform) {
+        int index = Arrays.binarySearch(cumulative, uniform);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
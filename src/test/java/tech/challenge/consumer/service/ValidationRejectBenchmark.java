@@ -0,0 +1,83 @@
+package tech.challenge.consumer.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.InvalidTransactionException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput of posting a stream with a share of bad transactions, rejected either as codes through
+ * {@code submitTransaction} or as exceptions through {@code processTransaction}.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ValidationRejectBenchmark -Dbench.reject-rates=0,10,50}.
+ */
+class ValidationRejectBenchmark {
+
+    @Test
+    void benchmarkRejects() {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int transactions = Integer.getInteger("bench.transactions", 2_000_000);
+        // Warm up both paths so the first measured rate is not paying for compilation
+        Transaction[] warmUp = stream(transactions, 50);
+        run(-1, "codes", warmUp, true);
+        run(-1, "exceptions", warmUp, false);
+
+        for (String rate : System.getProperty("bench.reject-rates", "0,10,50").split(",")) {
+            int rejectPercent = Integer.parseInt(rate.trim());
+            Transaction[] stream = stream(transactions, rejectPercent);
+            run(rejectPercent, "codes", stream, true);
+            run(rejectPercent, "exceptions", stream, false);
+        }
+    }
+
+    private static void run(int rejectPercent, String mode, Transaction[] stream, boolean codes) {
+        BalanceTracker tracker = new BalanceTracker(tx -> { },
+                new DuplicateTransactionDetector(stream.length, 0.01, Duration.ofHours(1)),
+                new AccountTable(64, 0), List.of(), (account, time) -> 0);
+        long rejected = 0;
+        long start = System.nanoTime();
+        for (Transaction tx : stream) {
+            if (codes) {
+                if (tracker.submitTransaction(tx) != RejectionCode.ACCEPTED) {
+                    rejected++;
+                }
+            } else {
+                try {
+                    tracker.processTransaction(tx);
+                } catch (InvalidTransactionException e) {
+                    rejected++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (rejectPercent >= 0) {
+            System.out.printf("rejects=%d%% %-10s %,.0f tx/s (%d rejected)%n", rejectPercent, mode,
+                    stream.length * 1e9 / elapsed, rejected);
+        }
+    }
+
+    private static Transaction[] stream(int transactions, int rejectPercent) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Transaction[] stream = new Transaction[transactions];
+        for (int i = 0; i < transactions; i++) {
+            String account = "acc" + random.nextInt(10_000);
+            if (random.nextInt(100) >= rejectPercent) {
+                stream[i] = Transaction.credit(account, 1 + random.nextInt(1_000));
+            } else {
+                stream[i] = switch (random.nextInt(3)) {
+                    case 0 -> Transaction.credit(account, 0);
+                    case 1 -> Transaction.credit(account, Double.NaN);
+                    default -> null;
+                };
+            }
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,65 @@
+package tech.challenge.consumer.validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionValidatorTest {
+
+    private TransactionValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new TransactionValidator(new DuplicateTransactionDetector(1_000, 0.01, Duration.ofHours(1)));
+        validator.setMaxAmount(1_000);
+    }
+
+    @Test
+    @DisplayName("Given malformed transactions, when validated, then each is rejected with its own code")
+    void testMalformedTransactionsAreRejectedWithCodes() {
+        assertThat(validator.validate(null)).isEqualTo(RejectionCode.NULL_TRANSACTION);
+        assertThat(validator.validate(Transaction.builder().id("a").accountId(null).amount(1).build()))
+                .isEqualTo(RejectionCode.NULL_ACCOUNT);
+        assertThat(validator.validate(Transaction.credit(Double.NaN))).isEqualTo(RejectionCode.NOT_A_NUMBER);
+        assertThat(validator.validate(Transaction.credit(0))).isEqualTo(RejectionCode.ZERO_AMOUNT);
+        assertThat(validator.validate(Transaction.debit(1_000.01))).isEqualTo(RejectionCode.OUT_OF_RANGE);
+        assertThat(validator.validate(Transaction.credit(Double.POSITIVE_INFINITY))).isEqualTo(RejectionCode.OUT_OF_RANGE);
+        assertThat(validator.validate(Transaction.builder().id("x".repeat(129)).accountId("acc").amount(1).build()))
+                .isEqualTo(RejectionCode.ID_TOO_LONG);
+        assertThat(validator.validate(Transaction.builder().id("\u00e9".repeat(65)).accountId("acc").amount(1).build()))
+                .isEqualTo(RejectionCode.ID_TOO_LONG);
+        assertThat(validator.validate(Transaction.debit(1_000))).isEqualTo(RejectionCode.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Given a rejected transaction, when corrected and resent with the same id, then it is accepted once")
+    void testDuplicateCheckOnlyRecordsValidTransactions() {
+        Transaction zero = Transaction.builder().id("tx-1").amount(0).build();
+        Transaction corrected = Transaction.builder().id("tx-1").amount(5).build();
+
+        assertThat(validator.validate(zero)).isEqualTo(RejectionCode.ZERO_AMOUNT);
+        assertThat(validator.validate(corrected)).isEqualTo(RejectionCode.ACCEPTED);
+        assertThat(validator.validate(corrected)).isEqualTo(RejectionCode.DUPLICATE);
+    }
+
+    @Test
+    @DisplayName("Given a mix of outcomes, when validated, then every outcome is counted")
+    void testOutcomesAreCounted() {
+        for (int i = 0; i < 3; i++) {
+            validator.validate(Transaction.credit(0));
+        }
+        validator.validate(null);
+        validator.validate(Transaction.credit(1));
+
+        assertThat(validator.count(RejectionCode.ZERO_AMOUNT)).isEqualTo(3);
+        assertThat(validator.count(RejectionCode.NULL_TRANSACTION)).isEqualTo(1);
+        assertThat(validator.count(RejectionCode.ACCEPTED)).isEqualTo(1);
+        assertThat(validator.count(RejectionCode.DUPLICATE)).isZero();
+    }
+}
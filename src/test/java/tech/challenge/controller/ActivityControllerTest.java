@@ -0,0 +1,98 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.challenge.activity.AccountActivity;
+import tech.challenge.activity.HeavyHitters;
+import tech.challenge.activity.TopAccounts;
+import tech.challenge.exception.GlobalExceptionHandler;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private HeavyHitters heavyHitters;
+
+    @InjectMocks
+    private ActivityController activityController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(activityController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Given tracked activity, when the endpoint is called, then the top accounts by count and value are returned")
+    void testGetTopAccounts() throws Exception {
+        // Given
+        when(heavyHitters.getCapacity()).thenReturn(100);
+        when(heavyHitters.top(eq(2), anyLong())).thenReturn(new TopAccounts(0, 60_000,
+                List.of(new AccountActivity("acc1", 120, 3), new AccountActivity("acc2", 80, 0)),
+                List.of(new AccountActivity("acc2", 1_250_050, 0))));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/top").param("k", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byCount[0].accountId").value("acc1"))
+                .andExpect(jsonPath("$.byCount[0].count").value(120))
+                .andExpect(jsonPath("$.byCount[0].maxError").value(3))
+                .andExpect(jsonPath("$.byCount[1].accountId").value("acc2"))
+                .andExpect(jsonPath("$.byValue[0].accountId").value("acc2"))
+                .andExpect(jsonPath("$.byValue[0].value").value("12500.50"))
+                .andExpect(jsonPath("$.byValue[0].maxError").value("0.00"));
+    }
+
+    @Test
+    @DisplayName("Given k above the tracker's capacity, when the endpoint is called, then k is capped")
+    void testGetTopAccountsCapsK() throws Exception {
+        // Given
+        when(heavyHitters.getCapacity()).thenReturn(5);
+        when(heavyHitters.top(eq(5), anyLong())).thenReturn(new TopAccounts(0, 60_000, List.of(), List.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/top").param("k", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byCount").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given a default locale with a decimal comma, when the endpoint is called, then values use a point")
+    void testGetTopAccountsIgnoresLocale() throws Exception {
+        // Given
+        when(heavyHitters.getCapacity()).thenReturn(100);
+        when(heavyHitters.top(eq(1), anyLong())).thenReturn(new TopAccounts(0, 60_000, List.of(),
+                List.of(new AccountActivity("acc2", 1_250_050, 5))));
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+
+        // When & Then
+        try {
+            mockMvc.perform(get("/api/v1/accounts/top").param("k", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.byValue[0].value").value("12500.50"))
+                    .andExpect(jsonPath("$.byValue[0].maxError").value("0.05"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.challenge.audit.service.AuditMetricsProvider;
+import tech.challenge.audit.service.AuditSettings;
+import tech.challenge.audit.service.AuditSettingsProvider;
+import tech.challenge.audit.service.OversizeMode;
+import tech.challenge.exception.GlobalExceptionHandler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditControllerTest {
+
+    private static final AuditSettings SETTINGS = new AuditSettings(1000, 1_000_000.0, 4, OversizeMode.DROP);
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private AuditMetricsProvider auditMetricsProvider;
+
+    @Mock
+    private AuditSettingsProvider auditSettingsProvider;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuditController(auditMetricsProvider, auditSettingsProvider))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Given audit settings in force, when they are requested, then they are returned")
+    void testGetSettings() throws Exception {
+        // Given
+        when(auditSettingsProvider.settings()).thenReturn(SETTINGS);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/audit/settings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxTransactionsPerSubmission").value(1000))
+                .andExpect(jsonPath("$.threadPoolSize").value(4))
+                .andExpect(jsonPath("$.oversizeMode").value("DROP"));
+    }
+
+    @Test
+    @DisplayName("Given a partial change, when it is applied, then only the given settings change")
+    void testUpdateSettingsPartially() throws Exception {
+        // Given
+        when(auditSettingsProvider.settings()).thenReturn(SETTINGS);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/audit/settings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"threadPoolSize\":8,\"oversizeMode\":\"LANE\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxTransactionsPerSubmission").value(1000))
+                .andExpect(jsonPath("$.threadPoolSize").value(8))
+                .andExpect(jsonPath("$.oversizeMode").value("LANE"));
+
+        verify(auditSettingsProvider).updateSettings(new AuditSettings(1000, 1_000_000.0, 8, OversizeMode.LANE));
+    }
+
+    @Test
+    @DisplayName("Given an invalid change, when it is applied, then 400 is returned and the settings are kept")
+    void testUpdateSettingsInvalid() throws Exception {
+        // Given
+        when(auditSettingsProvider.settings()).thenReturn(SETTINGS);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/audit/settings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"maxTransactionsPerSubmission\":0}"))
+                .andExpect(status().isBadRequest());
+
+        verify(auditSettingsProvider, never()).updateSettings(any());
+    }
+
+    @Test
+    @DisplayName("Given a thread pool above the upper bound, when it is applied, then 400 is returned")
+    void testUpdateSettingsAboveUpperBound() throws Exception {
+        // Given
+        when(auditSettingsProvider.settings()).thenReturn(SETTINGS);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/audit/settings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"threadPoolSize\":100000}"))
+                .andExpect(status().isBadRequest());
+
+        verify(auditSettingsProvider, never()).updateSettings(any());
+    }
+
+    @Test
+    @DisplayName("Given the settings endpoint, then changing the settings requires the ADMIN role")
+    void testUpdateSettingsRequiresAdmin() throws Exception {
+        PreAuthorize preAuthorize = AuditController.class
+                .getMethod("updateSettings", AuditSettingsRequest.class)
+                .getAnnotation(PreAuthorize.class);
+
+        assertThat(preAuthorize).isNotNull();
+        assertThat(preAuthorize.value()).isEqualTo("hasRole('ADMIN')");
+    }
+}
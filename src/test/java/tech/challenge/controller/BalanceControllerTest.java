@@ -12,6 +12,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import tech.challenge.consumer.service.BankAccountService;
 import tech.challenge.exception.GlobalExceptionHandler;
+import tech.challenge.journal.ReplicationStatus;
+
+import java.time.Instant;
+import java.util.Locale;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -67,4 +71,65 @@ class BalanceControllerTest {
 
         verify(bankAccountService, times(1)).retrieveBalance();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Given a point in time, when the account balance endpoint is called, then the historical ledger balance is returned")
+    void testGetAccountBalanceAsOf() throws Exception {
+        // Given
+        Instant asOf = Instant.parse("2025-01-01T00:00:00Z");
+        when(bankAccountService.retrieveBalanceAsOf("acc1", asOf)).thenReturn(42.5);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/acc1/balance").param("asOf", "2025-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("acc1"))
+                .andExpect(jsonPath("$.ledgerBalance").value("42.50"))
+                .andExpect(jsonPath("$.availableBalance").doesNotExist());
+
+        verify(bankAccountService, never()).retrieveLedgerBalance(any());
+    }
+
+    @Test
+    @DisplayName("Given a default locale with a decimal comma, when the account balance endpoint is called, then amounts use a point")
+    void testGetAccountBalanceIgnoresLocale() throws Exception {
+        // Given
+        Instant asOf = Instant.parse("2025-01-01T00:00:00Z");
+        when(bankAccountService.retrieveBalanceAsOf("acc1", asOf)).thenReturn(-1234.5);
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+
+        // When & Then
+        try {
+            mockMvc.perform(get("/api/v1/accounts/acc1/balance").param("asOf", "2025-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.ledgerBalance").value("-1234.50"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a replica behind the requested sequence, when the balance endpoint is called, then it returns 503 with its replication state")
+    void testGetBalanceReadYourWrites() throws Exception {
+        // Given
+        ReplicationStatus replicationStatus = mock(ReplicationStatus.class);
+        balanceController.setReplicationStatus(replicationStatus);
+        when(replicationStatus.awaitSequence(eq(10L), any())).thenReturn(false);
+        when(replicationStatus.awaitSequence(eq(5L), any())).thenReturn(true);
+        when(replicationStatus.appliedSequence()).thenReturn(7L);
+        when(replicationStatus.lagMillis()).thenReturn(12L);
+        when(bankAccountService.retrieveBalance()).thenReturn(10.0);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/balance").param("minSequence", "10"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("X-Journal-Sequence", "7"))
+                .andExpect(header().string("X-Replication-Lag-Ms", "12"));
+        mockMvc.perform(get("/api/v1/balance").param("minSequence", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Journal-Sequence", "7"))
+                .andExpect(jsonPath("$.availableBalance").value("10.00"));
+
+        verify(bankAccountService, times(1)).retrieveBalance();
+    }
+}
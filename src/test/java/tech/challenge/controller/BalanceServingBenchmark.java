@@ -0,0 +1,132 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tech.challenge.TestConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection-scaling benchmark for `GET /api/v1/balance`.
+ * Opens the configured number of concurrent clients against a locally started application and reports
+ * throughput and latency percentiles for each client count.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=BalanceServingBenchmark -Dapi.serving.mode=virtual}.
+ * Client counts are set with {@code -Dbench.clients=1000,10000,50000}; large counts need a raised
+ * open-file limit ({@code ulimit -n}) on both sides of the socket.
+ */
+@SpringBootTest(classes = {TestConfig.class, BalanceServingBenchmark.CheapPasswordConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"api.serving.max-connections=65536", "spring.main.allow-bean-definition-overriding=true"})
+class BalanceServingBenchmark {
+
+    /**
+     * BCrypt at the default strength costs tens of milliseconds per request and would hide the serving layer
+     * behind password hashing, so the benchmark authenticates against the minimum strength instead.
+     */
+    @TestConfiguration
+    static class CheapPasswordConfig {
+
+        @Bean
+        public PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("test:p@ssword12".getBytes(StandardCharsets.UTF_8));
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void benchmarkConcurrentClients() {
+        int[] clientCounts = Arrays.stream(System.getProperty("bench.clients", "1000,10000,50000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int requestsPerClient = Integer.getInteger("bench.requests-per-client", 1);
+
+        System.out.printf("Serving mode %s, %d request(s) per client%n",
+                System.getProperty("api.serving.mode", "platform"), requestsPerClient);
+        for (int clients : clientCounts) {
+            run(clients, requestsPerClient);
+        }
+    }
+
+    private void run(int clients, int requestsPerClient) {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(clientExecutor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/balance"))
+                .header("Authorization", AUTHORIZATION)
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            futures[c] = sendSequentially(httpClient, request, requestsPerClient, latencies, completed, failures);
+        }
+        CompletableFuture.allOf(futures).join();
+        long elapsed = System.nanoTime() - start;
+        clientExecutor.shutdownNow();
+
+        int samples = completed.get();
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        System.out.printf("clients=%d requests=%d failures=%d elapsed=%.2fs throughput=%.0f req/s p50=%.2fms p99=%.2fms max=%.2fms%n",
+                clients, samples, failures.get(), elapsed / 1e9, samples / (elapsed / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private CompletableFuture<Void> sendSequentially(HttpClient httpClient, HttpRequest request, int remaining,
+                                                     long[] latencies, AtomicInteger completed, AtomicInteger failures) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sent = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, throwable) -> {
+                    if (throwable != null || response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    } else {
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - sent;
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> sendSequentially(httpClient, request, remaining - 1, latencies, completed, failures));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
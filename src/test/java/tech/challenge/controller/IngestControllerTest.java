@@ -0,0 +1,188 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.challenge.admission.AdmissionControl;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.GlobalExceptionHandler;
+import tech.challenge.journal.ReplicationStatus;
+
+import java.security.Principal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BankAccountService bankAccountService;
+
+    private final Principal client = () -> "client-a";
+
+    @BeforeEach
+    void setUp() {
+        IngestController ingestController = new IngestController(bankAccountService);
+        ingestController.setAdmissionControl(new AdmissionControl(1, 2, 1_000, 1_000, Duration.ZERO, 100));
+        mockMvc = MockMvcBuilders.standaloneSetup(ingestController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Given a valid credit, when it is posted, then it is submitted and accepted")
+    void testGivenCreditThenAccepted() throws Exception {
+        // Given
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"tx1\",\"accountId\":\"acc1\",\"amount\":12.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value("tx1"))
+                .andExpect(jsonPath("$.outcome").value("accepted"));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(bankAccountService).submitTransaction(captor.capture());
+        assertThat(captor.getValue().getAccountId()).isEqualTo("acc1");
+        assertThat(captor.getValue().getAmount()).isEqualTo(12.5);
+    }
+
+    @Test
+    @DisplayName("Given a rejected transaction, when it is posted, then 422 is returned with the reason")
+    void testGivenRejectedTransactionThenUnprocessable() throws Exception {
+        // Given
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ZERO_AMOUNT);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":0}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.outcome").value("amount is zero"));
+    }
+
+    @Test
+    @DisplayName("Given a transaction already applied, when it is posted again, then 200 is returned with its outcome")
+    void testGivenDuplicateThenOk() throws Exception {
+        // Given
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.DUPLICATE);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"tx1\",\"accountId\":\"acc1\",\"amount\":12.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value("tx1"))
+                .andExpect(jsonPath("$.outcome").value("transaction id was already processed"));
+    }
+
+    @Test
+    @DisplayName("Given journaled postings, when a transaction is applied, then the response carries the journal sequence and a rejection does not")
+    void testGivenJournalThenSequenceReturned() throws Exception {
+        // Given
+        ReplicationStatus replicationStatus = mock(ReplicationStatus.class);
+        when(replicationStatus.appliedSequence()).thenReturn(42L);
+        IngestController ingestController = new IngestController(bankAccountService);
+        ingestController.setReplicationStatus(replicationStatus);
+        MockMvc journaled = MockMvcBuilders.standaloneSetup(ingestController).build();
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED, RejectionCode.ZERO_AMOUNT);
+
+        // When & Then
+        journaled.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":12.5}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BalanceController.SEQUENCE_HEADER, "42"));
+        journaled.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":0}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(BalanceController.SEQUENCE_HEADER));
+    }
+
+    @Test
+    @DisplayName("Given a client over its rate, when it posts again, then 429 is returned without reaching the service")
+    void testGivenClientOverRateThenTooManyRequests() throws Exception {
+        // Given
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/transactions").principal(client)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"accountId\":\"acc1\",\"amount\":1}"))
+                    .andExpect(status().isOk());
+        }
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":1}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        mockMvc.perform(post("/api/v1/transactions").principal(() -> "client-b")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":1}"))
+                .andExpect(status().isOk());
+
+        verify(bankAccountService, times(3)).submitTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given a client out of tokens with a queue delay configured, when it posts, then 429 is returned without waiting")
+    void testGivenClientOutOfTokensThenShedWithoutWaiting() throws Exception {
+        // Given
+        IngestController ingestController = new IngestController(bankAccountService);
+        ingestController.setAdmissionControl(new AdmissionControl(1, 1, 1_000, 1_000, Duration.ofSeconds(5), 100));
+        MockMvc waitingMockMvc = MockMvcBuilders.standaloneSetup(ingestController).build();
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        waitingMockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":1}"))
+                .andExpect(status().isOk());
+
+        // When
+        long started = System.nanoTime();
+        waitingMockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"amount\":1}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(500));
+        verify(bankAccountService, times(1)).submitTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Given a counterparty, when the transaction is posted, then it is processed as a transfer")
+    void testGivenCounterpartyThenTransfer() throws Exception {
+        // Given
+        when(bankAccountService.processTransfer(any())).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions").principal(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":\"acc1\",\"counterpartyAccountId\":\"acc2\",\"amount\":-5}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.outcome").value("overdraft limit reached"));
+
+        verify(bankAccountService, never()).submitTransaction(any());
+    }
+}
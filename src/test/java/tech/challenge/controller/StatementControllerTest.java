@@ -0,0 +1,141 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.challenge.exception.GlobalExceptionHandler;
+import tech.challenge.statement.WindowAggregate;
+import tech.challenge.statement.WindowGranularity;
+import tech.challenge.statement.WindowedAggregates;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementControllerTest {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private WindowedAggregates windowedAggregates;
+
+    @InjectMocks
+    private StatementController statementController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(statementController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Given a granularity and a time range, when the endpoint is called, then those windows are returned")
+    void testGetStatementForRange() throws Exception {
+        // Given
+        when(windowedAggregates.statement("acc1", WindowGranularity.DAILY, 0, 2 * DAY)).thenReturn(List.of(
+                new WindowAggregate(0, DAY, 2_500, -1_050, 3, -1_050, 2_000)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/acc1/statement")
+                        .param("granularity", "DAILY")
+                        .param("from", "1970-01-01T00:00:00Z")
+                        .param("to", "1970-01-03T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("acc1"))
+                .andExpect(jsonPath("$.granularity").value("DAILY"))
+                .andExpect(jsonPath("$.windows[0].credits").value("25.00"))
+                .andExpect(jsonPath("$.windows[0].debits").value("-10.50"))
+                .andExpect(jsonPath("$.windows[0].count").value(3))
+                .andExpect(jsonPath("$.windows[0].min").value("-10.50"))
+                .andExpect(jsonPath("$.windows[0].max").value("20.00"));
+    }
+
+    @Test
+    @DisplayName("Given no parameters, when the endpoint is called, then the last 24 hourly windows up to now are read")
+    void testGetStatementDefaultsToLastHourlyWindows() throws Exception {
+        // Given
+        when(windowedAggregates.statement(eq("acc1"), eq(WindowGranularity.HOURLY), anyLong(), anyLong()))
+                .thenReturn(List.of());
+        long before = System.currentTimeMillis();
+
+        // When
+        mockMvc.perform(get("/api/v1/accounts/acc1/statement"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("HOURLY"));
+
+        // Then
+        ArgumentCaptor<Long> from = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> to = ArgumentCaptor.forClass(Long.class);
+        verify(windowedAggregates).statement(eq("acc1"), eq(WindowGranularity.HOURLY), from.capture(), to.capture());
+        assertThat(to.getValue()).isBetween(before, System.currentTimeMillis());
+        assertThat(to.getValue() - from.getValue()).isEqualTo(Duration.ofHours(24).toMillis());
+    }
+
+    @Test
+    @DisplayName("Given only an end, when the endpoint is called, then the 24 windows before it are read")
+    void testGetStatementWithOnlyEnd() throws Exception {
+        // Given
+        when(windowedAggregates.statement("acc1", WindowGranularity.DAILY, 6 * DAY - 24 * DAY, 6 * DAY))
+                .thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/acc1/statement")
+                        .param("granularity", "DAILY")
+                        .param("to", "1970-01-07T00:00:00Z"))
+                .andExpect(status().isOk());
+
+        verify(windowedAggregates).statement("acc1", WindowGranularity.DAILY, 6 * DAY - 24 * DAY, 6 * DAY);
+    }
+
+    @Test
+    @DisplayName("Given an unknown account, when the endpoint is called, then an empty statement is returned")
+    void testGetStatementForUnknownAccount() throws Exception {
+        // Given
+        when(windowedAggregates.statement(eq("unknown"), eq(WindowGranularity.HOURLY), anyLong(), anyLong()))
+                .thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/unknown/statement"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("unknown"))
+                .andExpect(jsonPath("$.windows").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given a default locale with a decimal comma, when the endpoint is called, then amounts use a point")
+    void testGetStatementIgnoresLocale() throws Exception {
+        // Given
+        when(windowedAggregates.statement(eq("acc1"), eq(WindowGranularity.HOURLY), anyLong(), anyLong()))
+                .thenReturn(List.of(new WindowAggregate(0, 3_600_000, 2_500, -1_050, 2, -1_050, 2_500)));
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+
+        // When & Then
+        try {
+            mockMvc.perform(get("/api/v1/accounts/acc1/statement"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.windows[0].credits").value("25.00"))
+                    .andExpect(jsonPath("$.windows[0].debits").value("-10.50"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
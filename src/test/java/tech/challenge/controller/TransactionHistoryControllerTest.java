@@ -0,0 +1,93 @@
+package tech.challenge.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.challenge.exception.GlobalExceptionHandler;
+import tech.challenge.history.HistoryRecord;
+import tech.challenge.history.TransactionHistoryStore;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private TransactionHistoryStore historyStore;
+
+    @InjectMocks
+    private TransactionHistoryController historyController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(historyController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Given no time range, when the endpoint is called, then the latest transactions are returned")
+    void testGetLatestTransactions() throws Exception {
+        // Given
+        when(historyStore.latest("acc1", 0, 2)).thenReturn(List.of(
+                new HistoryRecord("id2", 2_000, -1_050),
+                new HistoryRecord("id1", 1_000, 2_500)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/acc1/transactions").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("acc1"))
+                .andExpect(jsonPath("$.transactions[0].id").value("id2"))
+                .andExpect(jsonPath("$.transactions[0].amount").value("-10.50"))
+                .andExpect(jsonPath("$.transactions[1].amount").value("25.00"))
+                .andExpect(jsonPath("$.nextOffset").value(2));
+    }
+
+    @Test
+    @DisplayName("Given a time range, when the endpoint is called, then the range query is used")
+    void testGetTransactionsBetween() throws Exception {
+        // Given
+        when(historyStore.between("acc1", 0, 60_000, 0, 50)).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/accounts/acc1/transactions")
+                        .param("from", "1970-01-01T00:00:00Z")
+                        .param("to", "1970-01-01T00:01:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions").isEmpty())
+                .andExpect(jsonPath("$.nextOffset").doesNotExist());
+
+        verify(historyStore).between("acc1", 0, 60_000, 0, 50);
+    }
+
+    @Test
+    @DisplayName("Given a default locale with a decimal comma, when the endpoint is called, then amounts use a point")
+    void testGetTransactionsIgnoresLocale() throws Exception {
+        // Given
+        when(historyStore.latest("acc1", 0, 50)).thenReturn(List.of(new HistoryRecord("id1", 1_000, -1_050)));
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+
+        // When & Then
+        try {
+            mockMvc.perform(get("/api/v1/accounts/acc1/transactions"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.transactions[0].amount").value("-10.50"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+}
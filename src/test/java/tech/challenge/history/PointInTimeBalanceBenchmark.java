@@ -0,0 +1,44 @@
+package tech.challenge.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shows that point-in-time balance latency stays flat as an account's history grows.
+ * Run with {@code mvn test -Pbenchmark -Dtest=PointInTimeBalanceBenchmark -Dbench.lengths=10000,1000000,10000000}.
+ */
+class PointInTimeBalanceBenchmark {
+
+    @Test
+    void benchmarkBalanceAsOf() {
+        int interval = Integer.getInteger("bench.checkpoint-interval", 1024);
+        int queries = Integer.getInteger("bench.queries", 100_000);
+        String id = UUID.randomUUID().toString();
+
+        for (String length : System.getProperty("bench.lengths", "10000,100000,1000000,10000000").split(",")) {
+            long postings = Long.parseLong(length.trim());
+            TransactionHistoryStore store = new TransactionHistoryStore(interval);
+            for (long i = 0; i < postings; i++) {
+                store.append("acc", i, 1, id);
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long[] latencies = new long[queries];
+            for (int q = 0; q < queries; q++) {
+                long asOf = random.nextLong(postings);
+                long start = System.nanoTime();
+                long balance = store.balanceAsOfInPence("acc", asOf);
+                latencies[q] = System.nanoTime() - start;
+                if (balance != asOf + 1) {
+                    throw new IllegalStateException("Unexpected balance " + balance + " as of " + asOf);
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.printf("history=%d checkpoint-interval=%d p50=%.1f us p99=%.1f us%n", postings, interval,
+                    latencies[queries / 2] / 1e3, latencies[(int) (queries * 0.99)] / 1e3);
+        }
+    }
+}
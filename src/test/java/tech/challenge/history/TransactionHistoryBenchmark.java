@@ -0,0 +1,62 @@
+package tech.challenge.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Query latency of the history store once it holds a large number of transactions.
+ * 100M transactions take 3.2 GB off-heap, so raise the direct memory limit:
+ * {@code mvn test -Pbenchmark -Dtest=TransactionHistoryBenchmark -DargLine="-XX:MaxDirectMemorySize=4g"}.
+ */
+class TransactionHistoryBenchmark {
+
+    @Test
+    void benchmarkQueriesAtScale() {
+        long transactions = Long.getLong("bench.transactions", 100_000_000L);
+        int accounts = Integer.getInteger("bench.accounts", 1_000);
+        int queries = Integer.getInteger("bench.queries", 100_000);
+        TransactionHistoryStore store = new TransactionHistoryStore(1024);
+
+        String id = UUID.randomUUID().toString();
+        long start = System.nanoTime();
+        for (long i = 0; i < transactions; i++) {
+            // One posting per millisecond, spread round-robin over the accounts
+            store.append("acc" + (i % accounts), i, i, id);
+        }
+        long appendNanos = System.nanoTime() - start;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("transactions=%d accounts=%d append=%.0f tx/s off-heap=%.1f MB heap-used=%.1f MB%n",
+                transactions, accounts, transactions / (appendNanos / 1e9), store.allocatedBytes() / 1e6,
+                (runtime.totalMemory() - runtime.freeMemory()) / 1e6);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latest = new long[queries];
+        long[] range = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            String account = "acc" + random.nextInt(accounts);
+
+            long begin = System.nanoTime();
+            store.latest(account, random.nextInt(1_000), 50);
+            latest[q] = System.nanoTime() - begin;
+
+            long from = random.nextLong(transactions);
+            begin = System.nanoTime();
+            store.between(account, from, from + 50L * accounts, 0, 50);
+            range[q] = System.nanoTime() - begin;
+        }
+        report("latest-50", latest);
+        report("range-50", range);
+    }
+
+    private static void report(String query, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%s p50=%.1f us p99=%.1f us max=%.1f us%n", query,
+                latencies[latencies.length / 2] / 1e3, latencies[(int) (latencies.length * 0.99)] / 1e3,
+                latencies[latencies.length - 1] / 1e3);
+    }
+}
@@ -0,0 +1,173 @@
+package tech.challenge.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionHistoryStoreTest {
+
+    private final TransactionHistoryStore store = new TransactionHistoryStore(1024);
+
+    @Test
+    @DisplayName("Given record indexes, when located, then blocks and offsets tile the index space without gaps")
+    void testGivenIndexesThenBlocksTileIndexSpace() {
+        long expected = 0;
+        for (long index = 0; index < 300_000; index++) {
+            int block = AccountHistory.blockOf(index);
+            int offset = AccountHistory.offsetOf(index, block);
+            if (offset == 0 && index > 0) {
+                expected++;
+            }
+            assertThat(block).isEqualTo((int) expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Given many postings, when the latest are queried, then they are returned newest first with paging")
+    void testGivenManyPostingsThenLatestReturnedNewestFirst() {
+        // Given
+        for (int i = 0; i < 100_000; i++) {
+            store.append("acc1", 1_000L + i, i, "tx" + i);
+        }
+
+        // When
+        List<HistoryRecord> first = store.latest("acc1", 0, 3);
+        List<HistoryRecord> second = store.latest("acc1", 3, 2);
+
+        // Then
+        assertThat(store.count("acc1")).isEqualTo(100_000);
+        assertThat(first).extracting(HistoryRecord::amountInPence).containsExactly(99_999L, 99_998L, 99_997L);
+        assertThat(second).extracting(HistoryRecord::amountInPence).containsExactly(99_996L, 99_995L);
+        assertThat(first.get(0).id()).isEqualTo("tx99999");
+    }
+
+    @Test
+    @DisplayName("Given ids that are not canonical UUIDs, when queried, then they are returned as posted")
+    void testGivenNonCanonicalIdsThenReturnedAsPosted() {
+        // Given
+        String upperCase = UUID.randomUUID().toString().toUpperCase();
+        String notHex = "zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz";
+        store.append("acc5", 1, 1, upperCase);
+        store.append("acc5", 2, 2, notHex);
+        store.append("acc5", 3, 3, "tx3");
+
+        // When
+        List<HistoryRecord> page = store.between("acc5", 0, 10, 0, 10);
+
+        // Then
+        assertThat(page).extracting(HistoryRecord::id).containsExactly(upperCase, notHex, "tx3");
+    }
+
+    @Test
+    @DisplayName("Given more postings than are retained, when queried, then only the newest are kept and balances stay exact from them on")
+    void testGivenRetentionThenOldestPostingsDropped() {
+        // Given
+        TransactionHistoryStore retaining = new TransactionHistoryStore(16, 1_000);
+        for (int i = 0; i < 10_000; i++) {
+            retaining.append("acc7", i, 1, i % 2 == 0 ? "tx" + i : new UUID(0, i + 1).toString());
+        }
+
+        // When
+        long retained = retaining.count("acc7");
+        List<HistoryRecord> oldest = retaining.between("acc7", 0, Long.MAX_VALUE, 0, 1);
+
+        // Then
+        // Whole blocks are dropped, and the newest block, for postings 8,176 to 16,367, holds everything retained
+        assertThat(retained).isEqualTo(10_000 - 8_176);
+        assertThat(oldest).singleElement().satisfies(record -> {
+            assertThat(record.timestamp()).isEqualTo(10_000 - retained);
+            assertThat(record.id()).isEqualTo(record.timestamp() % 2 == 0
+                    ? "tx" + record.timestamp() : new UUID(0, record.timestamp() + 1).toString());
+        });
+        assertThat(retaining.latest("acc7", 0, 2)).extracting(HistoryRecord::id)
+                .containsExactly(new UUID(0, 10_000).toString(), "tx9998");
+        assertThat(retaining.balanceAsOfInPence("acc7", 9_999)).isEqualTo(10_000);
+        assertThat(retaining.balanceAsOfInPence("acc7", 10_000 - retained)).isEqualTo(10_001 - retained);
+        // Before the retained postings the balance is that of the last checkpoint, every 16 postings
+        assertThat(retaining.balanceAsOfInPence("acc7", 100)).isBetween(86L, 101L);
+        assertThat(retaining.allocatedBytes()).isLessThanOrEqualTo(8_192L * AccountHistory.RECORD_BYTES + 16 * 1024);
+    }
+
+    @Test
+    @DisplayName("Given an offset past the end, when queried, then an empty page is returned; a negative offset is rejected")
+    void testGivenOffsetPastEndThenEmptyPage() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            store.append("acc6", 10L * i, i, "tx" + i);
+        }
+
+        // When & Then
+        assertThat(store.between("acc6", 25, Long.MAX_VALUE, Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(store.between("acc6", 25, Long.MAX_VALUE, 5, 10)).hasSize(2);
+        assertThat(store.latest("acc6", Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(store.latest("acc6", 8, 10)).extracting(HistoryRecord::amountInPence).containsExactly(1L, 0L);
+        assertThatThrownBy(() -> store.between("acc6", 0, 100, -1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.latest("acc6", -1, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Given postings over time, when a range is queried, then only postings within it are returned")
+    void testGivenPostingsOverTimeThenRangeQueryReturnsPostingsWithinRange() {
+        // Given
+        String id = UUID.randomUUID().toString();
+        for (int i = 0; i < 50_000; i++) {
+            store.append("acc2", 10L * i, i, id);
+        }
+
+        // When
+        List<HistoryRecord> page = store.between("acc2", 105, 155, 0, 100);
+        List<HistoryRecord> paged = store.between("acc2", 105, 155, 2, 2);
+
+        // Then
+        assertThat(page).extracting(HistoryRecord::timestamp).containsExactly(110L, 120L, 130L, 140L, 150L);
+        assertThat(paged).extracting(HistoryRecord::timestamp).containsExactly(130L, 140L);
+        assertThat(page.get(0).id()).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("Given an out-of-order timestamp, when appended, then it is clamped to keep the history ordered")
+    void testGivenOutOfOrderTimestampThenClamped() {
+        // Given
+        store.append("acc3", 200, 1, "a");
+        store.append("acc3", 100, 2, "b");
+
+        // When
+        List<HistoryRecord> page = store.between("acc3", 150, 250, 0, 10);
+
+        // Then
+        assertThat(page).extracting(HistoryRecord::timestamp).containsExactly(200L, 200L);
+        assertThat(store.latest("unknown", 0, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Given postings with repeated timestamps, when balances are queried as of any time, then they match a full replay")
+    void testGivenPostingsThenBalanceAsOfMatchesFullReplay() {
+        // Given
+        Random random = new Random(42);
+        long[] timestamps = new long[10_000];
+        long[] amounts = new long[timestamps.length];
+        long time = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            time += random.nextInt(3);
+            timestamps[i] = time;
+            amounts[i] = random.nextInt(20_001) - 10_000;
+            store.append("acc4", timestamps[i], amounts[i], "tx" + i);
+        }
+
+        // When & Then
+        for (long asOf = -1; asOf <= time + 1; asOf += 7) {
+            long expected = 0;
+            for (int i = 0; i < timestamps.length && timestamps[i] <= asOf; i++) {
+                expected += amounts[i];
+            }
+            assertThat(store.balanceAsOfInPence("acc4", asOf)).as("as of %d", asOf).isEqualTo(expected);
+        }
+        assertThat(store.balanceAsOfInPence("unknown", time)).isZero();
+    }
+}
@@ -0,0 +1,88 @@
+package tech.challenge.journal;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures ingest latency through a journaled tracker with and without compaction running alongside.
+ * The journal is pre-filled with old segments so the compactor has real work to do during the measured phase.
+ * Run with {@code mvn test -Pbenchmark -Dtest=CompactionLatencyBenchmark -Dbench.postings=2000000 -Dbench.compaction-rate=33554432}.
+ */
+class CompactionLatencyBenchmark {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkIngestLatency() throws Exception {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int postings = Integer.getInteger("bench.postings", 2_000_000);
+        int backlog = Integer.getInteger("bench.backlog", 5_000_000);
+        long rate = Long.getLong("bench.compaction-rate", 32L << 20);
+
+        measure(directory.resolve("without"), postings, backlog, -1);
+        measure(directory.resolve("with"), postings, backlog, rate);
+    }
+
+    private void measure(Path journalDirectory, int postings, int backlog, long compactionRate) throws Exception {
+        try (TransactionJournal journal = new TransactionJournal(journalDirectory, 8L << 20,
+                Duration.ofMillis(2), FSYNC_INTERVAL)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < backlog; i++) {
+                journal.append(i, "acc" + random.nextInt(100_000), random.nextLong(-10_000, 10_000), UUID.randomUUID());
+            }
+            BankAccountService tracker = new AccountNode("bench", tx -> { },
+                    new DuplicateTransactionDetector(postings, 0.01, Duration.ofHours(1)),
+                    new AccountTable(64, 0), List.of(journal), (account, time) -> 0).getService();
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread compaction = new Thread(() -> {
+                if (compactionRate < 0) {
+                    return;
+                }
+                try (JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, compactionRate, null)) {
+                    while (running.get()) {
+                        compactor.compact();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            compaction.start();
+
+            long[] latencies = new long[postings];
+            for (int i = 0; i < postings; i++) {
+                Transaction tx = Transaction.credit("acc" + random.nextInt(100_000), 1.00);
+                long start = System.nanoTime();
+                tracker.processTransaction(tx);
+                latencies[i] = System.nanoTime() - start;
+            }
+            running.set(false);
+            compaction.join();
+
+            Arrays.sort(latencies);
+            System.out.printf("compaction=%s p50=%.1f us p99=%.1f us p99.9=%.1f us max=%.1f us%n",
+                    compactionRate < 0 ? "off" : "on (" + compactionRate / 1024 / 1024 + " MB/s)",
+                    latencies[postings / 2] / 1e3, latencies[(int) (postings * 0.99)] / 1e3,
+                    latencies[(int) (postings * 0.999)] / 1e3, latencies[postings - 1] / 1e3);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package tech.challenge.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.history.TransactionHistoryStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalCompactorTest {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new TransactionJournal(directory, 8 * 1024, Duration.ofMillis(5), FSYNC_INTERVAL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Given closed segments past retention, when compacted, then they are replaced by a snapshot and recovery gives the same balances")
+    void testCompactionPreservesBalances() throws Exception {
+        append(0, 2_000);
+        int segmentsBefore = journal.segments().size();
+
+        JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, 0, null);
+        int folded = compactor.compact();
+
+        assertThat(folded).isEqualTo(segmentsBefore - 1);
+        assertThat(journal.segments()).hasSize(1);
+        assertThat(JournalSnapshot.all(directory)).hasSize(1);
+        assertRecoveredBalances(2_000);
+
+        // A second round folds the previous snapshot together with the newly closed segments
+        append(2_000, 2_000);
+        assertThat(compactor.compact()).isPositive();
+        assertThat(JournalSnapshot.all(directory)).hasSize(1);
+        assertRecoveredBalances(4_000);
+        compactor.close();
+    }
+
+    @Test
+    @DisplayName("Given a compacted journal, when recovered, then point-in-time balances include the compacted postings")
+    void testRecoveredHistoryIncludesCompactedPostings() throws Exception {
+        append(0, 2_000);
+        JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, 0, null);
+        assertThat(compactor.compact()).isPositive();
+        compactor.close();
+        append(2_000, 2_000);
+
+        TransactionHistoryStore history = new TransactionHistoryStore(16);
+        new JournalRecovery(2).recover(directory, id -> new AccountTable(16, 0), List.of(history), (s, t) -> { });
+
+        // Each account takes every tenth posting, so by timestamp t it has seen about t / 10 postings of 100 pence
+        assertThat(history.balanceAsOfInPence("acc0", 2_999)).isEqualTo(300 * 100L);
+        assertThat(history.balanceAsOfInPence("acc3", 3_999)).isEqualTo(400 * 100L);
+        assertThat(history.count("acc0")).isLessThan(400);
+    }
+
+    @Test
+    @DisplayName("Given segments inside the retention window, when compaction runs, then nothing is folded")
+    void testRetentionKeepsRecentSegments() throws Exception {
+        append(0, 2_000);
+        int segmentsBefore = journal.segments().size();
+
+        JournalCompactor compactor = new JournalCompactor(journal, Duration.ofHours(1), 0, null);
+
+        assertThat(compactor.compact()).isZero();
+        assertThat(journal.segments()).hasSize(segmentsBefore);
+        compactor.close();
+    }
+
+    @Test
+    @DisplayName("Given an I/O cap, when compacting, then compaction is paced to the cap")
+    void testCompactionIsThrottled() throws Exception {
+        append(0, 2_000);
+
+        JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, 200_000, null);
+        long started = System.nanoTime();
+        compactor.compact();
+
+        // Roughly 100 KB of records are read, so the compaction needs about half a second at 200 KB/s
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThan(Duration.ofMillis(300));
+        compactor.close();
+    }
+
+    @Test
+    @DisplayName("Given a reader from a sequence that was compacted away, when it reads, then it fails instead of skipping records")
+    void testReaderFailsOnCompactedSequence() throws Exception {
+        append(0, 2_000);
+        JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, 0, null);
+        compactor.compact();
+        compactor.close();
+
+        try (JournalReader reader = journal.openReader(1)) {
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(JournalCorruptedException.class)
+                    .hasMessageContaining("skips from sequence 1");
+        }
+    }
+
+    private void append(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            journal.append(i, "acc" + (i % 10), 100, UUID.randomUUID());
+        }
+        // Full segments are sealed by the flusher; syncing seals them now, making them eligible for compaction
+        journal.sync();
+    }
+
+    private void assertRecoveredBalances(int postings) throws IOException {
+        AccountTable accountTable = new AccountTable(16, 0);
+        JournalRecovery.RecoveryResult result = new JournalRecovery(2).recover(directory, id -> accountTable,
+                List.of(), (s, t) -> { });
+
+        assertThat(result.lastSequence()).isEqualTo(postings);
+        for (int a = 0; a < 10; a++) {
+            assertThat(accountTable.find("acc" + a).getLedgerInPence()).isEqualTo(postings / 10 * 100L);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+}
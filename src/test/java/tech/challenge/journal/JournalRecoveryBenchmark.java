@@ -0,0 +1,55 @@
+package tech.challenge.journal;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.service.AccountTable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Startup recovery benchmark: writes a journal once, then rebuilds the balances from it with an increasing
+ * number of workers. Recovery time should fall as workers are added, up to the number of cores.
+ * Run with {@code mvn test -Pbenchmark -Dtest=JournalRecoveryBenchmark -Dbench.records=10000000 -Dbench.workers=1,2,4,8}.
+ */
+class JournalRecoveryBenchmark {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkRecovery() {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int records = Integer.getInteger("bench.records", 5_000_000);
+        int accounts = Integer.getInteger("bench.accounts", 100_000);
+        long segmentBytes = Long.getLong("bench.segment-bytes", 16L << 20);
+
+        long writeStart = System.nanoTime();
+        try (TransactionJournal journal = new TransactionJournal(directory, segmentBytes,
+                Duration.ofMillis(10), FSYNC_INTERVAL)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < records; i++) {
+                journal.append(i, "acc" + random.nextInt(accounts), random.nextLong(-50_000, 50_000), UUID.randomUUID());
+            }
+        }
+        System.out.printf("wrote %d records in %d ms%n", records, (System.nanoTime() - writeStart) / 1_000_000);
+
+        for (String workers : System.getProperty("bench.workers", "1,2,4,8").split(",")) {
+            int parallelism = Integer.parseInt(workers.trim());
+            AccountTable accountTable = new AccountTable(64, 0);
+            JournalRecovery.RecoveryResult result = new JournalRecovery(parallelism)
+                    .recover(directory, id -> accountTable, List.of(), (scanned, total) -> { });
+            System.out.printf("workers=%d segments=%d records=%d accounts=%d recovery=%d ms (%.0f records/s)%n",
+                    parallelism, result.segments(), result.records(), result.accounts(), result.elapsedMillis(),
+                    result.records() / (result.elapsedMillis() / 1e3));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package tech.challenge.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.exception.JournalCorruptedException;
+import tech.challenge.history.HistoryRecord;
+import tech.challenge.history.TransactionHistoryStore;
+import tech.challenge.statement.WindowGranularity;
+import tech.challenge.statement.WindowedAggregates;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalRecoveryTest {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    private static final int ACCOUNTS = 50;
+    private static final int POSTINGS = 5_000;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void writeJournal() {
+        try (TransactionJournal journal = new TransactionJournal(directory, 16 * 1024,
+                Duration.ofMillis(5), FSYNC_INTERVAL)) {
+            for (int i = 0; i < POSTINGS; i++) {
+                journal.append(i, "acc" + (i % ACCOUNTS), i % 2 == 0 ? 300 : -100, UUID.randomUUID());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Given a multi-segment journal, when recovered in parallel, then every balance is rebuilt and progress reaches the end")
+    void testParallelRecoveryRebuildsBalances() throws IOException {
+        AccountTable accountTable = new AccountTable(16, 0);
+        AtomicLong lastProgress = new AtomicLong();
+        long totalBytes = 0;
+        for (Path segment : listSegments()) {
+            totalBytes += Files.size(segment);
+        }
+
+        JournalRecovery.RecoveryResult result = new JournalRecovery(4).recover(directory, id -> accountTable,
+                List.of(), (scanned, total) -> lastProgress.accumulateAndGet(scanned, Math::max));
+
+        assertThat(result.segments()).isGreaterThan(5);
+        assertThat(result.records()).isEqualTo(POSTINGS);
+        assertThat(result.lastSequence()).isEqualTo(POSTINGS);
+        assertThat(result.accounts()).isEqualTo(ACCOUNTS);
+        assertThat(lastProgress.get()).isEqualTo(totalBytes);
+        // Each account alternates within its postings: even accounts only see credits, odd ones only debits
+        assertThat(accountTable.find("acc0").getLedgerInPence()).isEqualTo(POSTINGS / ACCOUNTS * 300L);
+        assertThat(accountTable.find("acc1").getLedgerInPence()).isEqualTo(POSTINGS / ACCOUNTS * -100L);
+    }
+
+    @Test
+    @DisplayName("Given posting listeners, when recovered, then the history, balance checkpoints and statements are rebuilt")
+    void testRecoveryRebuildsListenerState() {
+        TransactionHistoryStore history = new TransactionHistoryStore(16);
+        WindowedAggregates statements = new WindowedAggregates(4, 2);
+
+        new JournalRecovery(4).recover(directory, id -> new AccountTable(16, 0), List.of(history, statements),
+                (s, t) -> { });
+
+        assertThat(history.count("acc0")).isEqualTo(POSTINGS / ACCOUNTS);
+        assertThat(history.latest("acc0", 0, 1)).singleElement()
+                .satisfies(record -> assertThat(record.timestamp()).isEqualTo(POSTINGS - ACCOUNTS));
+        assertThat(history.balanceAsOfInPence("acc1", POSTINGS)).isEqualTo(POSTINGS / ACCOUNTS * -100L);
+        assertThat(statements.statement("acc0", WindowGranularity.DAILY, 0, POSTINGS)).singleElement()
+                .satisfies(window -> {
+                    assertThat(window.count()).isEqualTo(POSTINGS / ACCOUNTS);
+                    assertThat(window.creditsInPence()).isEqualTo(POSTINGS / ACCOUNTS * 300L);
+                });
+    }
+
+    @Test
+    @DisplayName("Given ids that are not canonical UUIDs, when recovered, then the history returns them as posted")
+    void testRecoveredHistoryKeepsPostedIds() {
+        try (TransactionJournal journal = new TransactionJournal(directory, 16 * 1024,
+                Duration.ofMillis(5), FSYNC_INTERVAL)) {
+            journal.append(POSTINGS, "named", 100, "order-1");
+            journal.append(POSTINGS + 1, "named", 100, "ORDER-2");
+        }
+        TransactionHistoryStore history = new TransactionHistoryStore(16);
+
+        new JournalRecovery(4).recover(directory, id -> new AccountTable(16, 0), List.of(history), (s, t) -> { });
+
+        assertThat(history.latest("named", 0, 2)).extracting(HistoryRecord::id)
+                .containsExactly("ORDER-2", "order-1");
+    }
+
+    @Test
+    @DisplayName("Given accounts held by different tables, when recovered, then each balance lands in its own table")
+    void testRecoveryRoutesAccountsToTheirTables() {
+        AccountTable even = new AccountTable(16, 0);
+        AccountTable odd = new AccountTable(16, 0);
+
+        JournalRecovery.RecoveryResult result = new JournalRecovery(4).recover(directory,
+                id -> Integer.parseInt(id.substring(3)) % 2 == 0 ? even : odd, List.of(), (s, t) -> { });
+
+        assertThat(result.accounts()).isEqualTo(ACCOUNTS);
+        assertThat(even.size()).isEqualTo(ACCOUNTS / 2);
+        assertThat(odd.size()).isEqualTo(ACCOUNTS / 2);
+        assertThat(even.find("acc1")).isNull();
+        assertThat(odd.find("acc1").getLedgerInPence()).isEqualTo(POSTINGS / ACCOUNTS * -100L);
+    }
+
+    @Test
+    @DisplayName("Given a segment whose partition checksums do not match, when recovered, then recovery fails")
+    void testChecksumMismatchFailsRecovery() throws IOException {
+        List<Path> segments = listSegments();
+        new SegmentChecksums().write(TransactionJournal.checksumsOf(segments.get(1)));
+
+        assertThatThrownBy(() -> new JournalRecovery(2).recover(directory, id -> new AccountTable(16, 0),
+                List.of(), (s, t) -> { }))
+                .isInstanceOf(JournalCorruptedException.class)
+                .hasMessageContaining("failed checksum verification");
+    }
+
+    @Test
+    @DisplayName("Given a missing segment, when recovered, then recovery fails instead of skipping postings")
+    void testMissingSegmentFailsRecovery() throws IOException {
+        List<Path> segments = listSegments();
+        Files.delete(segments.get(2));
+
+        assertThatThrownBy(() -> new JournalRecovery(2).recover(directory, id -> new AccountTable(16, 0),
+                List.of(), (s, t) -> { }))
+                .isInstanceOf(JournalCorruptedException.class)
+                .hasMessageContaining("expected");
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(TransactionJournal::isSegment).sorted().toList();
+        }
+    }
+}
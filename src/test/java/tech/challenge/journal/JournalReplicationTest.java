@@ -0,0 +1,102 @@
+package tech.challenge.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalReplicationTest {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+    private JournalShippingServer server;
+    private BankAccountService leader;
+
+    @BeforeEach
+    void setUp() {
+        journal = new TransactionJournal(directory, 4_096, Duration.ofMillis(1), FSYNC_INTERVAL);
+        server = new JournalShippingServer(journal, 0);
+        leader = new AccountNode("leader", tx -> { },
+                new DuplicateTransactionDetector(10_000, 0.01, Duration.ofHours(1)),
+                new AccountTable(16, 0), List.of(journal), (account, time) -> 0).getService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Given postings on the leader, when a follower catches up, then its balances match and it reports no lag")
+    void testFollowerAppliesLeaderJournal() throws InterruptedException {
+        for (int i = 0; i < 1_000; i++) {
+            leader.processTransaction(Transaction.credit("acc" + (i % 10), 1.00));
+        }
+        leader.processTransfer(Transaction.transfer("acc0", "acc1", 50.00));
+
+        AccountTable replica = new AccountTable(16, 0);
+        try (JournalFollower follower = new JournalFollower(server.getPort(), replica)) {
+            assertThat(follower.awaitSequence(journal.appliedSequence(), Duration.ofSeconds(5))).isTrue();
+
+            assertThat(replica.find("acc0").getLedgerInPence()).isEqualTo(5_000);
+            assertThat(replica.find("acc1").getLedgerInPence()).isEqualTo(15_000);
+            assertThat(replica.find("acc9").getLedgerInPence()).isEqualTo(10_000);
+            assertThat(follower.lagMillis()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Given segments compacted into a snapshot, when a follower starts from the beginning, then it is sent the snapshot and then the newer postings")
+    void testFollowerBootstrapsFromSnapshot() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            leader.processTransaction(Transaction.credit("acc" + (i % 10), 1.00));
+        }
+        journal.flush();
+        try (JournalCompactor compactor = new JournalCompactor(journal, Duration.ZERO, 0, null)) {
+            assertThat(compactor.compact()).isPositive();
+        }
+        leader.processTransaction(Transaction.credit("acc0", 5.00));
+
+        AccountTable replica = new AccountTable(16, 0);
+        // The replica already holds postings older than the snapshot, which the snapshot replaces
+        replica.replay("acc0", 300);
+        try (JournalFollower follower = new JournalFollower(server.getPort(), replica)) {
+            assertThat(follower.awaitSequence(journal.appliedSequence(), Duration.ofSeconds(5))).isTrue();
+
+            assertThat(replica.find("acc0").getLedgerInPence()).isEqualTo(10_500);
+            assertThat(replica.find("acc9").getLedgerInPence()).isEqualTo(10_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a follower that is already connected, when the leader keeps writing, then a client can read its own writes")
+    void testReadYourWrites() throws InterruptedException {
+        AccountTable replica = new AccountTable(16, 0);
+        try (JournalFollower follower = new JournalFollower(server.getPort(), replica)) {
+            for (int round = 1; round <= 20; round++) {
+                leader.processTransaction(Transaction.credit("acc", 1.00));
+                long written = journal.appliedSequence();
+
+                assertThat(follower.awaitSequence(written, Duration.ofSeconds(5))).isTrue();
+                assertThat(replica.find("acc").getLedgerInPence()).isEqualTo(round * 100L);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package tech.challenge.journal;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.dedup.DuplicateTransactionDetector;
+import tech.challenge.consumer.service.AccountBalance;
+import tech.challenge.consumer.service.AccountNode;
+import tech.challenge.consumer.service.AccountTable;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read throughput benchmark for journal-shipping replicas: one writer keeps posting on the leader while each
+ * replica serves balance reads from its own reader threads.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ReplicaReadBenchmark -Dbench.replicas=1,2,4 -Dbench.readers-per-replica=2}.
+ */
+class ReplicaReadBenchmark {
+
+    private static final Duration FSYNC_INTERVAL = Duration.ofMillis(50);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkReplicaReads() throws Exception {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int accounts = Integer.getInteger("bench.accounts", 10_000);
+        int readersPerReplica = Integer.getInteger("bench.readers-per-replica", 2);
+        long seconds = Long.getLong("bench.seconds", 5);
+        int run = 0;
+        for (String replicas : System.getProperty("bench.replicas", "1,2,4").split(",")) {
+            run(directory.resolve("run" + run++), Integer.parseInt(replicas.trim()), readersPerReplica, accounts, seconds);
+        }
+    }
+
+    private void run(Path journalDirectory, int replicaCount, int readersPerReplica, int accounts, long seconds)
+            throws Exception {
+        try (TransactionJournal journal = new TransactionJournal(journalDirectory, 64L << 20,
+                Duration.ofMillis(2), FSYNC_INTERVAL);
+             JournalShippingServer server = new JournalShippingServer(journal, 0)) {
+            BankAccountService leader = new AccountNode("leader", tx -> { },
+                    new DuplicateTransactionDetector(10_000_000, 0.01, Duration.ofHours(1)),
+                    new AccountTable(64, 0), List.of(journal), (account, time) -> 0).getService();
+
+            List<AccountTable> tables = new ArrayList<>();
+            List<JournalFollower> followers = new ArrayList<>();
+            for (int r = 0; r < replicaCount; r++) {
+                AccountTable table = new AccountTable(64, 0);
+                tables.add(table);
+                followers.add(new JournalFollower(server.getPort(), table));
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            LongAdder reads = new LongAdder();
+            LongAdder writes = new LongAdder();
+            ExecutorService executor = Executors.newFixedThreadPool(1 + replicaCount * readersPerReplica);
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    leader.processTransaction(Transaction.credit("acc" + random.nextInt(accounts), 1.00));
+                    writes.increment();
+                }
+            });
+            for (AccountTable table : tables) {
+                for (int t = 0; t < readersPerReplica; t++) {
+                    executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        long sink = 0;
+                        while (running.get()) {
+                            AccountBalance balance = table.find("acc" + random.nextInt(accounts));
+                            sink += balance == null ? 0 : balance.getLedgerInPence();
+                            reads.increment();
+                        }
+                        return sink;
+                    });
+                }
+            }
+
+            TimeUnit.SECONDS.sleep(seconds);
+            long maxLag = followers.stream().mapToLong(JournalFollower::lagMillis).max().orElse(0);
+            running.set(false);
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            journal.flush();
+            long catchUpStart = System.nanoTime();
+            for (JournalFollower follower : followers) {
+                follower.awaitSequence(journal.appliedSequence(), Duration.ofMinutes(1));
+                follower.close();
+            }
+            System.out.printf("replicas=%d readers=%d reads=%.0f/s writes=%.0f/s lag=%d ms catch-up=%d ms%n",
+                    replicaCount, replicaCount * readersPerReplica, reads.sum() / (double) seconds,
+                    writes.sum() / (double) seconds, maxLag, (System.nanoTime() - catchUpStart) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package tech.challenge.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.challenge.exception.JournalCorruptedException;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Given appended postings, when the journal is read back, then every posting is returned in order")
+    void testAppendAndRead() {
+        UUID id = UUID.randomUUID();
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            assertThat(journal.append(1_000, "acc1", 2_550, id)).isEqualTo(1);
+            assertThat(journal.append(2_000, "acc2", -100, id)).isEqualTo(2);
+        }
+
+        List<JournalRecord> records = readAll(1);
+        assertThat(records).containsExactly(
+                new JournalRecord(1, 1_000, "acc1", 2_550, id, null),
+                new JournalRecord(2, 2_000, "acc2", -100, id, null));
+    }
+
+    @Test
+    @DisplayName("Given ids that are not canonical UUIDs, when the journal is read back, then each id is returned as posted")
+    void testIdsReadBackAsPosted() {
+        String uuid = UUID.randomUUID().toString();
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            journal.append(1_000, "acc1", 100, uuid);
+            journal.append(2_000, "acc1", 200, "order-\u00e9-42");
+            journal.append(3_000, "acc1", 300, uuid.toUpperCase());
+            journal.append(4_000, "acc1", 400, (String) null);
+        }
+
+        assertThat(readAll(1)).extracting(JournalRecord::id)
+                .containsExactly(uuid, "order-\u00e9-42", uuid.toUpperCase(), null);
+    }
+
+    @Test
+    @DisplayName("Given small segments, when many postings are appended and the journal reopened, then the sequence continues across segments")
+    void testSegmentsRollAndSequenceContinues() throws IOException {
+        try (TransactionJournal journal = open(1_000, Duration.ofMillis(5))) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(i, "acc" + (i % 7), i, UUID.randomUUID());
+            }
+            assertThat(journal.segments()).hasSizeGreaterThan(10);
+        }
+        try (TransactionJournal journal = open(1_000, Duration.ofMillis(5))) {
+            assertThat(journal.append(500, "acc0", 500, UUID.randomUUID())).isEqualTo(501);
+        }
+
+        List<JournalRecord> records = readAll(250);
+        assertThat(records).hasSize(252);
+        assertThat(records.get(0).sequence()).isEqualTo(250);
+        assertThat(records.get(251).sequence()).isEqualTo(501);
+    }
+
+    @Test
+    @DisplayName("Given a reader tailing the journal, when postings are flushed later, then the reader picks them up")
+    void testReaderTailsLiveJournal() {
+        try (TransactionJournal journal = open(2_000, Duration.ofMillis(1));
+             JournalReader reader = journal.openReader(1)) {
+            assertThat(reader.next()).isNull();
+
+            for (int i = 1; i <= 200; i++) {
+                journal.append(i, "acc", i, UUID.randomUUID());
+            }
+            journal.flush();
+
+            long sum = 0;
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                sum += record.amountInPence();
+            }
+            assertThat(sum).isEqualTo(200 * 201 / 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a torn record at the end of the journal, when it is reopened, then the tail is cut and appends continue")
+    void testTornTailIsTruncated() throws IOException {
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            journal.append(1, "acc1", 100, UUID.randomUUID());
+            journal.append(2, "acc1", 200, UUID.randomUUID());
+        }
+        Path segment = directory.resolve(TransactionJournal.segmentName(1));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            assertThat(journal.append(3, "acc1", 300, UUID.randomUUID())).isEqualTo(2);
+        }
+        assertThat(readAll(1)).extracting(JournalRecord::amountInPence).containsExactly(100L, 300L);
+    }
+
+    @Test
+    @DisplayName("Given a damaged record followed by intact ones, when the journal is reopened, then opening fails")
+    void testMidSegmentDamageFailsOpening() throws IOException {
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(i, "acc1", i * 100, UUID.randomUUID());
+            }
+        }
+        Path segment = directory.resolve(TransactionJournal.segmentName(1));
+        long length = segment.toFile().length();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(20);
+            file.write(0x7f);
+        }
+
+        assertThatThrownBy(() -> open(1 << 20, Duration.ofMillis(5)))
+                .isInstanceOf(JournalCorruptedException.class)
+                .hasMessageContaining("intact records after it");
+        assertThat(segment.toFile().length()).isEqualTo(length);
+    }
+
+    @Test
+    @DisplayName("Given postings written out, when the journal is synced, then they are reported durable")
+    void testSyncAdvancesDurableSequence() {
+        try (TransactionJournal journal = new TransactionJournal(directory, 1 << 20, Duration.ofHours(1),
+                Duration.ofHours(1))) {
+            journal.append(1, "acc1", 100, UUID.randomUUID());
+            journal.append(2, "acc1", 200, UUID.randomUUID());
+            assertThat(journal.durableSequence()).isZero();
+
+            journal.sync();
+
+            assertThat(journal.flushedSequence()).isEqualTo(2);
+            assertThat(journal.durableSequence()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Given segments rolled over, when the journal is synced, then each full segment is sealed with checksums and its postings reported durable")
+    void testSyncSealsRolledSegments() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, 1_000, Duration.ofHours(1),
+                Duration.ofHours(1))) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(i, "acc" + (i % 7), i, UUID.randomUUID());
+            }
+
+            journal.sync();
+
+            List<Path> segments = journal.segments();
+            assertThat(segments).hasSizeGreaterThan(2);
+            assertThat(segments.subList(0, segments.size() - 1))
+                    .allMatch(segment -> Files.exists(TransactionJournal.checksumsOf(segment)));
+            assertThat(journal.durableSequence()).isEqualTo(100);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a full segment left unsealed by a crash, when the journal is reopened, then its checksums are written")
+    void testUnsealedSegmentIsChecksummedOnOpening() throws IOException {
+        try (TransactionJournal journal = open(1_000, Duration.ofMillis(5))) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(i, "acc" + (i % 7), i, UUID.randomUUID());
+            }
+        }
+        Path first = directory.resolve(TransactionJournal.segmentName(1));
+        byte[] sealed = Files.readAllBytes(TransactionJournal.checksumsOf(first));
+        Files.delete(TransactionJournal.checksumsOf(first));
+
+        try (TransactionJournal journal = open(1_000, Duration.ofMillis(5))) {
+            assertThat(TransactionJournal.checksumsOf(first)).hasBinaryContent(sealed);
+        }
+    }
+
+    @Test
+    @DisplayName("Given a damaged record, when the journal is read, then the corruption is reported")
+    void testChecksumMismatchIsReported() throws IOException {
+        try (TransactionJournal journal = open(1 << 20, Duration.ofMillis(5))) {
+            journal.append(1, "acc1", 100, UUID.randomUUID());
+            journal.append(2, "acc1", 200, UUID.randomUUID());
+        }
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(TransactionJournal.segmentName(1)).toFile(), "rw")) {
+            file.seek(20);
+            file.write(0x7f);
+        }
+
+        try (JournalReader reader = new JournalReader(directory, 1)) {
+            assertThatThrownBy(reader::next).isInstanceOf(JournalCorruptedException.class);
+        }
+    }
+
+    private TransactionJournal open(long segmentBytes, Duration flushInterval) {
+        return new TransactionJournal(directory, segmentBytes, flushInterval, Duration.ofMillis(50));
+    }
+
+    private List<JournalRecord> readAll(long fromSequence) {
+        List<JournalRecord> records = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(directory, fromSequence)) {
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
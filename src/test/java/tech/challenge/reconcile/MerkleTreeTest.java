@@ -0,0 +1,44 @@
+package tech.challenge.reconcile;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerkleTreeTest {
+
+    @Test
+    @DisplayName("Given identical snapshots, then the roots match and no shard differs")
+    void testGivenIdenticalSnapshotsThenNoDifference() {
+        MerkleTree left = new MerkleTree(snapshot(64));
+        MerkleTree right = new MerkleTree(snapshot(64));
+
+        assertThat(left.root()).isEqualTo(right.root());
+        assertThat(left.diff(right)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Given snapshots differing in a few shards, then exactly those shards are reported")
+    void testGivenDifferingShardsThenReported() {
+        long[][] changed = snapshot(64);
+        changed[0][3]++;
+        changed[1][40] -= 5;
+        changed[2][63] ^= 1;
+
+        MerkleTree left = new MerkleTree(snapshot(64));
+        MerkleTree right = new MerkleTree(changed);
+
+        assertThat(left.root()).isNotEqualTo(right.root());
+        assertThat(left.diff(right)).containsExactly(3, 40, 63);
+    }
+
+    private static long[][] snapshot(int shards) {
+        long[][] snapshot = new long[3][shards];
+        for (int shard = 0; shard < shards; shard++) {
+            snapshot[0][shard] = shard;
+            snapshot[1][shard] = shard * 100L;
+            snapshot[2][shard] = shard * 31L;
+        }
+        return snapshot;
+    }
+}
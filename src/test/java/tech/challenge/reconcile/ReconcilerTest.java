@@ -0,0 +1,154 @@
+package tech.challenge.reconcile;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReconcilerTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    private final Reconciler reconciler = new Reconciler(256, Duration.ofSeconds(1), 16, Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("Given every posting has been audited, then the ledger reconciles")
+    void testGivenEveryPostingAuditedThenReconciled() {
+        // Given
+        List<Transaction> transactions = transactions(1_000, NOW - 60_000);
+        transactions.forEach(this::post);
+        transactions.forEach(reconciler::onAudited);
+
+        // When
+        ReconciliationReport report = reconciler.check(NOW);
+
+        // Then
+        assertThat(report.isReconciled()).isTrue();
+        assertThat(report.ledgerCount()).isEqualTo(1_000);
+        assertThat(report.auditedCount()).isEqualTo(1_000);
+        assertThat(report.ledgerTotalInPence()).isEqualTo(report.auditedTotalInPence());
+    }
+
+    @Test
+    @DisplayName("Given a posting that was never audited, then the mismatch is narrowed to its account's shard")
+    void testGivenMissingAuditThenMismatchLocalized() {
+        // Given
+        List<Transaction> transactions = transactions(1_000, NOW - 60_000);
+        transactions.forEach(this::post);
+        Transaction missing = transactions.remove(500);
+        transactions.forEach(reconciler::onAudited);
+
+        // When
+        ReconciliationReport report = reconciler.check(NOW);
+
+        // Then
+        assertThat(report.isReconciled()).isFalse();
+        assertThat(report.mismatches()).singleElement().satisfies(mismatch -> {
+            assertThat(mismatch.shard()).isEqualTo(reconciler.shardOf(missing.getAccountId()));
+            assertThat(mismatch.ledgerCount() - mismatch.auditedCount()).isEqualTo(1);
+            assertThat(mismatch.ledgerTotalInPence() - mismatch.auditedTotalInPence())
+                    .isEqualTo(Math.round(missing.getAmount() * 100));
+        });
+    }
+
+    @Test
+    @DisplayName("Given an audited amount that differs from the posting, then the shard does not reconcile")
+    void testGivenAlteredAmountThenMismatch() {
+        // Given
+        Transaction posted = Transaction.builder().id("tx").accountId("acc").amount(12.34).timestamp(NOW - 60_000).build();
+        post(posted);
+        reconciler.onAudited(Transaction.builder().id("tx").accountId("acc").amount(12.43).timestamp(NOW - 60_000).build());
+
+        // When / Then
+        assertThat(reconciler.check(NOW).mismatches()).extracting(ShardMismatch::shard)
+                .containsExactly(reconciler.shardOf("acc"));
+    }
+
+    @Test
+    @DisplayName("Given postings still within the settle delay, then they are not compared until it has passed")
+    void testGivenRecentPostingsThenExcludedUntilSettled() {
+        // Given
+        Transaction recent = Transaction.builder().id("tx").accountId("acc").amount(10).timestamp(NOW - 1_000).build();
+        post(recent);
+
+        // When
+        ReconciliationReport early = reconciler.check(NOW);
+        ReconciliationReport late = reconciler.check(NOW + 10_000);
+
+        // Then
+        assertThat(early.isReconciled()).isTrue();
+        assertThat(early.ledgerCount()).isZero();
+        assertThat(late.isReconciled()).isFalse();
+        assertThat(late.ledgerCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given a transfer posted as a debit and a credit, then it reconciles with the single audited transfer")
+    void testGivenTransferThenLegsReconcile() {
+        // Given
+        Transaction transfer = Transaction.builder().id("tx").accountId("from").counterpartyAccountId("to")
+                .amount(-25.50).timestamp(NOW - 60_000).build();
+        reconciler.onPosted(transfer, "from", -2_550, 0);
+        reconciler.onPosted(transfer, "to", 2_550, 0);
+        reconciler.onAudited(transfer);
+
+        // When
+        ReconciliationReport report = reconciler.check(NOW);
+
+        // Then
+        assertThat(report.isReconciled()).isTrue();
+        assertThat(report.ledgerCount()).isEqualTo(2);
+        assertThat(report.ledgerTotalInPence()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given legs older than the ring of epochs, then they are still compared")
+    void testGivenOldLegsThenFoldedIntoSettledTotals() {
+        // Given
+        for (int second = 0; second < 100; second++) {
+            Transaction transaction = Transaction.builder().id("tx" + second).accountId("acc" + second)
+                    .amount(second + 1).timestamp(NOW - 110_000 + second * 1_000L).build();
+            post(transaction);
+            reconciler.onAudited(transaction);
+        }
+        Transaction late = Transaction.builder().id("late").accountId("acc").amount(1).timestamp(NOW - 200_000).build();
+        post(late);
+
+        // When
+        ReconciliationReport report = reconciler.check(NOW);
+
+        // Then
+        assertThat(report.ledgerCount()).isEqualTo(101);
+        assertThat(report.mismatches()).extracting(ShardMismatch::shard).containsExactly(reconciler.shardOf("acc"));
+    }
+
+    @Test
+    @DisplayName("Given too few slots to cover the settle delay, then the reconciler cannot be created")
+    void testGivenTooFewSlotsThenRejected() {
+        assertThatThrownBy(() -> new Reconciler(256, Duration.ofSeconds(1), 4, Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void post(Transaction transaction) {
+        reconciler.onPosted(transaction, transaction.getAccountId(), Math.round(transaction.getAmount() * 100), 0);
+    }
+
+    private static List<Transaction> transactions(int count, long timestamp) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(Transaction.builder()
+                    .id("tx" + i)
+                    .accountId("acc" + (i % 97))
+                    .amount(i % 2 == 0 ? i + 0.25 : -i - 0.5)
+                    .timestamp(timestamp + i)
+                    .build());
+        }
+        return transactions;
+    }
+}
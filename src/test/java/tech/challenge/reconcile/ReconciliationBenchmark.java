@@ -0,0 +1,62 @@
+package tech.challenge.reconcile;
+
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of recording a leg on each side of the reconciliation, and of a full check, which should stay the same
+ * however many postings have been recorded. Run with
+ * {@code mvn test -Pbenchmark -Dtest=ReconciliationBenchmark -Dbench.postings=5000000 -Dbench.shards=1024}.
+ */
+class ReconciliationBenchmark {
+
+    @Test
+    void benchmarkLegsAndChecks() {
+        int postings = Integer.getInteger("bench.postings", 5_000_000);
+        int accounts = Integer.getInteger("bench.accounts", 1_000_000);
+        int shards = Integer.getInteger("bench.shards", 1024);
+        String[] ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "acc" + i;
+        }
+        Transaction[] stream = new Transaction[postings];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.currentTimeMillis() - 120_000;
+        for (int i = 0; i < postings; i++) {
+            // Spread over 100 seconds, so the ring of epochs wraps and older epochs are folded into the totals
+            stream[i] = Transaction.builder().id("tx" + i).accountId(ids[random.nextInt(accounts)])
+                    .amount(random.nextInt(100_000) / 100.0).timestamp(start + i / (postings / 100_000 + 1)).build();
+        }
+
+        for (int round = 0; round < 2; round++) {
+            Reconciler reconciler = new Reconciler(shards, Duration.ofSeconds(1), 64, Duration.ofSeconds(10));
+            long ledgerStart = System.nanoTime();
+            for (Transaction tx : stream) {
+                reconciler.onPosted(tx, tx.getAccountId(), Math.round(tx.getAmount() * 100), 0);
+            }
+            long ledgerElapsed = System.nanoTime() - ledgerStart;
+            long auditStart = System.nanoTime();
+            for (Transaction tx : stream) {
+                reconciler.onAudited(tx);
+            }
+            long auditElapsed = System.nanoTime() - auditStart;
+
+            int checks = 100;
+            long checkStart = System.nanoTime();
+            ReconciliationReport report = null;
+            for (int i = 0; i < checks; i++) {
+                report = reconciler.check(System.currentTimeMillis());
+            }
+            long checkElapsed = System.nanoTime() - checkStart;
+            if (round > 0) {
+                System.out.printf("postings=%,d shards=%d  ledger %.1f ns/leg  audit %.1f ns/transaction"
+                                + "  check %.2f ms  reconciled=%s over %,d legs%n",
+                        postings, shards, (double) ledgerElapsed / postings, (double) auditElapsed / postings,
+                        checkElapsed / 1e6 / checks, report.isReconciled(), report.ledgerCount());
+            }
+        }
+    }
+}
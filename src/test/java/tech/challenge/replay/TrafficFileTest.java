@@ -0,0 +1,104 @@
+package tech.challenge.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.challenge.domain.Transaction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrafficFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path file = dir.resolve("traffic.bin");
+        List<TrafficRecord> written = List.of(
+                new TrafficRecord(0, TrafficKind.SUBMIT, Transaction.credit("acc1", 123.45)),
+                new TrafficRecord(1_000, TrafficKind.SUBMIT, Transaction.debit("acc2", 0.01)),
+                new TrafficRecord(2_500, TrafficKind.CONDITIONAL_DEBIT, Transaction.debit("acc1", 99.99)),
+                new TrafficRecord(2_500, TrafficKind.TRANSFER, Transaction.transfer("acc2", "acc3", 10)),
+                new TrafficRecord(9_000, TrafficKind.SUBMIT, Transaction.builder()
+                        .id("not-a-uuid").amount(1.0 / 3).accountId("acc1").timestamp(5).build()),
+                new TrafficRecord(9_001, TrafficKind.SUBMIT, Transaction.builder()
+                        .amount(Double.NaN).accountId(null).timestamp(-1).build()));
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            for (TrafficRecord record : written) {
+                writer.append(record.offsetNanos(), record.kind(), record.transaction());
+            }
+            assertThat(writer.count()).isEqualTo(written.size());
+        }
+
+        List<TrafficRecord> read = readAll(file);
+
+        assertThat(read).hasSameSizeAs(written);
+        for (int i = 0; i < written.size(); i++) {
+            TrafficRecord expected = written.get(i);
+            TrafficRecord actual = read.get(i);
+            assertThat(actual.offsetNanos()).isEqualTo(expected.offsetNanos());
+            assertThat(actual.kind()).isEqualTo(expected.kind());
+            assertThat(actual.transaction()).usingRecursiveComparison()
+                    .withComparatorForType(Double::compare, Double.class)
+                    .isEqualTo(expected.transaction());
+        }
+    }
+
+    @Test
+    void typicalTransactionTakesAboutTwentyFiveBytes() throws IOException {
+        Path file = dir.resolve("traffic.bin");
+        int count = 10_000;
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                Transaction tx = Transaction.credit("acc" + (i % 100), 200 + i % 500_000 / 100.0);
+                writer.append(i * 40_000_000L, TrafficKind.SUBMIT, tx);
+            }
+        }
+
+        assertThat(Files.size(file) / (double) count).isLessThan(32);
+        assertThat(readAll(file)).hasSize(count);
+    }
+
+    @Test
+    void truncatedRecordEndsTheStream() throws IOException {
+        Path file = dir.resolve("traffic.bin");
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            writer.append(0, TrafficKind.SUBMIT, Transaction.credit("acc1", 1));
+            writer.append(1, TrafficKind.SUBMIT, Transaction.credit("acc1", 2));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        List<TrafficRecord> read = readAll(file);
+
+        assertThat(read).hasSize(1);
+        assertThat(read.get(0).transaction().getAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsFileThatIsNotACapture() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+
+        assertThatThrownBy(() -> new TrafficReader(file)).isInstanceOf(IOException.class);
+    }
+
+    private static List<TrafficRecord> readAll(Path file) throws IOException {
+        List<TrafficRecord> records = new ArrayList<>();
+        try (TrafficReader reader = new TrafficReader(file)) {
+            TrafficRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,63 @@
+package tech.challenge.replay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrafficGeneratorTest {
+
+    @Test
+    void sameSeedGivesSameStream() {
+        List<TrafficRecord> first = generate(7, 1_000);
+        List<TrafficRecord> second = generate(7, 1_000);
+
+        assertThat(second).hasSize(1_000);
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(second.get(i)).usingRecursiveComparison().isEqualTo(first.get(i));
+        }
+    }
+
+    @Test
+    void differentSeedGivesDifferentStream() {
+        List<TrafficRecord> first = generate(7, 100);
+        List<TrafficRecord> second = generate(8, 100);
+
+        assertThat(second.get(0).transaction().getAmount()).isNotEqualTo(first.get(0).transaction().getAmount());
+    }
+
+    @Test
+    void generatesWellFormedTransactionsAtTheRequestedRate() {
+        List<TrafficRecord> records = generate(1, 10_000);
+
+        assertThat(records.get(9_999).offsetNanos()).isEqualTo(9_999_000_000L / 1_000);
+        assertThat(records).extracting(TrafficRecord::kind).contains(TrafficKind.values());
+        for (TrafficRecord record : records) {
+            double amount = Math.abs(record.transaction().getAmount());
+            assertThat(amount).isBetween(200.0, 500_000.0);
+            assertThat(Math.round(amount * 100) / 100.0).isEqualTo(amount);
+            if (record.kind() == TrafficKind.TRANSFER) {
+                assertThat(record.transaction().getCounterpartyAccountId())
+                        .isNotNull()
+                        .isNotEqualTo(record.transaction().getAccountId());
+            } else {
+                assertThat(record.transaction().isTransfer()).isFalse();
+            }
+            if (record.kind() != TrafficKind.SUBMIT) {
+                assertThat(record.transaction().getAmount()).isNegative();
+            }
+        }
+    }
+
+    private static List<TrafficRecord> generate(long seed, int count) {
+        TrafficGenerator generator = new TrafficGenerator(seed, count, 100, 1_000_000);
+        List<TrafficRecord> records = new ArrayList<>();
+        TrafficRecord record;
+        while ((record = generator.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,121 @@
+package tech.challenge.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+import tech.challenge.exception.InvalidTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrafficReplayerTest {
+
+    @TempDir
+    Path dir;
+
+    private final TrafficReplayer replayer = new TrafficReplayer();
+
+    @Test
+    void replaysAtOriginalSpeed() throws IOException {
+        // 100 transactions over 200 ms
+        ReplayResult result = replayer.replay(new TrafficGenerator(1, 101, 10, 500), acceptingService(), 1);
+
+        assertThat(result.transactions()).isEqualTo(101);
+        assertThat(result.elapsedNanos()).isBetween(200_000_000L, 1_000_000_000L);
+    }
+
+    @Test
+    void replaysFasterAtHigherSpeed() throws IOException {
+        ReplayResult result = replayer.replay(new TrafficGenerator(1, 101, 10, 50), acceptingService(), 10);
+
+        assertThat(result.elapsedNanos()).isBetween(200_000_000L, 1_000_000_000L);
+    }
+
+    @Test
+    void replaysFlatOutAtZeroSpeed() throws IOException {
+        // The stream spans 1000 seconds at its original rate
+        ReplayResult result = replayer.replay(new TrafficGenerator(1, 10_001, 10, 10), acceptingService(), 0);
+
+        assertThat(result.transactions()).isEqualTo(10_001);
+        assertThat(result.elapsedNanos()).isLessThan(5_000_000_000L);
+        assertThat(result.p50Nanos()).isLessThanOrEqualTo(result.p99Nanos());
+        assertThat(result.p99Nanos()).isLessThanOrEqualTo(result.maxNanos());
+    }
+
+    @Test
+    void dispatchesEachKindThroughItsOwnCallAndCountsRejections() throws IOException {
+        BankAccountService service = mock(BankAccountService.class);
+        when(service.submitTransaction(any())).thenReturn(RejectionCode.DUPLICATE);
+        when(service.processConditionalDebit(any())).thenReturn(true);
+        when(service.processTransfer(any())).thenThrow(new InvalidTransactionException("no"));
+        TrafficSource source = sourceOf(
+                new TrafficRecord(0, TrafficKind.SUBMIT, Transaction.credit("acc1", 1)),
+                new TrafficRecord(0, TrafficKind.CONDITIONAL_DEBIT, Transaction.debit("acc1", 1)),
+                new TrafficRecord(0, TrafficKind.TRANSFER, Transaction.transfer("acc1", "acc2", 1)));
+
+        ReplayResult result = replayer.replay(source, service, 0);
+
+        assertThat(result.transactions()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(2);
+        verify(service).submitTransaction(any());
+        verify(service).processConditionalDebit(any());
+        verify(service).processTransfer(any());
+    }
+
+    @Test
+    void replayingACaptureRepeatsTheCapturedCalls() throws IOException {
+        Path file = dir.resolve("traffic.bin");
+        BankAccountService original = acceptingService();
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            BankAccountService capturing = new CapturingBankAccountService(original, writer);
+            capturing.processTransaction(Transaction.credit("acc1", 10));
+            capturing.submitTransaction(Transaction.debit("acc2", 2.5));
+            capturing.processConditionalDebit(Transaction.debit("acc1", 1));
+            capturing.processTransfer(Transaction.transfer("acc1", "acc2", 3));
+            capturing.retrieveLedgerBalance("acc1");
+        }
+        verify(original).processTransaction(any());
+
+        BankAccountService replayed = acceptingService();
+        try (TrafficReader reader = new TrafficReader(file)) {
+            ReplayResult result = replayer.replay(reader, replayed, 0);
+            assertThat(result.transactions()).isEqualTo(4);
+        }
+
+        ArgumentCaptor<Transaction> submitted = ArgumentCaptor.forClass(Transaction.class);
+        verify(replayed, times(2)).submitTransaction(submitted.capture());
+        assertThat(submitted.getAllValues()).extracting(Transaction::getAccountId, Transaction::getAmount)
+                .containsExactly(tuple("acc1", 10.0),
+                        tuple("acc2", -2.5));
+        ArgumentCaptor<Transaction> transfer = ArgumentCaptor.forClass(Transaction.class);
+        verify(replayed).processTransfer(transfer.capture());
+        assertThat(transfer.getValue().getCounterpartyAccountId()).isEqualTo("acc2");
+        verify(replayed).processConditionalDebit(any());
+    }
+
+    private static BankAccountService acceptingService() {
+        BankAccountService service = mock(BankAccountService.class);
+        when(service.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        when(service.processConditionalDebit(any())).thenReturn(true);
+        when(service.processTransfer(any())).thenReturn(true);
+        return service;
+    }
+
+    private static TrafficSource sourceOf(TrafficRecord... records) {
+        List<TrafficRecord> remaining = new ArrayList<>(List.of(records));
+        return () -> remaining.isEmpty() ? null : remaining.remove(0);
+    }
+}
@@ -0,0 +1,76 @@
+package tech.challenge.schedule;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of scheduling, cancelling and firing payments with 10M pending at once, spread over a day at 10 ms ticks.
+ * Run with {@code mvn test -Pbenchmark -Dtest=PaymentSchedulerBenchmark -Dbench.entries=10000000 -DargLine=-Xmx4g}.
+ */
+class PaymentSchedulerBenchmark {
+
+    @Test
+    void benchmarkScheduler() {
+        ((Logger) LoggerFactory.getLogger("tech.challenge")).setLevel(Level.WARN);
+        int entries = Integer.getInteger("bench.entries", 10_000_000);
+        long spanMillis = Duration.ofDays(1).toMillis();
+        // A bare proxy accepting everything, so the figures are the scheduler's own rather than a mock's
+        BankAccountService service = (BankAccountService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BankAccountService.class}, (proxy, method, args) ->
+                        method.getReturnType() == int.class ? RejectionCode.ACCEPTED
+                                : method.getReturnType() == boolean.class ? Boolean.TRUE : null);
+        PaymentScheduler scheduler = new PaymentScheduler(service, Duration.ofMillis(10), 10_000);
+        Transaction[] templates = new Transaction[1_024];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = Transaction.debit("acc" + i, 1 + i);
+        }
+        long now = System.currentTimeMillis();
+        long[] offsets = new long[entries];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < entries; i++) {
+            offsets[i] = random.nextLong(spanMillis);
+        }
+
+        long start = System.nanoTime();
+        long[] ids = new long[entries];
+        for (int i = 0; i < entries; i++) {
+            ids[i] = scheduler.schedule(templates[i & 1_023], Instant.ofEpochMilli(now + offsets[i]));
+        }
+        long scheduled = System.nanoTime() - start;
+        System.gc();
+        long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+
+        start = System.nanoTime();
+        int cancels = entries / 10;
+        for (int i = 0; i < cancels; i++) {
+            scheduler.cancel(ids[random.nextInt(entries)]);
+        }
+        long cancelled = System.nanoTime() - start;
+        int pending = scheduler.getPendingCount();
+
+        // Walk the day tick by tick, as the ticker would, firing everything
+        start = System.nanoTime();
+        for (long tick = now; tick <= now + spanMillis + 10; tick += 10) {
+            while (scheduler.runDue(tick) == 10_000) {
+                // keep draining a full batch
+            }
+        }
+        long fired = System.nanoTime() - start;
+
+        long ticks = spanMillis / 10;
+        System.out.printf("entries=%,d  schedule %.0f ns/op  cancel %.0f ns/op  day of %,d ticks fired %,d in %.1f s"
+                        + " (%.0f ns/tick, %.0f ns/payment)  heap with all scheduled %,d MB%n",
+                entries, (double) scheduled / entries, (double) cancelled / cancels, ticks,
+                scheduler.getDispatchedCount(), fired / 1e9, (double) fired / ticks, (double) fired / pending, heapMb);
+    }
+}
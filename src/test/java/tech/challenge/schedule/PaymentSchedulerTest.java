@@ -0,0 +1,194 @@
+package tech.challenge.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.challenge.consumer.service.BankAccountService;
+import tech.challenge.consumer.validation.RejectionCode;
+import tech.challenge.domain.Transaction;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentSchedulerTest {
+
+    @Mock
+    private BankAccountService bankAccountService;
+
+    private static Instant at(long millis) {
+        return Instant.ofEpochMilli(System.currentTimeMillis() + millis);
+    }
+
+    @Test
+    @DisplayName("Given a payment in the future, then it is posted only once its time has come")
+    void testGivenFuturePaymentThenPostedWhenDue() {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        Instant dueAt = at(60_000);
+        scheduler.schedule(Transaction.credit("acc1", 25), dueAt);
+
+        // When
+        int early = scheduler.runDue(dueAt.toEpochMilli() - 20);
+        int onTime = scheduler.runDue(dueAt.toEpochMilli() + 10);
+
+        // Then
+        assertThat(early).isZero();
+        assertThat(onTime).isEqualTo(1);
+        ArgumentCaptor<Transaction> posted = ArgumentCaptor.forClass(Transaction.class);
+        verify(bankAccountService).submitTransaction(posted.capture());
+        assertThat(posted.getValue().getAccountId()).isEqualTo("acc1");
+        assertThat(posted.getValue().getAmount()).isEqualTo(25);
+        assertThat(scheduler.getPendingCount()).isZero();
+        assertThat(scheduler.getDispatchedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given a standing order, then each instalment is posted with its own id until it is cancelled")
+    void testGivenStandingOrderThenRepeatsUntilCancelled() {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        when(bankAccountService.submitTransaction(any())).thenReturn(RejectionCode.ACCEPTED);
+        Instant first = at(1_000);
+        long id = scheduler.scheduleRepeating(Transaction.debit("acc1", 5), first, Duration.ofHours(1));
+
+        // When
+        scheduler.runDue(first.toEpochMilli() + 10);
+        scheduler.runDue(first.toEpochMilli() + Duration.ofHours(1).toMillis() + 10);
+        boolean cancelled = scheduler.cancel(id);
+        scheduler.runDue(first.toEpochMilli() + Duration.ofHours(3).toMillis());
+
+        // Then
+        ArgumentCaptor<Transaction> posted = ArgumentCaptor.forClass(Transaction.class);
+        verify(bankAccountService, times(2)).submitTransaction(posted.capture());
+        assertThat(posted.getAllValues()).extracting(Transaction::getId).doesNotHaveDuplicates();
+        assertThat(cancelled).isTrue();
+        assertThat(scheduler.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given more due payments than a batch, then they are passed on one batch at a time")
+    void testGivenBacklogThenDispatchedInBatches() {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 2);
+        when(bankAccountService.releaseHold(any())).thenReturn(true, false);
+        when(bankAccountService.processConditionalDebit(any())).thenReturn(true);
+        Instant dueAt = at(100);
+        scheduler.scheduleHoldExpiry("hold1", dueAt);
+        scheduler.scheduleHoldExpiry("hold2", dueAt);
+        scheduler.scheduleConditionalDebit(Transaction.debit("acc1", 5), dueAt);
+
+        // When
+        int first = scheduler.runDue(dueAt.toEpochMilli() + 10);
+        int second = scheduler.runDue(dueAt.toEpochMilli() + 10);
+
+        // Then
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+        verify(bankAccountService, times(2)).releaseHold(any());
+        verify(bankAccountService).processConditionalDebit(any());
+        assertThat(scheduler.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Given pending payments at shutdown, then they are saved and scheduled again on the next start")
+    void testGivenPendingPaymentsThenSavedAndRestored(@TempDir Path directory) {
+        // Given
+        String stateFile = directory.resolve("schedule.bin").toString();
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        scheduler.setStateFile(stateFile);
+        long standingOrder = scheduler.scheduleRepeating(Transaction.credit("acc1", 10), at(60_000), Duration.ofDays(1));
+        scheduler.scheduleHoldExpiry("hold1", at(120_000));
+
+        // When
+        scheduler.stop();
+        PaymentScheduler restarted = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        restarted.setStateFile(stateFile);
+        restarted.start();
+        restarted.stop();
+
+        // Then
+        assertThat(restarted.pendingPayments()).extracting(ScheduledPayment::action)
+                .containsExactlyInAnyOrder(ScheduledAction.POST, ScheduledAction.RELEASE_HOLD);
+        assertThat(restarted.cancel(standingOrder)).isTrue();
+        assertThat(restarted.scheduleHoldExpiry("hold2", at(1_000))).isGreaterThan(standingOrder);
+        assertThat(Files.exists(Path.of(stateFile))).isTrue();
+        verifyNoInteractions(bankAccountService);
+    }
+
+    @Test
+    @DisplayName("Given a hold placed through the scheduler, then it is released once it expires")
+    void testGivenHoldPlacedThroughSchedulerThenReleasedOnExpiry() {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        when(bankAccountService.placeHold("acc1", 40)).thenReturn(Optional.of("hold1"));
+        when(bankAccountService.releaseHold("hold1")).thenReturn(true);
+        Instant expiresAt = at(60_000);
+
+        // When
+        Optional<String> holdId = scheduler.placeHold("acc1", 40, expiresAt);
+        int beforeExpiry = scheduler.runDue(expiresAt.toEpochMilli() - 20);
+        int afterExpiry = scheduler.runDue(expiresAt.toEpochMilli() + 10);
+
+        // Then
+        assertThat(holdId).contains("hold1");
+        assertThat(beforeExpiry).isZero();
+        assertThat(afterExpiry).isEqualTo(1);
+        verify(bankAccountService).releaseHold("hold1");
+    }
+
+    @Test
+    @DisplayName("Given a hold the service refuses, then no expiry is scheduled")
+    void testGivenRefusedHoldThenNoExpiryScheduled() {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        when(bankAccountService.placeHold("acc1", 40)).thenReturn(Optional.empty());
+
+        // When
+        Optional<String> holdId = scheduler.placeHold("acc1", 40, at(60_000));
+
+        // Then
+        assertThat(holdId).isEmpty();
+        assertThat(scheduler.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given a batch still dispatching at shutdown, then stopping waits for it to finish")
+    void testGivenBatchDispatchingThenStopWaitsForIt() throws InterruptedException {
+        // Given
+        PaymentScheduler scheduler = new PaymentScheduler(bankAccountService, Duration.ofMillis(10), 100);
+        CountDownLatch dispatching = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        when(bankAccountService.submitTransaction(any())).thenAnswer(invocation -> {
+            dispatching.countDown();
+            Thread.sleep(1_500);
+            finished.set(true);
+            return RejectionCode.ACCEPTED;
+        });
+        scheduler.schedule(Transaction.credit("acc1", 25), at(0));
+        scheduler.start();
+        assertThat(dispatching.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        scheduler.stop();
+
+        // Then
+        assertThat(finished).isTrue();
+        assertThat(scheduler.getDispatchedCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,82 @@
+package tech.challenge.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Given items spread across every level and the overflow, then each falls due exactly at its tick")
+    void shouldFireEachItemAtItsTick() {
+        // Given
+        TimingWheel<Long> wheel = new TimingWheel<>(3, 1_000);
+        Random random = new Random(3);
+        List<Long> ticks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Up to 4x the span of three levels (64^3 ticks), so some start in the overflow list
+            long tick = 1_000 + random.nextInt(4 * 262_144);
+            ticks.add(tick);
+            wheel.schedule(tick, tick);
+        }
+
+        // When
+        List<Long> fired = new ArrayList<>();
+        for (long tick = 1_000; tick <= 1_000 + 4 * 262_144; tick += 1 + random.nextInt(50)) {
+            long now = tick;
+            wheel.advanceTo(tick, item -> {
+                assertThat(item).isLessThanOrEqualTo(now);
+                fired.add(item);
+            });
+        }
+        wheel.advanceTo(1_000 + 4 * 262_144, fired::add);
+
+        // Then
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(ticks);
+        assertThat(fired).isSorted();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given a cancelled entry, then it never falls due and cannot be cancelled twice")
+    void shouldNotFireCancelledEntries() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(4, 0);
+        TimingWheel.Entry<String> kept = wheel.schedule(100, "kept");
+        TimingWheel.Entry<String> cancelled = wheel.schedule(5_000, "cancelled");
+
+        // When
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+
+        // Then
+        assertThat(fired).containsExactly("kept");
+        assertThat(wheel.cancel(kept)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Given items already due when scheduled, then they fall due on the next advance")
+    void shouldFireOverdueItemsOnNextAdvance() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(2, 500);
+        wheel.schedule(10, "overdue");
+        wheel.schedule(500, "now");
+        List<String> pending = new ArrayList<>();
+        wheel.forEach(entry -> pending.add(entry.item()));
+
+        // When
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(500, fired::add);
+
+        // Then
+        assertThat(pending).containsExactlyInAnyOrder("overdue", "now");
+        assertThat(fired).containsExactlyInAnyOrder("overdue", "now");
+    }
+}
@@ -0,0 +1,62 @@
+package tech.challenge.statement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.challenge.domain.Transaction;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedAggregatesTest {
+
+    private static final long HOUR = WindowGranularity.HOURLY.getWidthMillis();
+    private static final long DAY = WindowGranularity.DAILY.getWidthMillis();
+
+    private final WindowedAggregates aggregates = new WindowedAggregates(4, 2);
+
+    @Test
+    @DisplayName("Given postings in several hours, when the hourly statement is read, then each window holds its totals")
+    void testGivenPostingsThenHourlyWindowsHoldTotals() {
+        // Given
+        post("acc1", 10, 2_500);
+        post("acc1", 20, -1_000);
+        post("acc1", HOUR + 5, -300);
+
+        // When
+        List<WindowAggregate> windows = aggregates.statement("acc1", WindowGranularity.HOURLY, 0, 2 * HOUR);
+
+        // Then
+        assertThat(windows).containsExactly(
+                new WindowAggregate(0, HOUR, 2_500, 1_000, 2, -1_000, 2_500),
+                new WindowAggregate(HOUR, 2 * HOUR, 0, 300, 1, -300, -300));
+        assertThat(aggregates.statement("acc1", WindowGranularity.DAILY, 0, DAY))
+                .containsExactly(new WindowAggregate(0, DAY, 2_500, 1_300, 3, -1_000, 2_500));
+    }
+
+    @Test
+    @DisplayName("Given postings beyond the retained windows, when the ring rolls over, then old windows are replaced")
+    void testGivenRolloverThenOldWindowsReplaced() {
+        // Given
+        post("acc2", 0, 100);
+        post("acc2", 4 * HOUR, 200);
+
+        // When
+        post("acc2", 1, 50);
+        List<WindowAggregate> windows = aggregates.statement("acc2", WindowGranularity.HOURLY, 0, 5 * HOUR);
+
+        // Then
+        assertThat(windows).extracting(WindowAggregate::creditsInPence).containsExactly(200L);
+        assertThat(aggregates.getLatePostingCount()).isEqualTo(1);
+    }
+
+    private void post(String accountId, long timestamp, long amountInPence) {
+        Transaction transaction = Transaction.builder()
+                .id("tx" + timestamp)
+                .accountId(accountId)
+                .amount(amountInPence / 100.0)
+                .timestamp(timestamp)
+                .build();
+        aggregates.onPosted(transaction, accountId, amountInPence, 0);
+    }
+}